@@ -198,6 +198,12 @@ public class CompilationResult {
      */
     private int targetCodeSize;
 
+    /**
+     * The offset in {@link #targetCode} of the first instruction of the cold code section or -1 if
+     * the code is not split into a hot and a cold section.
+     */
+    private int coldCodeStart = -1;
+
     private ArrayList<CodeAnnotation> annotations;
 
     private Assumption[] assumptions;
@@ -247,6 +253,7 @@ public class CompilationResult {
                 Objects.equals(this.customStackArea, that.customStackArea) &&
                 this.totalFrameSize == that.totalFrameSize &&
                 this.targetCodeSize == that.targetCodeSize &&
+                this.coldCodeStart == that.coldCodeStart &&
                 Objects.equals(this.name, that.name) &&
                 Objects.equals(this.annotations, that.annotations) &&
                 Objects.equals(this.dataSection, that.dataSection) &&
@@ -396,6 +403,24 @@ public class CompilationResult {
         targetCodeSize = size;
     }
 
+    /**
+     * Gets the offset of the first instruction of the cold code section. The cold code follows all
+     * hot code in {@linkplain #getTargetCode() the target code}.
+     *
+     * @return the offset of the cold code section or -1 if the code is not split
+     */
+    public int getColdCodeStart() {
+        return coldCodeStart;
+    }
+
+    /**
+     * Sets the offset of the first instruction of the cold code section.
+     */
+    public void setColdCodeStart(int offset) {
+        checkOpen();
+        coldCodeStart = offset;
+    }
+
     /**
      * Records a data patch in the code section. The data patch can refer to something in the
      * {@link DataSectionReference data section} or directly to an {@link ConstantReference inlined
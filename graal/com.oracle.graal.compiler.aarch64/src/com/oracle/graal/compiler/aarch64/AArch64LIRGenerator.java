@@ -32,6 +32,7 @@ import com.oracle.graal.asm.aarch64.AArch64Assembler.ConditionFlag;
 import com.oracle.graal.asm.aarch64.AArch64MacroAssembler;
 import com.oracle.graal.compiler.common.LIRKind;
 import com.oracle.graal.compiler.common.calc.Condition;
+import com.oracle.graal.compiler.common.calc.VectorArithmetic;
 import com.oracle.graal.compiler.common.spi.LIRKindTool;
 import com.oracle.graal.debug.GraalError;
 import com.oracle.graal.lir.LIRFrameState;
@@ -403,6 +404,31 @@ public abstract class AArch64LIRGenerator extends LIRGenerator {
         throw GraalError.unimplemented("Do not generate until we support vector instructions");
     }
 
+    @Override
+    public Variable emitArrayRegionEquals(JavaKind kind, Value array1, Value offset1, Value array2, Value offset2, Value length) {
+        throw GraalError.unimplemented("array region equals is not supported on AArch64");
+    }
+
+    @Override
+    public Variable emitVectorizedArrayOp(VectorArithmetic op, JavaKind kind, Value result, Value x, Value y, Value fromIndex, Value toIndex) {
+        throw GraalError.unimplemented("vectorized array operations are not supported on AArch64");
+    }
+
+    @Override
+    public void emitArrayFill(JavaKind kind, Value array, Value fromIndex, Value toIndex, Value value) {
+        throw GraalError.unimplemented("array fill is not supported on AArch64");
+    }
+
+    @Override
+    public Variable emitArrayCompareTo(JavaKind kind, Value array1, Value array2, Value length1, Value length2) {
+        throw GraalError.unimplemented("array compareTo is not supported on AArch64");
+    }
+
+    @Override
+    public Variable emitStringIndexOf(Value source, Value sourceOffset, Value sourceCount, Value target, Value targetOffset, Value targetCount) {
+        throw GraalError.unimplemented("String.indexOf is not supported on AArch64");
+    }
+
     @Override
     protected JavaConstant zapValueForKind(PlatformKind kind) {
         long dead = 0xDEADDEADDEADDEADL;
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.amd64;
+
+import com.oracle.graal.compiler.common.type.FloatStamp;
+import com.oracle.graal.compiler.common.type.PrimitiveStamp;
+import com.oracle.graal.compiler.common.type.Stamp;
+import com.oracle.graal.graph.Node;
+import com.oracle.graal.nodes.ConstantNode;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.VirtualState;
+import com.oracle.graal.nodes.calc.DivNode;
+import com.oracle.graal.nodes.calc.FloatConvertNode;
+import com.oracle.graal.nodes.calc.IntegerDivRemNode;
+import com.oracle.graal.nodes.calc.MulNode;
+import com.oracle.graal.nodes.calc.SqrtNode;
+import com.oracle.graal.nodes.memory.FloatableAccessNode;
+import com.oracle.graal.nodes.memory.FloatingAccessNode;
+import com.oracle.graal.nodes.memory.address.AddressNode;
+import com.oracle.graal.phases.schedule.InstructionLatencyModel;
+
+/**
+ * Approximate latencies of recent AMD64 cores. Loads are assumed to hit in the L1 cache.
+ */
+public class AMD64InstructionLatencyModel implements InstructionLatencyModel {
+
+    private static final int LOAD = 4;
+    private static final int INTEGER_MULTIPLY = 3;
+    private static final int INTEGER_DIVIDE = 26;
+    private static final int LONG_DIVIDE = 42;
+    private static final int FLOAT_ARITHMETIC = 4;
+    private static final int FLOAT_DIVIDE = 11;
+    private static final int DOUBLE_DIVIDE = 14;
+    private static final int FLOAT_SQRT = 12;
+    private static final int DOUBLE_SQRT = 18;
+    private static final int FLOAT_CONVERT = 5;
+
+    @Override
+    public int latency(Node node) {
+        if (node instanceof ConstantNode || node instanceof VirtualState || node instanceof AddressNode) {
+            return 0;
+        } else if (node instanceof FloatingAccessNode || node instanceof FloatableAccessNode) {
+            return LOAD;
+        } else if (!(node instanceof ValueNode)) {
+            return 1;
+        }
+        Stamp stamp = ((ValueNode) node).stamp();
+        boolean isDouble = stamp instanceof FloatStamp && ((FloatStamp) stamp).getBits() == 64;
+        if (node instanceof IntegerDivRemNode) {
+            return PrimitiveStamp.getBits(stamp) == 64 ? LONG_DIVIDE : INTEGER_DIVIDE;
+        } else if (node instanceof DivNode && stamp instanceof FloatStamp) {
+            return isDouble ? DOUBLE_DIVIDE : FLOAT_DIVIDE;
+        } else if (node instanceof SqrtNode) {
+            return isDouble ? DOUBLE_SQRT : FLOAT_SQRT;
+        } else if (node instanceof FloatConvertNode) {
+            return FLOAT_CONVERT;
+        } else if (node instanceof MulNode) {
+            return stamp instanceof FloatStamp ? FLOAT_ARITHMETIC : INTEGER_MULTIPLY;
+        } else if (stamp instanceof FloatStamp) {
+            return FLOAT_ARITHMETIC;
+        }
+        return 1;
+    }
+
+    /**
+     * The stack pointer and the registers reserved by the VM are not available to the allocator and
+     * some of the remaining general purpose registers are needed for temporaries.
+     */
+    @Override
+    public int registerPressureLimit() {
+        return 10;
+    }
+}
@@ -34,6 +34,7 @@ import static com.oracle.graal.lir.LIRValueUtil.isJavaConstant;
 import static jdk.vm.ci.code.ValueUtil.isAllocatableValue;
 
 import com.oracle.graal.asm.NumUtil;
+import com.oracle.graal.asm.amd64.AMD64Address.Scale;
 import com.oracle.graal.asm.amd64.AMD64Assembler.AMD64MIOp;
 import com.oracle.graal.asm.amd64.AMD64Assembler.AMD64RMOp;
 import com.oracle.graal.asm.amd64.AMD64Assembler.ConditionFlag;
@@ -41,6 +42,7 @@ import com.oracle.graal.asm.amd64.AMD64Assembler.OperandSize;
 import com.oracle.graal.asm.amd64.AMD64Assembler.SSEOp;
 import com.oracle.graal.compiler.common.LIRKind;
 import com.oracle.graal.compiler.common.calc.Condition;
+import com.oracle.graal.compiler.common.calc.VectorArithmetic;
 import com.oracle.graal.compiler.common.spi.ForeignCallLinkage;
 import com.oracle.graal.compiler.common.spi.LIRKindTool;
 import com.oracle.graal.compiler.common.util.Util;
@@ -54,7 +56,9 @@ import com.oracle.graal.lir.SwitchStrategy;
 import com.oracle.graal.lir.Variable;
 import com.oracle.graal.lir.amd64.AMD64AddressValue;
 import com.oracle.graal.lir.amd64.AMD64ArithmeticLIRGeneratorTool;
+import com.oracle.graal.lir.amd64.AMD64ArrayCompareToOp;
 import com.oracle.graal.lir.amd64.AMD64ArrayEqualsOp;
+import com.oracle.graal.lir.amd64.AMD64ArrayFillOp;
 import com.oracle.graal.lir.amd64.AMD64BinaryConsumer;
 import com.oracle.graal.lir.amd64.AMD64ByteSwapOp;
 import com.oracle.graal.lir.amd64.AMD64Call;
@@ -70,6 +74,8 @@ import com.oracle.graal.lir.amd64.AMD64Move.CompareAndSwapOp;
 import com.oracle.graal.lir.amd64.AMD64Move.MembarOp;
 import com.oracle.graal.lir.amd64.AMD64Move.StackLeaOp;
 import com.oracle.graal.lir.amd64.AMD64PauseOp;
+import com.oracle.graal.lir.amd64.AMD64StringIndexOfOp;
+import com.oracle.graal.lir.amd64.AMD64VectorizedArrayOp;
 import com.oracle.graal.lir.gen.LIRGenerationResult;
 import com.oracle.graal.lir.gen.LIRGenerator;
 import com.oracle.graal.phases.util.Providers;
@@ -412,6 +418,63 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         return result;
     }
 
+    @Override
+    public Variable emitArrayRegionEquals(JavaKind kind, Value array1, Value offset1, Value array2, Value offset2, Value length) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(AMD64ArrayEqualsOp.forElementAddresses(this, kind, result, emitArrayElementAddress(kind, array1, offset1), emitArrayElementAddress(kind, array2, offset2), asAllocatable(length)));
+        return result;
+    }
+
+    @Override
+    public Variable emitArrayCompareTo(JavaKind kind, Value array1, Value array2, Value length1, Value length2) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64ArrayCompareToOp(this, kind, result, array1, array2, asAllocatable(length1), asAllocatable(length2)));
+        return result;
+    }
+
+    @Override
+    public Variable emitStringIndexOf(Value source, Value sourceOffset, Value sourceCount, Value target, Value targetOffset, Value targetCount) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64StringIndexOfOp(this, result, emitArrayElementAddress(JavaKind.Char, source, sourceOffset), asAllocatable(sourceCount),
+                        emitArrayElementAddress(JavaKind.Char, target, targetOffset), asAllocatable(targetCount)));
+        return result;
+    }
+
+    /**
+     * Computes the address of {@code array[index]} for an array of {@code kind} elements. The
+     * result is a derived pointer and must not be live across a safepoint.
+     */
+    private Variable emitArrayElementAddress(JavaKind kind, Value array, Value index) {
+        Variable address = newVariable(LIRKind.unknownReference(target().arch.getWordKind()));
+        AllocatableValue longIndex = asAllocatable(getArithmetic().emitSignExtend(index, 32, 64));
+        int baseOffset = getMetaAccess().getArrayBaseOffset(kind);
+        Scale scale = Scale.fromInt(getMetaAccess().getArrayIndexScale(kind));
+        append(new AMD64Move.LeaOp(address, new AMD64AddressValue(address.getValueKind(), asAllocatable(array), longIndex, scale, baseOffset)));
+        return address;
+    }
+
+    @Override
+    public Variable emitVectorizedArrayOp(VectorArithmetic op, JavaKind kind, Value result, Value x, Value y, Value fromIndex, Value toIndex) {
+        Variable end = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        if (AMD64VectorizedArrayOp.isSupported(target(), op, kind)) {
+            append(new AMD64VectorizedArrayOp(this, op, kind, end, asAllocatable(result), asAllocatable(x), asAllocatable(y), asAllocatable(fromIndex), asAllocatable(toIndex)));
+        } else {
+            emitMove(end, fromIndex);
+        }
+        return end;
+    }
+
+    @Override
+    public void emitArrayFill(JavaKind kind, Value array, Value fromIndex, Value toIndex, Value value) {
+        Value bits = value;
+        if (kind == JavaKind.Float) {
+            bits = getArithmetic().emitReinterpret(LIRKind.value(AMD64Kind.DWORD), value);
+        } else if (kind == JavaKind.Double) {
+            bits = getArithmetic().emitReinterpret(LIRKind.value(AMD64Kind.QWORD), value);
+        }
+        append(new AMD64ArrayFillOp(this, kind, asAllocatable(array), asAllocatable(fromIndex), asAllocatable(toIndex), asAllocatable(bits)));
+    }
+
     @Override
     public void emitReturn(JavaKind kind, Value input) {
         AllocatableValue operand = Value.ILLEGAL;
@@ -22,11 +22,28 @@
  */
 package com.oracle.graal.compiler.amd64;
 
+import static com.oracle.graal.compiler.common.GraalOptions.OptInstructionScheduling;
+import static com.oracle.graal.compiler.common.GraalOptions.OptLoopTransform;
+import static com.oracle.graal.compiler.common.GraalOptions.OptimizeFillLoops;
+import static com.oracle.graal.compiler.common.GraalOptions.VectorizeLoops;
+
+import java.util.ListIterator;
+
 import com.oracle.graal.java.DefaultSuitesProvider;
 import com.oracle.graal.lir.amd64.phases.StackMoveOptimizationPhase;
 import com.oracle.graal.lir.phases.LIRSuites;
+import com.oracle.graal.loop.phases.LoopFillPhase;
+import com.oracle.graal.loop.phases.LoopPartialUnrollPhase;
+import com.oracle.graal.loop.phases.LoopVectorizationPhase;
 import com.oracle.graal.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
+import com.oracle.graal.phases.BasePhase;
+import com.oracle.graal.phases.common.LoweringPhase;
+import com.oracle.graal.phases.schedule.BlockInstructionSchedulingPhase;
+import com.oracle.graal.phases.schedule.SchedulePhase;
 import com.oracle.graal.phases.tiers.CompilerConfiguration;
+import com.oracle.graal.phases.tiers.HighTierContext;
+import com.oracle.graal.phases.tiers.LowTierContext;
+import com.oracle.graal.phases.tiers.Suites;
 
 public class AMD64SuitesProvider extends DefaultSuitesProvider {
 
@@ -34,6 +51,37 @@ public class AMD64SuitesProvider extends DefaultSuitesProvider {
         super(compilerConfiguration, plugins);
     }
 
+    @Override
+    public Suites createSuites() {
+        Suites suites = super.createSuites();
+        if (OptLoopTransform.getValue() && VectorizeLoops.getValue()) {
+            addBeforePartialUnrolling(suites, new LoopVectorizationPhase());
+        }
+        if (OptLoopTransform.getValue() && OptimizeFillLoops.getValue()) {
+            addBeforePartialUnrolling(suites, new LoopFillPhase());
+        }
+        if (OptInstructionScheduling.getValue()) {
+            ListIterator<BasePhase<? super LowTierContext>> position = suites.getLowTier().findPhase(SchedulePhase.class);
+            if (position != null) {
+                position.add(new BlockInstructionSchedulingPhase(new AMD64InstructionLatencyModel()));
+            }
+        }
+        return suites;
+    }
+
+    /**
+     * Adds a loop idiom phase to the high tier. Note: such phases must run before partial unrolling
+     * and lowering.
+     */
+    private static void addBeforePartialUnrolling(Suites suites, BasePhase<? super HighTierContext> phase) {
+        ListIterator<BasePhase<? super HighTierContext>> position = suites.getHighTier().findPhase(LoopPartialUnrollPhase.class);
+        if (position == null) {
+            position = suites.getHighTier().findPhase(LoweringPhase.class);
+        }
+        position.previous();
+        position.add(phase);
+    }
+
     @Override
     public LIRSuites createLIRSuites() {
         LIRSuites lirSuites = super.createLIRSuites();
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.common;
+
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.debug.Management;
+
+/**
+ * Bounds the wall-clock time and the memory a single compilation may spend. A budget is
+ * {@linkplain #activate() activated} for the duration of a compilation and is enforced
+ * cooperatively: phase suites {@linkplain #check() check} it between phases and long running
+ * phases {@linkplain #poll() poll} it from their inner loops. Once the budget is exhausted a
+ * {@link CompilationBudgetExceededException} is thrown, which allows the compilation to be
+ * retried with a cheaper configuration.
+ * <p>
+ * Both {@link #check()} and {@link #poll()} are no-ops if no budget is active on the current
+ * thread.
+ * <p>
+ * A budget may also be activated on helper threads working on the same compilation. The memory
+ * limit only accounts for the allocations of the thread that created the budget and is therefore
+ * not checked on other threads.
+ */
+public final class CompilationBudget {
+
+    /**
+     * Number of {@link #poll()} calls between two actual checks of the budget. Must be a power of
+     * 2.
+     */
+    private static final int POLL_INTERVAL = 1024;
+
+    private static final DebugCounter TimeBudgetExceeded = Debug.counter("CompilationBudget[timeExceeded]");
+    private static final DebugCounter MemoryBudgetExceeded = Debug.counter("CompilationBudget[memoryExceeded]");
+
+    private static final ThreadLocal<CompilationBudget> activeBudget = new ThreadLocal<>();
+
+    private final long timeBudgetNS;
+    private final long memoryBudget;
+    private final long startTime;
+    private final long startAllocatedBytes;
+    private final Thread owner;
+    private int pollCount;
+
+    /**
+     * Creates a budget starting now.
+     *
+     * @param timeBudgetMillis maximum wall-clock time in milliseconds or 0 for no time limit
+     * @param memoryBudgetBytes maximum number of bytes allocated by the current thread or 0 for no
+     *            memory limit
+     */
+    public CompilationBudget(long timeBudgetMillis, long memoryBudgetBytes) {
+        this.timeBudgetNS = timeBudgetMillis * 1_000_000L;
+        this.memoryBudget = memoryBudgetBytes;
+        this.startTime = System.nanoTime();
+        this.startAllocatedBytes = memoryBudgetBytes > 0 ? Management.getCurrentThreadAllocatedBytes() : 0L;
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * Gets the budget {@linkplain #activate() activated} on the current thread or {@code null} if
+     * there is none.
+     */
+    public static CompilationBudget current() {
+        return activeBudget.get();
+    }
+
+    /**
+     * Checks the active budget, if any.
+     *
+     * @throws CompilationBudgetExceededException if the active budget is exhausted
+     */
+    public static void check() {
+        CompilationBudget budget = activeBudget.get();
+        if (budget != null) {
+            budget.checkNow();
+        }
+    }
+
+    /**
+     * Checks the active budget, if any, every {@value #POLL_INTERVAL} calls. This is cheap enough
+     * to be called once per iteration of a phase's work loop.
+     *
+     * @throws CompilationBudgetExceededException if the active budget is exhausted
+     */
+    public static void poll() {
+        CompilationBudget budget = activeBudget.get();
+        if (budget != null && (++budget.pollCount & (POLL_INTERVAL - 1)) == 0) {
+            budget.checkNow();
+        }
+    }
+
+    private void checkNow() {
+        if (timeBudgetNS > 0) {
+            long elapsed = getElapsedNS();
+            if (elapsed > timeBudgetNS) {
+                TimeBudgetExceeded.increment();
+                throw new CompilationBudgetExceededException("time budget of %d ms exceeded (%d ms elapsed)", timeBudgetNS / 1_000_000L, elapsed / 1_000_000L);
+            }
+        }
+        if (memoryBudget > 0 && Thread.currentThread() == owner) {
+            long allocated = getAllocatedBytes();
+            if (allocated > memoryBudget) {
+                MemoryBudgetExceeded.increment();
+                throw new CompilationBudgetExceededException("memory budget of %d bytes exceeded (%d bytes allocated)", memoryBudget, allocated);
+            }
+        }
+    }
+
+    /**
+     * Gets the wall-clock time in nanoseconds that elapsed since this budget was created.
+     */
+    public long getElapsedNS() {
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread since this budget was created or 0
+     * if this budget has no memory limit or was created by another thread.
+     */
+    public long getAllocatedBytes() {
+        return memoryBudget > 0 && Thread.currentThread() == owner ? Management.getCurrentThreadAllocatedBytes() - startAllocatedBytes : 0L;
+    }
+
+    /**
+     * Makes this budget the {@linkplain #current() current} budget of this thread until the
+     * returned object is closed.
+     */
+    public Activation activate() {
+        Activation activation = new Activation(activeBudget.get());
+        activeBudget.set(this);
+        return activation;
+    }
+
+    /**
+     * Deactivates the current budget, if any, until the returned object is closed. This must be
+     * used around computations whose result is shared with other compilations, which would
+     * otherwise fail because of a budget they are not subject to.
+     */
+    public static Activation suspend() {
+        Activation activation = new Activation(activeBudget.get());
+        activeBudget.set(null);
+        return activation;
+    }
+
+    public static final class Activation implements AutoCloseable {
+        private final CompilationBudget previous;
+
+        private Activation(CompilationBudget previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            activeBudget.set(previous);
+        }
+    }
+}
@@ -85,12 +85,21 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionValue<Boolean> PEAInliningHints = new OptionValue<>(false);
 
-    @Option(help = "", type = OptionType.Expert)
+    @Option(help = "Duplicate the code following a merge into predecessors for which the duplicate can be simplified.", type = OptionType.Expert)
+    public static final OptionValue<Boolean> OptTailDuplication = new OptionValue<>(false);
+
+    @Option(help = "Minimum probability of a merge relative to the method entry for its tail to be duplicated.", type = OptionType.Expert)
     public static final OptionValue<Double> TailDuplicationProbability = new OptionValue<>(0.5);
 
-    @Option(help = "", type = OptionType.Expert)
+    @Option(help = "Maximum number of fixed nodes of a tail ending in a control sink that is duplicated regardless of its benefit.", type = OptionType.Expert)
     public static final OptionValue<Integer> TailDuplicationTrivialSize = new OptionValue<>(1);
 
+    @Option(help = "Maximum number of nodes duplicated per merge predecessor.", type = OptionType.Expert)
+    public static final OptionValue<Integer> TailDuplicationMaxSize = new OptionValue<>(100);
+
+    @Option(help = "Maximum growth of the graph by tail duplication relative to its size.", type = OptionType.Expert)
+    public static final OptionValue<Double> TailDuplicationMaxGrowth = new OptionValue<>(0.5);
+
     @Option(help = "", type = OptionType.Expert)
     public static final OptionValue<Integer> DeoptsToDisableOptimisticOptimization = new OptionValue<>(40);
 
@@ -106,6 +115,9 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionValue<Boolean> LoopUnswitch = new OptionValue<>(true);
 
+    @Option(help = "Partially unroll counted loops into a main loop and a post loop.", type = OptionType.Debug)
+    public static final OptionValue<Boolean> PartialUnroll = new OptionValue<>(false);
+
     @Option(help = "", type = OptionType.Expert)
     public static final OptionValue<Float> MinimumPeelProbability = new OptionValue<>(0.35f);
 
@@ -115,6 +127,18 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionValue<Boolean> UseLoopLimitChecks = new OptionValue<>(true);
 
+    @Option(help = "Replace null and bounds checks in counted loops with predicates at the loop entry.", type = OptionType.Debug)
+    public static final OptionValue<Boolean> LoopPredication = new OptionValue<>(false);
+
+    @Option(help = "Vectorize counted loops applying an arithmetic operation element-wise to arrays.", type = OptionType.Debug)
+    public static final OptionValue<Boolean> VectorizeLoops = new OptionValue<>(false);
+
+    @Option(help = "Replace counted loops storing a loop invariant value into an array with a fill of the array range.", type = OptionType.Debug)
+    public static final OptionValue<Boolean> OptimizeFillLoops = new OptionValue<>(false);
+
+    @Option(help = "Split long counted loops into an inner loop without safepoint poll and an outer loop polling once per strip.", type = OptionType.Debug)
+    public static final OptionValue<Boolean> LoopStripMining = new OptionValue<>(false);
+
     // debugging settings
     @Option(help = "", type = OptionType.Debug)
     public static final OptionValue<Boolean> ZapStackOnMethodEntry = new OptionValue<>(false);
@@ -221,6 +245,9 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionValue<Boolean> OptScheduleOutOfLoops = new OptionValue<>(true);
 
+    @Option(help = "Reorder the nodes within each block of the final schedule based on a latency model of the target.", type = OptionType.Expert)
+    public static final OptionValue<Boolean> OptInstructionScheduling = new OptionValue<>(false);
+
     @Option(help = "", type = OptionType.Debug)
     public static final OptionValue<Boolean> OptEliminateGuards = new OptionValue<>(true);
 
@@ -277,4 +304,7 @@ public final class GraalOptions {
     @Option(help = "Enable experimental Trace Register Allocation.", type = OptionType.Debug)
     public static final OptionValue<Boolean> TraceRA = new OptionValue<>(false);
 
+    @Option(help = "Use the experimental graph coloring register allocator instead of linear scan.", type = OptionType.Debug)
+    public static final OptionValue<Boolean> GraphColoringRA = new OptionValue<>(false);
+
 }
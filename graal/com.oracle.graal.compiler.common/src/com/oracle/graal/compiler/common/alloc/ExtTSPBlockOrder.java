@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.common.alloc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import com.oracle.graal.compiler.common.cfg.AbstractBlockBase;
+
+/**
+ * Computes a code emission order of blocks with the Extended TSP heuristic of Newell and Pupyrev
+ * ("Improved Basic Block Reordering", 2020). Every control flow edge contributes to the score of a
+ * layout depending on its execution frequency and on the distance of the jump it requires: a fall
+ * through scores highest, short forward and backward jumps score less, and long jumps do not
+ * score. Starting with one chain per block, chains are greedily merged (optionally splitting one
+ * of them) as long as this increases the score. The resulting chains are emitted by decreasing
+ * execution density, starting with the chain containing the entry block.
+ *
+ * Blocks whose probability is below a given threshold can additionally be separated from the hot
+ * blocks. They are laid out the same way but placed behind all hot blocks, so that rarely executed
+ * code such as exception handlers and deoptimization paths does not occupy instruction cache lines
+ * and pages used by the hot code.
+ *
+ * Block probabilities are relative to the entry block. Since {@link AbstractBlockBase} does not
+ * record branch probabilities, the frequency of an edge is derived from the probabilities of its
+ * source and target blocks.
+ */
+public final class ExtTSPBlockOrder {
+
+    private static final double FALLTHROUGH_WEIGHT = 1.0;
+    private static final double FORWARD_WEIGHT = 0.1;
+    private static final double BACKWARD_WEIGHT = 0.1;
+
+    /**
+     * Maximal distance in bytes for which a forward jump contributes to the score.
+     */
+    private static final int FORWARD_DISTANCE = 1024;
+
+    /**
+     * Maximal distance in bytes for which a backward jump contributes to the score.
+     */
+    private static final int BACKWARD_DISTANCE = 640;
+
+    /**
+     * Chains with more blocks than this are not split when merging them with another chain. This
+     * bounds the time spent on evaluating merges.
+     */
+    private static final int CHAIN_SPLIT_THRESHOLD = 128;
+
+    private static final double MIN_GAIN = 1e-9;
+
+    private ExtTSPBlockOrder() {
+    }
+
+    /**
+     * Reorders {@code blocks} in place for code emission.
+     *
+     * @param blocks the blocks to order, starting with the entry block which stays first
+     * @param blockSize the estimated code size of a block in bytes
+     * @param coldProbability blocks with a lower probability are placed behind all other blocks;
+     *            {@code 0} keeps all blocks in a single section
+     * @return the number of hot blocks, i.e. the index of the first cold block in {@code blocks}
+     */
+    public static int computeCodeEmittingOrder(AbstractBlockBase<?>[] blocks, ToIntFunction<AbstractBlockBase<?>> blockSize, double coldProbability) {
+        List<AbstractBlockBase<?>> hot = new ArrayList<>();
+        List<AbstractBlockBase<?>> cold = new ArrayList<>();
+        for (int i = 0; i < blocks.length; i++) {
+            if (i == 0 || blocks[i].probability() >= coldProbability) {
+                hot.add(blocks[i]);
+            } else {
+                cold.add(blocks[i]);
+            }
+        }
+        int index = 0;
+        for (AbstractBlockBase<?> block : new Layout(hot, blockSize, true).compute()) {
+            blocks[index++] = block;
+        }
+        int hotBlocks = index;
+        for (AbstractBlockBase<?> block : new Layout(cold, blockSize, false).compute()) {
+            blocks[index++] = block;
+        }
+        assert index == blocks.length;
+        return hotBlocks;
+    }
+
+    /**
+     * Estimates how often the edge from {@code source} to {@code target} is taken.
+     */
+    private static double edgeFrequency(AbstractBlockBase<?> source, AbstractBlockBase<?> target) {
+        if (target.getPredecessorCount() == 1) {
+            return target.probability();
+        }
+        if (source.getSuccessorCount() == 1) {
+            return source.probability();
+        }
+        double incoming = 0;
+        for (AbstractBlockBase<?> predecessor : target.getPredecessors()) {
+            incoming += predecessor.probability();
+        }
+        return incoming > 0 ? target.probability() * source.probability() / incoming : 0;
+    }
+
+    /**
+     * Computes the score of an edge whose jump starts at {@code jumpFrom} and targets
+     * {@code target}.
+     */
+    private static double edgeScore(int jumpFrom, int target, double frequency) {
+        if (jumpFrom == target) {
+            return frequency * FALLTHROUGH_WEIGHT;
+        } else if (target > jumpFrom) {
+            int distance = target - jumpFrom;
+            if (distance <= FORWARD_DISTANCE) {
+                return frequency * FORWARD_WEIGHT * (1.0 - (double) distance / FORWARD_DISTANCE);
+            }
+        } else {
+            int distance = jumpFrom - target;
+            if (distance <= BACKWARD_DISTANCE) {
+                return frequency * BACKWARD_WEIGHT * (1.0 - (double) distance / BACKWARD_DISTANCE);
+            }
+        }
+        return 0;
+    }
+
+    private static final class Chain {
+        final int id;
+        int[] blocks;
+        double score;
+
+        Chain(int id, int block) {
+            this.id = id;
+            this.blocks = new int[]{block};
+        }
+    }
+
+    /**
+     * A candidate for merging two chains.
+     */
+    private static final class Merge {
+        final Chain x;
+        final Chain y;
+        final int[] order;
+        final double score;
+        final double gain;
+
+        Merge(Chain x, Chain y, int[] order, double score) {
+            this.x = x;
+            this.y = y;
+            this.order = order;
+            this.score = score;
+            this.gain = score - x.score - y.score;
+        }
+    }
+
+    /**
+     * The layout of one section. Blocks are referred to by their index in {@link #blocks}; the
+     * entry block of the hot section has index 0.
+     */
+    private static final class Layout {
+        private final AbstractBlockBase<?>[] blocks;
+        private final int[] sizes;
+        private final int[][] successors;
+        private final double[][] frequencies;
+        private final int[][] predecessors;
+        private final boolean fixedEntry;
+        private final Chain[] chainOf;
+
+        private final int[] offsets;
+        private final int[] marks;
+        private int mark;
+
+        Layout(List<AbstractBlockBase<?>> list, ToIntFunction<AbstractBlockBase<?>> blockSize, boolean fixedEntry) {
+            int count = list.size();
+            this.blocks = list.toArray(new AbstractBlockBase<?>[count]);
+            this.fixedEntry = fixedEntry;
+            this.sizes = new int[count];
+            this.successors = new int[count][];
+            this.frequencies = new double[count][];
+            this.predecessors = new int[count][];
+            this.chainOf = new Chain[count];
+            this.offsets = new int[count];
+            this.marks = new int[count];
+
+            Map<AbstractBlockBase<?>, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                indexes.put(blocks[i], i);
+                sizes[i] = Math.max(1, blockSize.applyAsInt(blocks[i]));
+            }
+            int[] predecessorCounts = new int[count];
+            for (int i = 0; i < count; i++) {
+                AbstractBlockBase<?> block = blocks[i];
+                int[] targets = new int[block.getSuccessorCount()];
+                double[] targetFrequencies = new double[block.getSuccessorCount()];
+                int edges = 0;
+                for (AbstractBlockBase<?> successor : block.getSuccessors()) {
+                    Integer target = indexes.get(successor);
+                    if (target != null && target != i) {
+                        targets[edges] = target;
+                        targetFrequencies[edges] = edgeFrequency(block, successor);
+                        predecessorCounts[target]++;
+                        edges++;
+                    }
+                }
+                successors[i] = Arrays.copyOf(targets, edges);
+                frequencies[i] = Arrays.copyOf(targetFrequencies, edges);
+            }
+            for (int i = 0; i < count; i++) {
+                predecessors[i] = new int[predecessorCounts[i]];
+                predecessorCounts[i] = 0;
+            }
+            for (int i = 0; i < count; i++) {
+                for (int target : successors[i]) {
+                    predecessors[target][predecessorCounts[target]++] = i;
+                }
+            }
+        }
+
+        AbstractBlockBase<?>[] compute() {
+            List<Chain> chains = new ArrayList<>();
+            for (int i = 0; i < blocks.length; i++) {
+                Chain chain = new Chain(i, i);
+                chainOf[i] = chain;
+                chains.add(chain);
+            }
+
+            Map<Long, Merge> candidates = new HashMap<>();
+            for (Chain chain : chains) {
+                addCandidates(chain, candidates);
+            }
+            while (true) {
+                Merge best = null;
+                for (Merge merge : candidates.values()) {
+                    if (merge.gain > MIN_GAIN && (best == null || merge.gain > best.gain)) {
+                        best = merge;
+                    }
+                }
+                if (best == null) {
+                    break;
+                }
+                Chain x = best.x;
+                Chain y = best.y;
+                x.blocks = best.order;
+                x.score = best.score;
+                for (int block : y.blocks) {
+                    chainOf[block] = x;
+                }
+                chains.remove(y);
+                candidates.values().removeIf(merge -> merge.x == x || merge.y == x || merge.x == y || merge.y == y);
+                addCandidates(x, candidates);
+            }
+
+            chains.sort((a, b) -> {
+                if (fixedEntry && (a.blocks[0] == 0 || b.blocks[0] == 0)) {
+                    return a.blocks[0] == 0 ? -1 : 1;
+                }
+                int result = Double.compare(density(b), density(a));
+                return result != 0 ? result : Integer.compare(a.id, b.id);
+            });
+            AbstractBlockBase<?>[] result = new AbstractBlockBase<?>[blocks.length];
+            int index = 0;
+            for (Chain chain : chains) {
+                for (int block : chain.blocks) {
+                    result[index++] = blocks[block];
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Computes the best merges of {@code chain} with each chain connected to it by an edge.
+         */
+        private void addCandidates(Chain chain, Map<Long, Merge> candidates) {
+            Set<Chain> neighbors = new LinkedHashSet<>();
+            for (int block : chain.blocks) {
+                for (int successor : successors[block]) {
+                    neighbors.add(chainOf[successor]);
+                }
+                for (int predecessor : predecessors[block]) {
+                    neighbors.add(chainOf[predecessor]);
+                }
+            }
+            neighbors.remove(chain);
+            for (Chain neighbor : neighbors) {
+                long key = chain.id < neighbor.id ? ((long) chain.id << 32) | neighbor.id : ((long) neighbor.id << 32) | chain.id;
+                if (!candidates.containsKey(key)) {
+                    Merge merge = better(evaluate(chain, neighbor), evaluate(neighbor, chain));
+                    if (merge != null) {
+                        candidates.put(key, merge);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Finds the best way of merging {@code y} into {@code x}, either by concatenating them or by
+         * splitting {@code x} and placing {@code y} in between or around the two parts.
+         */
+        private Merge evaluate(Chain x, Chain y) {
+            Merge best = candidate(x, y, x.blocks, y.blocks);
+            if (x.blocks.length <= CHAIN_SPLIT_THRESHOLD) {
+                for (int split = 1; split < x.blocks.length; split++) {
+                    int[] x1 = Arrays.copyOfRange(x.blocks, 0, split);
+                    int[] x2 = Arrays.copyOfRange(x.blocks, split, x.blocks.length);
+                    best = better(best, candidate(x, y, x1, y.blocks, x2));
+                    best = better(best, candidate(x, y, y.blocks, x2, x1));
+                    best = better(best, candidate(x, y, x2, x1, y.blocks));
+                }
+            }
+            return best;
+        }
+
+        private static Merge better(Merge a, Merge b) {
+            if (a == null) {
+                return b;
+            } else if (b == null) {
+                return a;
+            }
+            return b.gain > a.gain ? b : a;
+        }
+
+        private Merge candidate(Chain x, Chain y, int[]... parts) {
+            int length = 0;
+            for (int[] part : parts) {
+                length += part.length;
+            }
+            int[] order = new int[length];
+            int index = 0;
+            for (int[] part : parts) {
+                System.arraycopy(part, 0, order, index, part.length);
+                index += part.length;
+            }
+            if (fixedEntry && order[0] != 0 && (chainOf[0] == x || chainOf[0] == y)) {
+                return null;
+            }
+            return new Merge(x, y, order, score(order));
+        }
+
+        /**
+         * Computes the score of the edges between the blocks of {@code order} if the blocks are
+         * laid out in this order.
+         */
+        private double score(int[] order) {
+            mark++;
+            int offset = 0;
+            for (int block : order) {
+                offsets[block] = offset;
+                marks[block] = mark;
+                offset += sizes[block];
+            }
+            double score = 0;
+            for (int block : order) {
+                int jumpFrom = offsets[block] + sizes[block];
+                for (int i = 0; i < successors[block].length; i++) {
+                    int successor = successors[block][i];
+                    if (marks[successor] == mark) {
+                        score += edgeScore(jumpFrom, offsets[successor], frequencies[block][i]);
+                    }
+                }
+            }
+            return score;
+        }
+
+        /**
+         * Gets the average execution frequency of a byte of code in {@code chain}.
+         */
+        private double density(Chain chain) {
+            double frequency = 0;
+            int size = 0;
+            for (int block : chain.blocks) {
+                frequency += blocks[block].probability() * sizes[block];
+                size += sizes[block];
+            }
+            return frequency / size;
+        }
+    }
+}
@@ -44,6 +44,7 @@ import com.oracle.graal.asm.sparc.SPARCAssembler.Op3s;
 import com.oracle.graal.asm.sparc.SPARCAssembler.Opfs;
 import com.oracle.graal.compiler.common.LIRKind;
 import com.oracle.graal.compiler.common.calc.Condition;
+import com.oracle.graal.compiler.common.calc.VectorArithmetic;
 import com.oracle.graal.compiler.common.spi.ForeignCallLinkage;
 import com.oracle.graal.compiler.common.spi.LIRKindTool;
 import com.oracle.graal.debug.GraalError;
@@ -407,6 +408,31 @@ public abstract class SPARCLIRGenerator extends LIRGenerator {
         return result;
     }
 
+    @Override
+    public Variable emitArrayRegionEquals(JavaKind kind, Value array1, Value offset1, Value array2, Value offset2, Value length) {
+        throw GraalError.unimplemented("array region equals is not supported on SPARC");
+    }
+
+    @Override
+    public Variable emitVectorizedArrayOp(VectorArithmetic op, JavaKind kind, Value result, Value x, Value y, Value fromIndex, Value toIndex) {
+        throw GraalError.unimplemented("vectorized array operations are not supported on SPARC");
+    }
+
+    @Override
+    public void emitArrayFill(JavaKind kind, Value array, Value fromIndex, Value toIndex, Value value) {
+        throw GraalError.unimplemented("array fill is not supported on SPARC");
+    }
+
+    @Override
+    public Variable emitArrayCompareTo(JavaKind kind, Value array1, Value array2, Value length1, Value length2) {
+        throw GraalError.unimplemented("array compareTo is not supported on SPARC");
+    }
+
+    @Override
+    public Variable emitStringIndexOf(Value source, Value sourceOffset, Value sourceCount, Value target, Value targetOffset, Value targetCount) {
+        throw GraalError.unimplemented("String.indexOf is not supported on SPARC");
+    }
+
     @Override
     public void emitMembar(int barriers) {
         int necessaryBarriers = target().arch.requiredBarriers(barriers);
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.graal.compiler.common.CompilationBudget;
+import com.oracle.graal.compiler.common.CompilationBudgetExceededException;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.StructuredGraph.AllowAssumptions;
+
+public class CompilationBudgetTest extends GraalCompilerTest {
+
+    public static int loopSnippet(int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += i * i;
+        }
+        return sum;
+    }
+
+    private static CompilationBudget exhaustedBudget() throws InterruptedException {
+        CompilationBudget budget = new CompilationBudget(1, 0);
+        Thread.sleep(10);
+        return budget;
+    }
+
+    @Test
+    public void testNoActiveBudget() {
+        Assert.assertNull(CompilationBudget.current());
+        CompilationBudget.check();
+        for (int i = 0; i < 4096; i++) {
+            CompilationBudget.poll();
+        }
+    }
+
+    @SuppressWarnings("try")
+    @Test(expected = CompilationBudgetExceededException.class)
+    public void testTimeBudgetExceeded() throws InterruptedException {
+        try (CompilationBudget.Activation a = exhaustedBudget().activate()) {
+            CompilationBudget.check();
+        }
+    }
+
+    @SuppressWarnings("try")
+    @Test
+    public void testCompilationWithinBudget() {
+        try (CompilationBudget.Activation a = new CompilationBudget(60_000, 0).activate()) {
+            test("loopSnippet", 100);
+        }
+        Assert.assertNull(CompilationBudget.current());
+    }
+
+    @SuppressWarnings("try")
+    @Test
+    public void testCompilationExceedsBudget() throws InterruptedException {
+        StructuredGraph graph = parseEager("loopSnippet", AllowAssumptions.YES);
+        try (CompilationBudget.Activation a = exhaustedBudget().activate()) {
+            compile(graph.method(), graph);
+            Assert.fail("expected " + CompilationBudgetExceededException.class.getSimpleName());
+        } catch (CompilationBudgetExceededException e) {
+            // expected
+        }
+        Assert.assertNull(CompilationBudget.current());
+    }
+}
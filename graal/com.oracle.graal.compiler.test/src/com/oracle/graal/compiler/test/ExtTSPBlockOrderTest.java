@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.graal.compiler.common.alloc.ExtTSPBlockOrder;
+import com.oracle.graal.compiler.common.cfg.AbstractBlockBase;
+import com.oracle.graal.compiler.common.cfg.Loop;
+
+/**
+ * Tests {@link ExtTSPBlockOrder} on small control flow graphs built from synthetic blocks of equal
+ * size.
+ */
+public class ExtTSPBlockOrderTest {
+
+    private static final int BLOCK_SIZE = 16;
+
+    private static final class TestBlock extends AbstractBlockBase<TestBlock> {
+
+        private final double probability;
+        private final List<TestBlock> predecessorList = new ArrayList<>();
+
+        TestBlock(int id, double probability) {
+            this.id = id;
+            this.probability = probability;
+            this.predecessors = new TestBlock[0];
+            this.successors = new TestBlock[0];
+        }
+
+        void addSuccessor(TestBlock successor) {
+            successors = Arrays.copyOf(successors, successors.length + 1);
+            successors[successors.length - 1] = successor;
+            successor.predecessorList.add(this);
+            successor.predecessors = successor.predecessorList.toArray(new TestBlock[0]);
+        }
+
+        @Override
+        public boolean isExceptionEntry() {
+            return false;
+        }
+
+        @Override
+        public Loop<TestBlock> getLoop() {
+            return null;
+        }
+
+        @Override
+        public int getLoopDepth() {
+            return 0;
+        }
+
+        @Override
+        public void delete() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isLoopEnd() {
+            return false;
+        }
+
+        @Override
+        public boolean isLoopHeader() {
+            return false;
+        }
+
+        @Override
+        public TestBlock getPostdominator() {
+            return null;
+        }
+
+        @Override
+        public double probability() {
+            return probability;
+        }
+
+        @Override
+        public TestBlock getDominator(int distance) {
+            return null;
+        }
+    }
+
+    private static TestBlock[] blocks(double... probabilities) {
+        TestBlock[] blocks = new TestBlock[probabilities.length];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = new TestBlock(i, probabilities[i]);
+        }
+        return blocks;
+    }
+
+    /**
+     * Orders the blocks listed in {@code order}, the first of which is the entry block, and checks
+     * that the blocks end up in the order {@code expected}.
+     *
+     * @return the number of hot blocks
+     */
+    private static int computeOrder(TestBlock[] blocks, double coldProbability, int[] order, int... expected) {
+        AbstractBlockBase<?>[] list = new AbstractBlockBase<?>[order.length];
+        for (int i = 0; i < order.length; i++) {
+            list[i] = blocks[order[i]];
+        }
+        int hotBlocks = ExtTSPBlockOrder.computeCodeEmittingOrder(list, block -> BLOCK_SIZE, coldProbability);
+        int[] actual = new int[list.length];
+        for (int i = 0; i < list.length; i++) {
+            actual[i] = list[i].getId();
+        }
+        Assert.assertArrayEquals(expected, actual);
+        return hotBlocks;
+    }
+
+    /**
+     * The likely successor of a branch falls through from the branch and into the merge; the
+     * unlikely successor is moved behind the merge.
+     */
+    @Test
+    public void testDiamond() {
+        TestBlock[] b = blocks(1.0, 0.9, 0.1, 1.0);
+        b[0].addSuccessor(b[1]);
+        b[0].addSuccessor(b[2]);
+        b[1].addSuccessor(b[3]);
+        b[2].addSuccessor(b[3]);
+        Assert.assertEquals(4, computeOrder(b, 0, new int[]{0, 2, 1, 3}, 0, 1, 3, 2));
+    }
+
+    /**
+     * Blocks below the cold probability are placed behind all hot blocks and fall through into
+     * each other.
+     */
+    @Test
+    public void testHotColdSplit() {
+        TestBlock[] b = blocks(1.0, 0.999, 0.001, 0.999, 0.001);
+        b[0].addSuccessor(b[1]);
+        b[0].addSuccessor(b[2]);
+        b[1].addSuccessor(b[3]);
+        b[2].addSuccessor(b[4]);
+        Assert.assertEquals(3, computeOrder(b, 0.01, new int[]{0, 2, 4, 1, 3}, 0, 1, 3, 2, 4));
+    }
+
+    /**
+     * A cold probability of {@code 0} keeps all blocks in one section.
+     */
+    @Test
+    public void testNoColdSection() {
+        TestBlock[] b = blocks(1.0, 0.999, 0.001, 0.999, 0.001);
+        b[0].addSuccessor(b[1]);
+        b[0].addSuccessor(b[2]);
+        b[1].addSuccessor(b[3]);
+        b[2].addSuccessor(b[4]);
+        Assert.assertEquals(5, computeOrder(b, 0, new int[]{0, 2, 4, 1, 3}, 0, 1, 3, 2, 4));
+    }
+
+    /**
+     * The entry block stays first although the loop is denser, the loop header and body are
+     * adjacent and the loop exit is placed after the loop.
+     */
+    @Test
+    public void testLoop() {
+        TestBlock[] b = blocks(1.0, 10.0, 9.0, 1.0);
+        b[0].addSuccessor(b[1]);
+        b[1].addSuccessor(b[2]);
+        b[1].addSuccessor(b[3]);
+        b[2].addSuccessor(b[1]);
+        AbstractBlockBase<?>[] list = {b[0], b[3], b[2], b[1]};
+        Assert.assertEquals(4, ExtTSPBlockOrder.computeCodeEmittingOrder(list, block -> BLOCK_SIZE, 0));
+        Assert.assertSame(b[0], list[0]);
+        Assert.assertSame(b[3], list[3]);
+        Assert.assertTrue(list[1] == b[1] || list[1] == b[2]);
+    }
+
+    /**
+     * The entry block stays first even if its probability is below the cold probability.
+     */
+    @Test
+    public void testColdEntry() {
+        TestBlock[] b = blocks(0.001, 0.001, 1.0);
+        b[0].addSuccessor(b[1]);
+        b[0].addSuccessor(b[2]);
+        Assert.assertEquals(2, computeOrder(b, 0.01, new int[]{0, 1, 2}, 0, 2, 1));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import java.util.List;
+import java.util.ListIterator;
+
+import org.junit.Test;
+
+import com.oracle.graal.graph.Node;
+import com.oracle.graal.graph.NodeMap;
+import com.oracle.graal.nodes.FixedNode;
+import com.oracle.graal.nodes.PhiNode;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.StructuredGraph.ScheduleResult;
+import com.oracle.graal.nodes.cfg.Block;
+import com.oracle.graal.nodes.memory.FloatingAccessNode;
+import com.oracle.graal.nodes.memory.FloatableAccessNode;
+import com.oracle.graal.phases.BasePhase;
+import com.oracle.graal.phases.Phase;
+import com.oracle.graal.phases.schedule.BlockInstructionSchedulingPhase;
+import com.oracle.graal.phases.schedule.InstructionLatencyModel;
+import com.oracle.graal.phases.schedule.SchedulePhase;
+import com.oracle.graal.phases.tiers.LowTierContext;
+import com.oracle.graal.phases.tiers.Suites;
+
+/**
+ * Compiles memory bound loops with {@link BlockInstructionSchedulingPhase} and checks that the
+ * reordered schedule respects the dependences within each block.
+ */
+public class InstructionSchedulingTest extends GraalCompilerTest {
+
+    /**
+     * A model with expensive loads and a low register pressure limit so that both heuristics of the
+     * scheduler are exercised.
+     */
+    private static final InstructionLatencyModel TEST_MODEL = new InstructionLatencyModel() {
+
+        @Override
+        public int latency(Node node) {
+            if (node instanceof FloatingAccessNode || node instanceof FloatableAccessNode) {
+                return 5;
+            }
+            return InstructionLatencyModel.UNIT.latency(node);
+        }
+
+        @Override
+        public int registerPressureLimit() {
+            return 4;
+        }
+    };
+
+    @Override
+    protected Suites createSuites() {
+        Suites suites = super.createSuites();
+        ListIterator<BasePhase<? super LowTierContext>> position = suites.getLowTier().findPhase(SchedulePhase.class);
+        position.add(new BlockInstructionSchedulingPhase(TEST_MODEL));
+        position.add(new Phase("CheckScheduleOrder") {
+
+            @Override
+            protected void run(StructuredGraph graph) {
+                assert checkScheduleOrder(graph.getLastSchedule());
+            }
+        });
+        return suites;
+    }
+
+    private static boolean checkScheduleOrder(ScheduleResult schedule) {
+        NodeMap<Integer> indices = schedule.getCFG().graph.createNodeMap();
+        for (Block block : schedule.getCFG().getBlocks()) {
+            List<Node> nodes = schedule.nodesFor(block);
+            FixedNode lastFixed = null;
+            for (int i = 0; i < nodes.size(); i++) {
+                Node node = nodes.get(i);
+                indices.set(node, i);
+                for (Node input : node.inputs()) {
+                    if (schedule.getNodeToBlockMap().get(input) == block && !(input instanceof PhiNode)) {
+                        assert indices.get(input) != null : input + " is scheduled after its usage " + node;
+                    }
+                }
+                if (node instanceof FixedNode) {
+                    assert lastFixed == null || node.predecessor() == lastFixed : node + " was moved across " + lastFixed;
+                    lastFixed = (FixedNode) node;
+                }
+            }
+            for (Node node : nodes) {
+                indices.set(node, null);
+            }
+        }
+        return true;
+    }
+
+    public static int sumSnippet(int[] a, int[] b) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * 3 + b[i] * 5 + (a[i] ^ b[i]);
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSum() {
+        test("sumSnippet", new int[]{1, 2, 3, 4, 5, 6, 7}, new int[]{7, 6, 5, 4, 3, 2, 1});
+    }
+
+    public static double triadSnippet(double[] a, double[] b, double[] c, double s) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            a[i] = b[i] + s * c[i];
+            sum += a[i] / (c[i] + 1.0);
+        }
+        return sum;
+    }
+
+    @Test
+    public void testTriad() {
+        test("triadSnippet", new double[]{1, 2, 3, 4, 5}, new double[]{2, 3, 4, 5, 6}, new double[]{0.5, 1.5, 2.5, 3.5, 4.5}, 3.0);
+    }
+
+    static class Point {
+        int x;
+        int y;
+        Point next;
+    }
+
+    public static int chaseSnippet(Point p) {
+        int result = 0;
+        for (Point cur = p; cur != null; cur = cur.next) {
+            cur.x = cur.y + result;
+            result += cur.x / 3 + cur.y;
+        }
+        return result;
+    }
+
+    @Test
+    public void testChase() {
+        Point head = null;
+        for (int i = 0; i < 10; i++) {
+            Point p = new Point();
+            p.x = i;
+            p.y = i * 7;
+            p.next = head;
+            head = p;
+        }
+        test("chaseSnippet", head);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import org.junit.Test;
+
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.nodes.MergeNode;
+import com.oracle.graal.nodes.ReturnNode;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.StructuredGraph.AllowAssumptions;
+import com.oracle.graal.phases.common.CanonicalizerPhase;
+import com.oracle.graal.phases.common.TailDuplicationPhase;
+import com.oracle.graal.phases.tiers.PhaseContext;
+
+public class TailDuplicationTest extends GraalCompilerTest {
+
+    public static int staticField;
+    public static int staticField2;
+
+    public static int foldSnippet(int b) {
+        int v;
+        if (b < 0) {
+            staticField = 1;
+            v = 10;
+        } else {
+            staticField = 2;
+            v = 20;
+        }
+        staticField2 = v * 3;
+        return v + 5;
+    }
+
+    @Test
+    public void testFold() {
+        test("foldSnippet", -1);
+        test("foldSnippet", 1);
+        StructuredGraph graph = duplicate("foldSnippet");
+        assertDeepEquals(0, graph.getNodes(MergeNode.TYPE).count());
+        assertDeepEquals(2, graph.getNodes(ReturnNode.TYPE).count());
+    }
+
+    public static int noBenefitSnippet(int b, int c) {
+        int v;
+        if (b < 0) {
+            staticField = 1;
+            v = c;
+        } else {
+            staticField = 2;
+            v = -c;
+        }
+        staticField2 = v * 3;
+        return v + 5;
+    }
+
+    @Test
+    public void testNoBenefit() {
+        StructuredGraph graph = duplicate("noBenefitSnippet");
+        assertDeepEquals(1, graph.getNodes(MergeNode.TYPE).count());
+    }
+
+    private StructuredGraph duplicate(String snippet) {
+        StructuredGraph graph = parseEager(snippet, AllowAssumptions.YES);
+        PhaseContext context = new PhaseContext(getProviders());
+        CanonicalizerPhase canonicalizer = new CanonicalizerPhase();
+        canonicalizer.apply(graph, context);
+        new TailDuplicationPhase(canonicalizer).apply(graph, context);
+        Debug.dump(Debug.BASIC_LOG_LEVEL, graph, "Graph");
+        return graph;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test.backend;
+
+import static com.oracle.graal.compiler.common.GraalOptions.GraphColoringRA;
+import static com.oracle.graal.lir.phases.PostAllocationOptimizationStage.Options.LIRCountStaticMoves;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.Debug.Scope;
+import com.oracle.graal.lir.LIR;
+import com.oracle.graal.lir.alloc.coloring.GraphColoringPhase;
+import com.oracle.graal.lir.alloc.lsra.LinearScanPhase;
+import com.oracle.graal.lir.phases.LIRSuites;
+import com.oracle.graal.lir.profiling.MoveProfiler;
+import com.oracle.graal.lir.profiling.MoveProfiler.MoveStatistics;
+import com.oracle.graal.lir.profiling.StaticMoveCountingPhase;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.StructuredGraph.AllowAssumptions;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+/**
+ * Tests the {@link GraphColoringPhase graph coloring register allocator} and compares the moves it
+ * emits with the ones emitted by {@link LinearScanPhase linear scan}. The allocators are selected
+ * with {@link com.oracle.graal.compiler.common.GraalOptions#GraphColoringRA} and the suites include
+ * the {@link StaticMoveCountingPhase} that reports the same comparison in debug counters.
+ */
+public class GraphColoringAllocatorTest extends BackendTest {
+
+    private boolean linearScan;
+
+    @SuppressWarnings("try")
+    @Override
+    protected LIRSuites getLIRSuites() {
+        try (OverrideScope s = OptionValue.override(GraphColoringRA, !linearScan, LIRCountStaticMoves, true)) {
+            LIRSuites suites = createLIRSuites();
+            if (linearScan) {
+                Assert.assertNotNull("no linear scan phase", suites.getAllocationStage().findPhase(LinearScanPhase.class));
+            } else {
+                Assert.assertNotNull("no graph coloring phase", suites.getAllocationStage().findPhase(GraphColoringPhase.class));
+            }
+            Assert.assertNotNull("no static move counting", suites.getPostAllocationOptimizationStage().findPhase(StaticMoveCountingPhase.class));
+            return suites;
+        }
+    }
+
+    public static int sumSnippet(int[] a) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSum() {
+        test("sumSnippet", new int[]{1, 2, 3, 4, 5, 6, 7});
+        Assert.assertEquals("spill moves", 0, compareMoves("sumSnippet").getSpillMoves());
+    }
+
+    public static int swapSnippet(int x, int y, int n) {
+        int a = x;
+        int b = y;
+        for (int i = 0; i < n; i++) {
+            int t = a;
+            a = b;
+            b = t + i;
+        }
+        return a * 31 + b;
+    }
+
+    @Test
+    public void testSwap() {
+        test("swapSnippet", 3, 5, 0);
+        test("swapSnippet", 3, 5, 1);
+        test("swapSnippet", 3, 5, 17);
+        Assert.assertEquals("spill moves", 0, compareMoves("swapSnippet").getSpillMoves());
+    }
+
+    public static long pressureSnippet(long[] a, int n) {
+        long v0 = a[0];
+        long v1 = a[1];
+        long v2 = a[2];
+        long v3 = a[3];
+        long v4 = a[4];
+        long v5 = a[5];
+        long v6 = a[6];
+        long v7 = a[7];
+        long v8 = a[8];
+        long v9 = a[9];
+        long v10 = a[10];
+        long v11 = a[11];
+        long v12 = a[12];
+        long v13 = a[13];
+        long v14 = a[14];
+        long v15 = a[15];
+        long v16 = a[16];
+        long v17 = a[17];
+        for (int i = 0; i < n; i++) {
+            v0 += v17 * i;
+            v1 ^= v0;
+            v2 += v1 >>> 3;
+            v3 -= v2;
+            v4 += v3 * 7;
+            v5 ^= v4;
+            v6 += v5;
+            v7 |= v6;
+            v8 += v7;
+            v9 -= v8 << 1;
+            v10 += v9;
+            v11 ^= v10;
+            v12 += v11;
+            v13 -= v12;
+            v14 += v13;
+            v15 ^= v14;
+            v16 += v15;
+            v17 -= v16;
+        }
+        return v0 + v1 + v2 + v3 + v4 + v5 + v6 + v7 + v8 + v9 + v10 + v11 + v12 + v13 + v14 + v15 + v16 + v17;
+    }
+
+    @Test
+    public void testPressure() {
+        long[] a = new long[18];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i * 0x9E3779B97F4A7C15L;
+        }
+        test("pressureSnippet", a, 0);
+        test("pressureSnippet", a, 100);
+        compareMoves("pressureSnippet");
+    }
+
+    public static double callSnippet(Object o, double x, double y, int z) {
+        double a = x * y;
+        double b = x + y;
+        int h = o.hashCode();
+        return a * b + h + z;
+    }
+
+    @Test
+    public void testCall() {
+        test("callSnippet", "abc", 1.5, 2.5, 42);
+        compareMoves("callSnippet");
+    }
+
+    /**
+     * Compiles {@code snippet} with both allocators and logs the static move counts.
+     *
+     * @return the move statistics of the graph coloring allocator
+     */
+    @SuppressWarnings("try")
+    private MoveStatistics compareMoves(String snippet) {
+        try (Scope s = Debug.scope("GraphColoringAllocatorTest", getResolvedJavaMethod(snippet))) {
+            MoveStatistics coloring = moveStatistics(snippet);
+            linearScan = true;
+            MoveStatistics linear;
+            try {
+                linear = moveStatistics(snippet);
+            } finally {
+                linearScan = false;
+            }
+            Debug.log("%s graph coloring: %s", snippet, coloring);
+            Debug.log("%s linear scan: %s", snippet, linear);
+            return coloring;
+        } catch (Throwable e) {
+            throw Debug.handle(e);
+        }
+    }
+
+    private MoveStatistics moveStatistics(String snippet) {
+        StructuredGraph graph = parseEager(snippet, AllowAssumptions.YES);
+        LIR lir = getLIRGenerationResult(graph).getLIR();
+        return MoveProfiler.summarize(lir);
+    }
+}
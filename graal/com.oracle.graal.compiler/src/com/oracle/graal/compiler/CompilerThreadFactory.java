@@ -22,14 +22,18 @@
  */
 package com.oracle.graal.compiler;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadFactory;
 
 import com.oracle.graal.debug.DebugConfig;
 
 /**
- * Facility for creating {@linkplain CompilerThread compiler threads}.
+ * Facility for creating {@linkplain CompilerThread compiler threads} and
+ * {@linkplain CompilerWorkerThread fork-join compiler threads}.
  */
-public class CompilerThreadFactory implements ThreadFactory {
+public class CompilerThreadFactory implements ThreadFactory, ForkJoinWorkerThreadFactory {
 
     /**
      * Capability to get a thread-local debug configuration for the current thread.
@@ -54,4 +58,9 @@ public class CompilerThreadFactory implements ThreadFactory {
     public Thread newThread(Runnable r) {
         return new CompilerThread(r, threadNamePrefix, debugConfigAccess);
     }
+
+    @Override
+    public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        return new CompilerWorkerThread(pool, threadNamePrefix, debugConfigAccess);
+    }
 }
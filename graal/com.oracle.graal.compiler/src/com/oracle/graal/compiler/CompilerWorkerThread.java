@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import com.oracle.graal.compiler.CompilerThreadFactory.DebugConfigAccess;
+import com.oracle.graal.debug.DebugConfig;
+import com.oracle.graal.debug.DebugDumpHandler;
+import com.oracle.graal.debug.GraalDebugConfig;
+
+/**
+ * A {@link ForkJoinPool} worker thread that, like a {@link CompilerThread}, runs at
+ * {@link Thread#MAX_PRIORITY} and executes in the context of a thread-local
+ * {@linkplain GraalDebugConfig debug configuration}.
+ */
+public class CompilerWorkerThread extends ForkJoinWorkerThread {
+
+    private final DebugConfigAccess debugConfigAccess;
+    private DebugConfig debugConfig;
+
+    public CompilerWorkerThread(ForkJoinPool pool, String namePrefix, DebugConfigAccess debugConfigAccess) {
+        super(pool);
+        this.setName(namePrefix + "-" + this.getId());
+        this.setPriority(Thread.MAX_PRIORITY);
+        this.debugConfigAccess = debugConfigAccess;
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        debugConfig = debugConfigAccess.getDebugConfig();
+        setContextClassLoader(getClass().getClassLoader());
+    }
+
+    @Override
+    protected void onTermination(Throwable exception) {
+        try {
+            if (debugConfig != null) {
+                for (DebugDumpHandler dumpHandler : debugConfig.dumpHandlers()) {
+                    try {
+                        dumpHandler.close();
+                    } catch (Throwable t) {
+                    }
+                }
+            }
+        } finally {
+            super.onTermination(exception);
+        }
+    }
+}
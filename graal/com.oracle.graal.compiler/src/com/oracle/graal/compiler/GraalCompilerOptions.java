@@ -48,6 +48,10 @@ public class GraalCompilerOptions {
     public static final OptionValue<Boolean> ExitVMOnException = new OptionValue<>(false);
     @Option(help = "", type = OptionType.Debug)
     public static final OptionValue<Boolean> PrintStackTraceOnException = new OptionValue<>(false);
+    @Option(help = "Maximum wall-clock time in milliseconds a compilation may take before it is retried with the economy configuration (0 = unlimited).", type = OptionType.Expert)
+    public static final OptionValue<Integer> CompilationTimeBudget = new OptionValue<>(0);
+    @Option(help = "Maximum memory in MB a compilation may allocate before it is retried with the economy configuration (0 = unlimited).", type = OptionType.Expert)
+    public static final OptionValue<Integer> CompilationMemoryBudget = new OptionValue<>(0);
     // @formatter:on
 
 }
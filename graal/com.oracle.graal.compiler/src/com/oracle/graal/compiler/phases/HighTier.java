@@ -30,13 +30,16 @@ import static com.oracle.graal.compiler.common.GraalOptions.LoopUnswitch;
 import static com.oracle.graal.compiler.common.GraalOptions.OptCanonicalizer;
 import static com.oracle.graal.compiler.common.GraalOptions.OptConvertDeoptsToGuards;
 import static com.oracle.graal.compiler.common.GraalOptions.OptLoopTransform;
+import static com.oracle.graal.compiler.common.GraalOptions.OptTailDuplication;
 import static com.oracle.graal.compiler.common.GraalOptions.PartialEscapeAnalysis;
+import static com.oracle.graal.compiler.common.GraalOptions.PartialUnroll;
 import static com.oracle.graal.compiler.common.GraalOptions.UseGraalInstrumentation;
 import static com.oracle.graal.phases.common.DeadCodeEliminationPhase.Optionality.Optional;
 
 import com.oracle.graal.loop.DefaultLoopPolicies;
 import com.oracle.graal.loop.LoopPolicies;
 import com.oracle.graal.loop.phases.LoopFullUnrollPhase;
+import com.oracle.graal.loop.phases.LoopPartialUnrollPhase;
 import com.oracle.graal.loop.phases.LoopPeelingPhase;
 import com.oracle.graal.loop.phases.LoopUnswitchingPhase;
 import com.oracle.graal.nodes.spi.LoweringTool;
@@ -51,6 +54,7 @@ import com.oracle.graal.phases.common.IncrementalCanonicalizerPhase;
 import com.oracle.graal.phases.common.IterativeConditionalEliminationPhase;
 import com.oracle.graal.phases.common.LoweringPhase;
 import com.oracle.graal.phases.common.RemoveValueProxyPhase;
+import com.oracle.graal.phases.common.TailDuplicationPhase;
 import com.oracle.graal.phases.common.inlining.InliningPhase;
 import com.oracle.graal.phases.common.instrumentation.HighTierReconcileInstrumentationPhase;
 import com.oracle.graal.phases.tiers.HighTierContext;
@@ -90,6 +94,10 @@ public class HighTier extends PhaseSuite<HighTierContext> {
             appendPhase(new IncrementalCanonicalizerPhase<>(canonicalizer, new ConvertDeoptimizeToGuardPhase()));
         }
 
+        if (OptTailDuplication.getValue() && OptCanonicalizer.getValue()) {
+            appendPhase(new TailDuplicationPhase(canonicalizer));
+        }
+
         LoopPolicies loopPolicies = createLoopPolicies();
         if (FullUnroll.getValue()) {
             appendPhase(new LoopFullUnrollPhase(canonicalizer, loopPolicies));
@@ -102,6 +110,9 @@ public class HighTier extends PhaseSuite<HighTierContext> {
             if (LoopUnswitch.getValue()) {
                 appendPhase(new LoopUnswitchingPhase(loopPolicies));
             }
+            if (PartialUnroll.getValue()) {
+                appendPhase(new LoopPartialUnrollPhase(canonicalizer, loopPolicies));
+            }
         }
 
         if (OptCanonicalizer.getValue()) {
@@ -104,6 +104,13 @@ public class GraalDebugConfig implements DebugConfig {
         public static final OptionValue<Boolean> PrintIdealGraph = new OptionValue<>(true);
         @Option(help = "Dump IdealGraphVisualizer output in binary format", type = OptionType.Debug)
         public static final OptionValue<Boolean> PrintBinaryGraphs = new OptionValue<>(true);
+        @Option(help = "Encode binary graphs on the dumping thread but write them on a background thread. " +
+                       "Graphs are dropped if the writer falls behind.", type = OptionType.Debug)
+        public static final OptionValue<Boolean> PrintBinaryGraphsAsync = new OptionValue<>(false);
+        @Option(help = "Number of 256KB buffers used to queue graphs for the writer thread (see PrintBinaryGraphsAsync).", type = OptionType.Debug)
+        public static final OptionValue<Integer> PrintBinaryGraphsBuffers = new OptionValue<>(16);
+        @Option(help = "Compress binary graph files with gzip (.bgv.gz). Only applies to PrintIdealGraphFile.", type = OptionType.Debug)
+        public static final OptionValue<Boolean> PrintBinaryGraphsCompressed = new OptionValue<>(false);
         @Option(help = "Print Ideal graphs as opposed to sending them over the network.", type = OptionType.Debug)
         public static final OptionValue<Boolean> PrintIdealGraphFile = new OptionValue<>(false);
         @Option(help = "The directory into which to dump the Ideal graph files.")
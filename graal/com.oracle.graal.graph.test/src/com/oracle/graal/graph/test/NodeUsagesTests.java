@@ -28,12 +28,17 @@ import static com.oracle.graal.graph.test.matchers.NodeIterableIsEmpty.isNotEmpt
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
 import com.oracle.graal.graph.Graph;
 import com.oracle.graal.graph.Node;
 import com.oracle.graal.graph.NodeClass;
 import com.oracle.graal.nodeinfo.NodeInfo;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
 
 public class NodeUsagesTests {
 
@@ -436,4 +441,42 @@ public class NodeUsagesTests {
 
         assertThat(def1.usages(), isNotEmpty());
     }
+
+    @Test
+    public void testCompactUsageStorage() {
+        try (OverrideScope s = OptionValue.override(Graph.Options.CompactUsageStorage, true)) {
+            Graph graph = new Graph();
+            Def def0 = graph.add(new Def());
+            Def def1 = graph.add(new Def());
+            List<Use> uses = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                uses.add(graph.add(new Use(def0, i % 2 == 0 ? def1 : null, null)));
+            }
+
+            assertEquals(40, def0.getUsageCount());
+            assertEquals(20, def1.getUsageCount());
+            for (Use use : uses) {
+                assertThat(def0.usages(), contains(use));
+            }
+
+            for (int i = 0; i < uses.size(); i += 3) {
+                uses.get(i).replaceFirstInput(def0, def1);
+            }
+            for (int i = 0; i < uses.size(); i++) {
+                if (i % 3 == 0) {
+                    assertThat(def1.usages(), contains(uses.get(i)));
+                } else {
+                    assertThat(def0.usages(), contains(uses.get(i)));
+                }
+            }
+            assertEquals(26, def0.getUsageCount());
+
+            def0.replaceAtUsages(def1);
+            assertThat(def0.usages(), isEmpty());
+            for (Use use : uses) {
+                assertThat(def1.usages(), contains(use));
+            }
+            assertEquals(60, def1.getUsageCount());
+        }
+    }
 }
@@ -56,6 +56,9 @@ public class Graph {
         public static final OptionValue<Integer> GraphCompressionThreshold = new OptionValue<>(70);
         @Option(help = "Use Unsafe to clone graph nodes thus avoiding copying fields that will be re-initialized anyway", type = OptionType.Debug)//
         public static final OptionValue<Boolean> CloneNodesWithUnsafe = new OptionValue<>(true);
+        @Option(help = "Store node usages beyond the first two in a pool shared by all nodes of a graph instead of in per-node arrays. " +
+                        "This reduces the heap footprint of large graphs.", type = OptionType.Expert)//
+        public static final OptionValue<Boolean> CompactUsageStorage = new OptionValue<>(false);
     }
 
     public final String name;
@@ -90,6 +93,13 @@ public class Graph {
      */
     private int[] nodeUsageModCounts;
 
+    /**
+     * Storage for the usages of nodes in this graph that have more than
+     * {@value Node#INLINE_USAGE_COUNT} usages if {@link Options#CompactUsageStorage} is enabled,
+     * otherwise {@code null}.
+     */
+    final NodeUsagePool usagePool;
+
     // these two arrays contain one entry for each NodeClass, indexed by NodeClass.iterableId.
     // they contain the first and last pointer to a linked list of all nodes with this type.
     private final ArrayList<Node> iterableNodesFirst;
@@ -252,6 +262,7 @@ public class Graph {
         iterableNodesFirst = new ArrayList<>(NodeClass.allocatedNodeIterabledIds());
         iterableNodesLast = new ArrayList<>(NodeClass.allocatedNodeIterabledIds());
         this.name = name;
+        this.usagePool = Options.CompactUsageStorage.getValue() ? new NodeUsagePool() : null;
         if (isModificationCountsEnabled()) {
             nodeModCounts = new int[INITIAL_NODES_SIZE];
             nodeUsageModCounts = new int[INITIAL_NODES_SIZE];
@@ -803,6 +814,9 @@ public class Graph {
                 if (i != nextId) {
                     assert n.id > nextId;
                     n.id = nextId;
+                    if (usagePool != null) {
+                        usagePool.move(i, nextId);
+                    }
                     nodes[nextId] = n;
                     nodes[i] = null;
                 }
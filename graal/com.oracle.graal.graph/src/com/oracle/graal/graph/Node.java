@@ -224,7 +224,9 @@ public abstract class Node implements Cloneable, Formattable {
 
     /**
      * Head of usage list. The elements of the usage list in order are {@link #usage0},
-     * {@link #usage1} and {@link #extraUsages}. The first null entry terminates the list.
+     * {@link #usage1} and {@link #extraUsages}. The first null entry terminates the list. If the
+     * graph of this node has a {@link NodeUsagePool}, the extra usages are stored there instead of
+     * in {@link #extraUsages}.
      */
     Node usage0;
     Node usage1;
@@ -431,6 +433,11 @@ public abstract class Node implements Cloneable, Formattable {
         } else if (usage1 == null) {
             usage1 = node;
         } else {
+            NodeUsagePool pool = usagePool();
+            if (pool != null) {
+                pool.add(id, extraUsagesCount++, node);
+                return;
+            }
             int length = extraUsages.length;
             if (length == 0) {
                 extraUsages = new Node[4];
@@ -443,6 +450,37 @@ public abstract class Node implements Cloneable, Formattable {
         }
     }
 
+    private NodeUsagePool usagePool() {
+        return graph == null ? null : graph.usagePool;
+    }
+
+    final Node getExtraUsage(int index) {
+        NodeUsagePool pool = usagePool();
+        if (pool != null) {
+            return pool.get(id, index);
+        }
+        return extraUsages[index];
+    }
+
+    private void setExtraUsage(int index, Node usage) {
+        NodeUsagePool pool = usagePool();
+        if (pool != null) {
+            pool.set(id, index, usage);
+        } else {
+            extraUsages[index] = usage;
+        }
+    }
+
+    private void removeLastExtraUsage() {
+        NodeUsagePool pool = usagePool();
+        if (pool != null) {
+            pool.removeLast(id, extraUsagesCount);
+        } else {
+            extraUsages[extraUsagesCount - 1] = null;
+        }
+        extraUsagesCount--;
+    }
+
     private void movUsageFromEndTo(int destIndex) {
         int lastIndex = this.getUsageCount() - 1;
         if (destIndex == 0) {
@@ -454,20 +492,19 @@ public abstract class Node implements Cloneable, Formattable {
                 usage1 = null;
                 return;
             } else {
-                usage0 = extraUsages[lastIndex - INLINE_USAGE_COUNT];
+                usage0 = getExtraUsage(lastIndex - INLINE_USAGE_COUNT);
             }
         } else if (destIndex == 1) {
             if (lastIndex == 1) {
                 usage1 = null;
                 return;
             }
-            usage1 = extraUsages[lastIndex - INLINE_USAGE_COUNT];
+            usage1 = getExtraUsage(lastIndex - INLINE_USAGE_COUNT);
         } else {
-            Node n = extraUsages[lastIndex - INLINE_USAGE_COUNT];
-            extraUsages[destIndex - INLINE_USAGE_COUNT] = n;
+            Node n = getExtraUsage(lastIndex - INLINE_USAGE_COUNT);
+            setExtraUsage(destIndex - INLINE_USAGE_COUNT, n);
         }
-        extraUsages[lastIndex - INLINE_USAGE_COUNT] = null;
-        this.extraUsagesCount--;
+        removeLastExtraUsage();
     }
 
     /**
@@ -490,7 +527,7 @@ public abstract class Node implements Cloneable, Formattable {
             return true;
         }
         for (int i = this.extraUsagesCount - 1; i >= 0; i--) {
-            if (extraUsages[i] == node) {
+            if (getExtraUsage(i) == node) {
                 this.movUsageFromEndTo(i + INLINE_USAGE_COUNT);
                 return true;
             }
@@ -681,7 +718,7 @@ public abstract class Node implements Cloneable, Formattable {
         } else if (index == 1) {
             return this.usage1;
         } else {
-            return this.extraUsages[index - INLINE_USAGE_COUNT];
+            return getExtraUsage(index - INLINE_USAGE_COUNT);
         }
     }
 
@@ -41,7 +41,7 @@ class NodeUsageIterator implements Iterator<Node> {
         } else {
             int relativeIndex = index - Node.INLINE_USAGE_COUNT;
             if (relativeIndex < node.extraUsagesCount) {
-                current = node.extraUsages[relativeIndex];
+                current = node.getExtraUsage(relativeIndex);
             }
         }
     }
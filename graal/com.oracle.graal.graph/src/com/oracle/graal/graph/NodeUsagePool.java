@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.graph;
+
+import java.util.Arrays;
+
+/**
+ * Storage for the usages of the nodes in a {@link Graph} beyond the first
+ * {@value Node#INLINE_USAGE_COUNT}, used instead of the per-node {@link Node#extraUsages} arrays
+ * when {@link Graph.Options#CompactUsageStorage} is enabled.
+ * <p>
+ * All usages are kept in one shared array that is divided into blocks whose sizes are powers of
+ * two. The block of a node is addressed by the node's id. A block is replaced by one twice as
+ * large when it is full and is returned to a free list of its size class when the node's extra
+ * usages drop to zero, so no per-node array headers or growth slack are allocated.
+ */
+final class NodeUsagePool {
+
+    private static final int MIN_BLOCK_SIZE = 4;
+    private static final int INITIAL_SIZE = 64;
+
+    private Node[] data = new Node[INITIAL_SIZE];
+    private int dataSize;
+
+    /**
+     * Block offset of each node, indexed by node id. Only valid while the node has extra usages.
+     */
+    private int[] offsets = new int[INITIAL_SIZE];
+
+    /**
+     * Block size class of each node, indexed by node id. The block size is
+     * {@code MIN_BLOCK_SIZE << sizeClass}.
+     */
+    private byte[] sizeClasses = new byte[INITIAL_SIZE];
+
+    /**
+     * Offsets of free blocks, indexed by size class.
+     */
+    private int[][] freeBlocks = new int[4][];
+    private int[] freeBlockCounts = new int[4];
+
+    Node get(int id, int index) {
+        return data[offsets[id] + index];
+    }
+
+    void set(int id, int index, Node usage) {
+        data[offsets[id] + index] = usage;
+    }
+
+    /**
+     * Appends {@code usage} to the extra usages of the node with id {@code id}.
+     *
+     * @param count the number of extra usages the node has before the append
+     */
+    void add(int id, int count, Node usage) {
+        if (count == 0) {
+            ensureIdCapacity(id);
+            offsets[id] = allocate(0);
+            sizeClasses[id] = 0;
+        } else {
+            int sizeClass = sizeClasses[id];
+            if (count == MIN_BLOCK_SIZE << sizeClass) {
+                int oldOffset = offsets[id];
+                int newOffset = allocate(sizeClass + 1);
+                System.arraycopy(data, oldOffset, data, newOffset, count);
+                free(oldOffset, sizeClass);
+                offsets[id] = newOffset;
+                sizeClasses[id] = (byte) (sizeClass + 1);
+            }
+        }
+        data[offsets[id] + count] = usage;
+    }
+
+    /**
+     * Removes the last extra usage of the node with id {@code id}.
+     *
+     * @param count the number of extra usages the node has before the removal
+     */
+    void removeLast(int id, int count) {
+        assert count > 0;
+        if (count == 1) {
+            free(offsets[id], sizeClasses[id]);
+        } else {
+            data[offsets[id] + count - 1] = null;
+        }
+    }
+
+    /**
+     * Transfers the block of a node whose id changes from {@code fromId} to {@code toId} during
+     * {@linkplain Graph#maybeCompress() compression}.
+     */
+    void move(int fromId, int toId) {
+        assert toId < fromId;
+        if (fromId < offsets.length) {
+            offsets[toId] = offsets[fromId];
+            sizeClasses[toId] = sizeClasses[fromId];
+        }
+    }
+
+    /**
+     * Gets the number of usage slots currently reserved by this pool, including free blocks.
+     */
+    int capacity() {
+        return dataSize;
+    }
+
+    private void ensureIdCapacity(int id) {
+        if (id >= offsets.length) {
+            int newLength = Math.max(id + 1, offsets.length * 2);
+            offsets = Arrays.copyOf(offsets, newLength);
+            sizeClasses = Arrays.copyOf(sizeClasses, newLength);
+        }
+    }
+
+    private int allocate(int sizeClass) {
+        if (sizeClass < freeBlockCounts.length && freeBlockCounts[sizeClass] != 0) {
+            return freeBlocks[sizeClass][--freeBlockCounts[sizeClass]];
+        }
+        int size = MIN_BLOCK_SIZE << sizeClass;
+        int offset = dataSize;
+        if (offset + size > data.length) {
+            data = Arrays.copyOf(data, Math.max(offset + size, data.length * 2));
+        }
+        dataSize = offset + size;
+        return offset;
+    }
+
+    private void free(int offset, int sizeClass) {
+        Arrays.fill(data, offset, offset + (MIN_BLOCK_SIZE << sizeClass), null);
+        if (sizeClass >= freeBlockCounts.length) {
+            freeBlocks = Arrays.copyOf(freeBlocks, sizeClass + 1);
+            freeBlockCounts = Arrays.copyOf(freeBlockCounts, sizeClass + 1);
+        }
+        int[] blocks = freeBlocks[sizeClass];
+        int blockCount = freeBlockCounts[sizeClass];
+        if (blocks == null) {
+            blocks = new int[4];
+            freeBlocks[sizeClass] = blocks;
+        } else if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            freeBlocks[sizeClass] = blocks;
+        }
+        blocks[blockCount] = offset;
+        freeBlockCounts[sizeClass] = blockCount + 1;
+    }
+}
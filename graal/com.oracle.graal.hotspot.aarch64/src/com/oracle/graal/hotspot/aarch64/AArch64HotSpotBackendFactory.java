@@ -28,6 +28,7 @@ import static jdk.vm.ci.common.InitTimer.timer;
 import com.oracle.graal.api.replacements.SnippetReflectionProvider;
 import com.oracle.graal.compiler.aarch64.AArch64AddressLowering;
 import com.oracle.graal.compiler.aarch64.AArch64SuitesProvider;
+import com.oracle.graal.compiler.phases.EconomyCompilerConfiguration;
 import com.oracle.graal.hotspot.CompilerConfigurationFactory;
 import com.oracle.graal.hotspot.EconomyCompilerConfigurationFactory;
 import com.oracle.graal.hotspot.CoreCompilerConfigurationFactory;
@@ -171,7 +172,8 @@ public class AArch64HotSpotBackendFactory implements HotSpotBackendFactory {
     }
 
     protected HotSpotSuitesProvider createSuites(GraalHotSpotVMConfig config, HotSpotGraalRuntimeProvider runtime, CompilerConfiguration compilerConfiguration, Plugins plugins) {
-        return new HotSpotSuitesProvider(new AArch64SuitesProvider(compilerConfiguration, plugins), config, runtime, new AArch64AddressLowering());
+        return new HotSpotSuitesProvider(new AArch64SuitesProvider(compilerConfiguration, plugins), new AArch64SuitesProvider(new EconomyCompilerConfiguration(), plugins), config, runtime,
+                        new AArch64AddressLowering());
     }
 
     protected HotSpotSnippetReflectionProvider createSnippetReflection(HotSpotGraalRuntimeProvider runtime, HotSpotConstantReflectionProvider constantReflection, WordTypes wordTypes) {
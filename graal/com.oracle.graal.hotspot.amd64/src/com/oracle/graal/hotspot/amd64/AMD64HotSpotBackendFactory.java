@@ -31,6 +31,7 @@ import java.util.List;
 import com.oracle.graal.api.replacements.SnippetReflectionProvider;
 import com.oracle.graal.compiler.amd64.AMD64SuitesProvider;
 import com.oracle.graal.compiler.common.spi.ConstantFieldProvider;
+import com.oracle.graal.compiler.phases.EconomyCompilerConfiguration;
 import com.oracle.graal.hotspot.CoreCompilerConfigurationFactory;
 import com.oracle.graal.hotspot.CompilerConfigurationFactory;
 import com.oracle.graal.hotspot.EconomyCompilerConfigurationFactory;
@@ -151,7 +152,7 @@ public class AMD64HotSpotBackendFactory implements HotSpotBackendFactory {
                     HotSpotMetaAccessProvider metaAccess, HotSpotSnippetReflectionProvider snippetReflection, HotSpotReplacementsImpl replacements, HotSpotWordTypes wordTypes,
                     HotSpotStampProvider stampProvider) {
         Plugins plugins = HotSpotGraphBuilderPlugins.create(config, wordTypes, metaAccess, constantReflection, snippetReflection, foreignCalls, stampProvider, replacements);
-        AMD64GraphBuilderPlugins.register(plugins, (AMD64) target.arch, GraalArithmeticStubs.getValue());
+        AMD64GraphBuilderPlugins.register(plugins, (AMD64) target.arch, GraalArithmeticStubs.getValue(), config.useSSE42Intrinsics);
         return plugins;
     }
 
@@ -174,8 +175,8 @@ public class AMD64HotSpotBackendFactory implements HotSpotBackendFactory {
 
     protected HotSpotSuitesProvider createSuites(GraalHotSpotVMConfig config, HotSpotGraalRuntimeProvider runtime, CompilerConfiguration compilerConfiguration, Plugins plugins,
                     HotSpotRegistersProvider registers) {
-        return new HotSpotSuitesProvider(new AMD64SuitesProvider(compilerConfiguration, plugins), config, runtime, new AMD64HotSpotAddressLowering(config.getOopEncoding().base,
-                        registers.getHeapBaseRegister()));
+        return new HotSpotSuitesProvider(new AMD64SuitesProvider(compilerConfiguration, plugins), new AMD64SuitesProvider(new EconomyCompilerConfiguration(), plugins), config, runtime,
+                        new AMD64HotSpotAddressLowering(config.getOopEncoding().base, registers.getHeapBaseRegister()));
     }
 
     protected HotSpotSnippetReflectionProvider createSnippetReflection(HotSpotGraalRuntimeProvider runtime, HotSpotConstantReflectionProvider constantReflection, WordTypes wordTypes) {
@@ -25,6 +25,7 @@ package com.oracle.graal.hotspot.sparc;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.oracle.graal.compiler.phases.EconomyCompilerConfiguration;
 import com.oracle.graal.compiler.sparc.SPARCAddressLowering;
 import com.oracle.graal.compiler.sparc.SPARCSuitesProvider;
 import com.oracle.graal.hotspot.CoreCompilerConfigurationFactory;
@@ -117,7 +118,8 @@ public class SPARCHotSpotBackendFactory implements HotSpotBackendFactory {
     }
 
     protected HotSpotSuitesProvider createSuites(GraalHotSpotVMConfig config, HotSpotGraalRuntimeProvider runtime, CompilerConfiguration compilerConfiguration, Plugins plugins) {
-        return new HotSpotSuitesProvider(new SPARCSuitesProvider(compilerConfiguration, plugins), config, runtime, new SPARCAddressLowering());
+        return new HotSpotSuitesProvider(new SPARCSuitesProvider(compilerConfiguration, plugins), new SPARCSuitesProvider(new EconomyCompilerConfiguration(), plugins), config, runtime,
+                        new SPARCAddressLowering());
     }
 
     protected SPARCHotSpotBackend createBackend(GraalHotSpotVMConfig config, HotSpotGraalRuntimeProvider runtime, HotSpotProviders providers) {
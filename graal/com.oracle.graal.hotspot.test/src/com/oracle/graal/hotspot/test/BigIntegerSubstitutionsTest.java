@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot.test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.oracle.graal.compiler.test.GraalCompilerTest;
+import com.oracle.graal.nodes.StructuredGraph;
+
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Tests compiled calls to the {@link BigInteger} operations whose inner loops may be intrinsified
+ * by the VM's stubs.
+ */
+public class BigIntegerSubstitutionsTest extends GraalCompilerTest {
+
+    private static final Random random = new Random(17);
+
+    private static BigInteger randomBigInteger(int bits) {
+        return new BigInteger(bits, random).setBit(bits - 1);
+    }
+
+    public static BigInteger multiply(BigInteger x, BigInteger y) {
+        return x.multiply(y);
+    }
+
+    public static BigInteger square(BigInteger x) {
+        return x.multiply(x);
+    }
+
+    public static BigInteger modPow(BigInteger base, BigInteger exponent, BigInteger modulus) {
+        return base.modPow(exponent, modulus);
+    }
+
+    @Test
+    public void testMultiply() {
+        for (int bits : new int[]{31, 64, 1000, 2048, 4000}) {
+            test("multiply", randomBigInteger(bits), randomBigInteger(bits / 2 + 1));
+        }
+    }
+
+    /**
+     * Calls the substituted {@code multiplyToLen} directly with a result array that is longer than
+     * the product, which {@link BigInteger} itself never does but which the method allows.
+     */
+    @Test
+    public void testMultiplyToLenOversizedResult() throws Exception {
+        ResolvedJavaMethod method;
+        Object receiver;
+        if (Java8OrEarlier) {
+            method = getResolvedJavaMethod(BigInteger.class, "multiplyToLen", int[].class, int.class, int[].class, int.class, int[].class);
+            receiver = BigInteger.ONE;
+        } else {
+            method = getResolvedJavaMethod(BigInteger.class, "implMultiplyToLen", int[].class, int.class, int[].class, int.class, int[].class);
+            receiver = null;
+        }
+        StructuredGraph graph = getReplacements().getSubstitution(method, -1);
+        Assume.assumeTrue("multiplyToLen is not intrinsified on this platform", graph != null);
+        InstalledCode code = getCode(method, graph);
+
+        int[] x = magnitude(randomBigInteger(1000));
+        int[] y = magnitude(randomBigInteger(700));
+        for (int extra : new int[]{0, 1, 5}) {
+            int[] expected = (int[]) invoke(method, receiver, x, x.length, y, y.length, new int[x.length + y.length + extra]);
+            Object[] args = argsWithReceiver(receiver, x, x.length, y, y.length, new int[x.length + y.length + extra]);
+            int[] actual = (int[]) code.executeVarargs(args);
+            Assert.assertArrayEquals("extra result length " + extra, expected, actual);
+        }
+    }
+
+    /**
+     * Gets the big-endian 32-bit words of the magnitude of a positive {@link BigInteger}.
+     */
+    private static int[] magnitude(BigInteger value) {
+        int[] words = new int[(value.bitLength() + 31) / 32];
+        for (int i = 0; i < words.length; i++) {
+            words[words.length - 1 - i] = value.shiftRight(i * 32).intValue();
+        }
+        return words;
+    }
+
+    @Test
+    public void testSquare() {
+        for (int bits : new int[]{31, 64, 1000, 2048, 4000}) {
+            test("square", randomBigInteger(bits));
+        }
+    }
+
+    @Test
+    public void testModPow() {
+        for (int bits : new int[]{512, 1024, 2048}) {
+            BigInteger modulus = randomBigInteger(bits).setBit(0);
+            test("modPow", randomBigInteger(bits - 1), randomBigInteger(bits / 2), modulus);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot.test;
+
+import static com.oracle.graal.compiler.GraalCompilerOptions.CompilationTimeBudget;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.graal.compiler.common.CompilationBudget;
+import com.oracle.graal.hotspot.CompilationTask;
+import com.oracle.graal.hotspot.HotSpotGraalCompiler;
+import com.oracle.graal.hotspot.HotSpotGraalRuntimeProvider;
+import com.oracle.graal.hotspot.meta.HotSpotProviders;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.phases.BasePhase;
+import com.oracle.graal.phases.tiers.HighTierContext;
+import com.oracle.graal.phases.tiers.Suites;
+
+import jdk.vm.ci.hotspot.HotSpotCompilationRequest;
+import jdk.vm.ci.hotspot.HotSpotCompilationRequestResult;
+import jdk.vm.ci.hotspot.HotSpotJVMCIRuntime;
+import jdk.vm.ci.hotspot.HotSpotJVMCIRuntimeProvider;
+import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
+import jdk.vm.ci.runtime.JVMCICompiler;
+
+/**
+ * Tests that a compilation that exceeds its {@link CompilationBudget} is retried with the economy
+ * configuration.
+ */
+public class CompilationBudgetRetryTest extends HotSpotGraalCompilerTest {
+
+    public static int snippet(int[] array) {
+        int sum = 0;
+        for (int i = 0; i < array.length; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Runs until the active compilation budget is exhausted.
+     */
+    private static class ExhaustBudgetPhase extends BasePhase<HighTierContext> {
+        @Override
+        protected void run(StructuredGraph graph, HighTierContext context) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                CompilationBudget.check();
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * A compiler whose default suites exhaust the compilation budget.
+     */
+    private static class ExhaustingCompiler extends HotSpotGraalCompiler {
+
+        private final boolean hasEconomySuites;
+        int economySuitesRequests;
+
+        ExhaustingCompiler(HotSpotJVMCIRuntimeProvider jvmciRuntime, HotSpotGraalRuntimeProvider graalRuntime, boolean hasEconomySuites) {
+            super(jvmciRuntime, graalRuntime);
+            this.hasEconomySuites = hasEconomySuites;
+        }
+
+        @Override
+        protected Suites getSuites(HotSpotProviders providers) {
+            Suites suites = super.getSuites(providers).copy();
+            suites.getHighTier().prependPhase(new ExhaustBudgetPhase());
+            return suites;
+        }
+
+        @Override
+        protected Suites getEconomySuites(HotSpotProviders providers) {
+            economySuitesRequests++;
+            return hasEconomySuites ? super.getEconomySuites(providers) : null;
+        }
+    }
+
+    @SuppressWarnings("try")
+    private HotSpotCompilationRequestResult compile(ExhaustingCompiler compiler) {
+        HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) getResolvedJavaMethod("snippet");
+        HotSpotCompilationRequest request = new HotSpotCompilationRequest(method, JVMCICompiler.INVOCATION_ENTRY_BCI, 0L);
+        try (OverrideScope s = OptionValue.override(CompilationTimeBudget, 10)) {
+            return new CompilationTask(HotSpotJVMCIRuntime.runtime(), compiler, request, true, false).runCompilation();
+        }
+    }
+
+    @Test
+    public void testEconomyRetry() {
+        ExhaustingCompiler compiler = new ExhaustingCompiler(HotSpotJVMCIRuntime.runtime(), runtime(), true);
+        HotSpotCompilationRequestResult result = compile(compiler);
+        Assert.assertEquals(1, compiler.economySuitesRequests);
+        Assert.assertNull("economy compilation failed", result.getFailure());
+    }
+
+    @Test
+    public void testNoEconomySuites() {
+        ExhaustingCompiler compiler = new ExhaustingCompiler(HotSpotJVMCIRuntime.runtime(), runtime(), false);
+        HotSpotCompilationRequestResult result = compile(compiler);
+        Assert.assertEquals(1, compiler.economySuitesRequests);
+        Assert.assertNotNull("compilation must bail out without economy suites", result.getFailure());
+        Assert.assertTrue(result.getRetry());
+    }
+
+    @Test
+    public void testEconomySuitesCached() {
+        HotSpotProviders providers = runtime().getHostBackend().getProviders();
+        ExhaustingCompiler compiler = new ExhaustingCompiler(HotSpotJVMCIRuntime.runtime(), runtime(), true);
+        Suites suites = compiler.getEconomySuites(providers);
+        Assert.assertNotNull(suites);
+        Assert.assertSame(suites, compiler.getEconomySuites(providers));
+        Assert.assertTrue(suites.isImmutable());
+    }
+}
@@ -36,11 +36,13 @@ import java.security.SecureRandom;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.oracle.graal.code.CompilationResult;
+import com.oracle.graal.hotspot.GraalHotSpotVMConfig;
 import com.oracle.graal.hotspot.meta.HotSpotGraphBuilderPlugins;
 import com.oracle.graal.hotspot.meta.HotSpotProviders;
 import com.oracle.graal.java.GraphBuilderPhase;
@@ -71,6 +73,8 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
     byte[] input;
     ByteArrayOutputStream aesExpected = new ByteArrayOutputStream();
     ByteArrayOutputStream desExpected = new ByteArrayOutputStream();
+    byte[] gcmIV = new byte[12];
+    byte[] gcmExpected;
 
     public HotSpotCryptoSubstitutionTest() throws Exception {
         byte[] seed = {0x4, 0x7, 0x1, 0x1};
@@ -88,11 +92,14 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
 
         desExpected.write(runEncryptDecrypt(desKey, "DESede/CBC/NoPadding"));
         desExpected.write(runEncryptDecrypt(desKey, "DESede/CBC/PKCS5Padding"));
+
+        random.nextBytes(gcmIV);
+        gcmExpected = runGCMEncryptDecrypt(aesKey);
     }
 
     @Test
     public void testAESCryptIntrinsics() throws Exception {
-        if (compileAndInstall("com.sun.crypto.provider.AESCrypt", HotSpotGraphBuilderPlugins.aesEncryptName, HotSpotGraphBuilderPlugins.aesDecryptName)) {
+        if (compileAndInstall(runtime().getVMConfig().useAESIntrinsics, "com.sun.crypto.provider.AESCrypt", HotSpotGraphBuilderPlugins.aesEncryptName, HotSpotGraphBuilderPlugins.aesDecryptName)) {
             ByteArrayOutputStream actual = new ByteArrayOutputStream();
             actual.write(runEncryptDecrypt(aesKey, "AES/CBC/NoPadding"));
             actual.write(runEncryptDecrypt(aesKey, "AES/CBC/PKCS5Padding"));
@@ -102,7 +109,7 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
 
     @Test
     public void testCipherBlockChainingIntrinsics() throws Exception {
-        if (compileAndInstall("com.sun.crypto.provider.CipherBlockChaining", HotSpotGraphBuilderPlugins.cbcEncryptName, HotSpotGraphBuilderPlugins.cbcDecryptName)) {
+        if (compileAndInstall(runtime().getVMConfig().useAESIntrinsics, "com.sun.crypto.provider.CipherBlockChaining", HotSpotGraphBuilderPlugins.cbcEncryptName, HotSpotGraphBuilderPlugins.cbcDecryptName)) {
             ByteArrayOutputStream actual = new ByteArrayOutputStream();
             actual.write(runEncryptDecrypt(aesKey, "AES/CBC/NoPadding"));
             actual.write(runEncryptDecrypt(aesKey, "AES/CBC/PKCS5Padding"));
@@ -115,15 +122,24 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
         }
     }
 
+    @Test
+    public void testGHASHIntrinsics() throws Exception {
+        GraalHotSpotVMConfig config = runtime().getVMConfig();
+        if (compileAndInstall(config.useGHASHIntrinsics && config.ghashProcessBlocksStub != 0L, "com.sun.crypto.provider.GHASH", "processBlocks")) {
+            Assert.assertArrayEquals(gcmExpected, runGCMEncryptDecrypt(aesKey));
+        }
+    }
+
     /**
      * Compiles and installs the substitution for some specified methods. Once installed, the next
      * execution of the methods will use the newly installed code.
      *
+     * @param intrinsicsEnabled specifies if the VM provides substitutions for the methods
      * @param className the name of the class for which substitutions are available
      * @param methodNames the names of the substituted methods
      * @return true if at least one substitution was compiled and installed
      */
-    private boolean compileAndInstall(String className, String... methodNames) {
+    private boolean compileAndInstall(boolean intrinsicsEnabled, String className, String... methodNames) {
         boolean atLeastOneCompiled = false;
         for (String methodName : methodNames) {
             Method method = lookup(className, methodName);
@@ -141,7 +157,7 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
                     Assert.assertNotNull(getCode(installedCodeOwner, graph, true));
                     atLeastOneCompiled = true;
                 } else {
-                    Assert.assertFalse(runtime().getVMConfig().useAESIntrinsics);
+                    Assert.assertFalse(intrinsicsEnabled);
                 }
             }
         }
@@ -219,4 +235,21 @@ public class HotSpotCryptoSubstitutionTest extends HotSpotGraalCompilerTest {
         Assert.assertArrayEquals(indata, plain);
         return plain;
     }
+
+    /**
+     * Encrypts and decrypts {@link #input} with AES/GCM. The IV is fixed so that the returned
+     * cipher text, which ends with the authentication tag computed by GHASH, can be compared across
+     * runs.
+     */
+    public byte[] runGCMEncryptDecrypt(SecretKey key) throws Exception {
+        GCMParameterSpec spec = new GCMParameterSpec(128, gcmIV);
+        Cipher c = Cipher.getInstance("AES/GCM/NoPadding");
+        c.init(Cipher.ENCRYPT_MODE, key, spec);
+        byte[] cipher = c.doFinal(input);
+
+        c = Cipher.getInstance("AES/GCM/NoPadding");
+        c.init(Cipher.DECRYPT_MODE, key, spec);
+        Assert.assertArrayEquals(input, c.doFinal(cipher));
+        return cipher;
+    }
 }
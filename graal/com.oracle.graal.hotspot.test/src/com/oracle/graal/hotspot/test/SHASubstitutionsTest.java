@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot.test;
+
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+
+import org.junit.Test;
+
+import com.oracle.graal.compiler.test.GraalCompilerTest;
+
+/**
+ * Tests compiled calls to the SHA-1, SHA-256 and SHA-512 message digests whose block compression
+ * may be intrinsified by the VM's stubs.
+ */
+public class SHASubstitutionsTest extends GraalCompilerTest {
+
+    public static byte[] digest(String algorithm, byte[] input, int offset, int length) throws Exception {
+        MessageDigest md = MessageDigest.getInstance(algorithm);
+        md.update(input, offset, length);
+        return md.digest();
+    }
+
+    private static byte[] readClassfile() throws Exception {
+        String classfileName = SHASubstitutionsTest.class.getSimpleName() + ".class";
+        InputStream s = SHASubstitutionsTest.class.getResourceAsStream(classfileName);
+        byte[] buf = new byte[s.available()];
+        new DataInputStream(s).readFully(buf);
+        return buf;
+    }
+
+    private void testDigest(String algorithm) throws Exception {
+        byte[] buf = "some string".getBytes();
+        test("digest", algorithm, buf, 0, buf.length);
+        buf = readClassfile();
+        test("digest", algorithm, buf, 0, buf.length);
+        for (int offset = 1; offset < buf.length; offset += 37) {
+            test("digest", algorithm, buf, offset, buf.length - offset);
+        }
+    }
+
+    @Test
+    public void testSHA1() throws Exception {
+        testDigest("SHA-1");
+    }
+
+    @Test
+    public void testSHA256() throws Exception {
+        testDigest("SHA-256");
+    }
+
+    @Test
+    public void testSHA512() throws Exception {
+        testDigest("SHA-512");
+    }
+}
@@ -22,6 +22,8 @@
  */
 package com.oracle.graal.hotspot;
 
+import static com.oracle.graal.compiler.GraalCompilerOptions.CompilationMemoryBudget;
+import static com.oracle.graal.compiler.GraalCompilerOptions.CompilationTimeBudget;
 import static com.oracle.graal.compiler.GraalCompilerOptions.ExitVMOnBailout;
 import static com.oracle.graal.compiler.GraalCompilerOptions.ExitVMOnException;
 import static com.oracle.graal.compiler.GraalCompilerOptions.PrintAfterCompilation;
@@ -32,6 +34,9 @@ import static com.oracle.graal.compiler.GraalCompilerOptions.PrintStackTraceOnEx
 import static com.oracle.graal.compiler.phases.HighTier.Options.Inline;
 
 import com.oracle.graal.code.CompilationResult;
+import com.oracle.graal.compiler.GraalCompilerOptions;
+import com.oracle.graal.compiler.common.CompilationBudget;
+import com.oracle.graal.compiler.common.CompilationBudgetExceededException;
 import com.oracle.graal.debug.Debug;
 import com.oracle.graal.debug.Debug.Scope;
 import com.oracle.graal.debug.DebugCloseable;
@@ -41,6 +46,7 @@ import com.oracle.graal.debug.DebugTimer;
 import com.oracle.graal.debug.Management;
 import com.oracle.graal.debug.TTY;
 import com.oracle.graal.debug.TimeSource;
+import com.oracle.graal.options.OptionSnapshot;
 import com.oracle.graal.options.OptionValue;
 import com.oracle.graal.options.OptionValue.OverrideScope;
 
@@ -148,6 +154,12 @@ public class CompilationTask {
      */
     private static final DebugCounter CompiledBytecodes = Debug.counter("CompiledBytecodes");
 
+    /**
+     * Counts the compilations that exceeded their {@link CompilationBudget} and were completed
+     * with the economy configuration.
+     */
+    private static final DebugCounter DegradedCompilations = Debug.counter("CompilationBudget[degraded]");
+
     /**
      * Time spent in code installation.
      */
@@ -208,8 +220,8 @@ public class CompilationTask {
                  * Graal.
                  */
                 boolean disableInlining = !config.inline && !Inline.hasBeenSet();
-                try (OverrideScope s1 = disableInlining ? OptionValue.override(Inline, false) : null) {
-                    result = compiler.compile(method, entryBCI, useProfilingInfo);
+                try (OverrideScope s1 = disableInlining ? OptionValue.override(Inline, false) : null; OptionSnapshot.Activation a = OptionSnapshot.capture().activate()) {
+                    result = compileWithinBudget(method, entryBCI);
                 }
             } catch (Throwable e) {
                 throw Debug.handle(e);
@@ -303,6 +315,37 @@ public class CompilationTask {
         }
     }
 
+    /**
+     * Compiles {@code method} within the {@link CompilationBudget} specified by
+     * {@link GraalCompilerOptions#CompilationTimeBudget} and
+     * {@link GraalCompilerOptions#CompilationMemoryBudget}. If the budget is exhausted, the method
+     * is recompiled with the economy configuration instead of bailing out.
+     */
+    @SuppressWarnings("try")
+    private CompilationResult compileWithinBudget(HotSpotResolvedJavaMethod method, int entryBCI) {
+        int timeBudget = CompilationTimeBudget.getValue();
+        int memoryBudget = CompilationMemoryBudget.getValue();
+        if (timeBudget <= 0 && memoryBudget <= 0) {
+            return compiler.compile(method, entryBCI, useProfilingInfo);
+        }
+        CompilationBudget budget = new CompilationBudget(Math.max(timeBudget, 0), Math.max(memoryBudget, 0) * 1024L * 1024L);
+        try (CompilationBudget.Activation a = budget.activate()) {
+            return compiler.compile(method, entryBCI, useProfilingInfo);
+        } catch (CompilationBudgetExceededException e) {
+            Debug.methodMetrics(method).addToMetric(1, "CompilationBudgetExceeded");
+            if (PrintBailout.getValue()) {
+                TTY.out.println(method.format("%H.%n(%p): ") + e.getMessage() + ", recompiling with economy configuration");
+            }
+            CompilationResult result = compiler.compileEconomy(method, entryBCI, useProfilingInfo);
+            if (result == null) {
+                throw e;
+            }
+            DegradedCompilations.increment();
+            Debug.methodMetrics(method).addToMetric(1, "CompilationBudgetDegraded");
+            return result;
+        }
+    }
+
     protected void handleException(Throwable t) {
         /*
          * Automatically enable ExitVMOnException when asserts are enabled but respect
@@ -32,11 +32,14 @@ import static com.oracle.graal.hotspot.CompileTheWorldOptions.CompileTheWorldExc
 import static com.oracle.graal.hotspot.CompileTheWorldOptions.CompileTheWorldMethodFilter;
 import static com.oracle.graal.hotspot.CompileTheWorldOptions.CompileTheWorldStartAt;
 import static com.oracle.graal.hotspot.CompileTheWorldOptions.CompileTheWorldStopAt;
+import static com.oracle.graal.hotspot.CompileTheWorldOptions.CompileTheWorldTimingsFile;
 import static com.oracle.graal.hotspot.CompileTheWorldOptions.CompileTheWorldVerbose;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
@@ -64,8 +67,10 @@ import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -196,6 +201,7 @@ public final class CompileTheWorld {
     private AtomicLong compiledMethodsCounter = new AtomicLong();
     private AtomicLong compileTime = new AtomicLong();
     private AtomicLong memoryUsed = new AtomicLong();
+    private AtomicLong compiledBytecodes = new AtomicLong();
 
     private boolean verbose;
     private final Config config;
@@ -207,6 +213,18 @@ public final class CompileTheWorld {
 
     private ThreadPoolExecutor threadPool;
 
+    /**
+     * Pool used instead of {@link #threadPool} if
+     * {@link CompileTheWorldOptions#CompileTheWorldWorkStealing} is enabled.
+     */
+    private ForkJoinPool forkJoinPool;
+
+    /**
+     * Stream to which the timings of each compiled method are written if
+     * {@link CompileTheWorldOptions#CompileTheWorldTimingsFile} is set.
+     */
+    private PrintStream timings;
+
     /**
      * Creates a compile-the-world instance.
      *
@@ -541,148 +559,187 @@ public final class CompileTheWorld {
          * DebugValueThreadFilter to filter on the thread names.
          */
         int threadCount = 1;
-        if (CompileTheWorldOptions.CompileTheWorldMultiThreaded.getValue()) {
+        boolean workStealing = CompileTheWorldOptions.CompileTheWorldWorkStealing.getValue();
+        if (CompileTheWorldOptions.CompileTheWorldMultiThreaded.getValue() || workStealing) {
             threadCount = CompileTheWorldOptions.CompileTheWorldThreads.getValue();
             if (threadCount == 0) {
                 threadCount = Runtime.getRuntime().availableProcessors();
             }
-        } else {
+        }
+        if (!CompileTheWorldOptions.CompileTheWorldMultiThreaded.getValue() || workStealing) {
             running = true;
         }
-        threadPool = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), factory);
-
-        try (OverrideScope s = config.apply()) {
-            for (int i = 0; i < entries.length; i++) {
-                final String entry = entries[i];
-
-                ClassPathEntry cpe;
-                if (entry.endsWith(".zip") || entry.endsWith(".jar")) {
-                    cpe = new JarClassPathEntry(entry);
-                } else if (isJImage(entry)) {
-                    assert !Java8OrEarlier;
-                    cpe = new ImageClassPathEntry(entry);
-                } else {
-                    if (!new File(entry).isDirectory()) {
-                        println("CompileTheWorld : Skipped classes in " + entry);
-                        println();
-                        continue;
-                    }
-                    cpe = new DirClassPathEntry(entry);
-                }
-
-                if (methodFilters == null || methodFilters.length == 0) {
-                    println("CompileTheWorld : Compiling all classes in " + entry);
-                } else {
-                    String include = Arrays.asList(methodFilters).stream().map(MethodFilter::toString).collect(Collectors.joining(", "));
-                    println("CompileTheWorld : Compiling all methods in " + entry + " matching one of the following filters: " + include);
-                }
-                if (excludeMethodFilters != null && excludeMethodFilters.length > 0) {
-                    String exclude = Arrays.asList(excludeMethodFilters).stream().map(MethodFilter::toString).collect(Collectors.joining(", "));
-                    println("CompileTheWorld : Excluding all methods matching one of the following filters: " + exclude);
-                }
-                println();
-
-                ClassLoader loader = cpe.createClassLoader();
+        if (workStealing) {
+            forkJoinPool = new ForkJoinPool(threadCount, factory, null, false);
+        } else {
+            threadPool = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), factory);
+        }
 
-                for (String className : cpe.getClassNames()) {
+        String timingsFile = CompileTheWorldTimingsFile.getValue();
+        if (timingsFile != null) {
+            timings = new PrintStream(new FileOutputStream(timingsFile));
+            timings.println("class,thread,method,bytecodeSize,codeSize,compileTimeUs,allocatedBytes,result");
+        }
 
-                    // Are we done?
-                    if (classFileCounter >= stopAt) {
-                        break;
+        try {
+            try (OverrideScope s = config.apply()) {
+                for (int i = 0; i < entries.length; i++) {
+                    final String entry = entries[i];
+
+                    ClassPathEntry cpe;
+                    if (entry.endsWith(".zip") || entry.endsWith(".jar")) {
+                        cpe = new JarClassPathEntry(entry);
+                    } else if (isJImage(entry)) {
+                        assert !Java8OrEarlier;
+                        cpe = new ImageClassPathEntry(entry);
+                    } else {
+                        if (!new File(entry).isDirectory()) {
+                            println("CompileTheWorld : Skipped classes in " + entry);
+                            println();
+                            continue;
+                        }
+                        cpe = new DirClassPathEntry(entry);
                     }
 
-                    classFileCounter++;
-
-                    if (className.startsWith("jdk.management.") || className.startsWith("jdk.internal.cmm.*")) {
-                        continue;
+                    if (methodFilters == null || methodFilters.length == 0) {
+                        println("CompileTheWorld : Compiling all classes in " + entry);
+                    } else {
+                        String include = Arrays.asList(methodFilters).stream().map(MethodFilter::toString).collect(Collectors.joining(", "));
+                        println("CompileTheWorld : Compiling all methods in " + entry + " matching one of the following filters: " + include);
                     }
+                    if (excludeMethodFilters != null && excludeMethodFilters.length > 0) {
+                        String exclude = Arrays.asList(excludeMethodFilters).stream().map(MethodFilter::toString).collect(Collectors.joining(", "));
+                        println("CompileTheWorld : Excluding all methods matching one of the following filters: " + exclude);
+                    }
+                    println();
 
-                    try {
-                        // Load and initialize class
-                        Class<?> javaClass = Class.forName(className, true, loader);
+                    ClassLoader loader = cpe.createClassLoader();
 
-                        // Pre-load all classes in the constant pool.
-                        try {
-                            HotSpotResolvedObjectType objectType = HotSpotResolvedObjectType.fromObjectClass(javaClass);
-                            ConstantPool constantPool = objectType.getConstantPool();
-                            for (int cpi = 1; cpi < constantPool.length(); cpi++) {
-                                constantPool.loadReferencedType(cpi, Bytecodes.LDC);
-                            }
-                        } catch (Throwable t) {
-                            // If something went wrong during pre-loading we just ignore it.
-                            println("Preloading failed for (%d) %s: %s", classFileCounter, className, t);
-                        }
+                    for (String className : cpe.getClassNames()) {
 
-                        /*
-                         * Only check filters after class loading and resolution to mitigate impact
-                         * on reproducibility.
-                         */
-                        if (methodFilters != null && !MethodFilter.matchesClassName(methodFilters, className)) {
-                            continue;
+                        // Are we done?
+                        if (classFileCounter >= stopAt) {
+                            break;
                         }
-                        if (excludeMethodFilters != null && MethodFilter.matchesClassName(excludeMethodFilters, className)) {
+
+                        classFileCounter++;
+
+                        if (className.startsWith("jdk.management.") || className.startsWith("jdk.internal.cmm.*")) {
                             continue;
                         }
 
-                        // Are we compiling this class?
-                        MetaAccessProvider metaAccess = JVMCI.getRuntime().getHostJVMCIBackend().getMetaAccess();
-                        if (classFileCounter >= startAt) {
-                            println("CompileTheWorld (%d) : %s", classFileCounter, className);
-
-                            // Compile each constructor/method in the class.
-                            for (Constructor<?> constructor : javaClass.getDeclaredConstructors()) {
-                                HotSpotResolvedJavaMethod javaMethod = (HotSpotResolvedJavaMethod) metaAccess.lookupJavaMethod(constructor);
-                                if (canBeCompiled(javaMethod, constructor.getModifiers())) {
-                                    compileMethod(javaMethod);
+                        try {
+                            // Load and initialize class
+                            Class<?> javaClass = Class.forName(className, true, loader);
+
+                            // Pre-load all classes in the constant pool.
+                            try {
+                                HotSpotResolvedObjectType objectType = HotSpotResolvedObjectType.fromObjectClass(javaClass);
+                                ConstantPool constantPool = objectType.getConstantPool();
+                                for (int cpi = 1; cpi < constantPool.length(); cpi++) {
+                                    constantPool.loadReferencedType(cpi, Bytecodes.LDC);
                                 }
+                            } catch (Throwable t) {
+                                // If something went wrong during pre-loading we just ignore it.
+                                println("Preloading failed for (%d) %s: %s", classFileCounter, className, t);
                             }
-                            for (Method method : javaClass.getDeclaredMethods()) {
-                                HotSpotResolvedJavaMethod javaMethod = (HotSpotResolvedJavaMethod) metaAccess.lookupJavaMethod(method);
-                                if (canBeCompiled(javaMethod, method.getModifiers())) {
-                                    compileMethod(javaMethod);
-                                }
+
+                            /*
+                             * Only check filters after class loading and resolution to mitigate impact
+                             * on reproducibility.
+                             */
+                            if (methodFilters != null && !MethodFilter.matchesClassName(methodFilters, className)) {
+                                continue;
                             }
+                            if (excludeMethodFilters != null && MethodFilter.matchesClassName(excludeMethodFilters, className)) {
+                                continue;
+                            }
+
+                            // Are we compiling this class?
+                            MetaAccessProvider metaAccess = JVMCI.getRuntime().getHostJVMCIBackend().getMetaAccess();
+                            if (classFileCounter >= startAt) {
+                                println("CompileTheWorld (%d) : %s", classFileCounter, className);
+
+                                // Compile each constructor/method in the class.
+                                List<HotSpotResolvedJavaMethod> methods = new ArrayList<>();
+                                for (Constructor<?> constructor : javaClass.getDeclaredConstructors()) {
+                                    HotSpotResolvedJavaMethod javaMethod = (HotSpotResolvedJavaMethod) metaAccess.lookupJavaMethod(constructor);
+                                    if (canBeCompiled(javaMethod, constructor.getModifiers())) {
+                                        methods.add(javaMethod);
+                                    }
+                                }
+                                for (Method method : javaClass.getDeclaredMethods()) {
+                                    HotSpotResolvedJavaMethod javaMethod = (HotSpotResolvedJavaMethod) metaAccess.lookupJavaMethod(method);
+                                    if (canBeCompiled(javaMethod, method.getModifiers())) {
+                                        methods.add(javaMethod);
+                                    }
+                                }
 
-                            // Also compile the class initializer if it exists
-                            HotSpotResolvedJavaMethod clinit = (HotSpotResolvedJavaMethod) metaAccess.lookupJavaType(javaClass).getClassInitializer();
-                            if (clinit != null && canBeCompiled(clinit, clinit.getModifiers())) {
-                                compileMethod(clinit);
+                                // Also compile the class initializer if it exists
+                                HotSpotResolvedJavaMethod clinit = (HotSpotResolvedJavaMethod) metaAccess.lookupJavaType(javaClass).getClassInitializer();
+                                if (clinit != null && canBeCompiled(clinit, clinit.getModifiers())) {
+                                    methods.add(clinit);
+                                }
+                                compileMethods(methods);
                             }
+                        } catch (Throwable t) {
+                            println("CompileTheWorld (%d) : Skipping %s %s", classFileCounter, className, t.toString());
+                            printStackTrace(t);
                         }
-                    } catch (Throwable t) {
-                        println("CompileTheWorld (%d) : Skipping %s %s", classFileCounter, className, t.toString());
-                        printStackTrace(t);
                     }
+                    cpe.close();
                 }
-                cpe.close();
             }
-        }
 
-        if (!running) {
-            startThreads();
-        }
-        int wakeups = 0;
-        while (threadPool.getCompletedTaskCount() != threadPool.getTaskCount()) {
-            if (wakeups % 15 == 0) {
-                TTY.println("CompileTheWorld : Waiting for " + (threadPool.getTaskCount() - threadPool.getCompletedTaskCount()) + " compiles");
+            if (!running) {
+                startThreads();
             }
-            try {
-                threadPool.awaitTermination(1, TimeUnit.SECONDS);
-                wakeups++;
-            } catch (InterruptedException e) {
+            int wakeups = 0;
+            if (forkJoinPool != null) {
+                forkJoinPool.shutdown();
+                while (!forkJoinPool.isTerminated()) {
+                    if (wakeups % 15 == 0) {
+                        TTY.println("CompileTheWorld : Waiting for compiles (%d methods compiled, %d tasks queued)", compiledMethodsCounter.get(), forkJoinPool.getQueuedTaskCount());
+                    }
+                    try {
+                        forkJoinPool.awaitTermination(1, TimeUnit.SECONDS);
+                        wakeups++;
+                    } catch (InterruptedException e) {
+                    }
+                }
+                forkJoinPool = null;
+            } else {
+                while (threadPool.getCompletedTaskCount() != threadPool.getTaskCount()) {
+                    if (wakeups % 15 == 0) {
+                        TTY.println("CompileTheWorld : Waiting for " + (threadPool.getTaskCount() - threadPool.getCompletedTaskCount()) + " compiles");
+                    }
+                    try {
+                        threadPool.awaitTermination(1, TimeUnit.SECONDS);
+                        wakeups++;
+                    } catch (InterruptedException e) {
+                    }
+                }
+                threadPool = null;
+            }
+        } finally {
+            if (timings != null) {
+                timings.close();
+                timings = null;
             }
         }
-        threadPool = null;
 
         long elapsedTime = System.currentTimeMillis() - start;
 
         println();
-        if (CompileTheWorldOptions.CompileTheWorldMultiThreaded.getValue()) {
+        if (CompileTheWorldOptions.CompileTheWorldMultiThreaded.getValue() || workStealing) {
             TTY.println("CompileTheWorld : Done (%d classes, %d methods, %d ms elapsed, %d ms compile time, %d bytes of memory used)", classFileCounter, compiledMethodsCounter.get(), elapsedTime,
                             compileTime.get(), memoryUsed.get());
         } else {
             TTY.println("CompileTheWorld : Done (%d classes, %d methods, %d ms, %d bytes of memory used)", classFileCounter, compiledMethodsCounter.get(), compileTime.get(), memoryUsed.get());
         }
+        double elapsedSeconds = Math.max(elapsedTime, 1) / 1000.0;
+        TTY.println("CompileTheWorld : Throughput %.1f methods/s, %.1f bytecode bytes/s (%d threads)", compiledMethodsCounter.get() / elapsedSeconds, compiledBytecodes.get() / elapsedSeconds,
+                        threadCount);
     }
 
     private synchronized void startThreads() {
@@ -700,12 +757,69 @@ public final class CompileTheWorld {
         }
     }
 
-    @SuppressWarnings("try")
-    private void compileMethod(HotSpotResolvedJavaMethod method) throws InterruptedException, ExecutionException {
+    private boolean isSelected(HotSpotResolvedJavaMethod method) {
         if (methodFilters != null && !MethodFilter.matches(methodFilters, method)) {
-            return;
+            return false;
         }
         if (excludeMethodFilters != null && MethodFilter.matches(excludeMethodFilters, method)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compiles the selected methods of one class. In
+     * {@linkplain CompileTheWorldOptions#CompileTheWorldWorkStealing work-stealing} mode, the
+     * class is submitted as one task to {@link #forkJoinPool} which forks a subtask per method so
+     * that idle threads steal methods of big classes from busy threads.
+     */
+    private void compileMethods(List<HotSpotResolvedJavaMethod> methods) throws InterruptedException, ExecutionException {
+        if (forkJoinPool != null) {
+            List<CompileMethodTask> tasks = new ArrayList<>(methods.size());
+            for (HotSpotResolvedJavaMethod method : methods) {
+                if (isSelected(method)) {
+                    tasks.add(new CompileMethodTask(method, classFileCounter));
+                }
+            }
+            if (!tasks.isEmpty()) {
+                forkJoinPool.execute(new RecursiveAction() {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+            }
+        } else {
+            for (HotSpotResolvedJavaMethod method : methods) {
+                compileMethod(method);
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class CompileMethodTask extends RecursiveAction {
+        private final HotSpotResolvedJavaMethod method;
+        private final int counter;
+
+        CompileMethodTask(HotSpotResolvedJavaMethod method, int counter) {
+            this.method = method;
+            this.counter = counter;
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        protected void compute() {
+            try (OverrideScope s = config.apply()) {
+                compileMethod(method, counter);
+            }
+        }
+    }
+
+    @SuppressWarnings("try")
+    private void compileMethod(HotSpotResolvedJavaMethod method) throws InterruptedException, ExecutionException {
+        if (!isSelected(method)) {
             return;
         }
         Future<?> task = threadPool.submit(new Runnable() {
@@ -726,9 +840,10 @@ public final class CompileTheWorld {
      * Compiles a method and gathers some statistics.
      */
     private void compileMethod(HotSpotResolvedJavaMethod method, int counter) {
+        long startNanos = System.nanoTime();
+        long allocatedAtStart = MemUseTrackerImpl.getCurrentThreadAllocatedBytes();
         try {
             long start = System.currentTimeMillis();
-            long allocatedAtStart = MemUseTrackerImpl.getCurrentThreadAllocatedBytes();
             int entryBCI = JVMCICompiler.INVOCATION_ENTRY_BCI;
             HotSpotCompilationRequest request = new HotSpotCompilationRequest(method, entryBCI, 0L);
             // For more stable CTW execution, disable use of profiling information
@@ -739,17 +854,36 @@ public final class CompileTheWorld {
 
             // Invalidate the generated code so the code cache doesn't fill up
             HotSpotInstalledCode installedCode = task.getInstalledCode();
+            long codeSize = 0;
             if (installedCode != null) {
+                codeSize = installedCode.getCodeSize();
                 installedCode.invalidate();
             }
 
-            memoryUsed.getAndAdd(MemUseTrackerImpl.getCurrentThreadAllocatedBytes() - allocatedAtStart);
+            long allocated = MemUseTrackerImpl.getCurrentThreadAllocatedBytes() - allocatedAtStart;
+            memoryUsed.getAndAdd(allocated);
             compileTime.getAndAdd(System.currentTimeMillis() - start);
             compiledMethodsCounter.incrementAndGet();
+            compiledBytecodes.getAndAdd(method.getCodeSize());
+            recordTiming(counter, method, codeSize, startNanos, allocated, installedCode != null ? "installed" : "failed");
         } catch (Throwable t) {
             // Catch everything and print a message
             println("CompileTheWorld (%d) : Error compiling method: %s", counter, method.format("%H.%n(%p):%r"));
             printStackTrace(t);
+            recordTiming(counter, method, 0, startNanos, MemUseTrackerImpl.getCurrentThreadAllocatedBytes() - allocatedAtStart, "error");
+        }
+    }
+
+    private void recordTiming(int counter, HotSpotResolvedJavaMethod method, long codeSize, long startNanos, long allocated, String result) {
+        PrintStream out = timings;
+        if (out != null) {
+            long timeUs = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            String line = String.format("%d,%s,\"%s\",%d,%d,%d,%d,%s", counter, Thread.currentThread().getName(), method.format("%H.%n(%p)"), method.getCodeSize(), codeSize, timeUs, allocated,
+                            result);
+            synchronized (out) {
+                out.println(line);
+                out.flush();
+            }
         }
     }
 
@@ -57,6 +57,11 @@ public class CompileTheWorldOptions {
     public static final OptionValue<Boolean> CompileTheWorldMultiThreaded = new OptionValue<>(false);
     @Option(help = "Number of threads to use for multithreaded CTW.  Defaults to Runtime.getRuntime().availableProcessors()", type = OptionType.Debug)
     public static final OptionValue<Integer> CompileTheWorldThreads = new OptionValue<>(0);
+    @Option(help = "Compile the methods of each class as soon as the class is loaded, spreading them over CompileTheWorldThreads " +
+                   "work-stealing threads instead of starting compilation after all classes are loaded", type = OptionType.Debug)
+    public static final OptionValue<Boolean> CompileTheWorldWorkStealing = new OptionValue<>(false);
+    @Option(help = "File to which CompileTheWorld streams a CSV line with the timings of each compiled method", type = OptionType.Debug)
+    public static final OptionValue<String> CompileTheWorldTimingsFile = new OptionValue<>(null);
     // @formatter:on
 
     /**
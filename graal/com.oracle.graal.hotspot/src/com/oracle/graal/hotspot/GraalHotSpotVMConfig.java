@@ -157,6 +157,16 @@ public class GraalHotSpotVMConfig extends HotSpotVMConfigAccess {
     public final boolean usePopCountInstruction = getFlag("UsePopCountInstruction", Boolean.class);
     public final boolean useAESIntrinsics = getFlag("UseAESIntrinsics", Boolean.class);
     public final boolean useCRC32Intrinsics = getFlag("UseCRC32Intrinsics", Boolean.class);
+    public final boolean useSSE42Intrinsics = getFlag("UseSSE42Intrinsics", Boolean.class, false);
+    public final boolean useSHA1Intrinsics = getFlag("UseSHA1Intrinsics", Boolean.class, false);
+    public final boolean useSHA256Intrinsics = getFlag("UseSHA256Intrinsics", Boolean.class, false);
+    public final boolean useSHA512Intrinsics = getFlag("UseSHA512Intrinsics", Boolean.class, false);
+    public final boolean useGHASHIntrinsics = getFlag("UseGHASHIntrinsics", Boolean.class, false);
+    public final boolean useMultiplyToLenIntrinsic = getFlag("UseMultiplyToLenIntrinsic", Boolean.class, false);
+    public final boolean useSquareToLenIntrinsic = getFlag("UseSquareToLenIntrinsic", Boolean.class, false);
+    public final boolean useMulAddIntrinsic = getFlag("UseMulAddIntrinsic", Boolean.class, false);
+    public final boolean useMontgomeryMultiplyIntrinsic = getFlag("UseMontgomeryMultiplyIntrinsic", Boolean.class, false);
+    public final boolean useMontgomerySquareIntrinsic = getFlag("UseMontgomerySquareIntrinsic", Boolean.class, false);
     public final boolean useG1GC = getFlag("UseG1GC", Boolean.class);
     public final boolean useCMSGC = getFlag("UseConcMarkSweepGC", Boolean.class);
 
@@ -585,6 +595,15 @@ public class GraalHotSpotVMConfig extends HotSpotVMConfigAccess {
     public final long cipherBlockChainingDecryptAESCryptStub = getFieldValue("StubRoutines::_cipherBlockChaining_decryptAESCrypt", Long.class, "address");
     public final long updateBytesCRC32Stub = getFieldValue("StubRoutines::_updateBytesCRC32", Long.class, "address");
     public final long crcTableAddress = getFieldValue("StubRoutines::_crc_table_adr", Long.class, "address");
+    public final long sha1ImplCompressStub = getFieldValue("StubRoutines::_sha1_implCompress", Long.class, "address", 0L);
+    public final long sha256ImplCompressStub = getFieldValue("StubRoutines::_sha256_implCompress", Long.class, "address", 0L);
+    public final long sha512ImplCompressStub = getFieldValue("StubRoutines::_sha512_implCompress", Long.class, "address", 0L);
+    public final long ghashProcessBlocksStub = getFieldValue("StubRoutines::_ghash_processBlocks", Long.class, "address", 0L);
+    public final long multiplyToLenStub = getFieldValue("StubRoutines::_multiplyToLen", Long.class, "address", 0L);
+    public final long squareToLenStub = getFieldValue("StubRoutines::_squareToLen", Long.class, "address", 0L);
+    public final long mulAddStub = getFieldValue("StubRoutines::_mulAdd", Long.class, "address", 0L);
+    public final long montgomeryMultiplyStub = getFieldValue("StubRoutines::_montgomeryMultiply", Long.class, "address", 0L);
+    public final long montgomerySquareStub = getFieldValue("StubRoutines::_montgomerySquare", Long.class, "address", 0L);
 
     public final long throwDelayedStackOverflowErrorEntry = getFieldValue("StubRoutines::_throw_delayed_StackOverflowError_entry", Long.class, "address", longNotPresentInJDK8);
 
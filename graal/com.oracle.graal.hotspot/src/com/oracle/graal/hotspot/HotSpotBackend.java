@@ -39,7 +39,12 @@ import com.oracle.graal.hotspot.nodes.DeoptimizationFetchUnrollInfoCallNode;
 import com.oracle.graal.hotspot.nodes.UncommonTrapCallNode;
 import com.oracle.graal.hotspot.nodes.VMErrorNode;
 import com.oracle.graal.hotspot.replacements.AESCryptSubstitutions;
+import com.oracle.graal.hotspot.replacements.BigIntegerSubstitutions;
 import com.oracle.graal.hotspot.replacements.CipherBlockChainingSubstitutions;
+import com.oracle.graal.hotspot.replacements.GHASHSubstitutions;
+import com.oracle.graal.hotspot.replacements.SHA2Substitutions;
+import com.oracle.graal.hotspot.replacements.SHA5Substitutions;
+import com.oracle.graal.hotspot.replacements.SHASubstitutions;
 import com.oracle.graal.hotspot.stubs.DeoptimizationStub;
 import com.oracle.graal.hotspot.stubs.ExceptionHandlerStub;
 import com.oracle.graal.hotspot.stubs.Stub;
@@ -156,6 +161,52 @@ public abstract class HotSpotBackend extends Backend implements FrameMap.Referen
     public static final ForeignCallDescriptor DECRYPT_WITH_ORIGINAL_KEY = new ForeignCallDescriptor("decrypt_with_original_key", void.class, Word.class, Word.class, Pointer.class, Pointer.class,
                     int.class, Pointer.class);
 
+    /**
+     * @see SHASubstitutions#implCompress0
+     */
+    public static final ForeignCallDescriptor SHA_IMPL_COMPRESS = new ForeignCallDescriptor("shaImplCompress", void.class, Word.class, Pointer.class);
+
+    /**
+     * @see SHA2Substitutions#implCompress0
+     */
+    public static final ForeignCallDescriptor SHA2_IMPL_COMPRESS = new ForeignCallDescriptor("sha2ImplCompress", void.class, Word.class, Pointer.class);
+
+    /**
+     * @see SHA5Substitutions#implCompress0
+     */
+    public static final ForeignCallDescriptor SHA5_IMPL_COMPRESS = new ForeignCallDescriptor("sha5ImplCompress", void.class, Word.class, Pointer.class);
+
+    /**
+     * @see GHASHSubstitutions#processBlocks
+     */
+    public static final ForeignCallDescriptor GHASH_PROCESS_BLOCKS = new ForeignCallDescriptor("ghashProcessBlocks", void.class, Pointer.class, Pointer.class, Word.class, int.class);
+
+    /**
+     * @see BigIntegerSubstitutions#multiplyToLen
+     */
+    public static final ForeignCallDescriptor MULTIPLY_TO_LEN = new ForeignCallDescriptor("multiplyToLen", void.class, Word.class, int.class, Word.class, int.class, Word.class, int.class);
+
+    /**
+     * @see BigIntegerSubstitutions#implSquareToLen
+     */
+    public static final ForeignCallDescriptor SQUARE_TO_LEN = new ForeignCallDescriptor("squareToLen", void.class, Word.class, int.class, Word.class, int.class);
+
+    /**
+     * @see BigIntegerSubstitutions#implMulAdd
+     */
+    public static final ForeignCallDescriptor MUL_ADD = new ForeignCallDescriptor("mulAdd", int.class, Word.class, Word.class, int.class, int.class, int.class);
+
+    /**
+     * @see BigIntegerSubstitutions#implMontgomeryMultiply
+     */
+    public static final ForeignCallDescriptor MONTGOMERY_MULTIPLY = new ForeignCallDescriptor("implMontgomeryMultiply", void.class, Word.class, Word.class, Word.class, int.class, long.class,
+                    Word.class);
+
+    /**
+     * @see BigIntegerSubstitutions#implMontgomerySquare
+     */
+    public static final ForeignCallDescriptor MONTGOMERY_SQUARE = new ForeignCallDescriptor("implMontgomerySquare", void.class, Word.class, Word.class, int.class, long.class, Word.class);
+
     /**
      * @see VMErrorNode
      */
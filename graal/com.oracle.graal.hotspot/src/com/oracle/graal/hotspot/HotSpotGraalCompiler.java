@@ -29,6 +29,7 @@ import static com.oracle.graal.nodes.graphbuilderconf.IntrinsicContext.Compilati
 import com.oracle.graal.api.runtime.GraalJVMCICompiler;
 import com.oracle.graal.code.CompilationResult;
 import com.oracle.graal.compiler.GraalCompiler;
+import com.oracle.graal.compiler.common.CompilationBudget;
 import com.oracle.graal.debug.Debug;
 import com.oracle.graal.debug.DebugConfigScope;
 import com.oracle.graal.debug.DebugEnvironment;
@@ -37,6 +38,7 @@ import com.oracle.graal.debug.TopLevelDebugConfig;
 import com.oracle.graal.debug.internal.DebugScope;
 import com.oracle.graal.debug.internal.method.MethodMetricsRootScopeInfo;
 import com.oracle.graal.hotspot.meta.HotSpotProviders;
+import com.oracle.graal.hotspot.meta.HotSpotSuitesProvider;
 import com.oracle.graal.hotspot.phases.OnStackReplacementPhase;
 import com.oracle.graal.java.GraphBuilderPhase;
 import com.oracle.graal.lir.asm.CompilationResultBuilderFactory;
@@ -52,6 +54,7 @@ import com.oracle.graal.phases.OptimisticOptimizations.Optimization;
 import com.oracle.graal.phases.PhaseSuite;
 import com.oracle.graal.phases.tiers.HighTierContext;
 import com.oracle.graal.phases.tiers.Suites;
+import com.oracle.graal.phases.tiers.SuitesProvider;
 
 import jdk.vm.ci.code.CompilationRequest;
 import jdk.vm.ci.code.CompilationRequestResult;
@@ -70,7 +73,7 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler {
     private final HotSpotJVMCIRuntimeProvider jvmciRuntime;
     private final HotSpotGraalRuntimeProvider graalRuntime;
 
-    HotSpotGraalCompiler(HotSpotJVMCIRuntimeProvider jvmciRuntime, HotSpotGraalRuntimeProvider graalRuntime) {
+    protected HotSpotGraalCompiler(HotSpotJVMCIRuntimeProvider jvmciRuntime, HotSpotGraalRuntimeProvider graalRuntime) {
         this.jvmciRuntime = jvmciRuntime;
         this.graalRuntime = graalRuntime;
     }
@@ -107,6 +110,27 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler {
     }
 
     public CompilationResult compile(ResolvedJavaMethod method, int entryBCI, boolean useProfilingInfo) {
+        HotSpotProviders providers = graalRuntime.getHostBackend().getProviders();
+        return compile(method, entryBCI, useProfilingInfo, getSuites(providers), getLIRSuites(providers));
+    }
+
+    /**
+     * Compiles {@code method} with the suites of the economy configuration. This is used to retry
+     * a compilation that exceeded its {@link CompilationBudget}.
+     *
+     * @return the result of the compilation or {@code null} if there is no economy configuration
+     */
+    public CompilationResult compileEconomy(ResolvedJavaMethod method, int entryBCI, boolean useProfilingInfo) {
+        HotSpotProviders providers = graalRuntime.getHostBackend().getProviders();
+        Suites suites = getEconomySuites(providers);
+        LIRSuites lirSuites = getEconomyLIRSuites(providers);
+        if (suites == null || lirSuites == null) {
+            return null;
+        }
+        return compile(method, entryBCI, useProfilingInfo, suites, lirSuites);
+    }
+
+    public CompilationResult compile(ResolvedJavaMethod method, int entryBCI, boolean useProfilingInfo, Suites suites, LIRSuites lirSuites) {
         HotSpotBackend backend = graalRuntime.getHostBackend();
         HotSpotProviders providers = backend.getProviders();
         final boolean isOSR = entryBCI != JVMCICompiler.INVOCATION_ENTRY_BCI;
@@ -120,8 +144,6 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler {
             graph = new StructuredGraph(method, entryBCI, AllowAssumptions.from(OptAssumptions.getValue()), speculationLog, useProfilingInfo);
         }
 
-        Suites suites = getSuites(providers);
-        LIRSuites lirSuites = getLIRSuites(providers);
         ProfilingInfo profilingInfo = useProfilingInfo ? method.getProfilingInfo(!isOSR, isOSR) : DefaultProfilingInfo.get(TriState.FALSE);
         OptimisticOptimizations optimisticOpts = getOptimisticOpts(profilingInfo);
         if (isOSR) {
@@ -179,6 +201,22 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler {
         return providers.getSuites().getDefaultLIRSuites();
     }
 
+    /**
+     * Gets the suites of the economy configuration or {@code null} if there is none.
+     */
+    protected Suites getEconomySuites(HotSpotProviders providers) {
+        SuitesProvider suitesProvider = providers.getSuites();
+        return suitesProvider instanceof HotSpotSuitesProvider ? ((HotSpotSuitesProvider) suitesProvider).getEconomySuites() : null;
+    }
+
+    /**
+     * Gets the low-level suites of the economy configuration or {@code null} if there is none.
+     */
+    protected LIRSuites getEconomyLIRSuites(HotSpotProviders providers) {
+        SuitesProvider suitesProvider = providers.getSuites();
+        return suitesProvider instanceof HotSpotSuitesProvider ? ((HotSpotSuitesProvider) suitesProvider).getEconomyLIRSuites() : null;
+    }
+
     /**
      * Reconfigures a given graph builder suite (GBS) if one of the given GBS parameter values is
      * not the default.
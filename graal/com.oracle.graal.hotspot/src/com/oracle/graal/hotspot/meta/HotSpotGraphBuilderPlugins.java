@@ -31,6 +31,7 @@ import static com.oracle.graal.java.BytecodeParserOptions.InlineDuringParsing;
 import java.lang.invoke.ConstantCallSite;
 import java.lang.invoke.MutableCallSite;
 import java.lang.invoke.VolatileCallSite;
+import java.math.BigInteger;
 import java.util.zip.CRC32;
 
 import com.oracle.graal.api.replacements.SnippetReflectionProvider;
@@ -39,16 +40,21 @@ import com.oracle.graal.compiler.common.spi.ForeignCallsProvider;
 import com.oracle.graal.hotspot.GraalHotSpotVMConfig;
 import com.oracle.graal.hotspot.nodes.CurrentJavaThreadNode;
 import com.oracle.graal.hotspot.replacements.AESCryptSubstitutions;
+import com.oracle.graal.hotspot.replacements.BigIntegerSubstitutions;
 import com.oracle.graal.hotspot.replacements.CRC32Substitutions;
 import com.oracle.graal.hotspot.replacements.CallSiteTargetNode;
 import com.oracle.graal.hotspot.replacements.CipherBlockChainingSubstitutions;
 import com.oracle.graal.hotspot.replacements.ClassGetHubNode;
+import com.oracle.graal.hotspot.replacements.GHASHSubstitutions;
 import com.oracle.graal.hotspot.replacements.HotSpotClassSubstitutions;
 import com.oracle.graal.hotspot.replacements.IdentityHashCodeNode;
 import com.oracle.graal.hotspot.replacements.ObjectCloneNode;
 import com.oracle.graal.hotspot.replacements.ObjectSubstitutions;
 import com.oracle.graal.hotspot.replacements.ReflectionGetCallerClassNode;
 import com.oracle.graal.hotspot.replacements.ReflectionSubstitutions;
+import com.oracle.graal.hotspot.replacements.SHA2Substitutions;
+import com.oracle.graal.hotspot.replacements.SHA5Substitutions;
+import com.oracle.graal.hotspot.replacements.SHASubstitutions;
 import com.oracle.graal.hotspot.replacements.ThreadSubstitutions;
 import com.oracle.graal.hotspot.replacements.arraycopy.ArrayCopyNode;
 import com.oracle.graal.hotspot.word.HotSpotWordTypes;
@@ -139,6 +145,9 @@ public class HotSpotGraphBuilderPlugins {
                 registerStableOptionPlugins(invocationPlugins, snippetReflection);
                 registerAESPlugins(invocationPlugins, config);
                 registerCRC32Plugins(invocationPlugins, config);
+                registerSHAPlugins(invocationPlugins, config);
+                registerGHASHPlugins(invocationPlugins, config);
+                registerBigIntegerPlugins(invocationPlugins, config);
                 StandardGraphBuilderPlugins.registerInvocationPlugins(metaAccess, invocationPlugins, true);
 
                 for (NodeIntrinsicPluginFactory factory : GraalServices.load(NodeIntrinsicPluginFactory.class)) {
@@ -390,6 +399,8 @@ public class HotSpotGraphBuilderPlugins {
     public static final String aesEncryptName;
     public static final String aesDecryptName;
 
+    public static final String shaCompressName;
+
     public static final String reflectionClass;
     public static final String constantPoolClass;
 
@@ -399,6 +410,7 @@ public class HotSpotGraphBuilderPlugins {
             cbcDecryptName = "decrypt";
             aesEncryptName = "encryptBlock";
             aesDecryptName = "decryptBlock";
+            shaCompressName = "implCompress";
             reflectionClass = "sun.reflect.Reflection";
             constantPoolClass = "sun.reflect.ConstantPool";
         } else {
@@ -406,6 +418,7 @@ public class HotSpotGraphBuilderPlugins {
             cbcDecryptName = "implDecrypt";
             aesEncryptName = "implEncryptBlock";
             aesDecryptName = "implDecryptBlock";
+            shaCompressName = "implCompress0";
             reflectionClass = "jdk.internal.reflect.Reflection";
             constantPoolClass = "jdk.internal.reflect.ConstantPool";
         }
@@ -446,4 +459,49 @@ public class HotSpotGraphBuilderPlugins {
             }
         }
     }
+
+    private static void registerSHAPlugins(InvocationPlugins plugins, GraalHotSpotVMConfig config) {
+        if (config.useSHA1Intrinsics && config.sha1ImplCompressStub != 0L) {
+            Registration r = new Registration(plugins, "sun.security.provider.SHA");
+            r.registerMethodSubstitution(SHASubstitutions.class, shaCompressName, Receiver.class, byte[].class, int.class);
+        }
+        if (config.useSHA256Intrinsics && config.sha256ImplCompressStub != 0L) {
+            Registration r = new Registration(plugins, "sun.security.provider.SHA2");
+            r.registerMethodSubstitution(SHA2Substitutions.class, shaCompressName, Receiver.class, byte[].class, int.class);
+        }
+        if (config.useSHA512Intrinsics && config.sha512ImplCompressStub != 0L) {
+            Registration r = new Registration(plugins, "sun.security.provider.SHA5");
+            r.registerMethodSubstitution(SHA5Substitutions.class, shaCompressName, Receiver.class, byte[].class, int.class);
+        }
+    }
+
+    private static void registerGHASHPlugins(InvocationPlugins plugins, GraalHotSpotVMConfig config) {
+        if (config.useGHASHIntrinsics && config.ghashProcessBlocksStub != 0L) {
+            Registration r = new Registration(plugins, "com.sun.crypto.provider.GHASH");
+            r.registerMethodSubstitution(GHASHSubstitutions.class, "processBlocks", byte[].class, int.class, int.class, long[].class, long[].class);
+        }
+    }
+
+    private static void registerBigIntegerPlugins(InvocationPlugins plugins, GraalHotSpotVMConfig config) {
+        Registration r = new Registration(plugins, BigInteger.class);
+        if (config.useMultiplyToLenIntrinsic && config.multiplyToLenStub != 0L) {
+            if (Java8OrEarlier) {
+                r.registerMethodSubstitution(BigIntegerSubstitutions.class, "multiplyToLen", Receiver.class, int[].class, int.class, int[].class, int.class, int[].class);
+            } else {
+                r.registerMethodSubstitution(BigIntegerSubstitutions.class, "implMultiplyToLen", int[].class, int.class, int[].class, int.class, int[].class);
+            }
+        }
+        if (config.useSquareToLenIntrinsic && config.squareToLenStub != 0L) {
+            r.registerMethodSubstitution(BigIntegerSubstitutions.class, "implSquareToLen", int[].class, int.class, int[].class, int.class);
+        }
+        if (config.useMulAddIntrinsic && config.mulAddStub != 0L) {
+            r.registerMethodSubstitution(BigIntegerSubstitutions.class, "implMulAdd", int[].class, int[].class, int.class, int.class, int.class);
+        }
+        if (config.useMontgomeryMultiplyIntrinsic && config.montgomeryMultiplyStub != 0L) {
+            r.registerMethodSubstitution(BigIntegerSubstitutions.class, "implMontgomeryMultiply", int[].class, int[].class, int[].class, int.class, long.class, int[].class);
+        }
+        if (config.useMontgomerySquareIntrinsic && config.montgomerySquareStub != 0L) {
+            r.registerMethodSubstitution(BigIntegerSubstitutions.class, "implMontgomerySquare", int[].class, int[].class, int.class, long.class, int[].class);
+        }
+    }
 }
@@ -39,10 +39,19 @@ import static com.oracle.graal.hotspot.HotSpotBackend.ENCRYPT;
 import static com.oracle.graal.hotspot.HotSpotBackend.ENCRYPT_BLOCK;
 import static com.oracle.graal.hotspot.HotSpotBackend.EXCEPTION_HANDLER;
 import static com.oracle.graal.hotspot.HotSpotBackend.FETCH_UNROLL_INFO;
+import static com.oracle.graal.hotspot.HotSpotBackend.GHASH_PROCESS_BLOCKS;
 import static com.oracle.graal.hotspot.HotSpotBackend.IC_MISS_HANDLER;
+import static com.oracle.graal.hotspot.HotSpotBackend.MONTGOMERY_MULTIPLY;
+import static com.oracle.graal.hotspot.HotSpotBackend.MONTGOMERY_SQUARE;
+import static com.oracle.graal.hotspot.HotSpotBackend.MULTIPLY_TO_LEN;
+import static com.oracle.graal.hotspot.HotSpotBackend.MUL_ADD;
 import static com.oracle.graal.hotspot.HotSpotBackend.NEW_ARRAY;
 import static com.oracle.graal.hotspot.HotSpotBackend.NEW_INSTANCE;
 import static com.oracle.graal.hotspot.HotSpotBackend.NEW_MULTI_ARRAY;
+import static com.oracle.graal.hotspot.HotSpotBackend.SHA2_IMPL_COMPRESS;
+import static com.oracle.graal.hotspot.HotSpotBackend.SHA5_IMPL_COMPRESS;
+import static com.oracle.graal.hotspot.HotSpotBackend.SHA_IMPL_COMPRESS;
+import static com.oracle.graal.hotspot.HotSpotBackend.SQUARE_TO_LEN;
 import static com.oracle.graal.hotspot.HotSpotBackend.UNCOMMON_TRAP;
 import static com.oracle.graal.hotspot.HotSpotBackend.UNPACK_FRAMES;
 import static com.oracle.graal.hotspot.HotSpotBackend.UNWIND_EXCEPTION_TO_CALLER;
@@ -347,6 +356,37 @@ public abstract class HotSpotHostForeignCallsProvider extends HotSpotForeignCall
                 }
             }
         }
+        if (c.useSHA1Intrinsics && c.sha1ImplCompressStub != 0L) {
+            registerForeignCall(SHA_IMPL_COMPRESS, c.sha1ImplCompressStub, NativeCall, PRESERVES_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE,
+                            NamedLocationIdentity.getArrayLocation(JavaKind.Int));
+        }
+        if (c.useSHA256Intrinsics && c.sha256ImplCompressStub != 0L) {
+            registerForeignCall(SHA2_IMPL_COMPRESS, c.sha256ImplCompressStub, NativeCall, PRESERVES_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE,
+                            NamedLocationIdentity.getArrayLocation(JavaKind.Int));
+        }
+        if (c.useSHA512Intrinsics && c.sha512ImplCompressStub != 0L) {
+            registerForeignCall(SHA5_IMPL_COMPRESS, c.sha512ImplCompressStub, NativeCall, PRESERVES_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE,
+                            NamedLocationIdentity.getArrayLocation(JavaKind.Long));
+        }
+        if (c.useGHASHIntrinsics && c.ghashProcessBlocksStub != 0L) {
+            registerForeignCall(GHASH_PROCESS_BLOCKS, c.ghashProcessBlocksStub, NativeCall, PRESERVES_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE,
+                            NamedLocationIdentity.getArrayLocation(JavaKind.Long));
+        }
+        if (c.useMultiplyToLenIntrinsic && c.multiplyToLenStub != 0L) {
+            registerForeignCall(MULTIPLY_TO_LEN, c.multiplyToLenStub, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, NamedLocationIdentity.getArrayLocation(JavaKind.Int));
+        }
+        if (c.useSquareToLenIntrinsic && c.squareToLenStub != 0L) {
+            registerForeignCall(SQUARE_TO_LEN, c.squareToLenStub, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, NamedLocationIdentity.getArrayLocation(JavaKind.Int));
+        }
+        if (c.useMulAddIntrinsic && c.mulAddStub != 0L) {
+            registerForeignCall(MUL_ADD, c.mulAddStub, NativeCall, DESTROYS_REGISTERS, LEAF_NOFP, NOT_REEXECUTABLE, NamedLocationIdentity.getArrayLocation(JavaKind.Int));
+        }
+        if (c.useMontgomeryMultiplyIntrinsic && c.montgomeryMultiplyStub != 0L) {
+            registerForeignCall(MONTGOMERY_MULTIPLY, c.montgomeryMultiplyStub, NativeCall, DESTROYS_REGISTERS, LEAF, NOT_REEXECUTABLE, NamedLocationIdentity.getArrayLocation(JavaKind.Int));
+        }
+        if (c.useMontgomerySquareIntrinsic && c.montgomerySquareStub != 0L) {
+            registerForeignCall(MONTGOMERY_SQUARE, c.montgomerySquareStub, NativeCall, DESTROYS_REGISTERS, LEAF, NOT_REEXECUTABLE, NamedLocationIdentity.getArrayLocation(JavaKind.Int));
+        }
     }
 
     public HotSpotForeignCallLinkage getForeignCall(ForeignCallDescriptor descriptor) {
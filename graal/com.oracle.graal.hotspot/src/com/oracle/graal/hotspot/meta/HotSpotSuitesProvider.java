@@ -42,6 +42,8 @@ import com.oracle.graal.nodes.SimplifyingGraphDecoder;
 import com.oracle.graal.nodes.StructuredGraph;
 import com.oracle.graal.nodes.StructuredGraph.AllowAssumptions;
 import com.oracle.graal.nodes.graphbuilderconf.GraphBuilderConfiguration;
+import com.oracle.graal.options.DerivedOptionValue;
+import com.oracle.graal.options.DerivedOptionValue.OptionSupplier;
 import com.oracle.graal.phases.BasePhase;
 import com.oracle.graal.phases.PhaseSuite;
 import com.oracle.graal.phases.common.AddressLoweringPhase;
@@ -61,9 +63,49 @@ public class HotSpotSuitesProvider extends SuitesProviderBase {
 
     private final AddressLowering addressLowering;
     private final SuitesCreator defaultSuitesCreator;
+    private final SuitesCreator economySuitesCreator;
+    private final DerivedOptionValue<Suites> economySuites;
+    private final DerivedOptionValue<LIRSuites> economyLIRSuites;
+
+    private class EconomySuitesSupplier implements OptionSupplier<Suites> {
+
+        private static final long serialVersionUID = -3260226944563459311L;
+
+        @Override
+        public Suites get() {
+            Suites suites = createEconomySuites();
+            suites.setImmutable();
+            return suites;
+        }
+    }
+
+    private class EconomyLIRSuitesSupplier implements OptionSupplier<LIRSuites> {
+
+        private static final long serialVersionUID = 5829107732045716618L;
+
+        @Override
+        public LIRSuites get() {
+            LIRSuites lirSuites = createEconomyLIRSuites();
+            lirSuites.setImmutable();
+            return lirSuites;
+        }
+    }
 
     public HotSpotSuitesProvider(SuitesCreator defaultSuitesCreator, GraalHotSpotVMConfig config, HotSpotGraalRuntimeProvider runtime, AddressLowering addressLowering) {
+        this(defaultSuitesCreator, null, config, runtime, addressLowering);
+    }
+
+    /**
+     * @param economySuitesCreator creates the suites used to recompile a method whose compilation
+     *            exceeded its {@link com.oracle.graal.compiler.common.CompilationBudget budget}, or
+     *            {@code null} if such compilations are not retried
+     */
+    public HotSpotSuitesProvider(SuitesCreator defaultSuitesCreator, SuitesCreator economySuitesCreator, GraalHotSpotVMConfig config, HotSpotGraalRuntimeProvider runtime,
+                    AddressLowering addressLowering) {
         this.defaultSuitesCreator = defaultSuitesCreator;
+        this.economySuitesCreator = economySuitesCreator;
+        this.economySuites = economySuitesCreator == null ? null : new DerivedOptionValue<>(new EconomySuitesSupplier());
+        this.economyLIRSuites = economySuitesCreator == null ? null : new DerivedOptionValue<>(new EconomyLIRSuitesSupplier());
         this.config = config;
         this.runtime = runtime;
         this.addressLowering = addressLowering;
@@ -72,7 +114,27 @@ public class HotSpotSuitesProvider extends SuitesProviderBase {
 
     @Override
     public Suites createSuites() {
-        Suites ret = defaultSuitesCreator.createSuites();
+        return createSuites(defaultSuitesCreator);
+    }
+
+    /**
+     * Creates the suites of the economy configuration, or returns {@code null} if there is none.
+     */
+    public Suites createEconomySuites() {
+        return economySuitesCreator == null ? null : createSuites(economySuitesCreator);
+    }
+
+    /**
+     * Gets the suites of the economy configuration, or returns {@code null} if there is none. Like
+     * the {@linkplain #getDefaultSuites() default suites}, the returned suites are immutable and
+     * cached for the current option values.
+     */
+    public Suites getEconomySuites() {
+        return economySuites == null ? null : economySuites.getValue();
+    }
+
+    private Suites createSuites(SuitesCreator suitesCreator) {
+        Suites ret = suitesCreator.createSuites();
 
         if (ImmutableCode.getValue()) {
             // lowering introduces class constants, therefore it must be after lowering
@@ -137,7 +199,29 @@ public class HotSpotSuitesProvider extends SuitesProviderBase {
 
     @Override
     public LIRSuites createLIRSuites() {
-        LIRSuites suites = defaultSuitesCreator.createLIRSuites();
+        return createLIRSuites(defaultSuitesCreator);
+    }
+
+    /**
+     * Creates the low-level suites of the economy configuration, or returns {@code null} if there
+     * is none.
+     */
+    @Override
+    public LIRSuites createEconomyLIRSuites() {
+        return economySuitesCreator == null ? null : createLIRSuites(economySuitesCreator);
+    }
+
+    /**
+     * Gets the low-level suites of the economy configuration, or returns {@code null} if there is
+     * none. Like the {@linkplain #getDefaultLIRSuites() default suites}, the returned suites are
+     * immutable and cached for the current option values.
+     */
+    public LIRSuites getEconomyLIRSuites() {
+        return economyLIRSuites == null ? null : economyLIRSuites.getValue();
+    }
+
+    private static LIRSuites createLIRSuites(SuitesCreator suitesCreator) {
+        LIRSuites suites = suitesCreator.createLIRSuites();
         String profileInstructions = HotSpotBackend.Options.ASMInstructionProfiling.getValue();
         if (profileInstructions != null) {
             suites.getPostAllocationOptimizationStage().appendPhase(new HotSpotInstructionProfiling(profileInstructions));
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot.replacements;
+
+import static com.oracle.graal.hotspot.HotSpotBackend.GHASH_PROCESS_BLOCKS;
+import static com.oracle.graal.nodes.extended.BranchProbabilityNode.VERY_SLOW_PATH_PROBABILITY;
+import static com.oracle.graal.nodes.extended.BranchProbabilityNode.probability;
+import static jdk.vm.ci.hotspot.HotSpotJVMCIRuntimeProvider.getArrayBaseOffset;
+
+import com.oracle.graal.api.replacements.ClassSubstitution;
+import com.oracle.graal.api.replacements.MethodSubstitution;
+import com.oracle.graal.compiler.common.spi.ForeignCallDescriptor;
+import com.oracle.graal.graph.Node.ConstantNodeParameter;
+import com.oracle.graal.graph.Node.NodeIntrinsic;
+import com.oracle.graal.hotspot.nodes.ComputeObjectAddressNode;
+import com.oracle.graal.nodes.DeoptimizeNode;
+import com.oracle.graal.nodes.extended.ForeignCallNode;
+import com.oracle.graal.word.Pointer;
+import com.oracle.graal.word.Word;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code com.sun.crypto.provider.GHASH} methods.
+ */
+@ClassSubstitution(className = "com.sun.crypto.provider.GHASH", optional = true)
+public class GHASHSubstitutions {
+
+    /**
+     * Number of input bytes in one block.
+     */
+    static final int BLOCK_SIZE = 16;
+
+    @MethodSubstitution
+    static void processBlocks(byte[] data, int inOfs, int blocks, long[] st, long[] subH) {
+        checkArgs(data, inOfs, blocks, st, subH);
+        Word dataAddr = Word.unsigned(ComputeObjectAddressNode.get(data, getArrayBaseOffset(JavaKind.Byte) + inOfs));
+        Pointer stateAddr = Word.objectToTrackedPointer(st).add(getArrayBaseOffset(JavaKind.Long));
+        Pointer subHAddr = Word.objectToTrackedPointer(subH).add(getArrayBaseOffset(JavaKind.Long));
+        processBlocksStub(GHASH_PROCESS_BLOCKS, stateAddr, subHAddr, dataAddr, blocks);
+    }
+
+    /**
+     * Perform null and array bounds checks for the arguments of {@link #processBlocks}.
+     */
+    static void checkArgs(byte[] data, int inOfs, int blocks, long[] st, long[] subH) {
+        if (probability(VERY_SLOW_PATH_PROBABILITY, inOfs < 0 || blocks < 0 || inOfs > data.length || (data.length - inOfs) / BLOCK_SIZE < blocks || st.length < 2 || subH.length < 2)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.None, DeoptimizationReason.RuntimeConstraint);
+        }
+    }
+
+    @NodeIntrinsic(ForeignCallNode.class)
+    public static native void processBlocksStub(@ConstantNodeParameter ForeignCallDescriptor descriptor, Pointer state, Pointer subkeyH, Word data, int blocks);
+}
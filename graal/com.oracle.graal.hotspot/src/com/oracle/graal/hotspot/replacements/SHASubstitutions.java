@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot.replacements;
+
+import static com.oracle.graal.hotspot.HotSpotBackend.SHA_IMPL_COMPRESS;
+import static com.oracle.graal.hotspot.replacements.UnsafeAccess.UNSAFE;
+import static com.oracle.graal.nodes.extended.BranchProbabilityNode.VERY_SLOW_PATH_PROBABILITY;
+import static com.oracle.graal.nodes.extended.BranchProbabilityNode.probability;
+import static jdk.vm.ci.hotspot.HotSpotJVMCIRuntimeProvider.getArrayBaseOffset;
+
+import com.oracle.graal.api.replacements.ClassSubstitution;
+import com.oracle.graal.api.replacements.MethodSubstitution;
+import com.oracle.graal.compiler.common.LocationIdentity;
+import com.oracle.graal.compiler.common.spi.ForeignCallDescriptor;
+import com.oracle.graal.debug.GraalError;
+import com.oracle.graal.graph.Node.ConstantNodeParameter;
+import com.oracle.graal.graph.Node.NodeIntrinsic;
+import com.oracle.graal.hotspot.nodes.ComputeObjectAddressNode;
+import com.oracle.graal.nodes.DeoptimizeNode;
+import com.oracle.graal.nodes.PiNode;
+import com.oracle.graal.nodes.extended.ForeignCallNode;
+import com.oracle.graal.nodes.extended.UnsafeLoadNode;
+import com.oracle.graal.word.Pointer;
+import com.oracle.graal.word.Word;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code sun.security.provider.SHA} methods.
+ */
+@ClassSubstitution(className = "sun.security.provider.SHA", optional = true)
+public class SHASubstitutions {
+
+    /**
+     * Number of input bytes consumed by one call of {@code implCompress}.
+     */
+    static final int BLOCK_SIZE = 64;
+
+    static final long stateOffset;
+    static final Class<?> shaClass;
+
+    static {
+        try {
+            ClassLoader cl = ClassLoader.getSystemClassLoader();
+            shaClass = Class.forName("sun.security.provider.SHA", true, cl);
+            stateOffset = UNSAFE.objectFieldOffset(shaClass.getDeclaredField("state"));
+        } catch (Exception ex) {
+            throw new GraalError(ex);
+        }
+    }
+
+    @MethodSubstitution(isStatic = false)
+    static void implCompress(Object receiver, byte[] buf, int ofs) {
+        compress(receiver, buf, ofs);
+    }
+
+    /**
+     * @since 9
+     */
+    @MethodSubstitution(isStatic = false, optional = true)
+    static void implCompress0(Object receiver, byte[] buf, int ofs) {
+        compress(receiver, buf, ofs);
+    }
+
+    private static void compress(Object receiver, byte[] buf, int ofs) {
+        if (probability(VERY_SLOW_PATH_PROBABILITY, ofs < 0 || buf.length - BLOCK_SIZE < ofs)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.None, DeoptimizationReason.RuntimeConstraint);
+        }
+        Object realReceiver = PiNode.piCastNonNull(receiver, shaClass);
+        Object state = UnsafeLoadNode.load(realReceiver, stateOffset, JavaKind.Object, LocationIdentity.any());
+        Word bufAddr = Word.unsigned(ComputeObjectAddressNode.get(buf, getArrayBaseOffset(JavaKind.Byte) + ofs));
+        Pointer stateAddr = Word.objectToTrackedPointer(state).add(getArrayBaseOffset(JavaKind.Int));
+        implCompressStub(SHA_IMPL_COMPRESS, bufAddr, stateAddr);
+    }
+
+    @NodeIntrinsic(ForeignCallNode.class)
+    public static native void implCompressStub(@ConstantNodeParameter ForeignCallDescriptor descriptor, Word buf, Pointer state);
+}
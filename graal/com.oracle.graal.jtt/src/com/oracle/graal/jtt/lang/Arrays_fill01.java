@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.jtt.lang;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.oracle.graal.jtt.JTTTest;
+
+/*
+ */
+public class Arrays_fill01 extends JTTTest {
+
+    public static byte[] fillBytes(int length, byte value) {
+        byte[] a = new byte[length];
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    public static char[] fillChars(int length, int from, int to, char value) {
+        char[] a = new char[length];
+        Arrays.fill(a, from, to, value);
+        return a;
+    }
+
+    public static boolean[] fillBooleans(int length, int from, int to) {
+        boolean[] a = new boolean[length];
+        Arrays.fill(a, from, to, true);
+        return a;
+    }
+
+    public static int[] fillInts(int length, int from, int to, int value) {
+        int[] a = new int[length];
+        Arrays.fill(a, -1);
+        Arrays.fill(a, from, to, value);
+        return a;
+    }
+
+    public static long[] fillLongs(int length, long value) {
+        long[] a = new long[length];
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    public static double[] fillDoubles(int length, int from, int to, double value) {
+        double[] a = new double[length];
+        Arrays.fill(a, from, to, value);
+        return a;
+    }
+
+    public static float[] fillNull(float value) {
+        float[] a = null;
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    @Test
+    public void run0() throws Throwable {
+        for (int length = 0; length < 40; length++) {
+            runTest("fillBytes", length, (byte) 0x9C);
+        }
+    }
+
+    @Test
+    public void run1() throws Throwable {
+        runTest("fillChars", 0, 0, 0, '\uffff');
+        runTest("fillChars", 37, 0, 37, '\uffff');
+        runTest("fillChars", 37, 5, 30, 'x');
+        runTest("fillChars", 37, 5, 5, 'x');
+    }
+
+    @Test
+    public void run2() throws Throwable {
+        runTest("fillBooleans", 33, 1, 32);
+        runTest("fillBooleans", 3, 0, 3);
+    }
+
+    @Test
+    public void run3() throws Throwable {
+        for (int to = 0; to < 20; to++) {
+            runTest("fillInts", 20, 0, to, 0x12345678);
+        }
+        runTest("fillInts", 20, 3, 17, 0);
+    }
+
+    @Test
+    public void run4() throws Throwable {
+        runTest("fillLongs", 0, 1L);
+        runTest("fillLongs", 1, 0x8000000000000001L);
+        runTest("fillLongs", 17, 0x8000000000000001L);
+    }
+
+    @Test
+    public void run5() throws Throwable {
+        runTest("fillDoubles", 11, 2, 11, -0.0);
+        runTest("fillDoubles", 11, 0, 10, Double.NaN);
+    }
+
+    @Test
+    public void runExceptions() throws Throwable {
+        runTest("fillInts", 20, 5, 4, 1);
+        runTest("fillInts", 20, -1, 4, 1);
+        runTest("fillInts", 20, 0, 21, 1);
+        runTest("fillChars", 10, 11, 12, 'x');
+        runTest("fillNull", 1.5f);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.jtt.lang;
+
+import org.junit.Test;
+
+import com.oracle.graal.jtt.JTTTest;
+
+/*
+ */
+public class String_compareTo01 extends JTTTest {
+
+    private static final String LONG = "abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    public static int test(String a, String b) {
+        return a.compareTo(b);
+    }
+
+    @Test
+    public void run0() throws Throwable {
+        runTest("test", "", "");
+    }
+
+    @Test
+    public void run1() throws Throwable {
+        runTest("test", "", "a");
+    }
+
+    @Test
+    public void run2() throws Throwable {
+        runTest("test", "abc", "abc");
+    }
+
+    @Test
+    public void run3() throws Throwable {
+        runTest("test", "abc", "abd");
+    }
+
+    @Test
+    public void run4() throws Throwable {
+        runTest("test", "abd", "abc");
+    }
+
+    @Test
+    public void run5() throws Throwable {
+        runTest("test", LONG, new String(LONG));
+    }
+
+    @Test
+    public void run6() throws Throwable {
+        runTest("test", LONG, LONG.substring(0, 40));
+    }
+
+    @Test
+    public void run7() throws Throwable {
+        runTest("test", LONG, LONG.replace('5', '#'));
+    }
+
+    @Test
+    public void run8() throws Throwable {
+        runTest("test", LONG, LONG.replace('X', 'x'));
+    }
+
+    @Test
+    public void run9() throws Throwable {
+        runTest("test", "abc\uffff", "abc\u0001");
+    }
+
+    @Test
+    public void run10() throws Throwable {
+        runTest("test", LONG + "\u0100", LONG + "\u0001");
+    }
+
+    @Test
+    public void run11() throws Throwable {
+        runTest("test", "abc", null);
+    }
+
+}
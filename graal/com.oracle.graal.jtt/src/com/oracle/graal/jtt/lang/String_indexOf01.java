@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.jtt.lang;
+
+import org.junit.Test;
+
+import com.oracle.graal.jtt.JTTTest;
+
+/*
+ */
+public class String_indexOf01 extends JTTTest {
+
+    private static final String LONG = "abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    public static int test(String source, String target) {
+        return source.indexOf(target);
+    }
+
+    public static int testFrom(String source, String target, int fromIndex) {
+        return source.indexOf(target, fromIndex);
+    }
+
+    public static int testBuilder(String source, String target) {
+        return new StringBuilder(source).indexOf(target);
+    }
+
+    @Test
+    public void run0() throws Throwable {
+        runTest("test", "", "");
+    }
+
+    @Test
+    public void run1() throws Throwable {
+        runTest("test", "", "a");
+    }
+
+    @Test
+    public void run2() throws Throwable {
+        runTest("test", "abc", "");
+    }
+
+    @Test
+    public void run3() throws Throwable {
+        runTest("test", "abc", "c");
+    }
+
+    @Test
+    public void run4() throws Throwable {
+        runTest("test", "abc", "abcd");
+    }
+
+    @Test
+    public void run5() throws Throwable {
+        runTest("test", LONG, "Z");
+    }
+
+    @Test
+    public void run6() throws Throwable {
+        runTest("test", LONG, "89ABC");
+    }
+
+    @Test
+    public void run7() throws Throwable {
+        runTest("test", LONG, "89ABD");
+    }
+
+    @Test
+    public void run8() throws Throwable {
+        runTest("test", LONG + LONG, LONG.substring(20));
+    }
+
+    @Test
+    public void run9() throws Throwable {
+        runTest("test", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaab", "aaab");
+    }
+
+    @Test
+    public void run10() throws Throwable {
+        runTest("test", "abc", null);
+    }
+
+    @Test
+    public void runFrom0() throws Throwable {
+        runTest("testFrom", LONG + LONG, "abc", 1);
+    }
+
+    @Test
+    public void runFrom1() throws Throwable {
+        runTest("testFrom", LONG, "abc", -5);
+    }
+
+    @Test
+    public void runFrom2() throws Throwable {
+        runTest("testFrom", LONG, "", 100);
+    }
+
+    @Test
+    public void runFrom3() throws Throwable {
+        runTest("testFrom", LONG, "YZ", LONG.length() - 2);
+    }
+
+    @Test
+    public void runFrom4() throws Throwable {
+        runTest("testFrom", LONG, "YZ", LONG.length() - 1);
+    }
+
+    @Test
+    public void runBuilder0() throws Throwable {
+        runTest("testBuilder", LONG, "0123");
+    }
+
+    @Test
+    public void runBuilder1() throws Throwable {
+        runTest("testBuilder", LONG, "0124");
+    }
+
+}
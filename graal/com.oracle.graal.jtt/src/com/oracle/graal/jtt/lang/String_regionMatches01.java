@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.jtt.lang;
+
+import org.junit.Test;
+
+import com.oracle.graal.jtt.JTTTest;
+
+/*
+ */
+public class String_regionMatches01 extends JTTTest {
+
+    private static final String LONG = "abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    public static boolean test(String a, int aOffset, String b, int bOffset, int len) {
+        return a.regionMatches(aOffset, b, bOffset, len);
+    }
+
+    @Test
+    public void run0() throws Throwable {
+        runTest("test", "", 0, "", 0, 0);
+    }
+
+    @Test
+    public void run1() throws Throwable {
+        runTest("test", "abc", 1, "xbc", 1, 2);
+    }
+
+    @Test
+    public void run2() throws Throwable {
+        runTest("test", "abc", 0, "xbc", 0, 2);
+    }
+
+    @Test
+    public void run3() throws Throwable {
+        runTest("test", LONG, 3, LONG.substring(3), 0, LONG.length() - 3);
+    }
+
+    @Test
+    public void run4() throws Throwable {
+        runTest("test", LONG, 3, LONG.substring(3).replace('Z', 'z'), 0, LONG.length() - 3);
+    }
+
+    @Test
+    public void run5() throws Throwable {
+        runTest("test", LONG, 1, LONG.replace('5', '#'), 1, 40);
+    }
+
+    @Test
+    public void run6() throws Throwable {
+        runTest("test", LONG + "\u0100", 10, "xx" + LONG.substring(10) + "\u0100", 2, LONG.length() - 9);
+    }
+
+    @Test
+    public void run7() throws Throwable {
+        runTest("test", LONG, 0, LONG, 26, 10);
+    }
+
+    @Test
+    public void run8() throws Throwable {
+        runTest("test", "abc", -1, "abc", 0, 2);
+    }
+
+    @Test
+    public void run9() throws Throwable {
+        runTest("test", "abc", 0, "abc", 2, 2);
+    }
+
+    @Test
+    public void run10() throws Throwable {
+        runTest("test", "abc", 4, "abc", 0, -1);
+    }
+
+    @Test
+    public void run11() throws Throwable {
+        runTest("test", "abc", 3, "abc", 3, Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void run12() throws Throwable {
+        runTest("test", "abc", 0, null, 0, 1);
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.jtt.loop;
+
+import org.junit.Test;
+
+import com.oracle.graal.compiler.common.GraalOptions;
+import com.oracle.graal.jtt.JTTTest;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/*
+ * Tests loops which store a loop invariant value into an array: the fill must leave out of bounds
+ * accesses and null arrays to the original loop.
+ */
+public class LoopFill extends JTTTest {
+
+    public static int[] fillInts(int length, int from, int to, int value) {
+        int[] a = new int[length];
+        for (int i = from; i < to; i++) {
+            a[i] = value;
+        }
+        return a;
+    }
+
+    public static byte[] zeroBytes(int length) {
+        byte[] a = new byte[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = 1;
+        }
+        for (int i = 0; i < a.length; i++) {
+            a[i] = 0;
+        }
+        return a;
+    }
+
+    public static short[] fillShorts(int length, int from, short value) {
+        short[] a = new short[length];
+        for (int i = from; i < length; i++) {
+            a[i] = value;
+        }
+        return a;
+    }
+
+    public static char[] fillChars(int length, char value) {
+        char[] a = new char[length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = value;
+        }
+        return a;
+    }
+
+    public static long[] fillLongs(int length, int to, long value) {
+        long[] a = new long[length];
+        for (int i = 0; i < to; i++) {
+            a[i] = value;
+        }
+        return a;
+    }
+
+    public static float[] fillFloats(int length, float value) {
+        float[] a = new float[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = value;
+        }
+        return a;
+    }
+
+    public static double[] fillDoubles(int length, int from, double value) {
+        double[] a = new double[length];
+        for (int i = from; i < length; i++) {
+            a[i] = value;
+        }
+        return a;
+    }
+
+    public static int[] fillNull(int length, boolean allocate) {
+        int[] a = allocate ? new int[length] : null;
+        for (int i = 0; i < length; i++) {
+            a[i] = 42;
+        }
+        return a;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected InstalledCode getCode(ResolvedJavaMethod installedCodeOwner, StructuredGraph graph, boolean forceCompile) {
+        try (OverrideScope scope = OptionValue.override(GraalOptions.OptimizeFillLoops, true, GraalOptions.FullUnroll, false)) {
+            return super.getCode(installedCodeOwner, graph, forceCompile);
+        }
+    }
+
+    @Test
+    public void runInts() throws Throwable {
+        for (int length = 0; length < 20; length++) {
+            runTest("fillInts", length, 0, length, 0xCAFEBABE);
+        }
+        runTest("fillInts", 40, 3, 37, 7);
+        runTest("fillInts", 40, 17, 3, 7);
+        runTest("fillInts", 40, -1, 10, 7);
+        runTest("fillInts", 40, 0, 41, 7);
+        runTest("fillInts", 40, 38, 45, 7);
+    }
+
+    @Test
+    public void runSubWords() throws Throwable {
+        runTest("zeroBytes", 0);
+        runTest("zeroBytes", 1);
+        runTest("zeroBytes", 67);
+        runTest("fillShorts", 19, 0, (short) -2);
+        runTest("fillShorts", 19, 3, (short) 0x7F7F);
+        runTest("fillChars", 0, 'a');
+        runTest("fillChars", 35, '\u0100');
+    }
+
+    @Test
+    public void runLongsAndFloatingPoint() throws Throwable {
+        runTest("fillLongs", 9, 9, 0x0123456789ABCDEFL);
+        runTest("fillLongs", 9, 10, -1L);
+        runTest("fillFloats", 23, -0.0f);
+        runTest("fillFloats", 23, Float.NaN);
+        runTest("fillDoubles", 17, 1, Math.PI);
+        runTest("fillDoubles", 17, -2, Math.E);
+    }
+
+    @Test
+    public void runExceptions() throws Throwable {
+        runTest("fillNull", 0, false);
+        runTest("fillNull", 10, false);
+        runTest("fillNull", 10, true);
+    }
+}
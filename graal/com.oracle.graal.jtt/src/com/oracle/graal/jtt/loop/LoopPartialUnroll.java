@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.jtt.loop;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.graal.compiler.common.GraalOptions;
+import com.oracle.graal.jtt.JTTTest;
+import com.oracle.graal.nodes.LoopBeginNode;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/*
+ * Tests partially unrolled counted loops: the main loop runs several iterations per back edge and
+ * the post loop must pick up the remaining ones for every trip count.
+ */
+public class LoopPartialUnroll extends JTTTest {
+
+    private static final int[] DATA = new int[37];
+
+    static {
+        for (int i = 0; i < DATA.length; i++) {
+            DATA[i] = i * 7919 ^ (i << 3);
+        }
+    }
+
+    public static int checksum(int count) {
+        int[] data = DATA;
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum = 31 * sum + data[i];
+        }
+        return sum;
+    }
+
+    public static int rowScan(int row, int columns) {
+        int[] data = DATA;
+        int base = row * columns;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < columns; i++) {
+            max = Math.max(max, data[base + i]);
+        }
+        return max;
+    }
+
+    public static long stride3(int start, int limit) {
+        long result = 0;
+        for (int i = start; i < limit; i += 3) {
+            result = result * 3 + i;
+        }
+        return result;
+    }
+
+    public static int countDown(int start, int limit) {
+        int result = 1;
+        for (int i = start; i > limit; i -= 2) {
+            result = result * 17 + i;
+        }
+        return result;
+    }
+
+    public static long longCounter(long start, long limit) {
+        long result = 0;
+        for (long i = start; i < limit; i++) {
+            result ^= i * 0x9E3779B97F4A7C15L;
+        }
+        return result;
+    }
+
+    public static int swap(int count) {
+        int a = 1;
+        int b = 2;
+        for (int i = 0; i < count; i++) {
+            int t = a;
+            a = b;
+            b = t + i;
+        }
+        return a * 31 + b;
+    }
+
+    /**
+     * Number of partially unrolled main loops and post loops in the graphs compiled so far. They
+     * are counted by the high tier graph check, which runs when assertions are enabled.
+     */
+    private int mainLoops;
+    private int postLoops;
+
+    @Override
+    protected boolean checkHighTierGraph(StructuredGraph graph) {
+        for (LoopBeginNode loopBegin : graph.getNodes(LoopBeginNode.TYPE)) {
+            if (loopBegin.getUnrollFactor() > 1) {
+                mainLoops++;
+            }
+            if (loopBegin.isPostLoop()) {
+                postLoops++;
+            }
+        }
+        return super.checkHighTierGraph(graph);
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected InstalledCode getCode(ResolvedJavaMethod installedCodeOwner, StructuredGraph graph, boolean forceCompile) {
+        try (OverrideScope scope = OptionValue.override(GraalOptions.PartialUnroll, true, GraalOptions.FullUnroll, false)) {
+            return super.getCode(installedCodeOwner, graph, forceCompile);
+        }
+    }
+
+    @Test
+    public void runUnrolled() throws Throwable {
+        // make the loop frequency profile reflect the trip count
+        for (int i = 0; i < 10000; i++) {
+            checksum(DATA.length);
+        }
+        mainLoops = 0;
+        postLoops = 0;
+        runTest("checksum", DATA.length);
+        Assert.assertTrue("checksum loop was not partially unrolled", mainLoops > 0);
+        Assert.assertTrue("partially unrolled loop has no post loop", postLoops > 0);
+    }
+
+    @Test
+    public void runChecksum() throws Throwable {
+        for (int count = 0; count <= DATA.length; count++) {
+            runTest("checksum", count);
+        }
+    }
+
+    @Test
+    public void runRowScan() throws Throwable {
+        runTest("rowScan", 0, 0);
+        runTest("rowScan", 0, 1);
+        runTest("rowScan", 1, 5);
+        runTest("rowScan", 2, 12);
+        runTest("rowScan", 3, 9);
+        runTest("rowScan", 0, 37);
+    }
+
+    @Test
+    public void runStride3() throws Throwable {
+        runTest("stride3", 0, 0);
+        runTest("stride3", 0, 1);
+        runTest("stride3", 0, 25);
+        runTest("stride3", -10, 10);
+        runTest("stride3", 5, 3);
+    }
+
+    @Test
+    public void runCountDown() throws Throwable {
+        runTest("countDown", 0, 0);
+        runTest("countDown", 20, 0);
+        runTest("countDown", 19, -4);
+        runTest("countDown", 3, 10);
+    }
+
+    @Test
+    public void runLimitsNearMinMax() throws Throwable {
+        runTest("stride3", Integer.MAX_VALUE - 21, Integer.MAX_VALUE);
+        runTest("stride3", Integer.MIN_VALUE, Integer.MIN_VALUE + 20);
+        runTest("countDown", Integer.MIN_VALUE + 20, Integer.MIN_VALUE);
+        runTest("countDown", Integer.MAX_VALUE, Integer.MAX_VALUE - 15);
+        runTest("longCounter", Long.MAX_VALUE - 13, Long.MAX_VALUE);
+        runTest("longCounter", Long.MIN_VALUE, Long.MIN_VALUE + 13);
+    }
+
+    @Test
+    public void runLongCounter() throws Throwable {
+        runTest("longCounter", 0L, 0L);
+        runTest("longCounter", 0L, 1L);
+        runTest("longCounter", -7L, 100L);
+    }
+
+    @Test
+    public void runSwap() throws Throwable {
+        for (int count = 0; count < 20; count++) {
+            runTest("swap", count);
+        }
+    }
+}
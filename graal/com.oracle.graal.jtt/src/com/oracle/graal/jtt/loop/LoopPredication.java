@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.jtt.loop;
+
+import org.junit.Test;
+
+import com.oracle.graal.compiler.common.GraalOptions;
+import com.oracle.graal.jtt.JTTTest;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/*
+ * Tests null and bounds checks hoisted out of counted loops: the predicates must not fail for
+ * loops that stay in bounds or are not entered, and must deoptimize to the original exception
+ * otherwise.
+ */
+public class LoopPredication extends JTTTest {
+
+    private static final int[] DATA = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8, 9, 7, 9};
+
+    public static int sum(int[] array, int start, int end) {
+        int sum = 0;
+        for (int i = start; i < end; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    public static int sumInclusive(int[] array, int start, int end) {
+        int sum = 0;
+        for (int i = start; i <= end; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    public static int differences(int[] array, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += array[i + 1] - array[i];
+        }
+        return sum;
+    }
+
+    public static int reverse(int[] array, int start) {
+        int sum = 0;
+        for (int i = start; i > 0; i--) {
+            sum = sum * 3 + array[i - 1];
+        }
+        return sum;
+    }
+
+    public static int copyUntilFailure(int[] src, int n) {
+        int[] dst = new int[n];
+        int copied = 0;
+        try {
+            for (int i = 0; i < n; i++) {
+                dst[i] = src[i];
+                copied++;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return -copied;
+        }
+        return copied;
+    }
+
+    public static int stride2(int[] array, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i += 2) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    public static final class Holder {
+        public int length;
+        public int value;
+
+        public Holder(int length, int value) {
+            this.length = length;
+            this.value = value;
+        }
+    }
+
+    public static int headerLimit(Holder holder) {
+        int sum = 0;
+        for (int i = 0; i < holder.length; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    public static int checkBeforeExitTest(Holder holder, int n) {
+        int sum = 0;
+        int i = 0;
+        while (true) {
+            sum += holder.value;
+            if (i >= n) {
+                break;
+            }
+            i++;
+        }
+        return sum;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected InstalledCode getCode(ResolvedJavaMethod installedCodeOwner, StructuredGraph graph, boolean forceCompile) {
+        try (OverrideScope scope = OptionValue.override(GraalOptions.LoopPredication, true)) {
+            return super.getCode(installedCodeOwner, graph, forceCompile);
+        }
+    }
+
+    @Test
+    public void runSum() throws Throwable {
+        runTest("sum", DATA, 0, DATA.length);
+        runTest("sum", DATA, 3, 7);
+        runTest("sum", DATA, 7, 3);
+        runTest("sum", new int[0], 0, 0);
+        runTest("sum", null, 0, 0);
+        runTest("sum", null, 0, 1);
+        runTest("sum", DATA, -1, 3);
+        runTest("sum", DATA, 0, DATA.length + 1);
+        runTest("sum", DATA, Integer.MAX_VALUE - 1, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void runSumInclusive() throws Throwable {
+        runTest("sumInclusive", DATA, 0, DATA.length - 1);
+        runTest("sumInclusive", DATA, 0, DATA.length);
+        runTest("sumInclusive", DATA, 5, 4);
+        runTest("sumInclusive", null, 5, 4);
+    }
+
+    @Test
+    public void runDifferences() throws Throwable {
+        runTest("differences", DATA, DATA.length - 1);
+        runTest("differences", DATA, DATA.length);
+        runTest("differences", DATA, 0);
+        runTest("differences", DATA, -5);
+    }
+
+    @Test
+    public void runReverse() throws Throwable {
+        runTest("reverse", DATA, DATA.length);
+        runTest("reverse", DATA, DATA.length + 1);
+        runTest("reverse", DATA, 0);
+        runTest("reverse", null, 0);
+    }
+
+    @Test
+    public void runCopyUntilFailure() throws Throwable {
+        runTest("copyUntilFailure", DATA, DATA.length);
+        runTest("copyUntilFailure", DATA, DATA.length + 4);
+        runTest("copyUntilFailure", DATA, 0);
+    }
+
+    @Test
+    public void runStride2() throws Throwable {
+        runTest("stride2", DATA, DATA.length);
+        runTest("stride2", DATA, DATA.length - 1);
+        runTest("stride2", DATA, DATA.length + 1);
+        runTest("stride2", DATA, DATA.length + 2);
+    }
+
+    @Test
+    public void runHeaderLimit() throws Throwable {
+        runTest("headerLimit", new Holder(5, 0));
+        runTest("headerLimit", new Holder(0, 0));
+        runTest("headerLimit", (Object) null);
+    }
+
+    @Test
+    public void runCheckBeforeExitTest() throws Throwable {
+        runTest("checkBeforeExitTest", new Holder(0, 3), 4);
+        runTest("checkBeforeExitTest", new Holder(0, 3), 0);
+        runTest("checkBeforeExitTest", null, 0);
+        runTest("checkBeforeExitTest", null, 4);
+    }
+}
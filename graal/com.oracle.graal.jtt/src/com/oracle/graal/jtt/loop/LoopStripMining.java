@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.jtt.loop;
+
+import org.junit.Test;
+
+import com.oracle.graal.compiler.common.GraalOptions;
+import com.oracle.graal.jtt.JTTTest;
+import com.oracle.graal.loop.DefaultLoopPolicies;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/*
+ * Tests strip mined loops with strips much shorter than the loops, so that the outer loop has to
+ * carry every loop variable and every exit across several strips.
+ */
+public class LoopStripMining extends JTTTest {
+
+    private static final int[] DATA = new int[100];
+
+    static {
+        for (int i = 0; i < DATA.length; i++) {
+            DATA[i] = i * 7919 ^ (i << 5);
+        }
+    }
+
+    public static int sum(int start, int limit) {
+        int sum = 0;
+        for (int i = start; i < limit; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    public static long strided(int start, int limit, int factor) {
+        long result = 0;
+        for (int i = start; i < limit; i += 3) {
+            result = result * factor + i;
+        }
+        return result;
+    }
+
+    public static int countDown(int start, int limit) {
+        int a = 1;
+        int b = 0;
+        for (int i = start; i > limit; i -= 2) {
+            int t = a;
+            a = b + i;
+            b = t;
+        }
+        return a * 31 + b;
+    }
+
+    public static int search(int value, int limit) {
+        int[] data = DATA;
+        for (int i = 0; i < limit; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int prefixSum(int limit) {
+        int[] data = new int[DATA.length];
+        int sum = 0;
+        for (int i = 0; i < limit; i++) {
+            sum += DATA[i];
+            data[i] = sum;
+        }
+        return data[limit - 1] + data[limit / 2];
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected InstalledCode getCode(ResolvedJavaMethod installedCodeOwner, StructuredGraph graph, boolean forceCompile) {
+        try (OverrideScope scope = OptionValue.override(GraalOptions.LoopStripMining, true, DefaultLoopPolicies.StripMiningLength, 4, GraalOptions.FullUnroll, false)) {
+            return super.getCode(installedCodeOwner, graph, forceCompile);
+        }
+    }
+
+    @Test
+    public void runSum() throws Throwable {
+        for (int limit = 0; limit < 20; limit++) {
+            runTest("sum", 0, limit);
+        }
+        runTest("sum", -50, 50);
+        runTest("sum", 10, 3);
+        runTest("sum", Integer.MAX_VALUE - 9, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void runStrided() throws Throwable {
+        runTest("strided", 0, 0, 7);
+        runTest("strided", 0, 11, 7);
+        runTest("strided", 0, 12, 7);
+        runTest("strided", 0, 13, 7);
+        runTest("strided", -40, 71, 3);
+        runTest("strided", Integer.MAX_VALUE - 30, Integer.MAX_VALUE, 5);
+    }
+
+    @Test
+    public void runCountDown() throws Throwable {
+        runTest("countDown", 0, 0);
+        runTest("countDown", 9, 0);
+        runTest("countDown", 40, -7);
+        runTest("countDown", Integer.MIN_VALUE + 25, Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void runSearch() throws Throwable {
+        runTest("search", DATA[0], 100);
+        runTest("search", DATA[3], 100);
+        runTest("search", DATA[4], 100);
+        runTest("search", DATA[57], 100);
+        runTest("search", DATA[57], 50);
+        runTest("search", -1, 100);
+        runTest("search", -1, 101);
+    }
+
+    @Test
+    public void runPrefixSum() throws Throwable {
+        runTest("prefixSum", 1);
+        runTest("prefixSum", 4);
+        runTest("prefixSum", 5);
+        runTest("prefixSum", 100);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.jtt.loop;
+
+import org.junit.Test;
+
+import com.oracle.graal.compiler.common.GraalOptions;
+import com.oracle.graal.jtt.JTTTest;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/*
+ * Tests vectorized element-wise array loops: the vector part must leave the remaining iterations,
+ * out of bounds accesses and null arrays to the original loop.
+ */
+public class LoopVectorization extends JTTTest {
+
+    private static int[] ints(int length, int seed) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * seed ^ (i << 7);
+        }
+        return result;
+    }
+
+    private static long[] longs(int length, long seed) {
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * seed ^ ((long) i << 35);
+        }
+        return result;
+    }
+
+    private static float[] floats(int length, float seed) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * seed - 11.5f;
+        }
+        return result;
+    }
+
+    private static double[] doubles(int length, double seed) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * seed - 3.25;
+        }
+        return result;
+    }
+
+    public static int[] addInts(int length, int from, int to) {
+        int[] a = ints(length, 7919);
+        int[] b = ints(length, 31);
+        int[] c = new int[length];
+        for (int i = from; i < to; i++) {
+            c[i] = a[i] + b[i];
+        }
+        return c;
+    }
+
+    public static int[] mulIntsInPlace(int length, int to) {
+        int[] a = ints(length, 7919);
+        int[] b = ints(length, 31);
+        for (int i = 0; i < to; i++) {
+            a[i] = a[i] * b[i];
+        }
+        return a;
+    }
+
+    public static int[] squareInts(int length) {
+        int[] a = ints(length, 13);
+        int[] b = new int[length];
+        for (int i = 0; i < b.length; i++) {
+            b[i] = a[i] * a[i];
+        }
+        return b;
+    }
+
+    public static long[] xorLongs(int length, int to) {
+        long[] a = longs(length, 0x9E3779B97F4A7C15L);
+        long[] b = longs(length, 17);
+        long[] c = new long[length];
+        for (int i = 0; i < to; i++) {
+            c[i] = a[i] ^ b[i];
+        }
+        return c;
+    }
+
+    public static long[] subLongsInPlace(int length) {
+        long[] a = longs(length, 3);
+        long[] b = longs(length, 0x7FFFFFFFFFL);
+        for (int i = 0; i < length; i++) {
+            b[i] = a[i] - b[i];
+        }
+        return b;
+    }
+
+    public static float[] divFloats(int length, int from) {
+        float[] a = floats(length, 0.75f);
+        float[] b = floats(length, -1.5f);
+        float[] c = new float[length];
+        for (int i = from; i < length; i++) {
+            c[i] = a[i] / b[i];
+        }
+        return c;
+    }
+
+    public static double[] mulDoubles(int length) {
+        double[] a = doubles(length, Math.PI);
+        double[] b = doubles(length, Double.MIN_VALUE);
+        double[] c = new double[length];
+        for (int i = 0; i < length; i++) {
+            c[i] = a[i] * b[i];
+        }
+        return c;
+    }
+
+    public static int[] nullResult(int length, boolean allocate) {
+        int[] a = ints(length, 5);
+        int[] b = ints(length, 3);
+        int[] c = allocate ? new int[length] : null;
+        for (int i = 0; i < length; i++) {
+            c[i] = a[i] | b[i];
+        }
+        return c;
+    }
+
+    public static int[] shortResult(int length, int resultLength) {
+        int[] a = ints(length, 5);
+        int[] b = ints(length, 9);
+        int[] c = new int[resultLength];
+        for (int i = 0; i < length; i++) {
+            c[i] = a[i] & b[i];
+        }
+        return c;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected InstalledCode getCode(ResolvedJavaMethod installedCodeOwner, StructuredGraph graph, boolean forceCompile) {
+        try (OverrideScope scope = OptionValue.override(GraalOptions.VectorizeLoops, true, GraalOptions.FullUnroll, false)) {
+            return super.getCode(installedCodeOwner, graph, forceCompile);
+        }
+    }
+
+    @Test
+    public void runAddInts() throws Throwable {
+        for (int length = 0; length < 20; length++) {
+            runTest("addInts", length, 0, length);
+        }
+        runTest("addInts", 40, 3, 37);
+        runTest("addInts", 40, 17, 3);
+        runTest("addInts", 40, -1, 10);
+        runTest("addInts", 40, 0, 41);
+        runTest("addInts", 40, 38, 45);
+    }
+
+    @Test
+    public void runMulInts() throws Throwable {
+        runTest("mulIntsInPlace", 33, 33);
+        runTest("mulIntsInPlace", 33, 30);
+        runTest("mulIntsInPlace", 33, 34);
+        runTest("squareInts", 0);
+        runTest("squareInts", 23);
+    }
+
+    @Test
+    public void runLongs() throws Throwable {
+        runTest("xorLongs", 0, 0);
+        runTest("xorLongs", 15, 15);
+        runTest("xorLongs", 15, 16);
+        runTest("subLongsInPlace", 1);
+        runTest("subLongsInPlace", 26);
+    }
+
+    @Test
+    public void runFloatingPoint() throws Throwable {
+        runTest("divFloats", 19, 0);
+        runTest("divFloats", 19, 2);
+        runTest("divFloats", 19, -2);
+        runTest("mulDoubles", 0);
+        runTest("mulDoubles", 27);
+    }
+
+    @Test
+    public void runExceptions() throws Throwable {
+        runTest("nullResult", 0, false);
+        runTest("nullResult", 10, false);
+        runTest("nullResult", 10, true);
+        runTest("shortResult", 21, 21);
+        runTest("shortResult", 21, 13);
+        runTest("shortResult", 21, 2);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.amd64;
+
+import static com.oracle.graal.lir.LIRInstruction.OperandFlag.REG;
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+
+import com.oracle.graal.asm.Label;
+import com.oracle.graal.asm.amd64.AMD64Address;
+import com.oracle.graal.asm.amd64.AMD64Address.Scale;
+import com.oracle.graal.asm.amd64.AMD64Assembler.ConditionFlag;
+import com.oracle.graal.asm.amd64.AMD64MacroAssembler;
+import com.oracle.graal.compiler.common.LIRKind;
+import com.oracle.graal.lir.LIRInstructionClass;
+import com.oracle.graal.lir.Opcode;
+import com.oracle.graal.lir.asm.CompilationResultBuilder;
+import com.oracle.graal.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code which compares two arrays lexicographically with the semantics of
+ * {@link String#compareTo(String)}. The common prefix of the arrays is compared with 128-bit SSE
+ * vectors or, if the CPU supports AVX2, with 256-bit vectors first. A vector compare yields a byte
+ * mask of the equal bytes and the position of the first difference is found with a bit scan, so
+ * only the differing pair of elements is loaded with scalar instructions.
+ */
+@Opcode("ARRAY_COMPARE_TO")
+public final class AMD64ArrayCompareToOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayCompareToOp> TYPE = LIRInstructionClass.create(AMD64ArrayCompareToOp.class);
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final int arrayIndexScale;
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value array1Value;
+    @Alive({REG}) protected Value array2Value;
+    @Alive({REG}) protected Value length1Value;
+    @Alive({REG}) protected Value length2Value;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG}) protected Value temp3;
+    @Temp({REG}) protected Value temp4;
+    @Temp({REG}) protected Value temp5;
+    @Temp({REG}) protected Value vectorTemp1;
+    @Temp({REG}) protected Value vectorTemp2;
+
+    public AMD64ArrayCompareToOp(LIRGeneratorTool tool, JavaKind kind, Value result, Value array1, Value array2, Value length1, Value length2) {
+        super(TYPE);
+        assert kind == JavaKind.Char || kind == JavaKind.Byte : kind;
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getMetaAccess().getArrayBaseOffset(kind);
+        this.arrayIndexScale = tool.getMetaAccess().getArrayIndexScale(kind);
+
+        this.resultValue = result;
+        this.array1Value = array1;
+        this.array2Value = array2;
+        this.length1Value = length1;
+        this.length2Value = length2;
+
+        // Allocate some temporaries.
+        this.temp1 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp3 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp4 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp5 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register length1 = asRegister(length1Value);
+        Register length2 = asRegister(length2Value);
+        Register array1 = asRegister(temp1);
+        Register array2 = asRegister(temp2);
+        Register index = asRegister(temp3);
+        Register element1 = asRegister(temp4);
+        Register element2 = asRegister(temp5);
+
+        Label vectorMismatch = new Label();
+        Label elementMismatch = new Label();
+        Label scalarLoop = new Label();
+        Label done = new Label();
+
+        // Load array base addresses.
+        masm.leaq(array1, new AMD64Address(asRegister(array1Value), arrayBaseOffset));
+        masm.leaq(array2, new AMD64Address(asRegister(array2Value), arrayBaseOffset));
+
+        // The result if one array is a prefix of the other.
+        masm.movl(result, length1);
+        masm.subl(result, length2);
+
+        // Get the length of the common prefix in bytes.
+        masm.movl(index, length1);
+        masm.cmpl(index, length2);
+        masm.cmovl(ConditionFlag.Greater, index, length2);
+        masm.imull(index, index, arrayIndexScale);
+
+        // Index the arrays from the end of the common prefix with a negative byte index.
+        masm.leaq(array1, new AMD64Address(array1, index, Scale.Times1, 0));
+        masm.leaq(array2, new AMD64Address(array2, index, Scale.Times1, 0));
+        masm.negq(index);
+
+        if (supportsAVX2(crb.target)) {
+            emitVectorCompare(crb, masm, array1, array2, index, element1, AVX_VECTOR_SIZE, vectorMismatch);
+        }
+        emitVectorCompare(crb, masm, array1, array2, index, element1, SSE_VECTOR_SIZE, vectorMismatch);
+
+        // Compare the remaining elements one by one.
+        masm.bind(scalarLoop);
+        masm.testq(index, index);
+        masm.jcc(ConditionFlag.Zero, done);
+        loadElement(masm, element1, new AMD64Address(array1, index, Scale.Times1, 0));
+        loadElement(masm, element2, new AMD64Address(array2, index, Scale.Times1, 0));
+        masm.subl(element1, element2);
+        masm.jccb(ConditionFlag.NotZero, elementMismatch);
+        masm.addq(index, arrayIndexScale);
+        masm.jmpb(scalarLoop);
+
+        // The inverted equality mask of a vector is in element1: locate the first difference.
+        masm.bind(vectorMismatch);
+        masm.bsfl(element1, element1);
+        if (arrayIndexScale > 1) {
+            masm.andl(element1, -arrayIndexScale);
+        }
+        masm.addq(index, element1);
+        loadElement(masm, element1, new AMD64Address(array1, index, Scale.Times1, 0));
+        loadElement(masm, element2, new AMD64Address(array2, index, Scale.Times1, 0));
+        masm.subl(element1, element2);
+
+        masm.bind(elementMismatch);
+        masm.movl(result, element1);
+
+        // That's it
+        masm.bind(done);
+    }
+
+    private void loadElement(AMD64MacroAssembler masm, Register dst, AMD64Address address) {
+        if (kind == JavaKind.Char) {
+            masm.movzwl(dst, address);
+        } else {
+            masm.movsbl(dst, address);
+        }
+    }
+
+    /**
+     * Returns if the underlying AMD64 architecture supports AVX2 instructions.
+     *
+     * @param target target description of the underlying architecture
+     * @return true if the underlying architecture supports AVX2
+     */
+    private static boolean supportsAVX2(TargetDescription target) {
+        AMD64 arch = (AMD64) target.arch;
+        return arch.getFeatures().contains(CPUFeature.AVX2);
+    }
+
+    /**
+     * Vector size of 128-bit SSE registers.
+     */
+    private static final int SSE_VECTOR_SIZE = 16;
+
+    /**
+     * Vector size of 256-bit AVX registers.
+     */
+    private static final int AVX_VECTOR_SIZE = 32;
+
+    /**
+     * Emits a loop that compares {@code vectorSize} bytes per iteration as long as at least that
+     * many bytes remain. If the vectors differ, the loop jumps to {@code mismatch} with the
+     * inverted byte equality mask in {@code mask} and {@code index} pointing to the start of the
+     * vectors.
+     */
+    private void emitVectorCompare(CompilationResultBuilder crb, AMD64MacroAssembler masm, Register array1, Register array2, Register index, Register mask, int vectorSize, Label mismatch) {
+        Register vector1 = asRegister(vectorTemp1, AMD64Kind.DOUBLE);
+        Register vector2 = asRegister(vectorTemp2, AMD64Kind.DOUBLE);
+
+        Label loop = new Label();
+        Label loopExit = new Label();
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        masm.cmpq(index, -vectorSize);
+        masm.jccb(ConditionFlag.Greater, loopExit);
+        if (vectorSize == AVX_VECTOR_SIZE) {
+            masm.vmovdqu(vector1, new AMD64Address(array1, index, Scale.Times1, 0));
+            masm.vmovdqu(vector2, new AMD64Address(array2, index, Scale.Times1, 0));
+            masm.vpcmpeqb(vector1, vector1, vector2);
+            masm.vpmovmskb(mask, vector1);
+            masm.notl(mask);
+            masm.testl(mask, mask);
+        } else {
+            masm.movdqu(vector1, new AMD64Address(array1, index, Scale.Times1, 0));
+            masm.movdqu(vector2, new AMD64Address(array2, index, Scale.Times1, 0));
+            masm.pcmpeqb(vector1, vector2);
+            masm.pmovmskb(mask, vector1);
+            masm.xorl(mask, 0xFFFF);
+        }
+        masm.jcc(ConditionFlag.NotZero, mismatch);
+        masm.addq(index, vectorSize);
+        masm.jmpb(loop);
+        masm.bind(loopExit);
+    }
+}
@@ -51,7 +51,8 @@ import sun.misc.Unsafe;
 
 /**
  * Emits code which compares two arrays of the same length. If the CPU supports any vector
- * instructions specialized code is emitted to leverage these instructions.
+ * instructions specialized code is emitted to leverage these instructions. The op can also compare
+ * two ranges of arrays, see {@link #forElementAddresses}.
  */
 @Opcode("ARRAY_EQUALS")
 public final class AMD64ArrayEqualsOp extends AMD64LIRInstruction {
@@ -73,12 +74,24 @@ public final class AMD64ArrayEqualsOp extends AMD64LIRInstruction {
     @Temp({REG, ILLEGAL}) protected Value vectorTemp2;
 
     public AMD64ArrayEqualsOp(LIRGeneratorTool tool, JavaKind kind, Value result, Value array1, Value array2, Value length) {
+        this(tool, kind, result, array1, array2, length, UNSAFE.arrayBaseOffset(arrayClass(kind)));
+    }
+
+    /**
+     * Creates an op that compares {@code length} elements starting at {@code address1} with
+     * {@code length} elements starting at {@code address2}. The addresses are derived pointers into
+     * arrays of {@code kind} elements and the op does not contain a safepoint.
+     */
+    public static AMD64ArrayEqualsOp forElementAddresses(LIRGeneratorTool tool, JavaKind kind, Value result, Value address1, Value address2, Value length) {
+        return new AMD64ArrayEqualsOp(tool, kind, result, address1, address2, length, 0);
+    }
+
+    private AMD64ArrayEqualsOp(LIRGeneratorTool tool, JavaKind kind, Value result, Value array1, Value array2, Value length, int arrayBaseOffset) {
         super(TYPE);
         this.kind = kind;
 
-        Class<?> arrayClass = Array.newInstance(kind.toJavaClass(), 0).getClass();
-        this.arrayBaseOffset = UNSAFE.arrayBaseOffset(arrayClass);
-        this.arrayIndexScale = UNSAFE.arrayIndexScale(arrayClass);
+        this.arrayBaseOffset = arrayBaseOffset;
+        this.arrayIndexScale = UNSAFE.arrayIndexScale(arrayClass(kind));
 
         this.resultValue = result;
         this.array1Value = array1;
@@ -101,6 +114,10 @@ public final class AMD64ArrayEqualsOp extends AMD64LIRInstruction {
         }
     }
 
+    private static Class<?> arrayClass(JavaKind kind) {
+        return Array.newInstance(kind.toJavaClass(), 0).getClass();
+    }
+
     @Override
     public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
         Register result = asRegister(resultValue);
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.amd64;
+
+import static com.oracle.graal.lir.LIRInstruction.OperandFlag.REG;
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+
+import com.oracle.graal.asm.Label;
+import com.oracle.graal.asm.amd64.AMD64Address;
+import com.oracle.graal.asm.amd64.AMD64Address.Scale;
+import com.oracle.graal.asm.amd64.AMD64Assembler.ConditionFlag;
+import com.oracle.graal.asm.amd64.AMD64MacroAssembler;
+import com.oracle.graal.compiler.common.LIRKind;
+import com.oracle.graal.debug.GraalError;
+import com.oracle.graal.lir.LIRInstructionClass;
+import com.oracle.graal.lir.Opcode;
+import com.oracle.graal.lir.asm.CompilationResultBuilder;
+import com.oracle.graal.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Stores a value into all elements of a primitive array in an index range. The value is replicated
+ * into a 128-bit SSE register which is stored with unaligned moves; the remaining bytes are stored
+ * from the replicated value in a general purpose register with 8, 4, 2 and 1 byte moves.
+ *
+ * The array must not be null and the index range must be within the bounds of the array. Floating
+ * point values must be passed as their raw bits in a general purpose register.
+ */
+@Opcode("ARRAY_FILL")
+public final class AMD64ArrayFillOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayFillOp> TYPE = LIRInstructionClass.create(AMD64ArrayFillOp.class);
+
+    /**
+     * Size of the vector registers used by this operation.
+     */
+    private static final int VECTOR_SIZE = 16;
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final int arrayIndexScale;
+
+    @Alive({REG}) protected Value arrayValue;
+    @Alive({REG}) protected Value fromIndexValue;
+    @Alive({REG}) protected Value toIndexValue;
+    @Alive({REG}) protected Value value;
+    @Temp({REG}) protected Value pointerTemp;
+    @Temp({REG}) protected Value countTemp;
+    @Temp({REG}) protected Value patternTemp;
+    @Temp({REG}) protected Value shiftTemp;
+    @Temp({REG}) protected Value vectorTemp;
+
+    public AMD64ArrayFillOp(LIRGeneratorTool tool, JavaKind kind, Value array, Value fromIndex, Value toIndex, Value value) {
+        super(TYPE);
+        assert kind.isPrimitive() && kind != JavaKind.Void : kind;
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getMetaAccess().getArrayBaseOffset(kind);
+        this.arrayIndexScale = tool.getMetaAccess().getArrayIndexScale(kind);
+
+        this.arrayValue = array;
+        this.fromIndexValue = fromIndex;
+        this.toIndexValue = toIndex;
+        this.value = value;
+
+        this.pointerTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.countTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.patternTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.shiftTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.vectorTemp = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register pointer = asRegister(pointerTemp);
+        Register count = asRegister(countTemp);
+        Register pattern = asRegister(patternTemp);
+        Register vector = asRegister(vectorTemp, AMD64Kind.DOUBLE);
+
+        Label vectorLoop = new Label();
+        Label tail8 = new Label();
+        Label tail4 = new Label();
+        Label tail2 = new Label();
+        Label tail1 = new Label();
+        Label done = new Label();
+
+        masm.movl(count, asRegister(toIndexValue));
+        masm.subl(count, asRegister(fromIndexValue));
+        masm.jcc(ConditionFlag.LessEqual, done);
+
+        // the index is not negative and the count is positive, so the 32-bit moves and
+        // subtraction above zero-extend them correctly
+        masm.movl(pointer, asRegister(fromIndexValue));
+        masm.leaq(pointer, new AMD64Address(asRegister(arrayValue), pointer, Scale.fromInt(arrayIndexScale), arrayBaseOffset));
+        if (arrayIndexScale > 1) {
+            masm.shlq(count, Integer.numberOfTrailingZeros(arrayIndexScale));
+        }
+
+        emitReplicate(masm, pattern);
+
+        masm.cmpq(count, VECTOR_SIZE);
+        masm.jcc(ConditionFlag.Below, tail8);
+        masm.movdq(vector, pattern);
+        masm.movlhps(vector, vector);
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(vectorLoop);
+        masm.movdqu(new AMD64Address(pointer), vector);
+        masm.addq(pointer, VECTOR_SIZE);
+        masm.subq(count, VECTOR_SIZE);
+        masm.cmpq(count, VECTOR_SIZE);
+        masm.jcc(ConditionFlag.AboveEqual, vectorLoop);
+
+        // the remaining byte count is a multiple of the element size, so the smaller stores below
+        // never split an element
+        masm.bind(tail8);
+        masm.cmpq(count, 8);
+        masm.jcc(ConditionFlag.Below, tail4);
+        masm.movq(new AMD64Address(pointer), pattern);
+        masm.addq(pointer, 8);
+        masm.subq(count, 8);
+
+        masm.bind(tail4);
+        masm.cmpq(count, 4);
+        masm.jcc(ConditionFlag.Below, tail2);
+        masm.movl(new AMD64Address(pointer), pattern);
+        masm.addq(pointer, 4);
+        masm.subq(count, 4);
+
+        masm.bind(tail2);
+        masm.cmpq(count, 2);
+        masm.jcc(ConditionFlag.Below, tail1);
+        masm.movw(new AMD64Address(pointer), pattern);
+        masm.addq(pointer, 2);
+        masm.subq(count, 2);
+
+        masm.bind(tail1);
+        masm.testq(count, count);
+        masm.jcc(ConditionFlag.Zero, done);
+        masm.movb(new AMD64Address(pointer), pattern);
+
+        masm.bind(done);
+    }
+
+    /**
+     * Replicates the element value into all bytes of the 64-bit {@code pattern} register.
+     */
+    private void emitReplicate(AMD64MacroAssembler masm, Register pattern) {
+        Register shift = asRegister(shiftTemp);
+        Register src = asRegister(value);
+        switch (kind) {
+            case Boolean:
+            case Byte:
+                masm.movl(pattern, src);
+                masm.andl(pattern, 0xFF);
+                emitDouble(masm, pattern, shift, 8);
+                emitDouble(masm, pattern, shift, 16);
+                emitDouble(masm, pattern, shift, 32);
+                break;
+            case Short:
+            case Char:
+                masm.movl(pattern, src);
+                masm.andl(pattern, 0xFFFF);
+                emitDouble(masm, pattern, shift, 16);
+                emitDouble(masm, pattern, shift, 32);
+                break;
+            case Int:
+            case Float:
+                // movl clears the upper half
+                masm.movl(pattern, src);
+                emitDouble(masm, pattern, shift, 32);
+                break;
+            case Long:
+            case Double:
+                masm.movq(pattern, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    /**
+     * Computes {@code pattern |= pattern << bits}.
+     */
+    private static void emitDouble(AMD64MacroAssembler masm, Register pattern, Register shift, int bits) {
+        masm.movq(shift, pattern);
+        masm.shlq(shift, bits);
+        masm.orq(pattern, shift);
+    }
+}
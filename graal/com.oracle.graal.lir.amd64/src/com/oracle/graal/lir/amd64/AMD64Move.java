@@ -44,10 +44,12 @@ import com.oracle.graal.asm.amd64.AMD64MacroAssembler;
 import com.oracle.graal.compiler.common.type.DataPointerConstant;
 import com.oracle.graal.debug.GraalError;
 import com.oracle.graal.lir.LIRFrameState;
+import com.oracle.graal.lir.LIRInstruction;
 import com.oracle.graal.lir.LIRInstructionClass;
 import com.oracle.graal.lir.Opcode;
 import com.oracle.graal.lir.StandardOp.LoadConstantOp;
 import com.oracle.graal.lir.StandardOp.NullCheck;
+import com.oracle.graal.lir.StandardOp.RematerializableOp;
 import com.oracle.graal.lir.StandardOp.ValueMoveOp;
 import com.oracle.graal.lir.VirtualStackSlot;
 import com.oracle.graal.lir.asm.CompilationResultBuilder;
@@ -287,7 +289,7 @@ public class AMD64Move {
         }
     }
 
-    public static final class LeaOp extends AMD64LIRInstruction {
+    public static final class LeaOp extends AMD64LIRInstruction implements RematerializableOp {
         public static final LIRInstructionClass<LeaOp> TYPE = LIRInstructionClass.create(LeaOp.class);
 
         @Def({REG}) protected AllocatableValue result;
@@ -299,13 +301,23 @@ public class AMD64Move {
             this.address = address;
         }
 
+        @Override
+        public AllocatableValue getResult() {
+            return result;
+        }
+
+        @Override
+        public LIRInstruction rematerialize(AllocatableValue newResult) {
+            return new LeaOp(newResult, address);
+        }
+
         @Override
         public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
             masm.leaq(asRegister(result, AMD64Kind.QWORD), address.toAddress());
         }
     }
 
-    public static final class LeaDataOp extends AMD64LIRInstruction {
+    public static final class LeaDataOp extends AMD64LIRInstruction implements RematerializableOp {
         public static final LIRInstructionClass<LeaDataOp> TYPE = LIRInstructionClass.create(LeaDataOp.class);
 
         @Def({REG}) protected AllocatableValue result;
@@ -317,13 +329,23 @@ public class AMD64Move {
             this.data = data;
         }
 
+        @Override
+        public AllocatableValue getResult() {
+            return result;
+        }
+
+        @Override
+        public LIRInstruction rematerialize(AllocatableValue newResult) {
+            return new LeaDataOp(newResult, data);
+        }
+
         @Override
         public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
             masm.leaq(asRegister(result), (AMD64Address) crb.recordDataReferenceInCode(data));
         }
     }
 
-    public static final class StackLeaOp extends AMD64LIRInstruction {
+    public static final class StackLeaOp extends AMD64LIRInstruction implements RematerializableOp {
         public static final LIRInstructionClass<StackLeaOp> TYPE = LIRInstructionClass.create(StackLeaOp.class);
 
         @Def({REG}) protected AllocatableValue result;
@@ -336,6 +358,16 @@ public class AMD64Move {
             assert slot instanceof VirtualStackSlot || slot instanceof StackSlot;
         }
 
+        @Override
+        public AllocatableValue getResult() {
+            return result;
+        }
+
+        @Override
+        public LIRInstruction rematerialize(AllocatableValue newResult) {
+            return new StackLeaOp(newResult, slot);
+        }
+
         @Override
         public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
             masm.leaq(asRegister(result, AMD64Kind.QWORD), (AMD64Address) crb.asAddress(slot));
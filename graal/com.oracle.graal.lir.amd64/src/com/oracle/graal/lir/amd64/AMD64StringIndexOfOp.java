@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.amd64;
+
+import static com.oracle.graal.asm.amd64.AMD64Assembler.AMD64BinaryArithmetic.CMP;
+import static com.oracle.graal.asm.amd64.AMD64Assembler.OperandSize.WORD;
+import static com.oracle.graal.lir.LIRInstruction.OperandFlag.REG;
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+
+import com.oracle.graal.asm.Label;
+import com.oracle.graal.asm.amd64.AMD64Address;
+import com.oracle.graal.asm.amd64.AMD64Address.Scale;
+import com.oracle.graal.asm.amd64.AMD64Assembler.ConditionFlag;
+import com.oracle.graal.asm.amd64.AMD64MacroAssembler;
+import com.oracle.graal.compiler.common.LIRKind;
+import com.oracle.graal.lir.LIRInstructionClass;
+import com.oracle.graal.lir.Opcode;
+import com.oracle.graal.lir.asm.CompilationResultBuilder;
+import com.oracle.graal.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code which searches a range of {@code char}s for the first occurrence of a non-empty
+ * range of other {@code char}s. The source and target operands are the addresses of the first
+ * character of each range. The result is the index of the match within the source range or -1.
+ *
+ * Candidate positions are found by comparing 8 (SSE) or 16 (AVX2) source characters at once with
+ * the first target character; only the candidates are then verified character by character. The
+ * vector loads never read beyond the last position at which the target can start, so no memory
+ * outside the source range is touched.
+ */
+@Opcode("STRING_INDEX_OF")
+public final class AMD64StringIndexOfOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64StringIndexOfOp> TYPE = LIRInstructionClass.create(AMD64StringIndexOfOp.class);
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value sourceValue;
+    @Alive({REG}) protected Value sourceCountValue;
+    @Alive({REG}) protected Value targetValue;
+    @Alive({REG}) protected Value targetCountValue;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG}) protected Value temp3;
+    @Temp({REG}) protected Value temp4;
+    @Temp({REG}) protected Value temp5;
+    @Temp({REG}) protected Value vectorTemp1;
+    @Temp({REG}) protected Value vectorTemp2;
+
+    public AMD64StringIndexOfOp(LIRGeneratorTool tool, Value result, Value source, Value sourceCount, Value target, Value targetCount) {
+        super(TYPE);
+        this.resultValue = result;
+        this.sourceValue = source;
+        this.sourceCountValue = sourceCount;
+        this.targetValue = target;
+        this.targetCountValue = targetCount;
+
+        // Allocate some temporaries.
+        this.temp1 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp3 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp4 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp5 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        // The result register holds the position of the current candidate until a match is found.
+        Register position = asRegister(resultValue);
+        Register source = asRegister(sourceValue);
+        Register sourceCount = asRegister(sourceCountValue);
+        Register target = asRegister(targetValue);
+        Register limit = asRegister(temp1);
+        Register candidate = asRegister(temp3);
+        Register element = asRegister(temp5);
+        Register first = asRegister(vectorTemp1, AMD64Kind.DOUBLE);
+
+        Label scalarLoop = new Label();
+        Label scalarNext = new Label();
+        Label found = new Label();
+        Label notFound = new Label();
+        Label done = new Label();
+
+        // Get the last position at which the target can start.
+        masm.movl(limit, sourceCount);
+        masm.subl(limit, asRegister(targetCountValue));
+        masm.jcc(ConditionFlag.Less, notFound);
+        masm.xorl(position, position);
+
+        // Broadcast the first target character to all vector elements.
+        masm.movzwl(element, new AMD64Address(target, 0));
+        masm.movdl(first, element);
+        if (supportsAVX2(crb.target)) {
+            masm.vpbroadcastw(first, first);
+            emitVectorScan(crb, masm, AVX_VECTOR_CHARS, found);
+        } else {
+            masm.pshuflw(first, first, 0);
+            masm.pshufd(first, first, 0);
+        }
+        emitVectorScan(crb, masm, SSE_VECTOR_CHARS, found);
+
+        // Check the remaining positions one by one.
+        masm.bind(scalarLoop);
+        masm.cmpl(position, limit);
+        masm.jcc(ConditionFlag.Greater, notFound);
+        masm.movzwl(element, new AMD64Address(source, position, Scale.Times2, 0));
+        CMP.rmOp.emit(masm, WORD, element, new AMD64Address(target, 0));
+        masm.jccb(ConditionFlag.NotEqual, scalarNext);
+        masm.leaq(candidate, new AMD64Address(source, position, Scale.Times2, 0));
+        emitCandidateCheck(masm, candidate, found);
+        masm.bind(scalarNext);
+        masm.incrementl(position, 1);
+        masm.jmp(scalarLoop);
+
+        // Compute the position from the address of the match.
+        masm.bind(found);
+        masm.movq(position, candidate);
+        masm.subq(position, source);
+        masm.shrq(position, 1);
+        masm.jmpb(done);
+
+        masm.bind(notFound);
+        masm.movl(position, -1);
+
+        // That's it
+        masm.bind(done);
+    }
+
+    /**
+     * Returns if the underlying AMD64 architecture supports AVX2 instructions.
+     *
+     * @param target target description of the underlying architecture
+     * @return true if the underlying architecture supports AVX2
+     */
+    private static boolean supportsAVX2(TargetDescription target) {
+        AMD64 arch = (AMD64) target.arch;
+        return arch.getFeatures().contains(CPUFeature.AVX2);
+    }
+
+    /**
+     * Number of characters in a 128-bit SSE register.
+     */
+    private static final int SSE_VECTOR_CHARS = 8;
+
+    /**
+     * Number of characters in a 256-bit AVX register.
+     */
+    private static final int AVX_VECTOR_CHARS = 16;
+
+    /**
+     * Emits a loop that compares {@code vectorChars} source characters per iteration with the
+     * first target character as long as that many candidate positions remain. Each position whose
+     * character matches is verified with {@link #emitCandidateCheck}.
+     */
+    private void emitVectorScan(CompilationResultBuilder crb, AMD64MacroAssembler masm, int vectorChars, Label found) {
+        Register position = asRegister(resultValue);
+        Register source = asRegister(sourceValue);
+        Register limit = asRegister(temp1);
+        Register mask = asRegister(temp2);
+        Register candidate = asRegister(temp3);
+        Register index = asRegister(temp4);
+        Register first = asRegister(vectorTemp1, AMD64Kind.DOUBLE);
+        Register vector = asRegister(vectorTemp2, AMD64Kind.DOUBLE);
+
+        Label loop = new Label();
+        Label candidateLoop = new Label();
+        Label next = new Label();
+        Label loopExit = new Label();
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        masm.movl(index, limit);
+        masm.subl(index, position);
+        masm.cmpl(index, vectorChars - 1);
+        masm.jcc(ConditionFlag.Less, loopExit);
+        if (vectorChars == AVX_VECTOR_CHARS) {
+            masm.vmovdqu(vector, new AMD64Address(source, position, Scale.Times2, 0));
+            masm.vpcmpeqw(vector, vector, first);
+            masm.vpmovmskb(mask, vector);
+        } else {
+            masm.movdqu(vector, new AMD64Address(source, position, Scale.Times2, 0));
+            masm.pcmpeqw(vector, first);
+            masm.pmovmskb(mask, vector);
+        }
+        masm.testl(mask, mask);
+        masm.jccb(ConditionFlag.Zero, next);
+
+        // Each matching character sets two adjacent bits in the byte mask.
+        masm.bind(candidateLoop);
+        masm.bsfl(index, mask);
+        masm.leaq(candidate, new AMD64Address(source, position, Scale.Times2, 0));
+        masm.leaq(candidate, new AMD64Address(candidate, index, Scale.Times1, 0));
+        emitCandidateCheck(masm, candidate, found);
+        masm.leaq(index, new AMD64Address(mask, -1));
+        masm.andl(mask, index);
+        masm.leaq(index, new AMD64Address(mask, -1));
+        masm.andl(mask, index);
+        masm.jccb(ConditionFlag.NotZero, candidateLoop);
+
+        masm.bind(next);
+        masm.addl(position, vectorChars);
+        masm.jmp(loop);
+        masm.bind(loopExit);
+    }
+
+    /**
+     * Emits code that jumps to {@code found} if the target matches at {@code candidate}, whose
+     * first character is already known to match, and falls through otherwise.
+     */
+    private void emitCandidateCheck(AMD64MacroAssembler masm, Register candidate, Label found) {
+        Register target = asRegister(targetValue);
+        Register index = asRegister(temp4);
+        Register element = asRegister(temp5);
+
+        Label loop = new Label();
+
+        masm.movl(index, asRegister(targetCountValue));
+        masm.bind(loop);
+        masm.subl(index, 1);
+        masm.jcc(ConditionFlag.Zero, found);
+        masm.movzwl(element, new AMD64Address(candidate, index, Scale.Times2, 0));
+        CMP.rmOp.emit(masm, WORD, element, new AMD64Address(target, index, Scale.Times2, 0));
+        masm.jccb(ConditionFlag.Equal, loop);
+    }
+}
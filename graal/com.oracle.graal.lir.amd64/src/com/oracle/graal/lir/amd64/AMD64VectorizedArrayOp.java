@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.amd64;
+
+import static com.oracle.graal.lir.LIRInstruction.OperandFlag.REG;
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+
+import com.oracle.graal.asm.Label;
+import com.oracle.graal.asm.amd64.AMD64Address;
+import com.oracle.graal.asm.amd64.AMD64Address.Scale;
+import com.oracle.graal.asm.amd64.AMD64Assembler.ConditionFlag;
+import com.oracle.graal.asm.amd64.AMD64Assembler.OperandSize;
+import com.oracle.graal.asm.amd64.AMD64Assembler.SSEOp;
+import com.oracle.graal.asm.amd64.AMD64MacroAssembler;
+import com.oracle.graal.compiler.common.LIRKind;
+import com.oracle.graal.compiler.common.calc.VectorArithmetic;
+import com.oracle.graal.debug.GraalError;
+import com.oracle.graal.lir.LIRInstructionClass;
+import com.oracle.graal.lir.Opcode;
+import com.oracle.graal.lir.asm.CompilationResultBuilder;
+import com.oracle.graal.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits a loop which applies an arithmetic operation element-wise to two arrays and stores the
+ * results in a third array, processing one 128-bit SSE register per iteration. Only the largest
+ * part of the index range that fills complete registers is processed; the index of the first
+ * remaining element is returned so that the caller can finish the range with scalar code.
+ *
+ * The arrays must not be null and the index range must be within the bounds of all three arrays.
+ * The destination array may be the same as one of the source arrays since every element is read
+ * before it is written.
+ */
+@Opcode("VECTORIZED_ARRAY_OP")
+public final class AMD64VectorizedArrayOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64VectorizedArrayOp> TYPE = LIRInstructionClass.create(AMD64VectorizedArrayOp.class);
+
+    /**
+     * Size of the vector registers used by this operation.
+     */
+    private static final int VECTOR_SIZE = 16;
+
+    private final VectorArithmetic op;
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final int arrayIndexScale;
+
+    @Def({REG}) protected Value endValue;
+    @Alive({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value xValue;
+    @Alive({REG}) protected Value yValue;
+    @Alive({REG}) protected Value fromIndexValue;
+    @Alive({REG}) protected Value toIndexValue;
+    @Temp({REG}) protected Value indexTemp;
+    @Temp({REG}) protected Value limitTemp;
+    @Temp({REG}) protected Value vectorTemp1;
+    @Temp({REG}) protected Value vectorTemp2;
+
+    public AMD64VectorizedArrayOp(LIRGeneratorTool tool, VectorArithmetic op, JavaKind kind, Value end, Value result, Value x, Value y, Value fromIndex, Value toIndex) {
+        super(TYPE);
+        assert isSupported(tool.target(), op, kind);
+        this.op = op;
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getMetaAccess().getArrayBaseOffset(kind);
+        this.arrayIndexScale = tool.getMetaAccess().getArrayIndexScale(kind);
+
+        this.endValue = end;
+        this.resultValue = result;
+        this.xValue = x;
+        this.yValue = y;
+        this.fromIndexValue = fromIndex;
+        this.toIndexValue = toIndex;
+
+        this.indexTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.limitTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    /**
+     * Determines if {@code op} can be applied to arrays of {@code kind} on {@code target}.
+     */
+    public static boolean isSupported(TargetDescription target, VectorArithmetic op, JavaKind kind) {
+        switch (kind) {
+            case Int:
+                if (op == VectorArithmetic.MUL) {
+                    return ((AMD64) target.arch).getFeatures().contains(CPUFeature.SSE4_1);
+                }
+                return op != VectorArithmetic.DIV;
+            case Long:
+                return op != VectorArithmetic.MUL && op != VectorArithmetic.DIV;
+            case Float:
+            case Double:
+                return op == VectorArithmetic.ADD || op == VectorArithmetic.SUB || op == VectorArithmetic.MUL || op == VectorArithmetic.DIV;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register end = asRegister(endValue);
+        Register index = asRegister(indexTemp);
+        Register limit = asRegister(limitTemp);
+        Register vector1 = asRegister(vectorTemp1, AMD64Kind.DOUBLE);
+        Register vector2 = asRegister(vectorTemp2, AMD64Kind.DOUBLE);
+        int lanes = VECTOR_SIZE / arrayIndexScale;
+        Scale scale = Scale.fromInt(arrayIndexScale);
+
+        Label loop = new Label();
+        Label done = new Label();
+
+        masm.movl(end, asRegister(fromIndexValue));
+        masm.movl(limit, asRegister(toIndexValue));
+        masm.subl(limit, end);
+        masm.jcc(ConditionFlag.LessEqual, done);
+        // number of elements that fill complete vectors
+        masm.andl(limit, ~(lanes - 1));
+        masm.jcc(ConditionFlag.Zero, done);
+
+        // the indexes are not negative so the 32-bit moves zero-extend them correctly
+        masm.movl(index, end);
+        masm.addl(end, limit);
+        masm.movl(limit, end);
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        masm.movdqu(vector1, new AMD64Address(asRegister(xValue), index, scale, arrayBaseOffset));
+        masm.movdqu(vector2, new AMD64Address(asRegister(yValue), index, scale, arrayBaseOffset));
+        emitOperation(masm, vector1, vector2);
+        masm.movdqu(new AMD64Address(asRegister(resultValue), index, scale, arrayBaseOffset), vector1);
+        masm.addq(index, lanes);
+        masm.cmpq(index, limit);
+        masm.jcc(ConditionFlag.Less, loop);
+
+        masm.bind(done);
+    }
+
+    private void emitOperation(AMD64MacroAssembler masm, Register dst, Register src) {
+        switch (kind) {
+            case Int:
+            case Long:
+                emitIntegerOperation(masm, dst, src);
+                break;
+            case Float:
+                emitFloatingOperation(masm, OperandSize.PS, dst, src);
+                break;
+            case Double:
+                emitFloatingOperation(masm, OperandSize.PD, dst, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    private void emitIntegerOperation(AMD64MacroAssembler masm, Register dst, Register src) {
+        boolean isLong = kind == JavaKind.Long;
+        switch (op) {
+            case ADD:
+                if (isLong) {
+                    masm.paddq(dst, src);
+                } else {
+                    masm.paddd(dst, src);
+                }
+                break;
+            case SUB:
+                if (isLong) {
+                    masm.psubq(dst, src);
+                } else {
+                    masm.psubd(dst, src);
+                }
+                break;
+            case MUL:
+                assert !isLong;
+                masm.pmulld(dst, src);
+                break;
+            case AND:
+                masm.pand(dst, src);
+                break;
+            case OR:
+                masm.por(dst, src);
+                break;
+            case XOR:
+                masm.pxor(dst, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    private void emitFloatingOperation(AMD64MacroAssembler masm, OperandSize size, Register dst, Register src) {
+        switch (op) {
+            case ADD:
+                SSEOp.ADD.emit(masm, size, dst, src);
+                break;
+            case SUB:
+                SSEOp.SUB.emit(masm, size, dst, src);
+                break;
+            case MUL:
+                SSEOp.MUL.emit(masm, size, dst, src);
+                break;
+            case DIV:
+                SSEOp.DIV.emit(masm, size, dst, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.jtt;
+
+import org.junit.Test;
+
+import com.oracle.graal.lir.VirtualStackSlot;
+import com.oracle.graal.lir.gen.ArithmeticLIRGeneratorTool;
+import com.oracle.graal.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Keeps the address of a stack slot live across a region with high register pressure so that the
+ * register allocator re-materializes it instead of spilling it.
+ */
+public class RematerializationTest extends LIRTest {
+
+    private static final int NUM_VALUES = 24;
+
+    private static class StackAddressSpec extends LIRTestSpecification {
+        @Override
+        public void generate(LIRGeneratorTool gen, Value a) {
+            ArithmeticLIRGeneratorTool arithmetic = gen.getArithmetic();
+            VirtualStackSlot slot = gen.getResult().getFrameMapBuilder().allocateSpillSlot(a.getValueKind());
+            gen.emitMove(slot, a);
+            Value address = gen.emitAddress(slot);
+
+            Value[] values = new Value[NUM_VALUES];
+            for (int i = 0; i < NUM_VALUES; i++) {
+                values[i] = arithmetic.emitMul(a, gen.emitJavaConstant(JavaConstant.forLong(i + 3)), false);
+            }
+            Value sum = values[0];
+            for (int i = 1; i < NUM_VALUES; i++) {
+                sum = arithmetic.emitAdd(sum, values[i], false);
+            }
+
+            Value difference = arithmetic.emitSub(gen.emitAddress(slot), address, false);
+            setResult(gen.emitMove(arithmetic.emitAdd(sum, difference, false)));
+        }
+    }
+
+    private static final LIRTestSpecification stackAddress = new StackAddressSpec();
+
+    @SuppressWarnings("unused")
+    @LIRIntrinsic
+    public static long stackAddress(LIRTestSpecification spec, long a) {
+        long sum = 0;
+        for (int i = 0; i < NUM_VALUES; i++) {
+            sum += a * (i + 3);
+        }
+        return sum;
+    }
+
+    public long testStackAddress(long a) {
+        return stackAddress(stackAddress, a);
+    }
+
+    @Test
+    public void runStackAddress() throws Throwable {
+        runTest("testStackAddress", 0L);
+        runTest("testStackAddress", 1L);
+        runTest("testStackAddress", -7L);
+        runTest("testStackAddress", Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir;
+
+import java.util.Arrays;
+
+import com.oracle.graal.compiler.common.alloc.ExtTSPBlockOrder;
+import com.oracle.graal.compiler.common.cfg.AbstractBlockBase;
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.lir.gen.LIRGenerationResult;
+import com.oracle.graal.lir.phases.PostAllocationOptimizationPhase;
+import com.oracle.graal.options.Option;
+import com.oracle.graal.options.OptionType;
+import com.oracle.graal.options.OptionValue;
+
+import jdk.vm.ci.code.TargetDescription;
+
+/**
+ * Reorders the blocks of the {@linkplain LIR#codeEmittingOrder() code emitting order} with the
+ * {@link ExtTSPBlockOrder Extended TSP} heuristic and optionally moves rarely executed blocks into
+ * a cold section behind the hot code. The code size of a block is estimated from the number of its
+ * LIR instructions.
+ */
+public final class BlockLayoutOptimizer extends PostAllocationOptimizationPhase {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Place blocks with a probability below LIRColdBlockProbability behind all other blocks.", type = OptionType.Debug)
+        public static final OptionValue<Boolean> LIRHotColdSplitting = new OptionValue<>(false);
+        @Option(help = "Probability relative to the method entry below which a block is considered cold.", type = OptionType.Debug)
+        public static final OptionValue<Double> LIRColdBlockProbability = new OptionValue<>(0.001);
+        // @formatter:on
+    }
+
+    /**
+     * Estimated average size of the machine code for a LIR instruction in bytes.
+     */
+    private static final int INSTRUCTION_SIZE = 4;
+
+    private static final DebugCounter COLD_BLOCKS = Debug.counter("BlockLayout[ColdBlocks]");
+
+    @Override
+    protected void run(TargetDescription target, LIRGenerationResult lirGenRes, PostAllocationOptimizationContext context) {
+        LIR lir = lirGenRes.getLIR();
+        AbstractBlockBase<?>[] order = lir.codeEmittingOrder();
+        int count = 0;
+        for (AbstractBlockBase<?> block : order) {
+            if (block != null) {
+                order[count++] = block;
+            }
+        }
+        Arrays.fill(order, count, order.length, null);
+        if (count <= 1) {
+            return;
+        }
+
+        AbstractBlockBase<?>[] blocks = Arrays.copyOf(order, count);
+        double coldProbability = Options.LIRHotColdSplitting.getValue() ? Options.LIRColdBlockProbability.getValue() : 0;
+        int hotBlocks = ExtTSPBlockOrder.computeCodeEmittingOrder(blocks, block -> lir.getLIRforBlock(block).size() * INSTRUCTION_SIZE, coldProbability);
+        System.arraycopy(blocks, 0, order, 0, count);
+        if (hotBlocks < count) {
+            lir.setColdBlocksStart(hotBlocks);
+            COLD_BLOCKS.add(count - hotBlocks);
+        }
+    }
+}
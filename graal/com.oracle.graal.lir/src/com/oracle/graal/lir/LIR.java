@@ -59,6 +59,12 @@ public final class LIR extends LIRGenerator.VariableProvider {
 
     private boolean hasArgInCallerFrame;
 
+    /**
+     * Index in {@link #codeEmittingOrder} of the first cold block or -1 if the blocks are not split
+     * into hot and cold blocks.
+     */
+    private int coldBlocksStart = -1;
+
     /**
      * Creates a new LIR instance for the specified compilation.
      */
@@ -109,6 +115,20 @@ public final class LIR extends LIRGenerator.VariableProvider {
         return codeEmittingOrder;
     }
 
+    /**
+     * Gets the index in the {@linkplain #codeEmittingOrder() code emitting order} of the first
+     * block of the cold code section.
+     *
+     * @return the index of the first cold block or -1 if there is no cold code section
+     */
+    public int getColdBlocksStart() {
+        return coldBlocksStart;
+    }
+
+    public void setColdBlocksStart(int index) {
+        coldBlocksStart = index;
+    }
+
     public void setHasArgInCallerFrame() {
         hasArgInCallerFrame = true;
     }
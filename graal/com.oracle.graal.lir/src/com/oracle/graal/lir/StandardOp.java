@@ -328,6 +328,22 @@ public class StandardOp {
         Constant getConstant();
     }
 
+    /**
+     * Marker interface for a LIR operation without side effects that computes its
+     * {@link #getResult() result} only from constants, stack slots and registers that are not
+     * subject to register allocation. Instead of spilling such a value, a register allocator can
+     * recompute it at a reload position by {@linkplain #rematerialize re-emitting} the operation.
+     */
+    public interface RematerializableOp {
+
+        AllocatableValue getResult();
+
+        /**
+         * Creates an operation that computes the same value as this operation into {@code result}.
+         */
+        LIRInstruction rematerialize(AllocatableValue result);
+    }
+
     /**
      * An operation that saves registers to the stack. The set of saved registers can be
      * {@linkplain #remove(Set) pruned} and a mapping from registers to the frame slots in which
@@ -0,0 +1,642 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.alloc.coloring;
+
+import static com.oracle.graal.lir.LIRValueUtil.asVariable;
+import static com.oracle.graal.lir.LIRValueUtil.isVariable;
+import static com.oracle.graal.lir.alloc.coloring.InterferenceGraph.NO_CLASS;
+import static com.oracle.graal.lir.alloc.coloring.InterferenceGraph.NO_COLOR;
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static jdk.vm.ci.code.ValueUtil.isIllegal;
+import static jdk.vm.ci.code.ValueUtil.isRegister;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import com.oracle.graal.compiler.common.CompilationBudget;
+import com.oracle.graal.compiler.common.alloc.RegisterAllocationConfig;
+import com.oracle.graal.compiler.common.cfg.AbstractBlockBase;
+import com.oracle.graal.compiler.common.cfg.BlockMap;
+import com.oracle.graal.compiler.common.util.IntList;
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.debug.GraalError;
+import com.oracle.graal.debug.Indent;
+import com.oracle.graal.lir.InstructionValueProcedure;
+import com.oracle.graal.lir.LIR;
+import com.oracle.graal.lir.LIRInsertionBuffer;
+import com.oracle.graal.lir.LIRInstruction;
+import com.oracle.graal.lir.LIRInstruction.OperandFlag;
+import com.oracle.graal.lir.StandardOp.BlockEndOp;
+import com.oracle.graal.lir.StandardOp.LabelOp;
+import com.oracle.graal.lir.StandardOp.LoadConstantOp;
+import com.oracle.graal.lir.StandardOp.ValueMoveOp;
+import com.oracle.graal.lir.ValueConsumer;
+import com.oracle.graal.lir.Variable;
+import com.oracle.graal.lir.VirtualStackSlot;
+import com.oracle.graal.lir.alloc.OutOfRegistersException;
+import com.oracle.graal.lir.framemap.FrameMapBuilder;
+import com.oracle.graal.lir.gen.LIRGenerationResult;
+import com.oracle.graal.lir.gen.LIRGeneratorTool.MoveFactory;
+import com.oracle.graal.lir.ssa.SSAUtil;
+
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.AllocatableValue;
+import jdk.vm.ci.meta.Constant;
+import jdk.vm.ci.meta.PlatformKind;
+import jdk.vm.ci.meta.Value;
+import jdk.vm.ci.meta.ValueKind;
+
+/**
+ * Allocates registers for the variables of a {@link LIR} by coloring an interference graph.
+ *
+ * The allocator first replaces the {@link SSAUtil phis} by moves in the predecessors of each merge.
+ * It then repeatedly computes liveness, builds the {@link InterferenceGraph} and colors it. If some
+ * variables could not be colored, they are spilled and the process is repeated: variables that are
+ * only defined by a {@link LoadConstantOp} are rematerialized before each use, all others are
+ * assigned a stack slot that is used directly by operands that accept stack slots and that is
+ * loaded into or stored from a short lived temporary otherwise. Once all variables are colored,
+ * they are replaced by their registers and the moves whose source and destination ended up in the
+ * same register are removed.
+ */
+final class GraphColoringAllocator {
+
+    private static final DebugCounter RoundCounter = Debug.counter("GraphColoringRA[rounds]");
+    private static final DebugCounter SpillCounter = Debug.counter("GraphColoringRA[spilledVariables]");
+    private static final DebugCounter RematerializationCounter = Debug.counter("GraphColoringRA[rematerializedVariables]");
+    private static final DebugCounter CoalescedMovesCounter = Debug.counter("GraphColoringRA[coalescedMoves]");
+    private static final DebugCounter EliminatedMovesCounter = Debug.counter("GraphColoringRA[eliminatedMoves]");
+
+    /**
+     * The number of spill rounds after which the allocation is abandoned.
+     */
+    private static final int MAX_ROUNDS = 16;
+
+    private final LIR lir;
+    private final FrameMapBuilder frameMapBuilder;
+    private final MoveFactory spillMoveFactory;
+    private final RegisterAllocationConfig registerAllocationConfig;
+    private final AbstractBlockBase<?>[] blocks;
+
+    private final Register[] registers;
+    private final int numRegisters;
+
+    private final int[] classOfRegister;
+    private final ArrayList<int[]> classRegisters = new ArrayList<>();
+    private final HashMap<PlatformKind.Key, Integer> classOfKind = new HashMap<>();
+
+    private int numVariables;
+
+    /**
+     * The variables introduced for spill code.
+     */
+    private final BitSet spillTemporaries = new BitSet();
+
+    private final HashMap<Variable, Variable> reloads = new HashMap<>();
+
+    /*
+     * The state of the current round.
+     */
+    private Variable[] variables;
+    private Constant[] rematerializableConstants;
+    private BitSet notRematerializable;
+    private BlockMap<BitSet> liveIn;
+    private BlockMap<BitSet> liveOut;
+    private InterferenceGraph graph;
+
+    GraphColoringAllocator(TargetDescription target, LIRGenerationResult lirGenRes, MoveFactory spillMoveFactory, RegisterAllocationConfig registerAllocationConfig) {
+        this.lir = lirGenRes.getLIR();
+        this.frameMapBuilder = lirGenRes.getFrameMapBuilder();
+        this.spillMoveFactory = spillMoveFactory;
+        this.registerAllocationConfig = registerAllocationConfig;
+        this.blocks = lir.linearScanOrder();
+        this.numVariables = lir.numVariables();
+
+        int maxNumber = 0;
+        for (Register register : target.arch.getRegisters()) {
+            maxNumber = Math.max(maxNumber, register.number);
+        }
+        this.numRegisters = maxNumber + 1;
+        this.registers = new Register[numRegisters];
+        for (Register register : target.arch.getRegisters()) {
+            registers[register.number] = register;
+        }
+        this.classOfRegister = new int[numRegisters];
+        Arrays.fill(classOfRegister, NO_CLASS);
+    }
+
+    @SuppressWarnings("try")
+    void allocate() {
+        destructSSA();
+        for (int round = 0;; round++) {
+            if (round == MAX_ROUNDS) {
+                throw new OutOfRegistersException("Graph coloring register allocation did not converge", String.format("%d variables after %d rounds", numVariables, round));
+            }
+            CompilationBudget.check();
+            RoundCounter.increment();
+            try (Indent indent = Debug.logAndIndent("graph coloring round %d", round)) {
+                buildGraph();
+                if (graph.color()) {
+                    break;
+                }
+                rewriteSpilledVariables();
+            }
+        }
+        CoalescedMovesCounter.add(graph.getCoalescedMoveCount());
+        assignRegisters();
+    }
+
+    private Variable newVariable(ValueKind<?> kind) {
+        return new Variable(kind, numVariables++);
+    }
+
+    private int nodeOf(Value value) {
+        if (isVariable(value)) {
+            return numRegisters + asVariable(value).index;
+        } else if (isRegister(value)) {
+            int number = asRegister(value).number;
+            return classOfRegister[number] == NO_CLASS ? -1 : number;
+        }
+        return -1;
+    }
+
+    private int registerClassOf(PlatformKind kind) {
+        Integer c = classOfKind.get(kind.getKey());
+        if (c == null) {
+            Register[] allocatable = registerAllocationConfig.getAllocatableRegisters(kind).allocatableRegisters;
+            int[] numbers = new int[allocatable.length];
+            for (int i = 0; i < allocatable.length; i++) {
+                numbers[i] = allocatable[i].number;
+            }
+            for (int i = 0; i < classRegisters.size() && c == null; i++) {
+                if (Arrays.equals(classRegisters.get(i), numbers)) {
+                    c = i;
+                }
+            }
+            if (c == null) {
+                c = classRegisters.size();
+                for (int number : numbers) {
+                    GraalError.guarantee(classOfRegister[number] == NO_CLASS, "overlapping register classes are not supported: %s", registers[number]);
+                    classOfRegister[number] = c;
+                }
+                classRegisters.add(numbers);
+            }
+            classOfKind.put(kind.getKey(), c);
+        }
+        return c;
+    }
+
+    /**
+     * Replaces the phis of each merge by moves at the end of its predecessors. Outgoing values that
+     * are themselves phis of the merge are copied to temporaries first so that the moves can be
+     * executed sequentially.
+     */
+    private void destructSSA() {
+        for (AbstractBlockBase<?> merge : blocks) {
+            LabelOp label = (LabelOp) lir.getLIRforBlock(merge).get(0);
+            if (merge.getPredecessorCount() < 2 || label.getIncomingSize() == 0) {
+                continue;
+            }
+            HashSet<Value> phis = new HashSet<>();
+            for (int i = 0; i < label.getIncomingSize(); i++) {
+                phis.add(label.getIncomingValue(i));
+            }
+            for (AbstractBlockBase<?> pred : merge.getPredecessors()) {
+                List<LIRInstruction> copies = new ArrayList<>();
+                List<LIRInstruction> moves = new ArrayList<>();
+                SSAUtil.forEachPhiValuePair(lir, merge, pred, (phiIn, phiOut) -> {
+                    if (!isIllegal(phiOut) && !phiIn.equals(phiOut)) {
+                        if (phis.contains(phiOut)) {
+                            Variable temp = newVariable(phiIn.getValueKind());
+                            copies.add(spillMoveFactory.createMove(temp, phiOut));
+                            moves.add(spillMoveFactory.createMove((AllocatableValue) phiIn, temp));
+                        } else {
+                            moves.add(spillMoveFactory.createMove((AllocatableValue) phiIn, phiOut));
+                        }
+                    }
+                });
+                ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(pred);
+                int index = SSAUtil.phiOutIndex(lir, pred);
+                copies.addAll(moves);
+                instructions.addAll(index, copies);
+                SSAUtil.removePhiOut(lir, pred);
+            }
+            SSAUtil.removePhiIn(lir, merge);
+        }
+    }
+
+    private void buildGraph() {
+        variables = new Variable[numVariables];
+        rematerializableConstants = new Constant[numVariables];
+        notRematerializable = new BitSet(numVariables);
+        for (AbstractBlockBase<?> block : blocks) {
+            for (LIRInstruction op : lir.getLIRforBlock(block)) {
+                collectVariables(op);
+            }
+        }
+
+        graph = new InterferenceGraph(numRegisters, numRegisters + numVariables, classRegisters.toArray(new int[classRegisters.size()][]));
+        for (Variable variable : variables) {
+            if (variable != null) {
+                int node = nodeOf(variable);
+                graph.setRegisterClass(node, registerClassOf(variable.getPlatformKind()));
+                if (spillTemporaries.get(variable.index)) {
+                    graph.setNoSpill(node);
+                }
+            }
+        }
+        computeLiveness();
+        buildInterferences();
+    }
+
+    private void collectVariables(LIRInstruction op) {
+        ValueConsumer collect = (value, mode, flags) -> {
+            if (isVariable(value)) {
+                Variable variable = asVariable(value);
+                if (variables[variable.index] == null) {
+                    variables[variable.index] = variable;
+                    registerClassOf(variable.getPlatformKind());
+                }
+            }
+        };
+        op.visitEachInput(collect);
+        op.visitEachAlive(collect);
+        op.visitEachTemp(collect);
+        op.visitEachState((value, mode, flags) -> {
+            collect.visitValue(value, mode, flags);
+            if (isVariable(value)) {
+                notRematerializable.set(asVariable(value).index);
+            }
+        });
+        op.visitEachOutput((value, mode, flags) -> {
+            collect.visitValue(value, mode, flags);
+            if (isVariable(value)) {
+                int index = asVariable(value).index;
+                if (op instanceof LoadConstantOp && rematerializableConstants[index] == null) {
+                    rematerializableConstants[index] = ((LoadConstantOp) op).getConstant();
+                } else {
+                    notRematerializable.set(index);
+                }
+            }
+        });
+    }
+
+    private boolean isRematerializable(int variableIndex) {
+        return rematerializableConstants[variableIndex] != null && !notRematerializable.get(variableIndex);
+    }
+
+    private void computeLiveness() {
+        BlockMap<BitSet> gen = new BlockMap<>(lir.getControlFlowGraph());
+        BlockMap<BitSet> kill = new BlockMap<>(lir.getControlFlowGraph());
+        liveIn = new BlockMap<>(lir.getControlFlowGraph());
+        liveOut = new BlockMap<>(lir.getControlFlowGraph());
+        for (AbstractBlockBase<?> block : blocks) {
+            BitSet blockGen = new BitSet();
+            BitSet blockKill = new BitSet();
+            ValueConsumer use = (value, mode, flags) -> {
+                int node = nodeOf(value);
+                if (node >= 0 && !blockKill.get(node)) {
+                    blockGen.set(node);
+                }
+            };
+            ValueConsumer def = (value, mode, flags) -> {
+                int node = nodeOf(value);
+                if (node >= 0) {
+                    blockKill.set(node);
+                }
+            };
+            for (LIRInstruction op : lir.getLIRforBlock(block)) {
+                op.visitEachInput(use);
+                op.visitEachAlive(use);
+                op.visitEachState(use);
+                op.visitEachTemp(def);
+                op.visitEachOutput(def);
+            }
+            gen.put(block, blockGen);
+            kill.put(block, blockKill);
+            liveIn.put(block, new BitSet());
+        }
+
+        boolean changed;
+        do {
+            changed = false;
+            for (int i = blocks.length - 1; i >= 0; i--) {
+                AbstractBlockBase<?> block = blocks[i];
+                BitSet out = new BitSet();
+                for (AbstractBlockBase<?> successor : block.getSuccessors()) {
+                    out.or(liveIn.get(successor));
+                }
+                BitSet in = (BitSet) out.clone();
+                in.andNot(kill.get(block));
+                in.or(gen.get(block));
+                liveOut.put(block, out);
+                if (!in.equals(liveIn.get(block))) {
+                    liveIn.put(block, in);
+                    changed = true;
+                }
+            }
+        } while (changed);
+    }
+
+    /**
+     * Adds interferences between the values defined by each instruction and the values live across
+     * it. Inputs do not interfere with the outputs and temporaries of the same instruction, while
+     * {@linkplain LIRInstruction#forEachAlive alive} and state values do. An instruction that
+     * destroys the caller saved registers defines all of them, so values that are live across a
+     * call cannot be assigned to such a register.
+     */
+    private void buildInterferences() {
+        IntList defs = new IntList(8);
+        IntList callerSaved = new IntList(32);
+        for (Register register : registerAllocationConfig.getRegisterConfig().getCallerSaveRegisters()) {
+            if (classOfRegister[register.number] != NO_CLASS) {
+                callerSaved.add(register.number);
+            }
+        }
+        for (AbstractBlockBase<?> block : blocks) {
+            BitSet live = (BitSet) liveOut.get(block).clone();
+            double weight = block.probability();
+            ValueConsumer use = (value, mode, flags) -> {
+                int node = nodeOf(value);
+                if (node >= 0) {
+                    live.set(node);
+                    graph.addSpillCost(node, spillCost(node, weight));
+                }
+            };
+            ValueConsumer state = (value, mode, flags) -> {
+                int node = nodeOf(value);
+                if (node >= 0) {
+                    live.set(node);
+                }
+            };
+            ValueConsumer def = (value, mode, flags) -> {
+                int node = nodeOf(value);
+                if (node >= 0) {
+                    defs.add(node);
+                    graph.addSpillCost(node, spillCost(node, weight));
+                }
+            };
+            ValueConsumer kill = (value, mode, flags) -> {
+                int node = nodeOf(value);
+                if (node >= 0) {
+                    live.clear(node);
+                }
+            };
+
+            List<LIRInstruction> instructions = lir.getLIRforBlock(block);
+            for (int j = instructions.size() - 1; j >= 0; j--) {
+                LIRInstruction op = instructions.get(j);
+                int moveSource = -1;
+                int moveTarget = -1;
+                if (op instanceof ValueMoveOp) {
+                    ValueMoveOp move = (ValueMoveOp) op;
+                    if (move.getInput().getPlatformKind().equals(move.getResult().getPlatformKind())) {
+                        moveSource = nodeOf(move.getInput());
+                        moveTarget = nodeOf(move.getResult());
+                        if (moveSource >= 0 && moveTarget >= 0) {
+                            /* The source and the destination of a move do not interfere. */
+                            live.clear(moveSource);
+                        }
+                    }
+                }
+
+                op.visitEachAlive(use);
+                op.visitEachState(state);
+                defs.clear();
+                op.visitEachTemp(def);
+                op.visitEachOutput(def);
+                if (op.destroysCallerSavedRegisters()) {
+                    for (int i = 0; i < callerSaved.size(); i++) {
+                        defs.add(callerSaved.get(i));
+                    }
+                }
+                for (int i = 0; i < defs.size(); i++) {
+                    int d = defs.get(i);
+                    for (int l = live.nextSetBit(0); l >= 0; l = live.nextSetBit(l + 1)) {
+                        graph.addEdge(d, l);
+                    }
+                    for (int k = i + 1; k < defs.size(); k++) {
+                        graph.addEdge(d, defs.get(k));
+                    }
+                }
+                op.visitEachOutput(kill);
+                op.visitEachInput(use);
+
+                if (moveSource >= 0 && moveTarget >= 0) {
+                    graph.addMove(moveSource, moveTarget);
+                }
+            }
+        }
+    }
+
+    private double spillCost(int node, double weight) {
+        if (node >= numRegisters && isRematerializable(node - numRegisters)) {
+            return weight / 2;
+        }
+        return weight;
+    }
+
+    private void rewriteSpilledVariables() {
+        BitSet spilled = new BitSet(numVariables);
+        AllocatableValue[] slots = new AllocatableValue[numVariables];
+        VirtualStackSlot[] groupSlots = new VirtualStackSlot[numRegisters + numVariables];
+        for (Variable variable : variables) {
+            if (variable == null || graph.getColor(nodeOf(variable)) != NO_COLOR) {
+                continue;
+            }
+            spilled.set(variable.index);
+            if (isRematerializable(variable.index)) {
+                RematerializationCounter.increment();
+                Debug.log("rematerialize %s", variable);
+                continue;
+            }
+            SpillCounter.increment();
+            /* Variables that were coalesced share a stack slot if they have the same kind. */
+            int group = graph.getAlias(nodeOf(variable));
+            VirtualStackSlot slot = groupSlots[group];
+            if (slot == null || !slot.getValueKind().equals(variable.getValueKind())) {
+                slot = frameMapBuilder.allocateSpillSlot(variable.getValueKind());
+                if (groupSlots[group] == null) {
+                    groupSlots[group] = slot;
+                }
+            }
+            slots[variable.index] = slot;
+            Debug.log("spill %s to %s", variable, slot);
+        }
+
+        LIRInsertionBuffer buffer = new LIRInsertionBuffer();
+        for (AbstractBlockBase<?> block : blocks) {
+            ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
+            buffer.init(instructions);
+            boolean hasDead = false;
+            for (int j = 0; j < instructions.size(); j++) {
+                LIRInstruction op = instructions.get(j);
+                if (isObsolete(op, spilled, slots)) {
+                    instructions.set(j, null);
+                    hasDead = true;
+                } else if (isSpillingMove(op, spilled, slots)) {
+                    ValueMoveOp move = (ValueMoveOp) op;
+                    instructions.set(j, spillMoveFactory.createMove(slots[asVariable(move.getResult()).index], move.getInput()));
+                } else {
+                    rewriteInstruction(op, j, block, buffer, spilled, slots);
+                }
+            }
+            buffer.finish();
+            if (hasDead) {
+                instructions.removeAll(Collections.singleton(null));
+            }
+        }
+    }
+
+    /**
+     * Determines if {@code op} is the definition of a rematerialized variable or a move between
+     * variables that share a stack slot.
+     */
+    private boolean isObsolete(LIRInstruction op, BitSet spilled, AllocatableValue[] slots) {
+        if (op instanceof LoadConstantOp) {
+            AllocatableValue result = ((LoadConstantOp) op).getResult();
+            return isVariable(result) && spilled.get(asVariable(result).index) && slots[asVariable(result).index] == null;
+        } else if (op instanceof ValueMoveOp) {
+            ValueMoveOp move = (ValueMoveOp) op;
+            if (isVariable(move.getInput()) && isVariable(move.getResult())) {
+                AllocatableValue inputSlot = slots[asVariable(move.getInput()).index];
+                return inputSlot != null && inputSlot == slots[asVariable(move.getResult()).index];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if {@code op} is a move from a register or a variable that is not spilled to a
+     * spilled variable, which can be replaced by a move directly into the stack slot.
+     */
+    private static boolean isSpillingMove(LIRInstruction op, BitSet spilled, AllocatableValue[] slots) {
+        if (op instanceof ValueMoveOp) {
+            ValueMoveOp move = (ValueMoveOp) op;
+            AllocatableValue input = move.getInput();
+            AllocatableValue result = move.getResult();
+            return isVariable(result) && slots[asVariable(result).index] != null && (isRegister(input) || (isVariable(input) && !spilled.get(asVariable(input).index)));
+        }
+        return false;
+    }
+
+    private void rewriteInstruction(LIRInstruction op, int index, AbstractBlockBase<?> block, LIRInsertionBuffer buffer, BitSet spilled, AllocatableValue[] slots) {
+        InstructionValueProcedure use = (inst, value, mode, flags) -> {
+            if (!isVariable(value) || !spilled.get(asVariable(value).index)) {
+                return value;
+            }
+            Variable variable = asVariable(value);
+            AllocatableValue slot = slots[variable.index];
+            if (slot != null && flags.contains(OperandFlag.STACK)) {
+                return slot;
+            }
+            Variable temp = reloads.get(variable);
+            if (temp == null) {
+                temp = newSpillTemporary(variable.getValueKind());
+                reloads.put(variable, temp);
+                if (slot != null) {
+                    buffer.append(index, spillMoveFactory.createMove(temp, slot));
+                } else {
+                    buffer.append(index, spillMoveFactory.createLoad(temp, rematerializableConstants[variable.index]));
+                }
+            }
+            return temp;
+        };
+        InstructionValueProcedure state = (inst, value, mode, flags) -> {
+            if (isVariable(value) && spilled.get(asVariable(value).index)) {
+                assert slots[asVariable(value).index] != null : "variables used in frame states are not rematerialized";
+                return slots[asVariable(value).index];
+            }
+            return value;
+        };
+        InstructionValueProcedure temp = (inst, value, mode, flags) -> {
+            if (isVariable(value) && spilled.get(asVariable(value).index)) {
+                return flags.contains(OperandFlag.STACK) ? slots[asVariable(value).index] : newSpillTemporary(value.getValueKind());
+            }
+            return value;
+        };
+        InstructionValueProcedure def = (inst, value, mode, flags) -> {
+            if (!isVariable(value) || !spilled.get(asVariable(value).index)) {
+                return value;
+            }
+            AllocatableValue slot = slots[asVariable(value).index];
+            assert slot != null;
+            if (flags.contains(OperandFlag.STACK)) {
+                return slot;
+            }
+            GraalError.guarantee(!(inst instanceof BlockEndOp), "cannot spill the output of the block end %s in %s", inst, block);
+            Variable result = newSpillTemporary(value.getValueKind());
+            buffer.append(index + 1, spillMoveFactory.createMove(slot, result));
+            return result;
+        };
+        op.forEachInput(use);
+        op.forEachAlive(use);
+        op.forEachState(state);
+        op.forEachTemp(temp);
+        op.forEachOutput(def);
+        reloads.clear();
+    }
+
+    private Variable newSpillTemporary(ValueKind<?> kind) {
+        Variable temp = newVariable(kind);
+        spillTemporaries.set(temp.index);
+        return temp;
+    }
+
+    private void assignRegisters() {
+        InstructionValueProcedure assign = (inst, value, mode, flags) -> {
+            if (isVariable(value)) {
+                int color = graph.getColor(nodeOf(value));
+                assert color != NO_COLOR : "no register for " + value;
+                return registers[color].asValue(value.getValueKind());
+            }
+            return value;
+        };
+        for (AbstractBlockBase<?> block : blocks) {
+            ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
+            boolean hasDead = false;
+            for (int j = 0; j < instructions.size(); j++) {
+                LIRInstruction op = instructions.get(j);
+                op.forEachInput(assign);
+                op.forEachAlive(assign);
+                op.forEachTemp(assign);
+                op.forEachOutput(assign);
+                op.forEachState(assign);
+                if (op instanceof ValueMoveOp && ((ValueMoveOp) op).getInput().equals(((ValueMoveOp) op).getResult())) {
+                    instructions.set(j, null);
+                    hasDead = true;
+                    EliminatedMovesCounter.increment();
+                }
+            }
+            if (hasDead) {
+                instructions.removeAll(Collections.singleton(null));
+            }
+        }
+    }
+}
@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.alloc.coloring;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.oracle.graal.compiler.common.util.IntList;
+
+/**
+ * An interference graph that is colored by iterated register coalescing as described by George and
+ * Appel in "Iterated Register Coalescing" (TOPLAS 18(3), 1996).
+ *
+ * The nodes {@code 0} to {@code numRegisters - 1} are precolored and represent the physical
+ * registers, all other nodes represent variables. Every node that takes part in the allocation
+ * belongs to a register class, i.e., a set of registers it can be colored with. Interferences and
+ * moves between nodes of different register classes are ignored, so register classes must not
+ * overlap.
+ */
+final class InterferenceGraph {
+
+    static final int NO_CLASS = -1;
+    static final int NO_COLOR = -1;
+
+    private static final int INFINITE_DEGREE = Integer.MAX_VALUE / 2;
+
+    private final int numRegisters;
+    private final int numNodes;
+
+    /**
+     * The register numbers of each register class in the order in which they should be used.
+     */
+    private final int[][] classRegisters;
+    private final int[] registerClass;
+
+    private final PairSet adjacencySet = new PairSet();
+    private final IntList[] adjacencyList;
+    private final int[] degree;
+    private final double[] spillCost;
+
+    /**
+     * Nodes that must not be spilled or coalesced with another variable, e.g., because they are the
+     * short lived temporaries introduced for spilling.
+     */
+    private final BitSet noSpill;
+
+    private final IntList moveSources = new IntList(16);
+    private final IntList moveTargets = new IntList(16);
+    private final IntList[] moveList;
+
+    private final BitSet simplifyWorklist;
+    private final BitSet freezeWorklist;
+    private final BitSet spillWorklist;
+    private final BitSet coalescedNodes;
+    private final BitSet spilledNodes;
+    private final BitSet onStack;
+    private final IntList selectStack = new IntList(16);
+    private final BitSet worklistMoves = new BitSet();
+    private final BitSet activeMoves = new BitSet();
+
+    private final int[] alias;
+    private final int[] color;
+
+    private int coalescedMoveCount;
+
+    InterferenceGraph(int numRegisters, int numNodes, int[][] classRegisters) {
+        this.numRegisters = numRegisters;
+        this.numNodes = numNodes;
+        this.classRegisters = classRegisters;
+        this.registerClass = new int[numNodes];
+        this.adjacencyList = new IntList[numNodes];
+        this.degree = new int[numNodes];
+        this.spillCost = new double[numNodes];
+        this.noSpill = new BitSet(numNodes);
+        this.moveList = new IntList[numNodes];
+        this.simplifyWorklist = new BitSet(numNodes);
+        this.freezeWorklist = new BitSet(numNodes);
+        this.spillWorklist = new BitSet(numNodes);
+        this.coalescedNodes = new BitSet(numNodes);
+        this.spilledNodes = new BitSet(numNodes);
+        this.onStack = new BitSet(numNodes);
+        this.alias = new int[numNodes];
+        this.color = new int[numNodes];
+
+        Arrays.fill(registerClass, NO_CLASS);
+        Arrays.fill(color, NO_COLOR);
+        for (int c = 0; c < classRegisters.length; c++) {
+            for (int register : classRegisters[c]) {
+                assert registerClass[register] == NO_CLASS : "register classes overlap";
+                registerClass[register] = c;
+            }
+        }
+        for (int register = 0; register < numRegisters; register++) {
+            degree[register] = INFINITE_DEGREE;
+            color[register] = register;
+            alias[register] = register;
+        }
+    }
+
+    boolean isPrecolored(int node) {
+        return node < numRegisters;
+    }
+
+    int getRegisterClass(int node) {
+        return registerClass[node];
+    }
+
+    void setRegisterClass(int node, int c) {
+        assert !isPrecolored(node);
+        registerClass[node] = c;
+    }
+
+    void addSpillCost(int node, double cost) {
+        spillCost[node] += cost;
+    }
+
+    void setNoSpill(int node) {
+        noSpill.set(node);
+    }
+
+    private int colors(int node) {
+        return classRegisters[registerClass[node]].length;
+    }
+
+    void addEdge(int u, int v) {
+        if (u == v || registerClass[u] == NO_CLASS || registerClass[u] != registerClass[v]) {
+            return;
+        }
+        if (adjacencySet.add(u, v)) {
+            if (!isPrecolored(u)) {
+                list(adjacencyList, u).add(v);
+                degree[u]++;
+            }
+            if (!isPrecolored(v)) {
+                list(adjacencyList, v).add(u);
+                degree[v]++;
+            }
+        }
+    }
+
+    void addMove(int source, int target) {
+        if (source == target || registerClass[source] == NO_CLASS || registerClass[source] != registerClass[target] || (isPrecolored(source) && isPrecolored(target))) {
+            return;
+        }
+        int move = moveSources.size();
+        moveSources.add(source);
+        moveTargets.add(target);
+        list(moveList, source).add(move);
+        list(moveList, target).add(move);
+    }
+
+    private static IntList list(IntList[] lists, int node) {
+        IntList list = lists[node];
+        if (list == null) {
+            list = new IntList(4);
+            lists[node] = list;
+        }
+        return list;
+    }
+
+    /**
+     * Colors the graph.
+     *
+     * @return true if all nodes were colored, false if some nodes have to be spilled
+     */
+    boolean color() {
+        makeWorklist();
+        while (true) {
+            if (!simplifyWorklist.isEmpty()) {
+                simplify();
+            } else if (!worklistMoves.isEmpty()) {
+                coalesce();
+            } else if (!freezeWorklist.isEmpty()) {
+                freeze();
+            } else if (!spillWorklist.isEmpty()) {
+                selectSpill();
+            } else {
+                break;
+            }
+        }
+        assignColors();
+        return spilledNodes.isEmpty();
+    }
+
+    /**
+     * Gets the register number assigned to {@code node} or {@link #NO_COLOR} if it was spilled.
+     */
+    int getColor(int node) {
+        return color[node];
+    }
+
+    /**
+     * Gets the node {@code node} was coalesced with or {@code node} itself.
+     */
+    int getAlias(int node) {
+        int n = node;
+        while (coalescedNodes.get(n)) {
+            n = alias[n];
+        }
+        return n;
+    }
+
+    int getCoalescedMoveCount() {
+        return coalescedMoveCount;
+    }
+
+    private void makeWorklist() {
+        worklistMoves.set(0, moveSources.size());
+        for (int n = numRegisters; n < numNodes; n++) {
+            if (registerClass[n] == NO_CLASS) {
+                continue;
+            }
+            alias[n] = n;
+            if (degree[n] >= colors(n)) {
+                spillWorklist.set(n);
+            } else if (isMoveRelated(n)) {
+                freezeWorklist.set(n);
+            } else {
+                simplifyWorklist.set(n);
+            }
+        }
+    }
+
+    private boolean isActive(int node) {
+        return !onStack.get(node) && !coalescedNodes.get(node);
+    }
+
+    private boolean isMoveRelated(int node) {
+        IntList moves = moveList[node];
+        if (moves != null) {
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (activeMoves.get(move) || worklistMoves.get(move)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void simplify() {
+        int n = simplifyWorklist.nextSetBit(0);
+        simplifyWorklist.clear(n);
+        selectStack.add(n);
+        onStack.set(n);
+        IntList adjacent = adjacencyList[n];
+        if (adjacent != null) {
+            for (int i = 0; i < adjacent.size(); i++) {
+                int t = adjacent.get(i);
+                if (isActive(t)) {
+                    decrementDegree(t);
+                }
+            }
+        }
+    }
+
+    private void decrementDegree(int m) {
+        if (isPrecolored(m)) {
+            return;
+        }
+        int d = degree[m]--;
+        if (d == colors(m)) {
+            enableMoves(m);
+            IntList adjacent = adjacencyList[m];
+            if (adjacent != null) {
+                for (int i = 0; i < adjacent.size(); i++) {
+                    int t = adjacent.get(i);
+                    if (isActive(t)) {
+                        enableMoves(t);
+                    }
+                }
+            }
+            spillWorklist.clear(m);
+            if (isMoveRelated(m)) {
+                freezeWorklist.set(m);
+            } else {
+                simplifyWorklist.set(m);
+            }
+        }
+    }
+
+    private void enableMoves(int node) {
+        IntList moves = moveList[node];
+        if (moves != null) {
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (activeMoves.get(move)) {
+                    activeMoves.clear(move);
+                    worklistMoves.set(move);
+                }
+            }
+        }
+    }
+
+    private void coalesce() {
+        int move = worklistMoves.nextSetBit(0);
+        worklistMoves.clear(move);
+        int x = getAlias(moveSources.get(move));
+        int y = getAlias(moveTargets.get(move));
+        int u = isPrecolored(y) ? y : x;
+        int v = isPrecolored(y) ? x : y;
+        if (u == v) {
+            coalescedMoveCount++;
+            addWorklist(u);
+        } else if (isPrecolored(v) || adjacencySet.contains(u, v) || (!isPrecolored(u) && (noSpill.get(u) || noSpill.get(v)))) {
+            addWorklist(u);
+            addWorklist(v);
+        } else if (isPrecolored(u) ? isAdjacentOk(v, u) : isConservative(u, v)) {
+            coalescedMoveCount++;
+            combine(u, v);
+            addWorklist(u);
+        } else {
+            activeMoves.set(move);
+        }
+    }
+
+    private void addWorklist(int u) {
+        if (!isPrecolored(u) && !isMoveRelated(u) && degree[u] < colors(u)) {
+            freezeWorklist.clear(u);
+            simplifyWorklist.set(u);
+        }
+    }
+
+    /**
+     * George's test: {@code v} can be coalesced with the precolored node {@code r} if every
+     * neighbor of {@code v} is insignificant or already interferes with {@code r}.
+     */
+    private boolean isAdjacentOk(int v, int r) {
+        IntList adjacent = adjacencyList[v];
+        if (adjacent != null) {
+            for (int i = 0; i < adjacent.size(); i++) {
+                int t = adjacent.get(i);
+                if (isActive(t) && degree[t] >= colors(t) && !isPrecolored(t) && !adjacencySet.contains(t, r)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Briggs' test: {@code u} and {@code v} can be coalesced if the combined node has fewer than K
+     * neighbors of significant degree.
+     */
+    private boolean isConservative(int u, int v) {
+        BitSet significant = new BitSet();
+        countSignificant(u, significant);
+        countSignificant(v, significant);
+        return significant.cardinality() < colors(u);
+    }
+
+    private void countSignificant(int node, BitSet significant) {
+        IntList adjacent = adjacencyList[node];
+        if (adjacent != null) {
+            for (int i = 0; i < adjacent.size(); i++) {
+                int t = adjacent.get(i);
+                if (isActive(t) && degree[t] >= colors(t)) {
+                    significant.set(t);
+                }
+            }
+        }
+    }
+
+    private void combine(int u, int v) {
+        if (freezeWorklist.get(v)) {
+            freezeWorklist.clear(v);
+        } else {
+            spillWorklist.clear(v);
+        }
+        coalescedNodes.set(v);
+        alias[v] = u;
+        IntList moves = moveList[v];
+        if (moves != null) {
+            IntList target = list(moveList, u);
+            for (int i = 0; i < moves.size(); i++) {
+                target.add(moves.get(i));
+            }
+        }
+        spillCost[u] += spillCost[v];
+        enableMoves(v);
+        IntList adjacent = adjacencyList[v];
+        if (adjacent != null) {
+            for (int i = 0; i < adjacent.size(); i++) {
+                int t = adjacent.get(i);
+                if (isActive(t)) {
+                    addEdge(t, u);
+                    decrementDegree(t);
+                }
+            }
+        }
+        if (!isPrecolored(u) && degree[u] >= colors(u) && freezeWorklist.get(u)) {
+            freezeWorklist.clear(u);
+            spillWorklist.set(u);
+        }
+    }
+
+    private void freeze() {
+        int u = freezeWorklist.nextSetBit(0);
+        freezeWorklist.clear(u);
+        simplifyWorklist.set(u);
+        freezeMoves(u);
+    }
+
+    private void freezeMoves(int u) {
+        IntList moves = moveList[u];
+        if (moves == null) {
+            return;
+        }
+        int uAlias = getAlias(u);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!activeMoves.get(move) && !worklistMoves.get(move)) {
+                continue;
+            }
+            int x = getAlias(moveSources.get(move));
+            int y = getAlias(moveTargets.get(move));
+            int v = y == uAlias ? x : y;
+            activeMoves.clear(move);
+            worklistMoves.clear(move);
+            if (!isPrecolored(v) && freezeWorklist.get(v) && !isMoveRelated(v) && degree[v] < colors(v)) {
+                freezeWorklist.clear(v);
+                simplifyWorklist.set(v);
+            }
+        }
+    }
+
+    private void selectSpill() {
+        int best = -1;
+        double bestPriority = Double.POSITIVE_INFINITY;
+        for (int n = spillWorklist.nextSetBit(0); n >= 0; n = spillWorklist.nextSetBit(n + 1)) {
+            double priority = noSpill.get(n) ? Double.POSITIVE_INFINITY : spillCost[n] / degree[n];
+            if (best == -1 || priority < bestPriority) {
+                best = n;
+                bestPriority = priority;
+            }
+        }
+        spillWorklist.clear(best);
+        simplifyWorklist.set(best);
+        freezeMoves(best);
+    }
+
+    private void assignColors() {
+        BitSet forbidden = new BitSet(numRegisters);
+        for (int i = selectStack.size() - 1; i >= 0; i--) {
+            int n = selectStack.get(i);
+            IntList adjacent = adjacencyList[n];
+            if (adjacent != null) {
+                for (int j = 0; j < adjacent.size(); j++) {
+                    int a = getAlias(adjacent.get(j));
+                    if (color[a] != NO_COLOR) {
+                        forbidden.set(color[a]);
+                    }
+                }
+            }
+            int chosen = preferredColor(n, forbidden);
+            if (chosen == NO_COLOR) {
+                for (int register : classRegisters[registerClass[n]]) {
+                    if (!forbidden.get(register)) {
+                        chosen = register;
+                        break;
+                    }
+                }
+            }
+            if (chosen == NO_COLOR) {
+                spilledNodes.set(n);
+            } else {
+                color[n] = chosen;
+            }
+            forbidden.clear();
+        }
+        selectStack.clear();
+        onStack.clear();
+        for (int n = coalescedNodes.nextSetBit(0); n >= 0; n = coalescedNodes.nextSetBit(n + 1)) {
+            color[n] = color[getAlias(n)];
+        }
+    }
+
+    /**
+     * Biases the color of {@code node} towards the colors of nodes it is connected to by moves that
+     * could not be coalesced.
+     */
+    private int preferredColor(int node, BitSet forbidden) {
+        IntList moves = moveList[node];
+        if (moves != null) {
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                int x = getAlias(moveSources.get(move));
+                int y = getAlias(moveTargets.get(move));
+                int partner = x == node ? y : x;
+                if (partner != node && color[partner] != NO_COLOR && !forbidden.get(color[partner])) {
+                    return color[partner];
+                }
+            }
+        }
+        return NO_COLOR;
+    }
+
+    /**
+     * A set of unordered pairs of nodes, implemented as an open addressing hash set of longs.
+     */
+    private static final class PairSet {
+
+        private static final long EMPTY = 0L;
+
+        private long[] keys = new long[256];
+        private int size;
+
+        private static long key(int u, int v) {
+            int low = Math.min(u, v);
+            int high = Math.max(u, v);
+            return (((long) high << 32) | low) + 1;
+        }
+
+        private static int hash(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        boolean contains(int u, int v) {
+            long key = key(u, v);
+            int mask = keys.length - 1;
+            for (int i = hash(key, mask);; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return true;
+                } else if (keys[i] == EMPTY) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * @return true if the pair was not in the set before
+         */
+        boolean add(int u, int v) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            if (insert(keys, key(u, v))) {
+                size++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean insert(long[] table, long key) {
+            int mask = table.length - 1;
+            for (int i = hash(key, mask);; i = (i + 1) & mask) {
+                if (table[i] == key) {
+                    return false;
+                } else if (table[i] == EMPTY) {
+                    table[i] = key;
+                    return true;
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            keys = new long[oldKeys.length * 2];
+            for (long key : oldKeys) {
+                if (key != EMPTY) {
+                    insert(keys, key);
+                }
+            }
+        }
+    }
+}
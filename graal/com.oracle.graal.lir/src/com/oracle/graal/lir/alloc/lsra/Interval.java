@@ -42,6 +42,7 @@ import com.oracle.graal.compiler.common.util.Util;
 import com.oracle.graal.debug.GraalError;
 import com.oracle.graal.debug.TTY;
 import com.oracle.graal.lir.LIRInstruction;
+import com.oracle.graal.lir.StandardOp.RematerializableOp;
 import com.oracle.graal.lir.Variable;
 
 import jdk.vm.ci.code.BailoutException;
@@ -545,13 +546,19 @@ public final class Interval {
     private Interval locationHint;
 
     /**
-     * The value with which a spilled child interval can be re-materialized. Currently this must be
-     * a Constant.
+     * The value with which a spilled child interval can be re-materialized by a constant load.
      */
     private Constant materializedValue;
 
     /**
-     * The number of times {@link #addMaterializationValue(Constant)} is called.
+     * The operation that is re-emitted to re-materialize a spilled child interval if the interval
+     * is not defined by a constant load.
+     */
+    private RematerializableOp materializationOp;
+
+    /**
+     * The number of times {@link #addMaterializationValue(Constant)} or
+     * {@link #addMaterializationOp(RematerializableOp)} is called.
      */
     private int numMaterializationValuesAdded;
 
@@ -757,21 +764,35 @@ public final class Interval {
      * Sets the value which is used for re-materialization.
      */
     public void addMaterializationValue(Constant value) {
+        addMaterialization(value, null);
+    }
+
+    /**
+     * Sets the operation which is re-emitted for re-materialization.
+     */
+    public void addMaterializationOp(RematerializableOp op) {
+        addMaterialization(null, op);
+    }
+
+    private void addMaterialization(Constant value, RematerializableOp op) {
         if (numMaterializationValuesAdded == 0) {
             materializedValue = value;
+            materializationOp = op;
         } else {
             // Interval is defined on multiple places -> no materialization is possible.
             materializedValue = null;
+            materializationOp = null;
         }
         numMaterializationValuesAdded++;
     }
 
     /**
      * Returns true if this interval can be re-materialized when spilled. This means that no
-     * spill-moves are needed. Instead of restore-moves the {@link #materializedValue} is restored.
+     * spill-moves are needed. Instead of restore-moves the {@link #materializedValue} is restored
+     * or the {@link #materializationOp} is re-emitted.
      */
     public boolean canMaterialize() {
-        return getMaterializedValue() != null;
+        return getMaterializedValue() != null || getMaterializationOp() != null;
     }
 
     /**
@@ -781,6 +802,13 @@ public final class Interval {
         return splitParent().materializedValue;
     }
 
+    /**
+     * Returns an operation which can be re-emitted instead of a restore-move from stack.
+     */
+    public RematerializableOp getMaterializationOp() {
+        return splitParent().materializationOp;
+    }
+
     int calcTo() {
         assert first != Range.EndMarker : "interval has no range";
 
@@ -1311,7 +1339,7 @@ public final class Interval {
         }
         buf.append("} spill-state{").append(spillState()).append("}");
         if (canMaterialize()) {
-            buf.append(" (remat:").append(getMaterializedValue().toString()).append(")");
+            buf.append(" (remat:").append(getMaterializedValue() != null ? getMaterializedValue() : getMaterializationOp()).append(")");
         }
         return buf.toString();
     }
@@ -22,6 +22,7 @@
  */
 package com.oracle.graal.lir.alloc.lsra;
 
+import com.oracle.graal.compiler.common.CompilationBudget;
 import com.oracle.graal.debug.Debug;
 import com.oracle.graal.debug.Indent;
 import com.oracle.graal.lir.alloc.lsra.Interval.RegisterBinding;
@@ -221,6 +222,7 @@ public class IntervalWalker {
     protected void walkTo(int toOpId) {
         assert currentPosition <= toOpId : "can not walk backwards";
         for (Interval currentInterval = nextInterval(toOpId); currentInterval != null; currentInterval = nextInterval(toOpId)) {
+            CompilationBudget.poll();
             int opId = currentInterval.from();
 
             // set currentPosition prior to call of walkTo
@@ -44,6 +44,7 @@ import com.oracle.graal.lir.LIRInstruction.OperandFlag;
 import com.oracle.graal.lir.LIRInstruction.OperandMode;
 import com.oracle.graal.lir.StandardOp;
 import com.oracle.graal.lir.StandardOp.MoveOp;
+import com.oracle.graal.lir.StandardOp.RematerializableOp;
 import com.oracle.graal.lir.StandardOp.ValueMoveOp;
 import com.oracle.graal.lir.Variable;
 import com.oracle.graal.lir.gen.LIRGenerationResult;
@@ -111,6 +112,7 @@ public class LinearScanAssignLocationsPhase extends AllocationPhase {
 
         if (isIllegal(interval.location()) && interval.canMaterialize()) {
             assert mode != OperandMode.DEF;
+            assert interval.getMaterializedValue() != null : "value of re-emitted operation must be in a register: " + interval;
             return new ConstantValue(interval.kind(), interval.getMaterializedValue());
         }
         return interval.location();
@@ -196,8 +198,8 @@ public class LinearScanAssignLocationsPhase extends AllocationPhase {
 
         InstructionValueProcedure assignProc = (inst, operand, mode, flags) -> isVariable(operand) ? colorLirOperand(inst, (Variable) operand, mode) : operand;
         // remove useless moves
-        if (op instanceof MoveOp) {
-            AllocatableValue result = ((MoveOp) op).getResult();
+        if (op instanceof MoveOp || op instanceof RematerializableOp) {
+            AllocatableValue result = op instanceof MoveOp ? ((MoveOp) op).getResult() : ((RematerializableOp) op).getResult();
             if (isVariable(result) && allocator.isMaterialized(result, op.id(), OperandMode.DEF)) {
                 /*
                  * This happens if a materializable interval is originally not spilled but then
@@ -51,6 +51,7 @@ import com.oracle.graal.lir.LIRInstruction;
 import com.oracle.graal.lir.LIRInstruction.OperandFlag;
 import com.oracle.graal.lir.LIRInstruction.OperandMode;
 import com.oracle.graal.lir.StandardOp.LoadConstantOp;
+import com.oracle.graal.lir.StandardOp.RematerializableOp;
 import com.oracle.graal.lir.StandardOp.ValueMoveOp;
 import com.oracle.graal.lir.ValueConsumer;
 import com.oracle.graal.lir.alloc.lsra.Interval.RegisterPriority;
@@ -99,6 +100,12 @@ public class LinearScanLifetimeAnalysisPhase extends AllocationPhase {
         return intervalInLoop.at(interval, loop);
     }
 
+    /**
+     * Bit set of the variables that are referenced by a frame state. Such a variable must always
+     * have a location and therefore cannot be re-materialized by a {@link RematerializableOp}.
+     */
+    private final BitSet frameStateVariables = new BitSet();
+
     /**
      * Numbers all instructions in all blocks. The numbering follows the
      * {@linkplain ComputeBlockOrder linear scan order}.
@@ -549,7 +556,12 @@ public class LinearScanLifetimeAnalysisPhase extends AllocationPhase {
             // detection of method-parameters and roundfp-results
             interval.setSpillState(SpillState.StartInMemory);
         }
-        interval.addMaterializationValue(getMaterializedValue(op, operand, interval));
+        RematerializableOp materializationOp = getMaterializationOp(op, operand, interval);
+        if (materializationOp != null) {
+            interval.addMaterializationOp(materializationOp);
+        } else {
+            interval.addMaterializationValue(getMaterializedValue(op, operand, interval));
+        }
 
         if (Debug.isLogEnabled()) {
             Debug.log("add def: %s defPos %d (%s)", interval, defPos, registerPriority.name());
@@ -718,6 +730,9 @@ public class LinearScanLifetimeAnalysisPhase extends AllocationPhase {
 
             InstructionValueConsumer stateProc = (op, operand, mode, flags) -> {
                 if (LinearScan.isVariableOrRegister(operand)) {
+                    if (isVariable(operand)) {
+                        frameStateVariables.set(allocator.operandNumber(operand));
+                    }
                     int opId = op.id();
                     int blockFrom = allocator.getFirstLirInstructionId((allocator.blockForId(opId)));
                     addUse((AllocatableValue) operand, blockFrom, opId + 1, RegisterPriority.None, operand.getValueKind());
@@ -839,17 +854,56 @@ public class LinearScanLifetimeAnalysisPhase extends AllocationPhase {
                  * degradation, because rematerialization always inserts a constant load, even if
                  * the value is not needed in a register.
                  */
-                Interval.UsePosList usePosList = interval.usePosList();
-                int numUsePos = usePosList.size();
-                for (int useIdx = 0; useIdx < numUsePos; useIdx++) {
-                    Interval.RegisterPriority priority = usePosList.registerPriority(useIdx);
-                    if (priority == Interval.RegisterPriority.ShouldHaveRegister) {
-                        return null;
-                    }
+                if (hasStackUsage(interval)) {
+                    return null;
                 }
             }
             return move.getConstant();
         }
         return null;
     }
+
+    private static boolean hasStackUsage(Interval interval) {
+        Interval.UsePosList usePosList = interval.usePosList();
+        int numUsePos = usePosList.size();
+        for (int useIdx = 0; useIdx < numUsePos; useIdx++) {
+            Interval.RegisterPriority priority = usePosList.registerPriority(useIdx);
+            if (priority == Interval.RegisterPriority.ShouldHaveRegister) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns an operation for a interval definition, which can be re-emitted for
+     * re-materialization.
+     *
+     * @param op An instruction which defines a value
+     * @param operand The destination operand of the instruction
+     * @param interval The interval for this defined value.
+     * @return {@code op} if it is a {@link RematerializableOp} whose inputs are not allocated and if
+     *         the value is only used in registers, otherwise {@code null}
+     */
+    protected RematerializableOp getMaterializationOp(LIRInstruction op, Value operand, Interval interval) {
+        if (op instanceof RematerializableOp && ((RematerializableOp) op).getResult().equals(operand) && !frameStateVariables.get(interval.operandNumber)) {
+            if (op.destroysCallerSavedRegisters() || op.hasState() || hasStackUsage(interval)) {
+                return null;
+            }
+            boolean[] rematerializable = {true};
+            ValueConsumer notAllocated = (value, mode, flags) -> {
+                if (isVariable(value) || (isRegister(value) && allocator.isProcessed(value))) {
+                    rematerializable[0] = false;
+                }
+            };
+            ValueConsumer none = (value, mode, flags) -> rematerializable[0] = false;
+            op.visitEachInput(notAllocated);
+            op.visitEachAlive(none);
+            op.visitEachTemp(none);
+            if (rematerializable[0]) {
+                return (RematerializableOp) op;
+            }
+        }
+        return null;
+    }
 }
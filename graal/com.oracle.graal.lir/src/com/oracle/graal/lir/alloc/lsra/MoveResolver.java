@@ -37,6 +37,7 @@ import com.oracle.graal.debug.GraalError;
 import com.oracle.graal.debug.Indent;
 import com.oracle.graal.lir.LIRInsertionBuffer;
 import com.oracle.graal.lir.LIRInstruction;
+import com.oracle.graal.lir.StandardOp.RematerializableOp;
 
 import jdk.vm.ci.meta.AllocatableValue;
 import jdk.vm.ci.meta.Constant;
@@ -55,6 +56,7 @@ public class MoveResolver {
 
     private final List<Interval> mappingFrom;
     private final List<Constant> mappingFromOpr;
+    private final List<RematerializableOp> mappingFromOp;
     private final List<Interval> mappingTo;
     private boolean multipleReadsAllowed;
     private final int[] registerBlocked;
@@ -105,6 +107,7 @@ public class MoveResolver {
         this.multipleReadsAllowed = false;
         this.mappingFrom = new ArrayList<>(8);
         this.mappingFromOpr = new ArrayList<>(8);
+        this.mappingFromOp = new ArrayList<>(8);
         this.mappingTo = new ArrayList<>(8);
         this.insertIdx = -1;
         this.insertionBuffer = new LIRInsertionBuffer();
@@ -112,7 +115,7 @@ public class MoveResolver {
     }
 
     protected boolean checkEmpty() {
-        assert mappingFrom.size() == 0 && mappingFromOpr.size() == 0 && mappingTo.size() == 0 : "list must be empty before and after processing";
+        assert mappingFrom.size() == 0 && mappingFromOpr.size() == 0 && mappingFromOp.size() == 0 && mappingTo.size() == 0 : "list must be empty before and after processing";
         for (int i = 0; i < getAllocator().getRegisters().size(); i++) {
             assert registerBlocked[i] == 0 : "register map must be empty before and after processing";
         }
@@ -126,6 +129,7 @@ public class MoveResolver {
 
     private boolean verifyBeforeResolve() {
         assert mappingFrom.size() == mappingFromOpr.size() : "length must be equal";
+        assert mappingFrom.size() == mappingFromOp.size() : "length must be equal";
         assert mappingFrom.size() == mappingTo.size() : "length must be equal";
         assert insertIdx != -1 : "insert position not set";
 
@@ -184,13 +188,13 @@ public class MoveResolver {
         for (int i = 0; i < mappingTo.size(); i++) {
             Interval interval = mappingTo.get(i);
             assert !usedRegs.contains(interval.location()) ||
-                            checkIntervalLocation(mappingFrom.get(i), interval, mappingFromOpr.get(i)) : "stack slots used in mappingFrom must be disjoint to mappingTo";
+                            checkIntervalLocation(mappingFrom.get(i), interval, mappingFromOpr.get(i), mappingFromOp.get(i)) : "stack slots used in mappingFrom must be disjoint to mappingTo";
         }
     }
 
-    private static boolean checkIntervalLocation(Interval from, Interval to, Constant fromOpr) {
+    private static boolean checkIntervalLocation(Interval from, Interval to, Constant fromOpr, RematerializableOp fromOp) {
         if (from == null) {
-            return fromOpr != null;
+            return fromOpr != null || fromOp != null;
         } else {
             return to.location().equals(from.location());
         }
@@ -298,6 +302,17 @@ public class MoveResolver {
         }
     }
 
+    private void insertMove(RematerializableOp fromOp, Interval toInterval) {
+        assert insertIdx != -1 : "must setup insert position first";
+
+        AllocatableValue toOpr = toInterval.operand;
+        insertionBuffer.append(insertIdx, fromOp.rematerialize(toOpr));
+
+        if (Debug.isLogEnabled()) {
+            Debug.log("insert re-materialization of %s to %s at %d", fromOp, toInterval, insertIdx);
+        }
+    }
+
     @SuppressWarnings("try")
     private void resolveMappings() {
         try (Indent indent = Debug.logAndIndent("resolveMapping")) {
@@ -330,11 +345,14 @@ public class MoveResolver {
                         if (fromInterval != null) {
                             insertMove(fromInterval, toInterval);
                             unblockRegisters(fromInterval);
+                        } else if (mappingFromOp.get(i) != null) {
+                            insertMove(mappingFromOp.get(i), toInterval);
                         } else {
                             insertMove(mappingFromOpr.get(i), toInterval);
                         }
                         mappingFrom.remove(i);
                         mappingFromOpr.remove(i);
+                        mappingFromOp.remove(i);
                         mappingTo.remove(i);
 
                         processedInterval = true;
@@ -409,7 +427,7 @@ public class MoveResolver {
                 String from;
                 Value to = toInterval.location();
                 if (fromInterval == null) {
-                    from = mappingFromOpr.get(i).toString();
+                    from = mappingFromOp.get(i) != null ? mappingFromOp.get(i).toString() : mappingFromOpr.get(i).toString();
                 } else {
                     from = fromInterval.location().toString();
                 }
@@ -451,8 +469,12 @@ public class MoveResolver {
         }
         if (isIllegal(fromInterval.location()) && fromInterval.canMaterialize()) {
             // Instead of a reload, re-materialize the value
-            Constant rematValue = fromInterval.getMaterializedValue();
-            addMapping(rematValue, toInterval);
+            if (fromInterval.getMaterializationOp() != null) {
+                addMapping(fromInterval.getMaterializationOp(), toInterval);
+            } else {
+                Constant rematValue = fromInterval.getMaterializedValue();
+                addMapping(rematValue, toInterval);
+            }
             return;
         }
         if (Debug.isLogEnabled()) {
@@ -464,6 +486,7 @@ public class MoveResolver {
                         toInterval);
         mappingFrom.add(fromInterval);
         mappingFromOpr.add(null);
+        mappingFromOp.add(null);
         mappingTo.add(toInterval);
     }
 
@@ -474,6 +497,18 @@ public class MoveResolver {
 
         mappingFrom.add(null);
         mappingFromOpr.add(fromOpr);
+        mappingFromOp.add(null);
+        mappingTo.add(toInterval);
+    }
+
+    public void addMapping(RematerializableOp fromOp, Interval toInterval) {
+        if (Debug.isLogEnabled()) {
+            Debug.log("add re-materialization mapping from %s to %s", fromOp, toInterval);
+        }
+
+        mappingFrom.add(null);
+        mappingFromOpr.add(null);
+        mappingFromOp.add(fromOp);
         mappingTo.add(toInterval);
     }
 
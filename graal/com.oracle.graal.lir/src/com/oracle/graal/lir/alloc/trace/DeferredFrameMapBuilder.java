@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.alloc.trace;
+
+import static com.oracle.graal.lir.LIRValueUtil.asVirtualStackSlot;
+import static com.oracle.graal.lir.LIRValueUtil.isVirtualStackSlot;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import com.oracle.graal.compiler.common.alloc.Trace;
+import com.oracle.graal.compiler.common.cfg.AbstractBlockBase;
+import com.oracle.graal.debug.GraalError;
+import com.oracle.graal.lir.LIR;
+import com.oracle.graal.lir.LIRInstruction;
+import com.oracle.graal.lir.ValueProcedure;
+import com.oracle.graal.lir.VirtualStackSlot;
+import com.oracle.graal.lir.framemap.FrameMap;
+import com.oracle.graal.lir.framemap.FrameMapBuilder;
+import com.oracle.graal.lir.framemap.FrameMapBuilderTool;
+import com.oracle.graal.lir.framemap.SimpleVirtualStackSlot;
+import com.oracle.graal.lir.gen.LIRGenerationResult;
+
+import jdk.vm.ci.code.CallingConvention;
+import jdk.vm.ci.code.CodeCacheProvider;
+import jdk.vm.ci.code.RegisterConfig;
+import jdk.vm.ci.meta.ValueKind;
+
+/**
+ * A {@link FrameMapBuilder} for allocating a single trace concurrently with other traces. Spill
+ * slots are not reserved in the shared {@link FrameMapBuilder} but handed out as trace local
+ * placeholders. {@link #commit} later replaces them with slots of the shared builder. Committing
+ * the traces in a fixed order makes the resulting frame layout independent of the order in which
+ * the traces finished allocation.
+ */
+final class DeferredFrameMapBuilder extends FrameMapBuilderTool {
+
+    private final FrameMapBuilderTool delegate;
+
+    /**
+     * Id of the first placeholder slot. The placeholders are numbered after the slots of
+     * {@link #delegate} so that they can be used as indexes like any other slot.
+     */
+    private final int firstId;
+
+    private final List<VirtualStackSlot> slots = new ArrayList<>();
+
+    DeferredFrameMapBuilder(FrameMapBuilderTool delegate) {
+        this.delegate = delegate;
+        this.firstId = delegate.getNumberOfStackSlots();
+    }
+
+    @Override
+    public VirtualStackSlot allocateSpillSlot(ValueKind<?> kind) {
+        SimpleVirtualStackSlot slot = new SimpleVirtualStackSlot(firstId + slots.size(), kind);
+        slots.add(slot);
+        return slot;
+    }
+
+    @Override
+    public VirtualStackSlot allocateStackSlots(int count, BitSet objects, List<VirtualStackSlot> outObjectStackSlots) {
+        throw GraalError.unimplemented("stack slot ranges are not allocated during trace register allocation");
+    }
+
+    @Override
+    public RegisterConfig getRegisterConfig() {
+        return delegate.getRegisterConfig();
+    }
+
+    @Override
+    public CodeCacheProvider getCodeCache() {
+        return delegate.getCodeCache();
+    }
+
+    @Override
+    public void callsMethod(CallingConvention cc) {
+        throw GraalError.shouldNotReachHere();
+    }
+
+    @Override
+    public FrameMap buildFrameMap(LIRGenerationResult result) {
+        throw GraalError.shouldNotReachHere();
+    }
+
+    @Override
+    public int getNumberOfStackSlots() {
+        return firstId + slots.size();
+    }
+
+    @Override
+    public List<VirtualStackSlot> getStackSlots() {
+        return slots;
+    }
+
+    @Override
+    public FrameMap getFrameMap() {
+        return delegate.getFrameMap();
+    }
+
+    /**
+     * Reserves a slot in the shared {@link FrameMapBuilder} for every placeholder handed out by
+     * this builder and replaces the placeholders in the instructions of {@code trace}.
+     */
+    void commit(LIR lir, Trace trace) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        VirtualStackSlot[] replacements = new VirtualStackSlot[slots.size()];
+        for (int i = 0; i < replacements.length; i++) {
+            replacements[i] = delegate.allocateSpillSlot(slots.get(i).getValueKind());
+        }
+        ValueProcedure replace = (value, mode, flags) -> {
+            if (isVirtualStackSlot(value)) {
+                int index = asVirtualStackSlot(value).getId() - firstId;
+                if (index >= 0 && index < replacements.length && slots.get(index) == value) {
+                    return replacements[index];
+                }
+            }
+            return value;
+        };
+        for (AbstractBlockBase<?> block : trace.getBlocks()) {
+            for (LIRInstruction op : lir.getLIRforBlock(block)) {
+                if (op != null) {
+                    op.forEachInput(replace);
+                    op.forEachAlive(replace);
+                    op.forEachTemp(replace);
+                    op.forEachOutput(replace);
+                    op.forEachState(replace);
+                }
+            }
+        }
+    }
+}
@@ -25,25 +25,44 @@ package com.oracle.graal.lir.alloc.trace;
 import static com.oracle.graal.lir.alloc.trace.TraceBuilderPhase.TRACE_DUMP_LEVEL;
 import static com.oracle.graal.lir.alloc.trace.TraceUtil.isTrivialTrace;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.graal.compiler.common.CompilationBudget;
 import com.oracle.graal.compiler.common.alloc.RegisterAllocationConfig;
 import com.oracle.graal.compiler.common.alloc.Trace;
 import com.oracle.graal.compiler.common.alloc.TraceBuilderResult;
 import com.oracle.graal.compiler.common.cfg.AbstractBlockBase;
 import com.oracle.graal.debug.Debug;
 import com.oracle.graal.debug.Debug.Scope;
+import com.oracle.graal.debug.DebugConfig;
 import com.oracle.graal.debug.DebugCounter;
 import com.oracle.graal.debug.Indent;
+import com.oracle.graal.debug.internal.DebugScope;
 import com.oracle.graal.lir.LIR;
 import com.oracle.graal.lir.LIRInstruction;
 import com.oracle.graal.lir.alloc.trace.TraceAllocationPhase.TraceAllocationContext;
 import com.oracle.graal.lir.alloc.trace.lsra.TraceLinearScan;
+import com.oracle.graal.lir.framemap.FrameMapBuilder;
+import com.oracle.graal.lir.framemap.FrameMapBuilderTool;
 import com.oracle.graal.lir.gen.LIRGenerationResult;
 import com.oracle.graal.lir.gen.LIRGeneratorTool.MoveFactory;
 import com.oracle.graal.lir.phases.AllocationPhase;
 import com.oracle.graal.lir.ssi.SSIUtil;
 import com.oracle.graal.lir.ssi.SSIVerifier;
 import com.oracle.graal.options.Option;
+import com.oracle.graal.options.OptionSnapshot;
 import com.oracle.graal.options.OptionType;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
 import com.oracle.graal.options.StableOptionValue;
 
 import jdk.vm.ci.code.TargetDescription;
@@ -68,6 +87,8 @@ public final class TraceRegisterAllocationPhase extends AllocationPhase {
         public static final StableOptionValue<Boolean> TraceRAreuseStackSlotsForMoveResolutionCycleBreaking = new StableOptionValue<>(true);
         @Option(help = "Cache stack slots globally (i.e. a variable always gets the same slot in every trace).", type = OptionType.Debug)
         public static final StableOptionValue<Boolean> TraceRACacheStackSlots = new StableOptionValue<>(true);
+        @Option(help = "Allocate traces concurrently on a dedicated thread pool. Disables inter-trace hints and stack slot caching.", type = OptionType.Debug)
+        public static final OptionValue<Boolean> TraceRAParallel = new OptionValue<>(false);
         // @formatter:on
     }
 
@@ -76,6 +97,7 @@ public final class TraceRegisterAllocationPhase extends AllocationPhase {
 
     private static final DebugCounter trivialTracesCounter = Debug.counter("TraceRA[trivialTraces]");
     private static final DebugCounter tracesCounter = Debug.counter("TraceRA[traces]");
+    private static final DebugCounter concurrentTracesCounter = Debug.counter("TraceRA[concurrentTraces]");
 
     @Override
     @SuppressWarnings("try")
@@ -87,28 +109,28 @@ public final class TraceRegisterAllocationPhase extends AllocationPhase {
         TraceBuilderResult resultTraces = context.contextLookup(TraceBuilderResult.class);
 
         TraceAllocationContext traceContext = new TraceAllocationContext(spillMoveFactory, registerAllocationConfig, resultTraces);
-        AllocatableValue[] cachedStackSlots = Options.TraceRACacheStackSlots.getValue() ? new AllocatableValue[lir.numVariables()] : null;
 
         Debug.dump(Debug.INFO_LOG_LEVEL, lir, "Before TraceRegisterAllocation");
-        try (Scope s0 = Debug.scope("AllocateTraces", resultTraces)) {
-            for (Trace trace : resultTraces.getTraces()) {
-                try (Indent i = Debug.logAndIndent("Allocating Trace%d: %s", trace.getId(), trace); Scope s = Debug.scope("AllocateTrace", trace)) {
-                    tracesCounter.increment();
-                    if (trivialTracesCounter.isEnabled() && isTrivialTrace(lir, trace)) {
-                        trivialTracesCounter.increment();
-                    }
-                    Debug.dump(TRACE_DUMP_LEVEL, trace, "Trace%s: %s", trace.getId(), trace);
-                    if (Options.TraceRAtrivialBlockAllocator.getValue() && isTrivialTrace(lir, trace)) {
-                        TRACE_TRIVIAL_ALLOCATOR.apply(target, lirGenRes, trace, traceContext, false);
-                    } else {
-                        TraceLinearScan allocator = new TraceLinearScan(target, lirGenRes, spillMoveFactory, registerAllocationConfig, trace, resultTraces, false, cachedStackSlots);
-                        allocator.allocate(target, lirGenRes, trace, spillMoveFactory, registerAllocationConfig);
+        if (Options.TraceRAParallel.getValue()) {
+            allocateTracesConcurrently(target, lirGenRes, traceContext);
+        } else {
+            AllocatableValue[] cachedStackSlots = Options.TraceRACacheStackSlots.getValue() ? new AllocatableValue[lir.numVariables()] : null;
+            try (Scope s0 = Debug.scope("AllocateTraces", resultTraces)) {
+                for (Trace trace : resultTraces.getTraces()) {
+                    try (Indent i = Debug.logAndIndent("Allocating Trace%d: %s", trace.getId(), trace); Scope s = Debug.scope("AllocateTrace", trace)) {
+                        countTrace(lir, trace);
+                        Debug.dump(TRACE_DUMP_LEVEL, trace, "Trace%s: %s", trace.getId(), trace);
+                        if (Options.TraceRAtrivialBlockAllocator.getValue() && isTrivialTrace(lir, trace)) {
+                            allocateTrivialTrace(target, lirGenRes, trace, traceContext);
+                        } else {
+                            allocateTrace(target, lirGenRes, trace, traceContext, cachedStackSlots, lirGenRes.getFrameMapBuilder(), false);
+                        }
+                        Debug.dump(TRACE_DUMP_LEVEL, trace, "After  Trace%s: %s", trace.getId(), trace);
                     }
-                    Debug.dump(TRACE_DUMP_LEVEL, trace, "After  Trace%s: %s", trace.getId(), trace);
                 }
+            } catch (Throwable e) {
+                throw Debug.handle(e);
             }
-        } catch (Throwable e) {
-            throw Debug.handle(e);
         }
         if (Debug.isDumpEnabled(Debug.INFO_LOG_LEVEL)) {
             unnumberInstructions(lir);
@@ -119,6 +141,127 @@ public final class TraceRegisterAllocationPhase extends AllocationPhase {
         deconstructSSIForm(lir);
     }
 
+    private static void countTrace(LIR lir, Trace trace) {
+        tracesCounter.increment();
+        if (trivialTracesCounter.isEnabled() && isTrivialTrace(lir, trace)) {
+            trivialTracesCounter.increment();
+        }
+    }
+
+    private static void allocateTrace(TargetDescription target, LIRGenerationResult lirGenRes, Trace trace, TraceAllocationContext traceContext, AllocatableValue[] cachedStackSlots,
+                    FrameMapBuilder frameMapBuilder, boolean concurrent) {
+        TraceLinearScan allocator = new TraceLinearScan(target, lirGenRes, traceContext.spillMoveFactory, traceContext.registerAllocationConfig, trace, traceContext.resultTraces, false,
+                        cachedStackSlots, frameMapBuilder, concurrent);
+        allocator.allocate(target, lirGenRes, trace, traceContext.spillMoveFactory, traceContext.registerAllocationConfig);
+    }
+
+    private static void allocateTrivialTrace(TargetDescription target, LIRGenerationResult lirGenRes, Trace trace, TraceAllocationContext traceContext) {
+        TRACE_TRIVIAL_ALLOCATOR.apply(target, lirGenRes, trace, traceContext, false);
+    }
+
+    /**
+     * Pool on which traces are allocated concurrently. It is separate from the common fork-join
+     * pool so that trace allocation neither competes with nor waits for application tasks. It has
+     * no queue: a task submitted while all threads are busy is run by the submitting compiler
+     * thread.
+     */
+    private static final class AllocationPool {
+        private static final ThreadPoolExecutor INSTANCE = create();
+
+        private static ThreadPoolExecutor create() {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread thread = new Thread(r, "TraceRA-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * Wraps {@code task} such that it runs with the option overrides, option snapshot, compilation
+     * budget and debug configuration and context of the current thread, regardless of the thread
+     * that executes it.
+     */
+    private static <T> Callable<T> inCurrentContext(Callable<T> task) {
+        Map<OptionValue<?>, Object> overrides = OptionValue.getOverrides();
+        OptionSnapshot options = OptionSnapshot.current();
+        CompilationBudget budget = CompilationBudget.current();
+        DebugConfig debugConfig = Debug.isEnabled() ? DebugScope.getConfig() : null;
+        List<Object> debugContext = new ArrayList<>();
+        if (Debug.isEnabled()) {
+            for (Object o : Debug.context()) {
+                debugContext.add(o);
+            }
+        }
+        return new Callable<T>() {
+            @Override
+            @SuppressWarnings("try")
+            public T call() throws Exception {
+                try (OverrideScope s = OptionValue.override(overrides);
+                                OptionSnapshot.Activation o = options.activate();
+                                CompilationBudget.Activation b = budget == null ? CompilationBudget.suspend() : budget.activate();
+                                Scope d = Debug.sandbox("AllocateTrace", debugConfig, debugContext.toArray())) {
+                    return task.call();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Allocates the non-trivial traces concurrently on the {@link AllocationPool}. The allocation
+     * of a trace only modifies the instructions of its own blocks, except for spill slots, which
+     * are reserved in a {@link DeferredFrameMapBuilder} and committed to the frame in trace order
+     * afterwards. Trivial traces copy the locations of their predecessor and are therefore
+     * allocated after all other traces.
+     */
+    @SuppressWarnings("try")
+    private static void allocateTracesConcurrently(TargetDescription target, LIRGenerationResult lirGenRes, TraceAllocationContext traceContext) {
+        LIR lir = lirGenRes.getLIR();
+        FrameMapBuilderTool frameMapBuilder = (FrameMapBuilderTool) lirGenRes.getFrameMapBuilder();
+        List<Trace> trivialTraces = new ArrayList<>();
+        List<Trace> traces = new ArrayList<>();
+        List<Callable<DeferredFrameMapBuilder>> tasks = new ArrayList<>();
+        for (Trace trace : traceContext.resultTraces.getTraces()) {
+            countTrace(lir, trace);
+            if (Options.TraceRAtrivialBlockAllocator.getValue() && isTrivialTrace(lir, trace)) {
+                trivialTraces.add(trace);
+            } else {
+                traces.add(trace);
+                tasks.add(inCurrentContext(() -> {
+                    DeferredFrameMapBuilder deferredFrameMapBuilder = new DeferredFrameMapBuilder(frameMapBuilder);
+                    allocateTrace(target, lirGenRes, trace, traceContext, null, deferredFrameMapBuilder, true);
+                    return deferredFrameMapBuilder;
+                }));
+            }
+        }
+        try (Scope s0 = Debug.scope("AllocateTracesConcurrently", traceContext.resultTraces)) {
+            List<Future<DeferredFrameMapBuilder>> results = AllocationPool.INSTANCE.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                DeferredFrameMapBuilder deferredFrameMapBuilder;
+                try {
+                    deferredFrameMapBuilder = results.get(i).get();
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+                deferredFrameMapBuilder.commit(lir, traces.get(i));
+                concurrentTracesCounter.increment();
+            }
+            for (Trace trace : trivialTraces) {
+                allocateTrivialTrace(target, lirGenRes, trace, traceContext);
+            }
+        } catch (Throwable e) {
+            throw Debug.handle(e);
+        }
+    }
+
     /**
      * Remove Phi/Sigma In/Out.
      *
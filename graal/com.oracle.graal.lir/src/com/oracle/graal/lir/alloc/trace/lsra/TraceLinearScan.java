@@ -55,7 +55,6 @@ import com.oracle.graal.lir.ValueConsumer;
 import com.oracle.graal.lir.Variable;
 import com.oracle.graal.lir.VirtualStackSlot;
 import com.oracle.graal.lir.alloc.trace.TraceBuilderPhase;
-import com.oracle.graal.lir.alloc.trace.TraceRegisterAllocationPhase;
 import com.oracle.graal.lir.alloc.trace.lsra.TraceInterval.RegisterPriority;
 import com.oracle.graal.lir.alloc.trace.lsra.TraceLinearScanAllocationPhase.TraceLinearScanAllocationContext;
 import com.oracle.graal.lir.debug.IntervalDumper;
@@ -128,17 +127,35 @@ public final class TraceLinearScan implements IntervalDumper {
     /**
      * Maps from {@link Variable#index} to a spill stack slot. If
      * {@linkplain com.oracle.graal.lir.alloc.trace.TraceRegisterAllocationPhase.Options#TraceRACacheStackSlots
-     * enabled} a {@link Variable} is always assigned to the same stack slot.
+     * enabled} a {@link Variable} is always assigned to the same stack slot. {@code null} if stack
+     * slots are not cached.
      */
     private final AllocatableValue[] cachedStackSlots;
 
     private final LIRGenerationResult res;
 
+    /**
+     * Determines whether other traces are allocated concurrently with this one.
+     */
+    private final boolean concurrent;
+
     public TraceLinearScan(TargetDescription target, LIRGenerationResult res, MoveFactory spillMoveFactory, RegisterAllocationConfig regAllocConfig, Trace trace, TraceBuilderResult traceBuilderResult,
                     boolean neverSpillConstants, AllocatableValue[] cachedStackSlots) {
+        this(target, res, spillMoveFactory, regAllocConfig, trace, traceBuilderResult, neverSpillConstants, cachedStackSlots, res.getFrameMapBuilder(), false);
+    }
+
+    /**
+     * Creates an allocator for {@code trace}.
+     *
+     * @param frameMapBuilder the builder used for allocating spill slots
+     * @param concurrent specifies if other traces are allocated concurrently. In this case no
+     *            information is taken from the (possibly incomplete) allocation of other traces.
+     */
+    public TraceLinearScan(TargetDescription target, LIRGenerationResult res, MoveFactory spillMoveFactory, RegisterAllocationConfig regAllocConfig, Trace trace, TraceBuilderResult traceBuilderResult,
+                    boolean neverSpillConstants, AllocatableValue[] cachedStackSlots, FrameMapBuilder frameMapBuilder, boolean concurrent) {
         this.res = res;
         this.moveFactory = spillMoveFactory;
-        this.frameMapBuilder = res.getFrameMapBuilder();
+        this.frameMapBuilder = frameMapBuilder;
         this.sortedBlocks = trace.getBlocks();
         this.registerAttributes = regAllocConfig.getRegisterConfig().getAttributesMap();
         this.regAllocConfig = regAllocConfig;
@@ -147,6 +164,7 @@ public final class TraceLinearScan implements IntervalDumper {
         this.traceBuilderResult = traceBuilderResult;
         this.neverSpillConstants = neverSpillConstants;
         this.cachedStackSlots = cachedStackSlots;
+        this.concurrent = concurrent;
 
         this.fixedIntervals = new FixedInterval[registers.size()];
     }
@@ -261,7 +279,7 @@ public final class TraceLinearScan implements IntervalDumper {
      */
     private AllocatableValue allocateSpillSlot(TraceInterval interval) {
         int variableIndex = LIRValueUtil.asVariable(interval.splitParent().operand).index;
-        if (TraceRegisterAllocationPhase.Options.TraceRACacheStackSlots.getValue()) {
+        if (cachedStackSlots != null) {
             AllocatableValue cachedStackSlot = cachedStackSlots[variableIndex];
             if (cachedStackSlot != null) {
                 if (globalStackSlots.isEnabled()) {
@@ -272,7 +290,7 @@ public final class TraceLinearScan implements IntervalDumper {
             }
         }
         VirtualStackSlot slot = frameMapBuilder.allocateSpillSlot(interval.kind());
-        if (TraceRegisterAllocationPhase.Options.TraceRACacheStackSlots.getValue()) {
+        if (cachedStackSlots != null) {
             cachedStackSlots[variableIndex] = slot;
         }
         if (allocatedStackSlots.isEnabled()) {
@@ -806,6 +824,10 @@ public final class TraceLinearScan implements IntervalDumper {
         return frameMapBuilder;
     }
 
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
     public AbstractBlockBase<?>[] sortedBlocks() {
         return sortedBlocks;
     }
@@ -49,6 +49,7 @@ import com.oracle.graal.lir.StandardOp;
 import com.oracle.graal.lir.StandardOp.BlockEndOp;
 import com.oracle.graal.lir.StandardOp.LabelOp;
 import com.oracle.graal.lir.StandardOp.MoveOp;
+import com.oracle.graal.lir.StandardOp.RematerializableOp;
 import com.oracle.graal.lir.StandardOp.ValueMoveOp;
 import com.oracle.graal.lir.Variable;
 import com.oracle.graal.lir.alloc.trace.ShadowedRegisterValue;
@@ -114,6 +115,7 @@ final class TraceLinearScanAssignLocationsPhase extends TraceLinearScanAllocatio
                     return Value.ILLEGAL;
                 }
                 assert mode != OperandMode.DEF;
+                assert interval.getMaterializedValue() != null : "value of re-emitted operation must be in a register: " + interval;
                 return new ConstantValue(interval.kind(), interval.getMaterializedValue());
             }
             return interval.location();
@@ -213,8 +215,8 @@ final class TraceLinearScanAssignLocationsPhase extends TraceLinearScanAllocatio
             }
 
             // remove useless moves
-            if (op instanceof MoveOp) {
-                AllocatableValue result = ((MoveOp) op).getResult();
+            if (op instanceof MoveOp || op instanceof RematerializableOp) {
+                AllocatableValue result = op instanceof MoveOp ? ((MoveOp) op).getResult() : ((RematerializableOp) op).getResult();
                 if (isVariable(result) && allocator.isMaterialized(result, op.id(), OperandMode.DEF)) {
                     /*
                      * This happens if a materializable interval is originally not spilled but then
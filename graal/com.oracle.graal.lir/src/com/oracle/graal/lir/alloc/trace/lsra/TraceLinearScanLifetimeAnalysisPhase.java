@@ -35,6 +35,7 @@ import static jdk.vm.ci.code.ValueUtil.asStackSlot;
 import static jdk.vm.ci.code.ValueUtil.isRegister;
 import static jdk.vm.ci.code.ValueUtil.isStackSlot;
 
+import java.util.BitSet;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.ListIterator;
@@ -56,7 +57,9 @@ import com.oracle.graal.lir.LIRValueUtil;
 import com.oracle.graal.lir.StandardOp.BlockEndOp;
 import com.oracle.graal.lir.StandardOp.LabelOp;
 import com.oracle.graal.lir.StandardOp.LoadConstantOp;
+import com.oracle.graal.lir.StandardOp.RematerializableOp;
 import com.oracle.graal.lir.StandardOp.ValueMoveOp;
+import com.oracle.graal.lir.ValueConsumer;
 import com.oracle.graal.lir.ValueProcedure;
 import com.oracle.graal.lir.Variable;
 import com.oracle.graal.lir.alloc.trace.ShadowedRegisterValue;
@@ -90,6 +93,13 @@ public final class TraceLinearScanLifetimeAnalysisPhase extends TraceLinearScanA
         private final TraceBuilderResult traceBuilderResult;
         private int numInstructions;
 
+        /**
+         * Bit set of the variables that are referenced by a frame state or leave a block. Such a
+         * variable must always have a location and therefore cannot be re-materialized by a
+         * {@link RematerializableOp}.
+         */
+        private final BitSet pinnedVariables = new BitSet();
+
         public Analyser(TraceLinearScan allocator, TraceBuilderResult traceBuilderResult) {
             this.allocator = allocator;
             this.traceBuilderResult = traceBuilderResult;
@@ -117,6 +127,9 @@ public final class TraceLinearScanLifetimeAnalysisPhase extends TraceLinearScanA
         }
 
         private boolean isAllocatedOrCurrent(AbstractBlockBase<?> currentBlock, AbstractBlockBase<?> other) {
+            if (allocator.isConcurrent()) {
+                return sameTrace(currentBlock, other);
+            }
             return traceBuilderResult.getTraceForBlock(other).getId() <= traceBuilderResult.getTraceForBlock(currentBlock).getId();
         }
 
@@ -161,6 +174,9 @@ public final class TraceLinearScanLifetimeAnalysisPhase extends TraceLinearScanA
             @Override
             public void visitValue(LIRInstruction op, Value operand, OperandMode mode, EnumSet<OperandFlag> flags) {
                 if (TraceLinearScan.isVariableOrRegister(operand)) {
+                    if (isVariable(operand) && flags.contains(OperandFlag.OUTGOING)) {
+                        pinnedVariables.set(asVariable(operand).index);
+                    }
                     RegisterPriority p = registerPriorityOfInputOperand(flags);
                     int opId = op.id();
                     int blockFrom = 0;
@@ -188,6 +204,9 @@ public final class TraceLinearScanLifetimeAnalysisPhase extends TraceLinearScanA
             @Override
             public void visitValue(LIRInstruction op, Value operand, OperandMode mode, EnumSet<OperandFlag> flags) {
                 if (TraceLinearScan.isVariableOrRegister(operand)) {
+                    if (isVariable(operand)) {
+                        pinnedVariables.set(asVariable(operand).index);
+                    }
                     int opId = op.id();
                     int blockFrom = 0;
                     addUse((AllocatableValue) operand, blockFrom, opId + 1, RegisterPriority.None);
@@ -293,7 +312,12 @@ public final class TraceLinearScanLifetimeAnalysisPhase extends TraceLinearScanA
                 // detection of method-parameters and roundfp-results
                 interval.setSpillState(SpillState.StartInMemory);
             }
-            interval.addMaterializationValue(getMaterializedValue(op, operand, interval, allocator.neverSpillConstants(), allocator.getSpillMoveFactory()));
+            RematerializableOp materializationOp = getMaterializationOp(op, operand, interval);
+            if (materializationOp != null) {
+                interval.addMaterializationOp(materializationOp);
+            } else {
+                interval.addMaterializationValue(getMaterializedValue(op, operand, interval, allocator.neverSpillConstants(), allocator.getSpillMoveFactory()));
+            }
 
             if (Debug.isLogEnabled()) {
                 Debug.log("add def: %s defPos %d (%s)", interval, defPos, registerPriority.name());
@@ -337,6 +361,38 @@ public final class TraceLinearScanLifetimeAnalysisPhase extends TraceLinearScanA
             }
         }
 
+        /**
+         * Returns an operation for a interval definition, which can be re-emitted for
+         * re-materialization.
+         *
+         * @param op An instruction which defines a value
+         * @param operand The destination operand of the instruction
+         * @param interval The interval for this defined value.
+         * @return {@code op} if it is a {@link RematerializableOp} whose inputs are not allocated
+         *         and if the value is only used in registers, otherwise {@code null}
+         */
+        private RematerializableOp getMaterializationOp(LIRInstruction op, Variable operand, TraceInterval interval) {
+            if (op instanceof RematerializableOp && ((RematerializableOp) op).getResult().equals(operand) && !pinnedVariables.get(operand.index)) {
+                if (op.destroysCallerSavedRegisters() || op.hasState() || hasStackUsage(interval)) {
+                    return null;
+                }
+                boolean[] rematerializable = {true};
+                ValueConsumer notAllocated = (value, mode, flags) -> {
+                    if (isVariable(value) || (isRegister(value) && allocator.isProcessed(value))) {
+                        rematerializable[0] = false;
+                    }
+                };
+                ValueConsumer none = (value, mode, flags) -> rematerializable[0] = false;
+                op.visitEachInput(notAllocated);
+                op.visitEachAlive(none);
+                op.visitEachTemp(none);
+                if (rematerializable[0]) {
+                    return (RematerializableOp) op;
+                }
+            }
+            return null;
+        }
+
         /**
          * Eliminates moves from register to stack if the stack slot is known to be correct.
          *
@@ -672,12 +728,8 @@ public final class TraceLinearScanLifetimeAnalysisPhase extends TraceLinearScanA
                      * result in a degradation, because rematerialization always inserts a constant
                      * load, even if the value is not needed in a register.
                      */
-                    int numUsePos = interval.numUsePos();
-                    for (int useIdx = 0; useIdx < numUsePos; useIdx++) {
-                        TraceInterval.RegisterPriority priority = interval.getUsePosRegisterPriority(useIdx);
-                        if (priority == TraceInterval.RegisterPriority.ShouldHaveRegister) {
-                            return null;
-                        }
+                    if (hasStackUsage(interval)) {
+                        return null;
                     }
                 }
                 return (JavaConstant) move.getConstant();
@@ -686,4 +738,15 @@ public final class TraceLinearScanLifetimeAnalysisPhase extends TraceLinearScanA
         return null;
     }
 
+    private static boolean hasStackUsage(TraceInterval interval) {
+        int numUsePos = interval.numUsePos();
+        for (int useIdx = 0; useIdx < numUsePos; useIdx++) {
+            TraceInterval.RegisterPriority priority = interval.getUsePosRegisterPriority(useIdx);
+            if (priority == TraceInterval.RegisterPriority.ShouldHaveRegister) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
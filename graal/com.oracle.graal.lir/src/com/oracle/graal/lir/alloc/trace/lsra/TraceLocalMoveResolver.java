@@ -43,6 +43,7 @@ import com.oracle.graal.debug.GraalError;
 import com.oracle.graal.debug.Indent;
 import com.oracle.graal.lir.LIRInsertionBuffer;
 import com.oracle.graal.lir.LIRInstruction;
+import com.oracle.graal.lir.StandardOp.RematerializableOp;
 import com.oracle.graal.lir.VirtualStackSlot;
 import com.oracle.graal.lir.framemap.FrameMap;
 import com.oracle.graal.lir.framemap.FrameMapBuilderTool;
@@ -67,6 +68,7 @@ final class TraceLocalMoveResolver {
 
     private final List<TraceInterval> mappingFrom;
     private final List<Constant> mappingFromOpr;
+    private final List<RematerializableOp> mappingFromOp;
     private final List<TraceInterval> mappingTo;
     private final int[] registerBlocked;
 
@@ -169,6 +171,7 @@ final class TraceLocalMoveResolver {
         this.allocator = allocator;
         this.mappingFrom = new ArrayList<>(8);
         this.mappingFromOpr = new ArrayList<>(8);
+        this.mappingFromOp = new ArrayList<>(8);
         this.mappingTo = new ArrayList<>(8);
         this.insertIdx = -1;
         this.insertionBuffer = new LIRInsertionBuffer();
@@ -180,7 +183,7 @@ final class TraceLocalMoveResolver {
     }
 
     protected boolean checkEmpty() {
-        assert mappingFrom.size() == 0 && mappingFromOpr.size() == 0 && mappingTo.size() == 0 : "list must be empty before and after processing";
+        assert mappingFrom.size() == 0 && mappingFromOpr.size() == 0 && mappingFromOp.size() == 0 && mappingTo.size() == 0 : "list must be empty before and after processing";
         for (int i = 0; i < stackBlocked.length; i++) {
             assert stackBlocked[i] == 0 : "stack map must be empty before and after processing";
         }
@@ -197,6 +200,7 @@ final class TraceLocalMoveResolver {
 
     private boolean verifyBeforeResolve() {
         assert mappingFrom.size() == mappingFromOpr.size() : "length must be equal";
+        assert mappingFrom.size() == mappingFromOp.size() : "length must be equal";
         assert mappingFrom.size() == mappingTo.size() : "length must be equal";
         assert insertIdx != -1 : "insert position not set";
 
@@ -359,6 +363,17 @@ final class TraceLocalMoveResolver {
         }
     }
 
+    private void insertMove(RematerializableOp fromOp, TraceInterval toInterval) {
+        assert insertIdx != -1 : "must setup insert position first";
+
+        AllocatableValue toOpr = toInterval.operand;
+        insertionBuffer.append(insertIdx, fromOp.rematerialize(toOpr));
+
+        if (Debug.isLogEnabled()) {
+            Debug.log("insert re-materialization of %s to %s at %d", fromOp, toInterval, insertIdx);
+        }
+    }
+
     @SuppressWarnings("try")
     private void resolveMappings() {
         try (Indent indent = Debug.logAndIndent("resolveMapping")) {
@@ -391,11 +406,14 @@ final class TraceLocalMoveResolver {
                         if (fromInterval != null) {
                             insertMove(fromInterval, toInterval);
                             unblockRegisters(fromInterval);
+                        } else if (mappingFromOp.get(i) != null) {
+                            insertMove(mappingFromOp.get(i), toInterval);
                         } else {
                             insertMove(mappingFromOpr.get(i), toInterval);
                         }
                         mappingFrom.remove(i);
                         mappingFromOpr.remove(i);
+                        mappingFromOp.remove(i);
                         mappingTo.remove(i);
 
                         processedInterval = true;
@@ -477,7 +495,7 @@ final class TraceLocalMoveResolver {
                 String from;
                 Value to = toInterval.location();
                 if (fromInterval == null) {
-                    from = mappingFromOpr.get(i).toString();
+                    from = mappingFromOp.get(i) != null ? mappingFromOp.get(i).toString() : mappingFromOpr.get(i).toString();
                 } else {
                     from = fromInterval.location().toString();
                 }
@@ -521,8 +539,12 @@ final class TraceLocalMoveResolver {
         }
         if (isIllegal(fromInterval.location()) && fromInterval.canMaterialize()) {
             // Instead of a reload, re-materialize the value
-            JavaConstant rematValue = fromInterval.getMaterializedValue();
-            addMapping(rematValue, toInterval);
+            if (fromInterval.getMaterializationOp() != null) {
+                addMapping(fromInterval.getMaterializationOp(), toInterval);
+            } else {
+                JavaConstant rematValue = fromInterval.getMaterializedValue();
+                addMapping(rematValue, toInterval);
+            }
             return;
         }
         if (Debug.isLogEnabled()) {
@@ -534,6 +556,7 @@ final class TraceLocalMoveResolver {
                         toInterval);
         mappingFrom.add(fromInterval);
         mappingFromOpr.add(null);
+        mappingFromOp.add(null);
         mappingTo.add(toInterval);
     }
 
@@ -544,6 +567,18 @@ final class TraceLocalMoveResolver {
 
         mappingFrom.add(null);
         mappingFromOpr.add(fromOpr);
+        mappingFromOp.add(null);
+        mappingTo.add(toInterval);
+    }
+
+    public void addMapping(RematerializableOp fromOp, TraceInterval toInterval) {
+        if (Debug.isLogEnabled()) {
+            Debug.log("add re-materialization mapping from %s to %s", fromOp, toInterval);
+        }
+
+        mappingFrom.add(null);
+        mappingFromOpr.add(null);
+        mappingFromOp.add(fromOp);
         mappingTo.add(toInterval);
     }
 
@@ -405,6 +405,9 @@ public class CompilationResultBuilder {
         frameContext.enter(this);
         for (AbstractBlockBase<?> b : lir.codeEmittingOrder()) {
             assert (b == null && lir.codeEmittingOrder()[currentBlockIndex] == null) || lir.codeEmittingOrder()[currentBlockIndex].equals(b);
+            if (currentBlockIndex == lir.getColdBlocksStart()) {
+                compilationResult.setColdCodeStart(asm.position());
+            }
             emitBlock(b);
             currentBlockIndex++;
         }
@@ -24,6 +24,7 @@ package com.oracle.graal.lir.gen;
 
 import com.oracle.graal.compiler.common.LIRKind;
 import com.oracle.graal.compiler.common.calc.Condition;
+import com.oracle.graal.compiler.common.calc.VectorArithmetic;
 import com.oracle.graal.compiler.common.cfg.AbstractBlockBase;
 import com.oracle.graal.compiler.common.spi.CodeGenProviders;
 import com.oracle.graal.compiler.common.spi.ForeignCallLinkage;
@@ -246,6 +247,45 @@ public interface LIRGeneratorTool extends BenchmarkCounterFactory, ValueKindFact
 
     Variable emitArrayEquals(JavaKind kind, Value array1, Value array2, Value length);
 
+    /**
+     * Compares the {@code length} elements of {@code array1} starting at {@code offset1} with the
+     * {@code length} elements of {@code array2} starting at {@code offset2}. Both ranges must be
+     * within the bounds of their arrays.
+     */
+    Variable emitArrayRegionEquals(JavaKind kind, Value array1, Value offset1, Value array2, Value offset2, Value length);
+
+    /**
+     * Compares the first {@code length1} elements of {@code array1} lexicographically with the
+     * first {@code length2} elements of {@code array2}, with the semantics of
+     * {@link String#compareTo(String)}.
+     */
+    Variable emitArrayCompareTo(JavaKind kind, Value array1, Value array2, Value length1, Value length2);
+
+    /**
+     * Returns the index of the first occurrence of the {@code targetCount} characters of
+     * {@code target} starting at {@code targetOffset} in the {@code sourceCount} characters of
+     * {@code source} starting at {@code sourceOffset}. The index is relative to
+     * {@code sourceOffset} and is -1 if there is no such occurrence. {@code targetCount} must be
+     * greater than zero.
+     */
+    Variable emitStringIndexOf(Value source, Value sourceOffset, Value sourceCount, Value target, Value targetOffset, Value targetCount);
+
+    /**
+     * Computes {@code result[i] = x[i] op y[i]} for the elements of the {@code kind} arrays in
+     * {@code [fromIndex, toIndex)} that fill complete vector registers. The arrays must be non-null
+     * and the range must be within the bounds of all three arrays.
+     *
+     * @return the index of the first element that was not processed
+     */
+    Variable emitVectorizedArrayOp(VectorArithmetic op, JavaKind kind, Value result, Value x, Value y, Value fromIndex, Value toIndex);
+
+    /**
+     * Stores {@code value} into the elements of the primitive {@code kind} array in
+     * {@code [fromIndex, toIndex)}. The array must be non-null and the range must be within its
+     * bounds.
+     */
+    void emitArrayFill(JavaKind kind, Value array, Value fromIndex, Value toIndex, Value value);
+
     void emitBlackhole(Value operand);
 
     LIRKind getLIRKind(Stamp stamp);
@@ -22,10 +22,12 @@
  */
 package com.oracle.graal.lir.phases;
 
+import static com.oracle.graal.compiler.common.GraalOptions.GraphColoringRA;
 import static com.oracle.graal.compiler.common.GraalOptions.TraceRA;
 
 import com.oracle.graal.compiler.common.GraalOptions;
 import com.oracle.graal.lir.alloc.AllocationStageVerifier;
+import com.oracle.graal.lir.alloc.coloring.GraphColoringPhase;
 import com.oracle.graal.lir.alloc.lsra.LinearScanPhase;
 import com.oracle.graal.lir.alloc.trace.TraceBuilderPhase;
 import com.oracle.graal.lir.alloc.trace.TraceRegisterAllocationPhase;
@@ -44,6 +46,8 @@ public class AllocationStage extends LIRPhaseSuite<AllocationContext> {
             appendPhase(new TraceBuilderPhase());
             appendPhase(new SSIConstructionPhase());
             appendPhase(new TraceRegisterAllocationPhase());
+        } else if (GraphColoringRA.getValue()) {
+            appendPhase(new GraphColoringPhase());
         } else {
             appendPhase(new LinearScanPhase());
         }
@@ -61,4 +65,16 @@ public class AllocationStage extends LIRPhaseSuite<AllocationContext> {
             appendPhase(new AllocationStageVerifier());
         }
     }
+
+    /**
+     * Gets the name of the register allocator selected by the current options.
+     */
+    public static String registerAllocatorName() {
+        if (TraceRA.getValue()) {
+            return "TraceRA";
+        } else if (GraphColoringRA.getValue()) {
+            return "GraphColoring";
+        }
+        return "LinearScan";
+    }
 }
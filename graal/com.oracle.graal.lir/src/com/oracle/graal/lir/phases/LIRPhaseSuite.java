@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 
+import com.oracle.graal.compiler.common.CompilationBudget;
 import com.oracle.graal.lir.gen.LIRGenerationResult;
 
 import jdk.vm.ci.code.TargetDescription;
@@ -86,6 +87,7 @@ public class LIRPhaseSuite<C> extends LIRPhase<C> {
     @Override
     protected final void run(TargetDescription target, LIRGenerationResult lirGenRes, C context) {
         for (LIRPhase<C> phase : phases) {
+            CompilationBudget.check();
             phase.apply(target, lirGenRes, context);
         }
     }
@@ -24,6 +24,7 @@ package com.oracle.graal.lir.phases;
 
 import static com.oracle.graal.lir.phases.LIRPhase.Options.LIROptimization;
 
+import com.oracle.graal.lir.BlockLayoutOptimizer;
 import com.oracle.graal.lir.ControlFlowOptimizer;
 import com.oracle.graal.lir.EdgeMoveOptimizer;
 import com.oracle.graal.lir.NullCheckOptimizer;
@@ -31,6 +32,7 @@ import com.oracle.graal.lir.RedundantMoveElimination;
 import com.oracle.graal.lir.phases.PostAllocationOptimizationPhase.PostAllocationOptimizationContext;
 import com.oracle.graal.lir.profiling.MethodProfilingPhase;
 import com.oracle.graal.lir.profiling.MoveProfilingPhase;
+import com.oracle.graal.lir.profiling.StaticMoveCountingPhase;
 import com.oracle.graal.options.NestedBooleanOptionValue;
 import com.oracle.graal.options.Option;
 import com.oracle.graal.options.OptionType;
@@ -43,6 +45,8 @@ public class PostAllocationOptimizationStage extends LIRPhaseSuite<PostAllocatio
         public static final NestedBooleanOptionValue LIROptEdgeMoveOptimizer = new NestedBooleanOptionValue(LIROptimization, true);
         @Option(help = "", type = OptionType.Debug)
         public static final NestedBooleanOptionValue LIROptControlFlowOptimizer = new NestedBooleanOptionValue(LIROptimization, true);
+        @Option(help = "Reorders the code emitting order of blocks based on block frequencies.", type = OptionType.Debug)
+        public static final NestedBooleanOptionValue LIROptExtTSPBlockLayout = new NestedBooleanOptionValue(LIROptimization, false);
         @Option(help = "", type = OptionType.Debug)
         public static final NestedBooleanOptionValue LIROptRedundantMoveElimination = new NestedBooleanOptionValue(LIROptimization, true);
         @Option(help = "", type = OptionType.Debug)
@@ -51,6 +55,10 @@ public class PostAllocationOptimizationStage extends LIRPhaseSuite<PostAllocatio
                        "Move types are for example stores (register to stack), " +
                        "constant loads (constant to register) or copies (register to register).", type = OptionType.Debug)
         public static final OptionValue<Boolean> LIRProfileMoves = new OptionValue<>(false);
+        @Option(help = "Counts the moves left after register allocation per move type and register allocator " +
+                       "in StaticMoves debug counters. Compiling the same code with different allocators " +
+                       "(e.g. -Dgraal.GraphColoringRA=true) with counting enabled (-Dgraal.Count=) compares the allocators.", type = OptionType.Debug)
+        public static final OptionValue<Boolean> LIRCountStaticMoves = new OptionValue<>(false);
         @Option(help = "Enables profiling of methods.", type = OptionType.Debug)
         public static final OptionValue<Boolean> LIRProfileMethods = new OptionValue<>(false);
         // @formatter:on
@@ -63,12 +71,18 @@ public class PostAllocationOptimizationStage extends LIRPhaseSuite<PostAllocatio
         if (Options.LIROptControlFlowOptimizer.getValue()) {
             appendPhase(new ControlFlowOptimizer());
         }
+        if (Options.LIROptExtTSPBlockLayout.getValue()) {
+            appendPhase(new BlockLayoutOptimizer());
+        }
         if (Options.LIROptRedundantMoveElimination.getValue()) {
             appendPhase(new RedundantMoveElimination());
         }
         if (Options.LIROptNullCheckOptimizer.getValue()) {
             appendPhase(new NullCheckOptimizer());
         }
+        if (Options.LIRCountStaticMoves.getValue()) {
+            appendPhase(new StaticMoveCountingPhase(AllocationStage.registerAllocatorName()));
+        }
         if (Options.LIRProfileMoves.getValue()) {
             appendPhase(new MoveProfilingPhase());
         }
@@ -40,7 +40,25 @@ public final class MoveProfiler {
         return profiler.blockMap;
     }
 
-    static class MoveStatistics {
+    /**
+     * Sums up the static move counts of all blocks of {@code lir}. This can be used to compare the
+     * moves inserted by different register allocators.
+     */
+    public static MoveStatistics summarize(LIR lir) {
+        MoveStatistics total = new MoveStatistics();
+        BlockMap<MoveStatistics> collected = profile(lir);
+        for (AbstractBlockBase<?> block : lir.getControlFlowGraph().getBlocks()) {
+            MoveStatistics stats = collected.get(block);
+            if (stats != null) {
+                for (MoveType type : MoveType.values()) {
+                    total.add(type, stats.get(type));
+                }
+            }
+        }
+        return total;
+    }
+
+    public static final class MoveStatistics {
 
         private final int[] cnt;
 
@@ -60,6 +78,36 @@ public final class MoveProfiler {
         public void add(MoveType moveType, int value) {
             cnt[moveType.ordinal()] += value;
         }
+
+        /**
+         * Gets the number of moves between registers.
+         */
+        public int getRegisterMoves() {
+            return get(MoveType.REG2REG);
+        }
+
+        /**
+         * Gets the number of moves into stack slots.
+         */
+        public int getSpillMoves() {
+            return get(MoveType.REG2STACK) + get(MoveType.CONST2STACK) + get(MoveType.STACK2STACK);
+        }
+
+        /**
+         * Gets the number of moves from stack slots into registers.
+         */
+        public int getReloadMoves() {
+            return get(MoveType.STACK2REG);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (MoveType type : MoveType.values()) {
+                sb.append(sb.length() == 0 ? "" : ", ").append(type).append('=').append(get(type));
+            }
+            return sb.toString();
+        }
     }
 
     private final LIR lir;
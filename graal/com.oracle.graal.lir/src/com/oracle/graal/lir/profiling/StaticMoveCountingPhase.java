@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.profiling;
+
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.lir.gen.LIRGenerationResult;
+import com.oracle.graal.lir.phases.PostAllocationOptimizationPhase;
+import com.oracle.graal.lir.profiling.MoveProfiler.MoveStatistics;
+
+import jdk.vm.ci.code.TargetDescription;
+
+/**
+ * Adds the number of move instructions left after register allocation to
+ * {@linkplain DebugCounter debug counters} named {@code StaticMoves[<allocator>][<move type>]}.
+ * Unlike {@link MoveProfilingPhase}, the code is not modified and the moves are counted
+ * statically, so running the same compilations once per register allocator gives a direct
+ * comparison of the moves the allocators emit.
+ */
+public class StaticMoveCountingPhase extends PostAllocationOptimizationPhase {
+
+    private final String allocator;
+    private final DebugCounter compilations;
+    private final DebugCounter[] moves;
+
+    /**
+     * @param allocator the name of the register allocator that allocated the LIR
+     */
+    public StaticMoveCountingPhase(String allocator) {
+        this.allocator = allocator;
+        this.compilations = Debug.counter("StaticMoves[%s][compilations]", allocator);
+        this.moves = new DebugCounter[MoveType.values().length];
+        for (MoveType type : MoveType.values()) {
+            moves[type.ordinal()] = Debug.counter("StaticMoves[%s][%s]", allocator, type);
+        }
+    }
+
+    @Override
+    protected void run(TargetDescription target, LIRGenerationResult lirGenRes, PostAllocationOptimizationContext context) {
+        MoveStatistics statistics = MoveProfiler.summarize(lirGenRes.getLIR());
+        compilations.increment();
+        for (MoveType type : MoveType.values()) {
+            moves[type.ordinal()].add(statistics.get(type));
+        }
+        Debug.log("%s moves of %s: %s", allocator, lirGenRes.getCompilationUnitName(), statistics);
+    }
+}
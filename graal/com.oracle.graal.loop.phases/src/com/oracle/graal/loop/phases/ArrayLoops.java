@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.loop.phases;
+
+import static com.oracle.graal.nodes.extended.BranchProbabilityNode.NOT_FREQUENT_PROBABILITY;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.graal.compiler.common.type.IntegerStamp;
+import com.oracle.graal.compiler.common.type.StampFactory;
+import com.oracle.graal.graph.NodeInputList;
+import com.oracle.graal.loop.CountedLoopInfo;
+import com.oracle.graal.loop.InductionVariable;
+import com.oracle.graal.loop.InductionVariable.Direction;
+import com.oracle.graal.loop.LoopEx;
+import com.oracle.graal.loop.LoopsData;
+import com.oracle.graal.nodes.AbstractEndNode;
+import com.oracle.graal.nodes.AbstractStateSplit;
+import com.oracle.graal.nodes.BeginNode;
+import com.oracle.graal.nodes.ConstantNode;
+import com.oracle.graal.nodes.EndNode;
+import com.oracle.graal.nodes.FixedNode;
+import com.oracle.graal.nodes.FixedWithNextNode;
+import com.oracle.graal.nodes.FrameState;
+import com.oracle.graal.nodes.IfNode;
+import com.oracle.graal.nodes.LogicNode;
+import com.oracle.graal.nodes.LoopBeginNode;
+import com.oracle.graal.nodes.LoopEndNode;
+import com.oracle.graal.nodes.LoopExitNode;
+import com.oracle.graal.nodes.MergeNode;
+import com.oracle.graal.nodes.PhiNode;
+import com.oracle.graal.nodes.PiNode;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.ValuePhiNode;
+import com.oracle.graal.nodes.calc.ConditionalNode;
+import com.oracle.graal.nodes.calc.IntegerLessThanNode;
+import com.oracle.graal.nodes.calc.IsNullNode;
+import com.oracle.graal.nodes.java.ArrayLengthNode;
+import com.oracle.graal.nodes.java.LoadIndexedNode;
+import com.oracle.graal.nodes.java.StoreIndexedNode;
+import com.oracle.graal.nodes.type.StampTool;
+
+/**
+ * Matching and rewriting shared by {@link LoopFillPhase} and {@link LoopVectorizationPhase}. Both
+ * handle innermost loops of the form
+ *
+ * <pre>
+ * for (int i = start; i &lt; limit; i++) {
+ *     a[i] = ...;
+ * }
+ * </pre>
+ *
+ * by inserting an operation in front of the loop which covers the iterations that are known not to
+ * throw an exception, and entering the loop with the index of the first remaining iteration.
+ */
+final class ArrayLoops {
+
+    private ArrayLoops() {
+        // does not need to be instantiated
+    }
+
+    /**
+     * Operation inserted in front of a loop by
+     * {@link ArrayLoops#insertPreLoop(LoopEx, ValueNode[], PreLoopOperation)}.
+     */
+    interface PreLoopOperation {
+
+        /**
+         * Creates the operation covering the iterations from {@code start} to {@code toIndex}.
+         *
+         * @param nonNullArrays the arrays passed to {@code insertPreLoop} in the same order, known
+         *            to be non-null
+         */
+        AbstractStateSplit create(ValueNode[] nonNullArrays, ValueNode start, ValueNode toIndex);
+
+        /**
+         * Gets the index of the first iteration which is not covered by {@code operation}.
+         */
+        ValueNode resumeIndex(AbstractStateSplit operation, ValueNode start, ValueNode toIndex);
+    }
+
+    /**
+     * Gets the innermost counted loops of {@code loops}.
+     */
+    static List<LoopEx> innermostCountedLoops(LoopsData loops) {
+        loops.detectedCountedLoops();
+        List<LoopEx> result = new ArrayList<>();
+        for (LoopEx loop : loops.countedLoops()) {
+            if (loop.loop().getChildren().isEmpty()) {
+                result.add(loop);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the single store of {@code loop} if the loop counts up from {@code start} to an
+     * exclusive {@code limit} in steps of one, the counter is its only phi, and its body consists
+     * of the store and, if {@code allowLoads} is true, indexed loads only. The store still has to
+     * be checked by the caller.
+     */
+    static StoreIndexedNode matchSingleStore(LoopEx loop, boolean allowLoads) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        if (counted.getDirection() != Direction.Up || counted.isLimitIncluded() || counted.getStamp().getBits() != 32) {
+            return null;
+        }
+        if (!counter.isConstantStride() || counter.constantStride() != 1 || loopBegin.phis().count() != 1 || loopBegin.phis().first() != counter.valueNode()) {
+            return null;
+        }
+        if (loopBegin.loopEnds().count() != 1 || !(loopBegin.next() instanceof IfNode)) {
+            return null;
+        }
+        StoreIndexedNode store = null;
+        for (FixedNode node : loop.whole().nodes().filter(FixedNode.class)) {
+            if (node instanceof StoreIndexedNode) {
+                if (store != null) {
+                    return null;
+                }
+                store = (StoreIndexedNode) node;
+            } else if (allowLoads && node instanceof LoadIndexedNode) {
+                continue;
+            } else if (node != loopBegin && node != loopBegin.next() && !(node instanceof BeginNode) && !(node instanceof LoopEndNode) && !(node instanceof LoopExitNode)) {
+                return null;
+            }
+        }
+        if (store == null || store.stateAfter() == null) {
+            return null;
+        }
+        return store;
+    }
+
+    /**
+     * Inserts {@code operation} in front of {@code loop}:
+     *
+     * <pre>
+     * if (arrays[0] != null &amp;&amp; ... &amp;&amp; start &gt;= 0) {
+     *     toIndex = min(limit, arrays[0].length, ...);
+     *     operation(arrays, start, toIndex);
+     *     start = resumeIndex;
+     * }
+     * </pre>
+     *
+     * @return the inserted operation
+     */
+    static AbstractStateSplit insertPreLoop(LoopEx loop, ValueNode[] arrays, PreLoopOperation operation) {
+        StructuredGraph graph = loop.loopBegin().graph();
+        LoopBeginNode loopBegin = loop.loopBegin();
+        PhiNode counter = (PhiNode) loop.counted().getCounter().valueNode();
+        AbstractEndNode forwardEnd = loopBegin.forwardEnd();
+        ValueNode start = counter.valueAt(forwardEnd);
+
+        BeginNode operationBegin = graph.add(new BeginNode());
+        BeginNode skipBegin = graph.add(new BeginNode());
+        LogicNode skip = graph.unique(new IntegerLessThanNode(start, ConstantNode.forInt(0, graph)));
+        FixedWithNextNode last = operationBegin;
+        ValueNode toIndex = loop.counted().getLimit();
+        Map<ValueNode, ValueNode> nonNullArrays = new HashMap<>();
+        ValueNode[] nonNull = new ValueNode[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            ValueNode array = arrays[i];
+            if (!nonNullArrays.containsKey(array)) {
+                if (!StampTool.isPointerNonNull(array)) {
+                    skip = LogicNode.or(skip, graph.unique(new IsNullNode(array)), NOT_FREQUENT_PROBABILITY);
+                }
+                ValueNode pi = graph.unique(new PiNode(array, array.stamp().join(StampFactory.objectNonNull()), operationBegin));
+                ArrayLengthNode length = graph.add(new ArrayLengthNode(pi));
+                last.setNext(length);
+                last = length;
+                toIndex = min(toIndex, length);
+                nonNullArrays.put(array, pi);
+            }
+            nonNull[i] = nonNullArrays.get(array);
+        }
+        IfNode ifNode = graph.add(new IfNode(skip, skipBegin, operationBegin, NOT_FREQUENT_PROBABILITY));
+
+        AbstractStateSplit op = graph.add(operation.create(nonNull, start, toIndex));
+        ValueNode resume = operation.resumeIndex(op, start, toIndex);
+        last.setNext(op);
+        op.setStateAfter(loopHeaderState(loopBegin, counter, resume));
+
+        EndNode operationEnd = graph.add(new EndNode());
+        EndNode skipEnd = graph.add(new EndNode());
+        op.setNext(operationEnd);
+        skipBegin.setNext(skipEnd);
+        MergeNode merge = graph.add(new MergeNode());
+        merge.addForwardEnd(operationEnd);
+        merge.addForwardEnd(skipEnd);
+        ValuePhiNode newStart = graph.addWithoutUnique(new ValuePhiNode(counter.stamp().unrestricted(), merge, new ValueNode[]{resume, start}));
+        merge.setStateAfter(loopHeaderState(loopBegin, counter, newStart));
+
+        FixedWithNextNode entry = (FixedWithNextNode) forwardEnd.predecessor();
+        entry.setNext(ifNode);
+        merge.setNext(forwardEnd);
+        counter.setValueAt(forwardEnd, newStart);
+        loop.invalidateFragments();
+        return op;
+    }
+
+    /**
+     * Creates the state of the loop header for entering the loop with {@code counter} set to
+     * {@code value}.
+     */
+    static FrameState loopHeaderState(LoopBeginNode loopBegin, PhiNode counter, ValueNode value) {
+        FrameState state = loopBegin.stateAfter().duplicate();
+        NodeInputList<ValueNode> values = state.values();
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == counter) {
+                values.set(i, value);
+            }
+        }
+        return state;
+    }
+
+    static ValueNode min(ValueNode a, ValueNode b) {
+        StructuredGraph graph = a.graph();
+        assert a.stamp() instanceof IntegerStamp && b.stamp() instanceof IntegerStamp;
+        return graph.unique(new ConditionalNode(graph.unique(new IntegerLessThanNode(a, b)), a, b));
+    }
+
+    static ValueNode max(ValueNode a, ValueNode b) {
+        StructuredGraph graph = a.graph();
+        assert a.stamp() instanceof IntegerStamp && b.stamp() instanceof IntegerStamp;
+        return graph.unique(new ConditionalNode(graph.unique(new IntegerLessThanNode(a, b)), b, a));
+    }
+}
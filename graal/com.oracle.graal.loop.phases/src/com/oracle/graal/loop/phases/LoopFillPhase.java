@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.loop.phases;
+
+import static com.oracle.graal.loop.phases.ArrayLoops.insertPreLoop;
+import static com.oracle.graal.loop.phases.ArrayLoops.innermostCountedLoops;
+import static com.oracle.graal.loop.phases.ArrayLoops.matchSingleStore;
+import static com.oracle.graal.loop.phases.ArrayLoops.max;
+
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.loop.LoopEx;
+import com.oracle.graal.loop.LoopsData;
+import com.oracle.graal.loop.phases.ArrayLoops.PreLoopOperation;
+import com.oracle.graal.nodes.AbstractStateSplit;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.extended.ArrayFillNode;
+import com.oracle.graal.nodes.java.StoreIndexedNode;
+import com.oracle.graal.phases.BasePhase;
+import com.oracle.graal.phases.tiers.PhaseContext;
+
+/**
+ * Replaces innermost counted loops which store a loop invariant value into consecutive elements of
+ * a primitive array, i.e. loops of the form
+ *
+ * <pre>
+ * for (int i = start; i &lt; limit; i++) {
+ *     a[i] = value;
+ * }
+ * </pre>
+ *
+ * with an {@link ArrayFillNode}. The fill is inserted in front of the loop and covers the
+ * iterations that are known not to throw an exception; the loop is then entered with the index of
+ * the first remaining iteration, so it either exits immediately or raises the exception in the
+ * right iteration.
+ *
+ * The phase must run before lowering and before loops are partially unrolled.
+ */
+public class LoopFillPhase extends BasePhase<PhaseContext> {
+
+    private static final DebugCounter FILL_LOOPS = Debug.counter("FillLoops");
+
+    @Override
+    protected void run(StructuredGraph graph, PhaseContext context) {
+        if (!graph.hasLoops()) {
+            return;
+        }
+        LoopsData loops = new LoopsData(graph);
+        for (LoopEx loop : innermostCountedLoops(loops)) {
+            StoreIndexedNode store = match(loop);
+            if (store != null) {
+                replaceWithFill(loop, store);
+                FILL_LOOPS.increment();
+                Debug.dump(Debug.INFO_LOG_LEVEL, graph, "Fill %s", loop);
+            }
+        }
+        loops.deleteUnusedNodes();
+    }
+
+    /**
+     * Gets the single store of {@code loop} if the loop has the shape described in
+     * {@linkplain LoopFillPhase the class comment}.
+     */
+    private static StoreIndexedNode match(LoopEx loop) {
+        StoreIndexedNode store = matchSingleStore(loop, false);
+        if (store == null || store.index() != loop.counted().getCounter().valueNode()) {
+            return null;
+        }
+        if (!store.elementKind().isPrimitive() || !loop.isOutsideLoop(store.array()) || !loop.isOutsideLoop(store.value())) {
+            return null;
+        }
+        return store;
+    }
+
+    /**
+     * Inserts the fill in front of {@code loop}:
+     *
+     * <pre>
+     * if (a != null &amp;&amp; start &gt;= 0) {
+     *     end = min(limit, a.length);
+     *     fill(a, start, end, value);
+     *     start = max(start, end);
+     * }
+     * </pre>
+     */
+    private static void replaceWithFill(LoopEx loop, StoreIndexedNode store) {
+        AbstractStateSplit fill = insertPreLoop(loop, new ValueNode[]{store.array()}, new PreLoopOperation() {
+            @Override
+            public AbstractStateSplit create(ValueNode[] nonNullArrays, ValueNode start, ValueNode toIndex) {
+                return new ArrayFillNode(store.elementKind(), nonNullArrays[0], start, toIndex, store.value());
+            }
+
+            @Override
+            public ValueNode resumeIndex(AbstractStateSplit operation, ValueNode start, ValueNode toIndex) {
+                return max(start, toIndex);
+            }
+        });
+        Debug.log("Replaced %s with %s", loop, fill);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.loop.phases;
+
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.graph.Graph.Mark;
+import com.oracle.graal.loop.LoopEx;
+import com.oracle.graal.loop.LoopPolicies;
+import com.oracle.graal.loop.LoopsData;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.phases.common.CanonicalizerPhase;
+import com.oracle.graal.phases.tiers.PhaseContext;
+
+/**
+ * Partially unrolls counted loops into a main loop executing several iterations per back edge and
+ * a post loop executing the remaining iterations.
+ *
+ * @see LoopTransformations#partialUnroll(LoopEx, int)
+ */
+public class LoopPartialUnrollPhase extends LoopPhase<LoopPolicies> {
+
+    private static final DebugCounter PARTIALLY_UNROLLED_LOOPS = Debug.counter("PartialUnrolls");
+    private final CanonicalizerPhase canonicalizer;
+
+    public LoopPartialUnrollPhase(CanonicalizerPhase canonicalizer, LoopPolicies policies) {
+        super(policies);
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, PhaseContext context) {
+        if (graph.hasLoops()) {
+            boolean unrolled;
+            do {
+                unrolled = false;
+                final LoopsData dataCounted = new LoopsData(graph);
+                dataCounted.detectedCountedLoops();
+                for (LoopEx loop : dataCounted.countedLoops()) {
+                    if (LoopTransformations.isUnrollableLoop(loop)) {
+                        int factor = getPolicies().partialUnrollFactor(loop);
+                        if (factor > 1) {
+                            Debug.log("PartialUnroll %s by %d", loop, factor);
+                            Mark mark = graph.getMark();
+                            LoopTransformations.partialUnroll(loop, factor);
+                            canonicalizer.applyIncremental(graph, context, mark);
+                            PARTIALLY_UNROLLED_LOOPS.increment();
+                            Debug.dump(Debug.INFO_LOG_LEVEL, graph, "PartialUnroll %s by %d", loop, factor);
+                            unrolled = true;
+                            break;
+                        }
+                    }
+                }
+                dataCounted.deleteUnusedNodes();
+            } while (unrolled);
+        }
+    }
+}
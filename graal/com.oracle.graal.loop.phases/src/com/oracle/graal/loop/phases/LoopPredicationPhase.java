@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.loop.phases;
+
+import static com.oracle.graal.nodes.extended.BranchProbabilityNode.NOT_FREQUENT_PROBABILITY;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.compiler.common.cfg.AbstractControlFlowGraph;
+import com.oracle.graal.compiler.common.type.IntegerStamp;
+import com.oracle.graal.compiler.common.type.StampFactory;
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.graph.Node;
+import com.oracle.graal.graph.NodeFlood;
+import com.oracle.graal.loop.CountedLoopInfo;
+import com.oracle.graal.loop.InductionVariable;
+import com.oracle.graal.loop.InductionVariable.Direction;
+import com.oracle.graal.loop.LoopEx;
+import com.oracle.graal.loop.LoopsData;
+import com.oracle.graal.loop.MathUtil;
+import com.oracle.graal.nodes.AbstractBeginNode;
+import com.oracle.graal.nodes.ConstantNode;
+import com.oracle.graal.nodes.FixedNode;
+import com.oracle.graal.nodes.GuardNode;
+import com.oracle.graal.nodes.LogicNegationNode;
+import com.oracle.graal.nodes.LogicNode;
+import com.oracle.graal.nodes.LoopEndNode;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.calc.IntegerBelowNode;
+import com.oracle.graal.nodes.calc.IntegerConvertNode;
+import com.oracle.graal.nodes.calc.IntegerLessThanNode;
+import com.oracle.graal.nodes.calc.IsNullNode;
+import com.oracle.graal.nodes.cfg.Block;
+import com.oracle.graal.nodes.cfg.ControlFlowGraph;
+import com.oracle.graal.nodes.util.GraphUtil;
+import com.oracle.graal.phases.BasePhase;
+import com.oracle.graal.phases.OptimisticOptimizations;
+import com.oracle.graal.phases.tiers.MidTierContext;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Replaces null and bounds check guards that are executed on every iteration of a counted loop
+ * with predicates evaluated once at the loop entry.
+ *
+ * A null check of a loop invariant object is moved to the loop entry. A bounds check
+ * {@code index |<| length} where {@code length} is loop invariant and {@code index} is an induction
+ * variable with the same stride as the loop counter is replaced with checks of the smallest and
+ * largest index reached by the loop, computed from the counter's initial value and the loop limit.
+ * Both predicates only apply if the loop body is entered at all, so only guards anchored in the
+ * loop body are considered. Guards that the loop start or limit depend on are left in place.
+ *
+ * The predicates are conservative: they may fail for a loop that leaves early and would not have
+ * failed the original check. They keep the reason and action of the original guard so that
+ * repeated failures disable the optimization through {@link OptimisticOptimizations}.
+ */
+public class LoopPredicationPhase extends BasePhase<MidTierContext> {
+
+    private static final DebugCounter PREDICATED_NULL_CHECKS = Debug.counter("LoopPredicatedNullChecks");
+    private static final DebugCounter PREDICATED_BOUNDS_CHECKS = Debug.counter("LoopPredicatedBoundsChecks");
+
+    @Override
+    protected void run(StructuredGraph graph, MidTierContext context) {
+        if (!graph.hasLoops() || !graph.getGuardsStage().allowsFloatingGuards()) {
+            return;
+        }
+        if (!context.getOptimisticOptimizations().useLoopPredication() || !context.getOptimisticOptimizations().useLoopLimitChecks()) {
+            return;
+        }
+        LoopsData loops = new LoopsData(graph);
+        loops.detectedCountedLoops();
+        List<LoopEx> countedLoops = new ArrayList<>(loops.countedLoops());
+        // inner loops first so that their predicates end up in the body of the outer loop
+        countedLoops.sort((a, b) -> b.loop().getDepth() - a.loop().getDepth());
+        for (LoopEx loop : countedLoops) {
+            CountedLoopInfo counted = loop.counted();
+            if (counted.getStamp().getBits() == 32 && counted.getCounter().isConstantStride()) {
+                predicateNullChecks(loop, loops.getCFG());
+                loop.invalidateFragments();
+                predicateBoundsChecks(loop, loops.getCFG());
+            }
+        }
+        loops.deleteUnusedNodes();
+    }
+
+    private static void predicateNullChecks(LoopEx loop, ControlFlowGraph cfg) {
+        for (GuardNode guard : guardsOnEveryIteration(loop, cfg)) {
+            if (guard.isNegated() && guard.getCondition() instanceof IsNullNode && loop.isOutsideLoop(((IsNullNode) guard.getCondition()).getValue()) && !boundsDependOn(loop, guard)) {
+                LogicNode condition = LogicNode.and(entered(loop.counted()), guard.getCondition(), NOT_FREQUENT_PROBABILITY);
+                replace(loop, guard, condition);
+                PREDICATED_NULL_CHECKS.increment();
+            }
+        }
+    }
+
+    private static void predicateBoundsChecks(LoopEx loop, ControlFlowGraph cfg) {
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        for (GuardNode guard : guardsOnEveryIteration(loop, cfg)) {
+            if (guard.isNegated() || !(guard.getCondition() instanceof IntegerBelowNode)) {
+                continue;
+            }
+            IntegerBelowNode below = (IntegerBelowNode) guard.getCondition();
+            ValueNode length = below.getY();
+            InductionVariable index = loop.getInductionVariables().get(below.getX());
+            if (!loop.isOutsideLoop(length) || index == null || ((IntegerStamp) index.valueNode().stamp()).getBits() != 32) {
+                continue;
+            }
+            if (!index.isConstantStride() || index.constantStride() != counter.constantStride()) {
+                continue;
+            }
+            if (boundsDependOn(loop, guard) || dependsOn(loop, guard, length) || dependsOn(loop, guard, index.initNode())) {
+                continue;
+            }
+            // the predicate relies on the counter not wrapping around
+            counted.createOverFlowGuard();
+            LogicNode condition = LogicNode.or(entered(counted), true, indexRangeBelow(counted, index, length), false, NOT_FREQUENT_PROBABILITY);
+            replace(loop, guard, condition);
+            PREDICATED_BOUNDS_CHECKS.increment();
+        }
+    }
+
+    /**
+     * Gets the guards anchored in the body of {@code loop} whose anchor dominates every back edge.
+     * Guards anchored in the loop header are not included: they also run when the body is not
+     * entered and on the final evaluation of the exit test, which the predicates do not cover.
+     */
+    private static List<GuardNode> guardsOnEveryIteration(LoopEx loop, ControlFlowGraph cfg) {
+        List<GuardNode> guards = new ArrayList<>();
+        Block bodyBlock = cfg.blockFor(loop.counted().getBody());
+        for (GuardNode guard : loop.whole().nodes().filter(GuardNode.class)) {
+            if (guard.getAnchor() == null) {
+                continue;
+            }
+            Block anchorBlock = cfg.blockFor(guard.getAnchor().asNode());
+            if (anchorBlock == null || !loop.loop().getBlocks().contains(anchorBlock) || !AbstractControlFlowGraph.dominates(bodyBlock, anchorBlock)) {
+                continue;
+            }
+            boolean onEveryIteration = true;
+            for (LoopEndNode loopEnd : loop.loopBegin().loopEnds()) {
+                onEveryIteration &= AbstractControlFlowGraph.dominates(anchorBlock, cfg.blockFor(loopEnd));
+            }
+            if (onEveryIteration) {
+                guards.add(guard);
+            }
+        }
+        return guards;
+    }
+
+    /**
+     * Determines if the start or the limit of the counted loop depend on {@code guard}, in which
+     * case a predicate computed from them could neither replace the guard nor be evaluated before
+     * it.
+     */
+    private static boolean boundsDependOn(LoopEx loop, GuardNode guard) {
+        CountedLoopInfo counted = loop.counted();
+        return dependsOn(loop, guard, counted.getStart()) || dependsOn(loop, guard, counted.getLimit());
+    }
+
+    /**
+     * Determines if {@code value} transitively depends on {@code guard} or on any other node of
+     * {@code loop} through its floating inputs.
+     */
+    private static boolean dependsOn(LoopEx loop, GuardNode guard, ValueNode value) {
+        NodeFlood flood = value.graph().createNodeFlood();
+        flood.add(value);
+        for (Node node : flood) {
+            if (node == guard || loop.whole().contains(node)) {
+                return true;
+            }
+            if (!(node instanceof FixedNode)) {
+                for (Node input : node.inputs()) {
+                    flood.add(input);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void replace(LoopEx loop, GuardNode guard, LogicNode condition) {
+        StructuredGraph graph = guard.graph();
+        AbstractBeginNode anchor = AbstractBeginNode.prevBegin(loop.entryPoint());
+        GuardNode predicate = graph.unique(new GuardNode(condition, anchor, guard.getReason(), guard.getAction(), guard.isNegated(), guard.getSpeculation()));
+        Debug.log("Loop predication: %s -> %s in %s", guard, predicate, loop);
+        guard.replaceAtUsages(predicate);
+        GraphUtil.killWithUnusedFloatingInputs(guard);
+    }
+
+    /**
+     * Creates the condition under which the body of the loop is executed at least once.
+     */
+    private static LogicNode entered(CountedLoopInfo counted) {
+        StructuredGraph graph = counted.getLimit().graph();
+        ValueNode start = counted.getStart();
+        ValueNode limit = counted.getLimit();
+        if (counted.getDirection() == Direction.Up) {
+            if (counted.isLimitIncluded()) {
+                return graph.unique(new LogicNegationNode(graph.unique(new IntegerLessThanNode(limit, start))));
+            }
+            return graph.unique(new IntegerLessThanNode(start, limit));
+        } else {
+            if (counted.isLimitIncluded()) {
+                return graph.unique(new LogicNegationNode(graph.unique(new IntegerLessThanNode(start, limit))));
+            }
+            return graph.unique(new IntegerLessThanNode(limit, start));
+        }
+    }
+
+    /**
+     * Creates the condition that every value taken by {@code index} in an executed iteration is in
+     * {@code [0, length)}. The counter ranges over {@code [start, limit)} (or the mirrored range for
+     * a decreasing counter) and {@code index} differs from it by the constant
+     * {@code index.init - counter.init}. The computation is done with 64 bits so that it cannot
+     * overflow.
+     */
+    private static LogicNode indexRangeBelow(CountedLoopInfo counted, InductionVariable index, ValueNode length) {
+        StructuredGraph graph = length.graph();
+        ValueNode start = toLong(counted.getStart());
+        ValueNode limit = toLong(counted.getLimit());
+        ConstantNode one = ConstantNode.forLong(1, graph);
+        ValueNode low;
+        ValueNode high;
+        if (counted.getDirection() == Direction.Up) {
+            low = start;
+            high = counted.isLimitIncluded() ? limit : MathUtil.sub(graph, limit, one);
+        } else {
+            low = counted.isLimitIncluded() ? limit : MathUtil.add(graph, limit, one);
+            high = start;
+        }
+        if (index.valueNode() != counted.getCounter().valueNode()) {
+            ValueNode offset = MathUtil.sub(graph, toLong(index.initNode()), start);
+            low = MathUtil.add(graph, low, offset);
+            high = MathUtil.add(graph, high, offset);
+        }
+        ValueNode longLength = toLong(length);
+        LogicNode lowInRange = graph.unique(new IntegerBelowNode(low, longLength));
+        LogicNode highInRange = graph.unique(new IntegerBelowNode(high, longLength));
+        return LogicNode.and(lowInRange, highInRange, NOT_FREQUENT_PROBABILITY);
+    }
+
+    private static ValueNode toLong(ValueNode value) {
+        return IntegerConvertNode.convert(value, StampFactory.forKind(JavaKind.Long), value.graph());
+    }
+}
@@ -22,7 +22,16 @@
  */
 package com.oracle.graal.loop.phases;
 
+import static com.oracle.graal.compiler.common.GraalOptions.GenLoopSafepoints;
+import static com.oracle.graal.compiler.common.GraalOptions.LoopStripMining;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
 import com.oracle.graal.loop.LoopEx;
+import com.oracle.graal.loop.LoopPolicies;
 import com.oracle.graal.loop.LoopsData;
 import com.oracle.graal.nodes.FixedNode;
 import com.oracle.graal.nodes.Invoke;
@@ -33,11 +42,27 @@ import com.oracle.graal.nodes.extended.ForeignCallNode;
 import com.oracle.graal.phases.BasePhase;
 import com.oracle.graal.phases.tiers.MidTierContext;
 
+/**
+ * Removes the safepoint polls from innermost counted loops. If {@code LoopStripMining} is enabled,
+ * loops which are not known to be short are instead split by {@link LoopTransformations#stripMine}
+ * into an inner loop without safepoint poll and an outer loop which polls once per strip, so that
+ * the time to reach a safepoint stays bounded. The remaining polls are inserted by
+ * {@code LoopSafepointInsertionPhase}.
+ */
 public class LoopSafepointEliminationPhase extends BasePhase<MidTierContext> {
 
+    private static final DebugCounter STRIP_MINED_LOOPS = Debug.counter("StripMinedLoops");
+
+    private final LoopPolicies policies;
+
+    public LoopSafepointEliminationPhase(LoopPolicies policies) {
+        this.policies = policies;
+    }
+
     @Override
     protected void run(StructuredGraph graph, MidTierContext context) {
         LoopsData loops = new LoopsData(graph);
+        List<LoopEx> stripMiningCandidates = new ArrayList<>();
         if (context.getOptimisticOptimizations().useLoopLimitChecks() && graph.getGuardsStage().allowsFloatingGuards()) {
             loops.detectedCountedLoops();
             for (LoopEx loop : loops.countedLoops()) {
@@ -47,8 +72,12 @@ public class LoopSafepointEliminationPhase extends BasePhase<MidTierContext> {
                         hasSafepoint |= loopEnd.canSafepoint();
                     }
                     if (hasSafepoint) {
-                        loop.counted().createOverFlowGuard();
-                        loop.loopBegin().disableSafepoint();
+                        if (LoopStripMining.getValue() && GenLoopSafepoints.getValue() && LoopTransformations.isStripMinableLoop(loop) && policies.stripMiningLength(loop) > 0) {
+                            stripMiningCandidates.add(loop);
+                        } else {
+                            loop.counted().createOverFlowGuard();
+                            loop.loopBegin().disableSafepoint();
+                        }
                     }
                 }
             }
@@ -68,6 +97,20 @@ public class LoopSafepointEliminationPhase extends BasePhase<MidTierContext> {
                 }
             }
         }
+        for (LoopEx loop : stripMiningCandidates) {
+            boolean hasSafepoint = false;
+            for (LoopEndNode loopEnd : loop.loopBegin().loopEnds()) {
+                hasSafepoint |= loopEnd.canSafepoint();
+            }
+            // loops which already poll in a call do not need to be strip mined
+            if (hasSafepoint) {
+                int length = policies.stripMiningLength(loop);
+                Debug.log("Strip mining %s with strips of %d iterations", loop, length);
+                LoopTransformations.stripMine(loop, length);
+                STRIP_MINED_LOOPS.increment();
+                Debug.dump(Debug.INFO_LOG_LEVEL, graph, "StripMine %s", loop);
+            }
+        }
         loops.deleteUnusedNodes();
     }
 }
@@ -25,26 +25,58 @@ package com.oracle.graal.loop.phases;
 import static com.oracle.graal.compiler.common.GraalOptions.MaximumDesiredSize;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import com.oracle.graal.compiler.common.type.IntegerStamp;
+import com.oracle.graal.debug.GraalError;
 import com.oracle.graal.graph.Graph.Mark;
+import com.oracle.graal.graph.Node;
 import com.oracle.graal.graph.Position;
+import com.oracle.graal.loop.BasicInductionVariable;
+import com.oracle.graal.loop.CountedLoopInfo;
+import com.oracle.graal.loop.InductionVariable;
+import com.oracle.graal.loop.InductionVariable.Direction;
 import com.oracle.graal.loop.LoopEx;
 import com.oracle.graal.loop.LoopFragmentWhole;
+import com.oracle.graal.loop.MathUtil;
 import com.oracle.graal.nodeinfo.InputType;
 import com.oracle.graal.nodes.AbstractBeginNode;
+import com.oracle.graal.nodes.AbstractEndNode;
+import com.oracle.graal.nodes.AbstractMergeNode;
 import com.oracle.graal.nodes.BeginNode;
+import com.oracle.graal.nodes.ConstantNode;
 import com.oracle.graal.nodes.ControlSplitNode;
+import com.oracle.graal.nodes.EndNode;
+import com.oracle.graal.nodes.FixedNode;
+import com.oracle.graal.nodes.FixedWithNextNode;
+import com.oracle.graal.nodes.FrameState;
+import com.oracle.graal.nodes.GuardPhiNode;
 import com.oracle.graal.nodes.IfNode;
+import com.oracle.graal.nodes.LogicNode;
 import com.oracle.graal.nodes.LoopBeginNode;
+import com.oracle.graal.nodes.LoopEndNode;
+import com.oracle.graal.nodes.LoopExitNode;
+import com.oracle.graal.nodes.PhiNode;
+import com.oracle.graal.nodes.ProxyNode;
 import com.oracle.graal.nodes.StructuredGraph;
 import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.ValuePhiNode;
+import com.oracle.graal.nodes.ValueProxyNode;
+import com.oracle.graal.nodes.VirtualState.NodeClosure;
+import com.oracle.graal.nodes.calc.CompareNode;
+import com.oracle.graal.nodes.calc.ConditionalNode;
+import com.oracle.graal.nodes.calc.IntegerLessThanNode;
 import com.oracle.graal.nodes.extended.SwitchNode;
+import com.oracle.graal.nodes.memory.MemoryPhiNode;
+import com.oracle.graal.nodes.util.GraphUtil;
 import com.oracle.graal.phases.common.CanonicalizerPhase;
 import com.oracle.graal.phases.tiers.PhaseContext;
 
 import jdk.vm.ci.code.BailoutException;
+import jdk.vm.ci.code.CodeUtil;
 
 public abstract class LoopTransformations {
 
@@ -73,6 +105,271 @@ public abstract class LoopTransformations {
         }
     }
 
+    /**
+     * Determines if {@code loop} has the shape required by
+     * {@link #partialUnroll(LoopEx, int) partial unrolling}: a counted loop with a single exit and a
+     * single back edge, whose header is the exclusive limit test and whose body is straight-line
+     * code.
+     */
+    public static boolean isUnrollableLoop(LoopEx loop) {
+        if (!loop.isCounted() || !loop.counted().isExactTripCount() || loop.counted().isLimitIncluded() || !loop.counted().getCounter().isConstantStride()) {
+            return false;
+        }
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (loopBegin.isPostLoop() || loopBegin.getUnrollFactor() > 1 || loopBegin.loopEnds().count() != 1) {
+            return false;
+        }
+        if (!(loopBegin.next() instanceof IfNode)) {
+            return false;
+        }
+        IfNode limitTest = (IfNode) loopBegin.next();
+        if (!(limitTest.condition() instanceof IntegerLessThanNode) || loop.counted().getBody() != limitTest.trueSuccessor()) {
+            return false;
+        }
+        if (loop.loop().getBlocks().size() != 2 || !loop.loop().getChildren().isEmpty()) {
+            return false;
+        }
+        for (PhiNode phi : loopBegin.phis()) {
+            if (!(phi instanceof ValuePhiNode)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Partially unrolls {@code loop} so that one iteration executes {@code factor} iterations of
+     * the original loop. A copy of the original loop is inserted after it as the post loop running
+     * the remaining iterations. The original loop becomes the main loop: its body is duplicated and
+     * its limit is reduced by {@code (factor - 1) * stride} so that the limit test only needs to be
+     * done once per unrolled iteration.
+     *
+     * @param factor a power of 2 greater than 1
+     */
+    public static void partialUnroll(LoopEx loop, int factor) {
+        assert factor > 1 && Integer.bitCount(factor) == 1 : factor;
+        assert isUnrollableLoop(loop);
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        IfNode limitTest = (IfNode) loopBegin.next();
+
+        insertPostLoop(loop, factor);
+        loop.invalidateFragments();
+        for (int iterations = 1; iterations < factor; iterations *= 2) {
+            loop.inside().duplicate().appendInside(loop);
+            loop.invalidateFragments();
+        }
+        reduceLimit(counted, limitTest, factor);
+
+        loopBegin.setUnrollFactor(factor);
+        loopBegin.setLoopFrequency(Math.max(1.0, loopBegin.loopFrequency() / factor));
+    }
+
+    private static void insertPostLoop(LoopEx loop, int factor) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        LoopExitNode exit = loopBegin.loopExits().first();
+        LoopFragmentWhole postLoop = loop.whole().duplicate();
+        LoopBeginNode postLoopBegin = postLoop.getDuplicatedNode(loopBegin);
+        LoopExitNode postExit = postLoop.getDuplicatedNode(exit);
+
+        /*
+         * Duplicating the loop merged both exits. Instead, the exit of the main loop is connected
+         * to the post loop and only the exit of the post loop reaches the code after the loop.
+         */
+        EndNode exitEnd = (EndNode) exit.next();
+        EndNode postExitEnd = (EndNode) postExit.next();
+        AbstractMergeNode merge = exitEnd.merge();
+        FixedNode next = merge.next();
+
+        for (PhiNode phi : loopBegin.phis()) {
+            PhiNode postPhi = postLoop.getDuplicatedNode(phi);
+            postPhi.setValueAt(postLoopBegin.forwardEnd(), proxy(phi, exit));
+        }
+        for (PhiNode phi : merge.phis().snapshot()) {
+            phi.replaceAtUsages(phi.valueAt(postExitEnd));
+            phi.safeDelete();
+        }
+        merge.replaceAtUsages(postExit);
+
+        FrameState mergeState = merge.stateAfter();
+        merge.setNext(null);
+        merge.setStateAfter(null);
+        if (mergeState != null && mergeState.isAlive() && mergeState.hasNoUsages()) {
+            GraphUtil.killWithUnusedFloatingInputs(mergeState);
+        }
+        exit.setNext(null);
+        postExit.setNext(null);
+        merge.clearEnds();
+        exitEnd.safeDelete();
+        postExitEnd.safeDelete();
+        merge.safeDelete();
+
+        exit.setNext(postLoop.entryPoint());
+        postExit.setNext(next);
+
+        postLoopBegin.setPostLoop();
+        postLoopBegin.setLoopFrequency(Math.min(loopBegin.loopFrequency(), factor - 1));
+    }
+
+    private static ValueNode proxy(PhiNode phi, LoopExitNode exit) {
+        for (ProxyNode proxy : exit.proxies()) {
+            if (proxy instanceof ValueProxyNode && proxy.value() == phi) {
+                return proxy;
+            }
+        }
+        return exit.graph().unique(new ValueProxyNode(phi, exit));
+    }
+
+    /**
+     * Replaces the limit of the main loop with {@code limit - (factor - 1) * stride}, saturated at
+     * the bounds of the counter's stamp so that the main loop is skipped instead of wrapping around.
+     */
+    private static void reduceLimit(CountedLoopInfo counted, IfNode limitTest, int factor) {
+        StructuredGraph graph = limitTest.graph();
+        CompareNode compare = (CompareNode) limitTest.condition();
+        ValueNode limit = counted.getLimit();
+        IntegerStamp stamp = counted.getStamp();
+        long offset = (factor - 1) * counted.getCounter().constantStride();
+        ValueNode reducedLimit = MathUtil.sub(graph, limit, ConstantNode.forIntegerStamp(stamp, offset, graph));
+        LogicNode wraps;
+        ValueNode saturated;
+        if (counted.getDirection() == Direction.Up) {
+            long min = CodeUtil.minValue(stamp.getBits());
+            wraps = graph.unique(new IntegerLessThanNode(limit, ConstantNode.forIntegerStamp(stamp, min + offset, graph)));
+            saturated = ConstantNode.forIntegerStamp(stamp, min, graph);
+        } else {
+            assert counted.getDirection() == Direction.Down;
+            long max = CodeUtil.maxValue(stamp.getBits());
+            wraps = graph.unique(new IntegerLessThanNode(ConstantNode.forIntegerStamp(stamp, max + offset, graph), limit));
+            saturated = ConstantNode.forIntegerStamp(stamp, max, graph);
+        }
+        reducedLimit = graph.unique(new ConditionalNode(wraps, saturated, reducedLimit));
+
+        ValueNode x = compare.getX() == limit ? reducedLimit : compare.getX();
+        ValueNode y = compare.getY() == limit ? reducedLimit : compare.getY();
+        limitTest.setCondition(graph.unique(new IntegerLessThanNode(x, y)));
+        GraphUtil.tryKillUnused(compare);
+    }
+
+    /**
+     * Determines if {@code loop} can be {@link #stripMine(LoopEx, int) strip mined}: a counted loop
+     * whose counter is a basic induction variable with a constant stride.
+     */
+    public static boolean isStripMinableLoop(LoopEx loop) {
+        if (!loop.isCounted() || loop.loopBegin().stateAfter() == null) {
+            return false;
+        }
+        InductionVariable counter = loop.counted().getCounter();
+        return counter instanceof BasicInductionVariable && counter.isConstantStride();
+    }
+
+    /**
+     * Splits {@code loop} into an outer loop which keeps the safepoint poll of the loop and an inner
+     * loop without safepoint poll which executes at most {@code length} iterations per iteration
+     * of the outer loop:
+     *
+     * <pre>
+     * outer: for (;;) {
+     *     int stripStart = i;
+     *     for (; i &lt; limit; i += stride) {
+     *         if (i - stripStart &gt;= length * stride) {
+     *             continue outer;
+     *         }
+     *         body;
+     *     }
+     *     break;
+     * }
+     * </pre>
+     *
+     * Every phi of the loop gets a counterpart in the outer loop and every exit of the loop also
+     * exits the outer loop.
+     */
+    public static void stripMine(LoopEx loop, int length) {
+        assert isStripMinableLoop(loop) && length > 0;
+        LoopBeginNode loopBegin = loop.loopBegin();
+        StructuredGraph graph = loopBegin.graph();
+        CountedLoopInfo counted = loop.counted();
+
+        AbstractEndNode forwardEnd = loopBegin.forwardEnd();
+        FixedWithNextNode entry = (FixedWithNextNode) forwardEnd.predecessor();
+        EndNode outerForwardEnd = graph.add(new EndNode());
+        LoopBeginNode outerBegin = graph.add(new LoopBeginNode());
+        entry.setNext(outerForwardEnd);
+        outerBegin.addForwardEnd(outerForwardEnd);
+        outerBegin.setNext(forwardEnd);
+
+        Map<PhiNode, PhiNode> outerPhis = new HashMap<>();
+        for (PhiNode phi : loopBegin.phis().snapshot()) {
+            PhiNode outerPhi = createPhi(phi, outerBegin);
+            outerPhi.addInput(phi.valueAt(forwardEnd));
+            phi.setValueAt(forwardEnd, outerPhi);
+            outerPhis.put(phi, outerPhi);
+        }
+        FrameState outerState = loopBegin.stateAfter().duplicateWithVirtualState();
+        outerState.applyToNonVirtual(new NodeClosure<ValueNode>() {
+
+            @Override
+            public void apply(Node from, ValueNode node) {
+                PhiNode outerPhi = outerPhis.get(node);
+                if (outerPhi != null) {
+                    from.replaceFirstInput(node, outerPhi);
+                }
+            }
+        });
+        outerBegin.setStateAfter(outerState);
+
+        for (LoopExitNode exit : loopBegin.loopExits().snapshot()) {
+            LoopExitNode outerExit = graph.add(new LoopExitNode(outerBegin));
+            if (exit.stateAfter() != null) {
+                outerExit.setStateAfter(exit.stateAfter().duplicate());
+            }
+            graph.addAfterFixed(exit, outerExit);
+        }
+
+        // leave the inner loop at the start of the body once the strip is complete
+        PhiNode counter = (PhiNode) counted.getCounter().valueNode();
+        IntegerStamp stamp = counted.getStamp();
+        ValueNode distance = MathUtil.sub(graph, counter, outerPhis.get(counter));
+        ValueNode stripStride = ConstantNode.forIntegerStamp(stamp, length * counted.getCounter().constantStride(), graph);
+        LogicNode inStrip;
+        if (counted.getDirection() == Direction.Up) {
+            inStrip = graph.unique(new IntegerLessThanNode(distance, stripStride));
+        } else {
+            inStrip = graph.unique(new IntegerLessThanNode(stripStride, distance));
+        }
+        AbstractBeginNode body = counted.getBody();
+        FixedNode first = body.next();
+        body.setNext(null);
+        BeginNode stripBody = graph.add(new BeginNode());
+        stripBody.setNext(first);
+        LoopExitNode stripExit = graph.add(new LoopExitNode(loopBegin));
+        stripExit.setStateAfter(loopBegin.stateAfter().duplicate());
+        body.setNext(graph.add(new IfNode(inStrip, stripBody, stripExit, 1.0 - 1.0 / length)));
+        LoopEndNode outerLoopEnd = graph.add(new LoopEndNode(outerBegin));
+        stripExit.setNext(outerLoopEnd);
+        for (PhiNode phi : outerPhis.keySet()) {
+            outerPhis.get(phi).addInput(phi);
+        }
+
+        loopBegin.disableSafepoint();
+        outerBegin.setLoopFrequency(Math.max(1.0, loopBegin.loopFrequency() / length));
+        loopBegin.setLoopFrequency(Math.min(loopBegin.loopFrequency(), length));
+    }
+
+    private static PhiNode createPhi(PhiNode phi, AbstractMergeNode merge) {
+        PhiNode ret;
+        if (phi instanceof ValuePhiNode) {
+            ret = new ValuePhiNode(phi.stamp(), merge);
+        } else if (phi instanceof GuardPhiNode) {
+            ret = new GuardPhiNode(merge);
+        } else if (phi instanceof MemoryPhiNode) {
+            ret = new MemoryPhiNode(merge, ((MemoryPhiNode) phi).getLocationIdentity());
+        } else {
+            throw GraalError.shouldNotReachHere();
+        }
+        return merge.graph().addWithoutUnique(ret);
+    }
+
     public static void unswitch(LoopEx loop, List<ControlSplitNode> controlSplitNodeSet) {
         ControlSplitNode firstNode = controlSplitNodeSet.iterator().next();
         LoopFragmentWhole originalLoop = loop.whole();
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.loop.phases;
+
+import static com.oracle.graal.loop.phases.ArrayLoops.innermostCountedLoops;
+import static com.oracle.graal.loop.phases.ArrayLoops.insertPreLoop;
+import static com.oracle.graal.loop.phases.ArrayLoops.matchSingleStore;
+
+import com.oracle.graal.compiler.common.calc.VectorArithmetic;
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.graph.Node;
+import com.oracle.graal.loop.LoopEx;
+import com.oracle.graal.loop.LoopsData;
+import com.oracle.graal.loop.phases.ArrayLoops.PreLoopOperation;
+import com.oracle.graal.nodes.AbstractStateSplit;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.calc.AddNode;
+import com.oracle.graal.nodes.calc.AndNode;
+import com.oracle.graal.nodes.calc.BinaryArithmeticNode;
+import com.oracle.graal.nodes.calc.DivNode;
+import com.oracle.graal.nodes.calc.MulNode;
+import com.oracle.graal.nodes.calc.OrNode;
+import com.oracle.graal.nodes.calc.SubNode;
+import com.oracle.graal.nodes.calc.XorNode;
+import com.oracle.graal.nodes.extended.VectorizedArrayOpNode;
+import com.oracle.graal.nodes.java.AccessIndexedNode;
+import com.oracle.graal.nodes.java.LoadIndexedNode;
+import com.oracle.graal.nodes.java.StoreIndexedNode;
+import com.oracle.graal.phases.BasePhase;
+import com.oracle.graal.phases.tiers.PhaseContext;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Vectorizes innermost counted loops whose body applies an arithmetic operation element-wise to
+ * two arrays, i.e. loops of the form
+ *
+ * <pre>
+ * for (int i = start; i &lt; limit; i++) {
+ *     result[i] = x[i] op y[i];
+ * }
+ * </pre>
+ *
+ * where {@code result}, {@code x} and {@code y} are loop invariant {@code int}, {@code long},
+ * {@code float} or {@code double} arrays. A {@link VectorizedArrayOpNode} is inserted in front of
+ * the loop which processes as many iterations as fit into complete vector registers, and the loop
+ * is entered with the index of the first remaining iteration. The vector part only covers
+ * iterations that are known not to throw an exception, so exceptions are still raised by the
+ * original loop in the right iteration.
+ *
+ * Since all accesses use the loop counter as the index, the result array may be the same as one of
+ * the source arrays. The phase must run before lowering and before loops are partially unrolled.
+ */
+public class LoopVectorizationPhase extends BasePhase<PhaseContext> {
+
+    private static final DebugCounter VECTORIZED_LOOPS = Debug.counter("VectorizedLoops");
+
+    @Override
+    protected void run(StructuredGraph graph, PhaseContext context) {
+        if (!graph.hasLoops()) {
+            return;
+        }
+        LoopsData loops = new LoopsData(graph);
+        for (LoopEx loop : innermostCountedLoops(loops)) {
+            StoreIndexedNode store = match(loop);
+            if (store != null) {
+                vectorize(loop, store);
+                VECTORIZED_LOOPS.increment();
+                Debug.dump(Debug.INFO_LOG_LEVEL, graph, "Vectorized %s", loop);
+            }
+        }
+        loops.deleteUnusedNodes();
+    }
+
+    /**
+     * Gets the single store of {@code loop} if the loop has the shape described in
+     * {@linkplain LoopVectorizationPhase the class comment}.
+     */
+    private static StoreIndexedNode match(LoopEx loop) {
+        StoreIndexedNode store = matchSingleStore(loop, true);
+        if (store == null || !isElementAccess(loop, store, loop.counted().getCounter().valueNode())) {
+            return null;
+        }
+        if (operation(store.value()) == null || !onlyUsedBy(store.value(), store)) {
+            return null;
+        }
+        BinaryArithmeticNode<?> op = (BinaryArithmeticNode<?>) store.value();
+        LoadIndexedNode x = elementLoad(loop, op.getX(), store);
+        LoadIndexedNode y = elementLoad(loop, op.getY(), store);
+        int loads = loop.whole().nodes().filter(LoadIndexedNode.class).count();
+        if (x == null || y == null || loads != (x == y ? 1 : 2) || !onlyUsedBy(x, op) || !onlyUsedBy(y, op)) {
+            return null;
+        }
+        return store;
+    }
+
+    private static boolean onlyUsedBy(ValueNode value, Node user) {
+        for (Node usage : value.usages()) {
+            if (usage != user) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isElementAccess(LoopEx loop, AccessIndexedNode access, ValueNode index) {
+        JavaKind kind = access.elementKind();
+        return access.index() == index && loop.isOutsideLoop(access.array()) && (kind == JavaKind.Int || kind == JavaKind.Long || kind == JavaKind.Float || kind == JavaKind.Double);
+    }
+
+    private static LoadIndexedNode elementLoad(LoopEx loop, ValueNode value, StoreIndexedNode store) {
+        if (value instanceof LoadIndexedNode) {
+            LoadIndexedNode load = (LoadIndexedNode) value;
+            if (load.elementKind() == store.elementKind() && isElementAccess(loop, load, store.index())) {
+                return load;
+            }
+        }
+        return null;
+    }
+
+    private static VectorArithmetic operation(ValueNode value) {
+        JavaKind kind = value.getStackKind();
+        boolean isFloat = kind == JavaKind.Float || kind == JavaKind.Double;
+        if (value instanceof AddNode) {
+            return VectorArithmetic.ADD;
+        } else if (value instanceof SubNode) {
+            return VectorArithmetic.SUB;
+        } else if (value instanceof MulNode) {
+            return kind == JavaKind.Long ? null : VectorArithmetic.MUL;
+        } else if (value instanceof DivNode) {
+            return isFloat ? VectorArithmetic.DIV : null;
+        } else if (value instanceof AndNode && !isFloat) {
+            return VectorArithmetic.AND;
+        } else if (value instanceof OrNode && !isFloat) {
+            return VectorArithmetic.OR;
+        } else if (value instanceof XorNode && !isFloat) {
+            return VectorArithmetic.XOR;
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the vectorized part in front of {@code loop}:
+     *
+     * <pre>
+     * if (result != null &amp;&amp; x != null &amp;&amp; y != null &amp;&amp; start &gt;= 0) {
+     *     start = vectorizedArrayOp(result, x, y, start, min(limit, result.length, x.length, y.length));
+     * }
+     * </pre>
+     */
+    private static void vectorize(LoopEx loop, StoreIndexedNode store) {
+        BinaryArithmeticNode<?> op = (BinaryArithmeticNode<?>) store.value();
+        ValueNode[] arrays = {store.array(), ((LoadIndexedNode) op.getX()).array(), ((LoadIndexedNode) op.getY()).array()};
+        AbstractStateSplit vector = insertPreLoop(loop, arrays, new PreLoopOperation() {
+            @Override
+            public AbstractStateSplit create(ValueNode[] nonNullArrays, ValueNode start, ValueNode toIndex) {
+                return new VectorizedArrayOpNode(operation(op), store.elementKind(), nonNullArrays[0], nonNullArrays[1], nonNullArrays[2], start, toIndex);
+            }
+
+            @Override
+            public ValueNode resumeIndex(AbstractStateSplit operation, ValueNode start, ValueNode toIndex) {
+                return operation;
+            }
+        });
+        Debug.log("Vectorized %s as %s %s", loop, vector, operation(op));
+    }
+}
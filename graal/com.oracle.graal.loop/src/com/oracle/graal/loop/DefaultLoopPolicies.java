@@ -46,6 +46,7 @@ import com.oracle.graal.options.OptionType;
 import com.oracle.graal.options.OptionValue;
 
 import jdk.vm.ci.code.BytecodeFrame;
+import jdk.vm.ci.code.CodeUtil;
 
 public class DefaultLoopPolicies implements LoopPolicies {
     @Option(help = "", type = OptionType.Expert) public static final OptionValue<Integer> LoopUnswitchMaxIncrease = new OptionValue<>(500);
@@ -56,24 +57,21 @@ public class DefaultLoopPolicies implements LoopPolicies {
     @Option(help = "", type = OptionType.Expert) public static final OptionValue<Integer> FullUnrollMaxIterations = new OptionValue<>(600);
     @Option(help = "", type = OptionType.Expert) public static final OptionValue<Integer> ExactFullUnrollMaxNodes = new OptionValue<>(1200);
 
+    @Option(help = "Maximum number of iterations executed by one iteration of a partially unrolled loop", type = OptionType.Expert)
+    public static final OptionValue<Integer> PartialUnrollMaxFactor = new OptionValue<>(8);
+    @Option(help = "Maximum number of nodes added to the graph by partially unrolling a loop", type = OptionType.Expert)
+    public static final OptionValue<Integer> PartialUnrollMaxNodes = new OptionValue<>(400);
+
+    @Option(help = "Number of iterations of a strip mined loop executed between two safepoint polls", type = OptionType.Expert)
+    public static final OptionValue<Integer> StripMiningLength = new OptionValue<>(1000);
+
     @Override
     public boolean shouldPeel(LoopEx loop, ControlFlowGraph cfg) {
         LoopBeginNode loopBegin = loop.loopBegin();
         double entryProbability = cfg.blockFor(loopBegin.forwardEnd()).probability();
         if (entryProbability > MinimumPeelProbability.getValue() && loop.size() + loopBegin.graph().getNodeCount() < MaximumDesiredSize.getValue()) {
             // check whether we're allowed to peel this loop
-            for (Node node : loop.inside().nodes()) {
-                if (node instanceof ControlFlowAnchorNode) {
-                    return false;
-                }
-                if (node instanceof FrameState) {
-                    FrameState frameState = (FrameState) node;
-                    if (frameState.bci == BytecodeFrame.AFTER_EXCEPTION_BCI || frameState.bci == BytecodeFrame.UNWIND_BCI) {
-                        return false;
-                    }
-                }
-            }
-            return true;
+            return canDuplicateBody(loop);
         } else {
             return false;
         }
@@ -91,21 +89,77 @@ public class DefaultLoopPolicies implements LoopPolicies {
         int size = Math.max(1, loop.size() - 1 - loop.loopBegin().phis().count());
         if (maxTrips <= FullUnrollMaxIterations.getValue() && size * (maxTrips - 1) <= maxNodes) {
             // check whether we're allowed to unroll this loop
-            for (Node node : loop.inside().nodes()) {
-                if (node instanceof ControlFlowAnchorNode) {
+            return canDuplicateBody(loop);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int partialUnrollFactor(LoopEx loop) {
+        if (!loop.isCounted() || !loop.counted().getCounter().isConstantStride()) {
+            return 1;
+        }
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        double maxTrips = loopBegin.loopFrequency();
+        if (counted.isConstantMaxTripCount()) {
+            maxTrips = Math.min(maxTrips, counted.constantMaxTripCount());
+        }
+        int factor = 1;
+        while (factor * 2 <= PartialUnrollMaxFactor.getValue() && factor * 2 <= maxTrips) {
+            factor *= 2;
+        }
+        // the post loop is a copy of the original loop and the main loop gets factor - 1 copies
+        int maxNodes = Math.min(PartialUnrollMaxNodes.getValue(), Math.max(0, MaximumDesiredSize.getValue() - loopBegin.graph().getNodeCount()));
+        int size = Math.max(1, loop.size() - 1 - loopBegin.phis().count());
+        while (factor > 1 && (long) size * factor > maxNodes) {
+            factor /= 2;
+        }
+        if (factor == 1) {
+            return 1;
+        }
+        // the limit of the main loop is reduced by (factor - 1) * stride
+        long stride = Math.abs(counted.getCounter().constantStride());
+        long maxOffset = CodeUtil.maxValue(counted.getStamp().getBits()) / 2;
+        if (stride <= 0 || stride > maxOffset / (factor - 1)) {
+            return 1;
+        }
+        return canDuplicateBody(loop) ? factor : 1;
+    }
+
+    @Override
+    public int stripMiningLength(LoopEx loop) {
+        if (!loop.isCounted() || !loop.counted().getCounter().isConstantStride()) {
+            return 0;
+        }
+        CountedLoopInfo counted = loop.counted();
+        int length = StripMiningLength.getValue();
+        if (length <= 1 || (counted.isConstantMaxTripCount() && counted.constantMaxTripCount() <= length)) {
+            // short loops do not need a safepoint poll at all
+            return 0;
+        }
+        // the distance covered by one strip must be representable in the counter's type
+        long stride = Math.abs(counted.getCounter().constantStride());
+        if (stride == 0 || stride > CodeUtil.maxValue(counted.getStamp().getBits()) / length) {
+            return 0;
+        }
+        return length;
+    }
+
+    private static boolean canDuplicateBody(LoopEx loop) {
+        for (Node node : loop.inside().nodes()) {
+            if (node instanceof ControlFlowAnchorNode) {
+                return false;
+            }
+            if (node instanceof FrameState) {
+                FrameState frameState = (FrameState) node;
+                if (frameState.bci == BytecodeFrame.AFTER_EXCEPTION_BCI || frameState.bci == BytecodeFrame.UNWIND_BCI) {
                     return false;
                 }
-                if (node instanceof FrameState) {
-                    FrameState frameState = (FrameState) node;
-                    if (frameState.bci == BytecodeFrame.AFTER_EXCEPTION_BCI || frameState.bci == BytecodeFrame.UNWIND_BCI) {
-                        return false;
-                    }
-                }
             }
-            return true;
-        } else {
-            return false;
         }
+        return true;
     }
 
     @Override
@@ -22,6 +22,7 @@
  */
 package com.oracle.graal.loop;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -37,8 +38,11 @@ import com.oracle.graal.nodes.AbstractEndNode;
 import com.oracle.graal.nodes.AbstractMergeNode;
 import com.oracle.graal.nodes.BeginNode;
 import com.oracle.graal.nodes.EndNode;
+import com.oracle.graal.nodes.FixedNode;
+import com.oracle.graal.nodes.FixedWithNextNode;
 import com.oracle.graal.nodes.FrameState;
 import com.oracle.graal.nodes.GuardPhiNode;
+import com.oracle.graal.nodes.IfNode;
 import com.oracle.graal.nodes.LoopBeginNode;
 import com.oracle.graal.nodes.LoopEndNode;
 import com.oracle.graal.nodes.LoopExitNode;
@@ -73,6 +77,16 @@ public class LoopFragmentInside extends LoopFragment {
             return prim((ValueNode) oriInput);
         }
     };
+    private final DuplicationReplacement dataFixWithinAfter = new DuplicationReplacement() {
+
+        @Override
+        public Node replacement(Node oriInput) {
+            if (!(oriInput instanceof ValueNode)) {
+                return oriInput;
+            }
+            return primAfter((ValueNode) oriInput);
+        }
+    };
 
     public LoopFragmentInside(LoopEx loop) {
         super(loop);
@@ -93,9 +107,54 @@ public class LoopFragmentInside extends LoopFragment {
         return (LoopFragmentInside) super.original();
     }
 
-    @SuppressWarnings("unused")
+    /**
+     * Appends this duplicated body to the original body so that one iteration of the loop executes
+     * two iterations of the original loop. The duplicated copy of the loop header test is dropped:
+     * the caller is responsible for making the original test strong enough to cover both
+     * iterations.
+     *
+     * The loop must have a single loop end, its header must consist of the {@link IfNode} testing
+     * the exit condition and the rest of the body must be straight-line code.
+     */
     public void appendInside(LoopEx loop) {
-        // TODO (gd)
+        assert this.isDuplicate() && this.original().loop() == loop;
+        LoopBeginNode loopBegin = loop.loopBegin();
+        assert loopBegin.loopEnds().count() == 1;
+        LoopEndNode loopEnd = loopBegin.loopEnds().first();
+        IfNode header = (IfNode) loopBegin.next();
+        AbstractBeginNode body = loopBegin.isLoopExit(header.falseSuccessor()) ? header.trueSuccessor() : header.falseSuccessor();
+
+        patchNodes(dataFixWithinAfter);
+
+        AbstractBeginNode newHeader = getDuplicatedNode(loopBegin);
+        AbstractBeginNode newBody = getDuplicatedNode(body);
+        AbstractEndNode newEnd = getDuplicatedNode(loopEnd);
+
+        // nodes anchored in the duplicated header or body now depend on the original body
+        newHeader.replaceAtUsages(body);
+        newBody.replaceAtUsages(body);
+
+        FixedNode firstNew = newBody.next();
+        FixedWithNextNode lastNew = (FixedWithNextNode) newEnd.predecessor();
+        newBody.setNext(null);
+        if (firstNew != newEnd) {
+            lastNew.setNext(null);
+            FixedWithNextNode lastOld = (FixedWithNextNode) loopEnd.predecessor();
+            lastOld.setNext(firstNew);
+            lastNew.setNext(loopEnd);
+        }
+        newEnd.safeDelete();
+        GraphUtil.killCFG(newHeader);
+
+        // the back edge values now come from the appended body
+        List<PhiNode> phis = loopBegin.phis().snapshot();
+        List<ValueNode> backValues = new ArrayList<>(phis.size());
+        for (PhiNode phi : phis) {
+            backValues.add(primAfter(phi.valueAt(loopEnd)));
+        }
+        for (int i = 0; i < phis.size(); i++) {
+            phis.get(i).setValueAt(loopEnd, backValues.get(i));
+        }
     }
 
     @Override
@@ -337,6 +396,30 @@ public class LoopFragmentInside extends LoopFragment {
         }
     }
 
+    /**
+     * Gets the corresponding value in this fragment when it is appended after the original body:
+     * loop phis are replaced with their back edge value.
+     *
+     * @param b original value
+     * @return corresponding value in the appended body
+     */
+    private ValueNode primAfter(ValueNode b) {
+        assert isDuplicate();
+        LoopBeginNode loopBegin = original().loop().loopBegin();
+        if (loopBegin.isPhiAtMerge(b)) {
+            PhiNode phi = (PhiNode) b;
+            return phi.valueAt(loopBegin.loopEnds().first());
+        } else if (nodesReady) {
+            ValueNode v = getDuplicatedNode(b);
+            if (v == null) {
+                return b;
+            }
+            return v;
+        } else {
+            return b;
+        }
+    }
+
     private AbstractBeginNode mergeEnds() {
         assert isDuplicate();
         List<EndNode> endsToMerge = new LinkedList<>();
@@ -32,6 +32,22 @@ public interface LoopPolicies {
 
     boolean shouldFullUnroll(LoopEx loop);
 
+    /**
+     * Gets the number of iterations of {@code loop} that one iteration of the partially unrolled
+     * loop should execute.
+     *
+     * @return a power of 2, or 1 if the loop should not be partially unrolled
+     */
+    int partialUnrollFactor(LoopEx loop);
+
+    /**
+     * Gets the number of iterations of {@code loop} that are executed between two safepoint polls
+     * if the loop is strip mined.
+     *
+     * @return the length of a strip, or 0 if the loop should not be strip mined
+     */
+    int stripMiningLength(LoopEx loop);
+
     boolean shouldTryUnswitch(LoopEx loop);
 
     boolean shouldUnswitch(LoopEx loop, List<ControlSplitNode> controlSplits);
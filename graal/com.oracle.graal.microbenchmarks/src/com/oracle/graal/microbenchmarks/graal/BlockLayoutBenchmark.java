@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.microbenchmarks.graal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A branchy kernel with rarely taken paths compiled with the default block order, with the
+ * Extended TSP block layout and with additional hot/cold splitting.
+ */
+@State(Scope.Thread)
+public class BlockLayoutBenchmark extends GraalBenchmark {
+
+    private static final String EXT_TSP = "-Dgraal.LIROptExtTSPBlockLayout=true";
+    private static final String HOT_COLD = "-Dgraal.LIRHotColdSplitting=true";
+
+    @Param({"1000", "100000"}) private int size;
+
+    private int[] values;
+
+    @Setup
+    public void setup() {
+        values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i % 1021 == 0 ? -i : i * 7919 & 0xFFFF;
+        }
+    }
+
+    private static int kernel(int[] a) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            int v = a[i];
+            if (v < 0) {
+                sum -= rare(v, sum);
+            } else if ((v & 3) == 0) {
+                sum += v >> 2;
+            } else if ((v & 3) == 1) {
+                sum ^= v;
+            } else if (v > 0x10000) {
+                sum = rare(sum, v);
+            } else {
+                sum += v * 3;
+            }
+        }
+        return sum;
+    }
+
+    private static int rare(int a, int b) {
+        int result = a;
+        for (int i = 0; i < 8; i++) {
+            result = result * 31 + (b >>> i);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int defaultLayout() {
+        return kernel(values);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = EXT_TSP)
+    public int extTSPLayout() {
+        return kernel(values);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = {EXT_TSP, HOT_COLD})
+    public int extTSPLayoutHotColdSplit() {
+        return kernel(values);
+    }
+}
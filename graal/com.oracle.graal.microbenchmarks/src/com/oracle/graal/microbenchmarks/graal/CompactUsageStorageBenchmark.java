@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.microbenchmarks.graal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.graal.graph.Graph;
+import com.oracle.graal.microbenchmarks.graal.util.GraalState;
+import com.oracle.graal.microbenchmarks.graal.util.GraphState;
+import com.oracle.graal.microbenchmarks.graal.util.MethodSpec;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.phases.common.CanonicalizerPhase;
+import com.oracle.graal.phases.tiers.PhaseContext;
+
+/**
+ * Compares the default per-node usage arrays with {@link Graph.Options#CompactUsageStorage}. The
+ * heap footprint of a graph is best observed through the allocation rate of {@link #copy} (run
+ * with {@code -prof gc}).
+ */
+public class CompactUsageStorageBenchmark extends GraalBenchmark {
+
+    @MethodSpec(declaringClass = CompactUsageStorageBenchmark.class, name = "manyUsagesSnippet")
+    public static class ManyUsages extends GraphState {
+
+        @Param({"false", "true"}) public boolean compactUsageStorage;
+
+        private OverrideScope scope;
+
+        @Setup(Level.Trial)
+        public void beforeTrial() {
+            scope = OptionValue.override(Graph.Options.CompactUsageStorage, compactUsageStorage);
+        }
+
+        @TearDown(Level.Trial)
+        public void afterTrial() {
+            scope.close();
+        }
+    }
+
+    public static int manyUsagesSnippet(int a, int b, int[] array) {
+        int result = 0;
+        for (int i = 0; i < array.length; i++) {
+            int x = array[i];
+            result += (x + a) * (x - b) ^ (x * a + b) | (x << a) - (x >> b) + (x & a) * (x | b);
+            result ^= (result + a) * (result - b) + (a * x) - (b * x) + (a ^ x) - (b ^ x) + (a | x) * (b & x);
+            if (x > a) {
+                result += (a + b) * x - (a - b) * x + (a * b) ^ x;
+            } else if (x < b) {
+                result -= (a + x) * (b + x) - (a - x) * (b - x);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 20)
+    public StructuredGraph copy(ManyUsages s, @SuppressWarnings("unused") GraalState g) {
+        return (StructuredGraph) s.graph.copy();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 20)
+    public void canonicalize(ManyUsages s, GraalState g) {
+        new CanonicalizerPhase().apply(s.graph, new PhaseContext(g.providers));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.microbenchmarks.graal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Memory bound loops compiled with the default order of nodes within blocks and with latency aware
+ * instruction scheduling.
+ */
+@State(Scope.Thread)
+public class InstructionSchedulingBenchmark extends GraalBenchmark {
+
+    private static final String SCHEDULING = "-Dgraal.OptInstructionScheduling=true";
+
+    @Param({"1024", "1048576"}) private int size;
+
+    private double[] a;
+    private double[] b;
+    private double[] c;
+    private int[] index;
+    private int[] values;
+
+    @Setup
+    public void setup() {
+        a = new double[size];
+        b = new double[size];
+        c = new double[size];
+        index = new int[size];
+        values = new int[size];
+        for (int i = 0; i < size; i++) {
+            b[i] = i * 0.5;
+            c[i] = size - i;
+            index[i] = (int) ((i * 2654435761L) % size);
+            values[i] = i * 31 + 7;
+        }
+    }
+
+    private static double triad(double[] a, double[] b, double[] c, double s) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            a[i] = b[i] + s * c[i];
+            sum += a[i] / c[i];
+        }
+        return sum;
+    }
+
+    private static int gather(int[] index, int[] values) {
+        int sum = 0;
+        for (int i = 0; i < index.length; i++) {
+            int v = values[index[i]];
+            sum += v / 7 + (v ^ i) * 3;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double triadDefault() {
+        return triad(a, b, c, 3.0);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = SCHEDULING)
+    public double triadScheduled() {
+        return triad(a, b, c, 3.0);
+    }
+
+    @Benchmark
+    public int gatherDefault() {
+        return gather(index, values);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = SCHEDULING)
+    public int gatherScheduled() {
+        return gather(index, values);
+    }
+}
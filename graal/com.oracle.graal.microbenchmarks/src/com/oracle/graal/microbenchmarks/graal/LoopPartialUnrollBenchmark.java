@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.microbenchmarks.graal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Numeric kernels dominated by loop back edge overhead, compiled with and without partial loop
+ * unrolling.
+ */
+@State(Scope.Thread)
+public class LoopPartialUnrollBenchmark extends GraalBenchmark {
+
+    private static final String PARTIAL_UNROLL = "-Dgraal.PartialUnroll=true";
+
+    @Param({"15", "1000"}) private int size;
+
+    private int[] data;
+
+    @Setup
+    public void setup() {
+        data = new int[size * 4];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i * 7919 ^ (i << 3);
+        }
+    }
+
+    private static int checksumKernel(int[] data, int count) {
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum = 31 * sum + data[i];
+        }
+        return sum;
+    }
+
+    private static int rowScanKernel(int[] data, int rows, int columns) {
+        int result = 0;
+        for (int row = 0; row < rows; row++) {
+            int base = row * columns;
+            int max = Integer.MIN_VALUE;
+            for (int i = 0; i < columns; i++) {
+                max = Math.max(max, data[base + i]);
+            }
+            result += max;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int checksum() {
+        return checksumKernel(data, data.length);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = PARTIAL_UNROLL)
+    public int checksumUnrolled() {
+        return checksumKernel(data, data.length);
+    }
+
+    @Benchmark
+    public int rowScan() {
+        return rowScanKernel(data, 4, size);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = PARTIAL_UNROLL)
+    public int rowScanUnrolled() {
+        return rowScanKernel(data, 4, size);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.microbenchmarks.graal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Element-wise array kernels compiled with and without loop vectorization.
+ */
+@State(Scope.Thread)
+public class LoopVectorizationBenchmark extends GraalBenchmark {
+
+    private static final String VECTORIZE = "-Dgraal.VectorizeLoops=true";
+
+    @Param({"15", "1000", "100000"}) private int size;
+
+    private int[] intsA;
+    private int[] intsB;
+    private double[] doublesA;
+    private double[] doublesB;
+
+    @Setup
+    public void setup() {
+        intsA = new int[size];
+        intsB = new int[size];
+        doublesA = new double[size];
+        doublesB = new double[size];
+        for (int i = 0; i < size; i++) {
+            intsA[i] = i * 7919 ^ (i << 3);
+            intsB[i] = i * 31;
+            doublesA[i] = i * 0.5;
+            doublesB[i] = 1.0 / (i + 1);
+        }
+    }
+
+    private static int[] addKernel(int[] a, int[] b) {
+        int[] result = a;
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] + b[i];
+        }
+        return result;
+    }
+
+    private static double[] mulKernel(double[] a, double[] b) {
+        double[] result = a;
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] * b[i];
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int[] addInts() {
+        return addKernel(intsA, intsB);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = VECTORIZE)
+    public int[] addIntsVectorized() {
+        return addKernel(intsA, intsB);
+    }
+
+    @Benchmark
+    public double[] mulDoubles() {
+        return mulKernel(doublesA, doublesB);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = VECTORIZE)
+    public double[] mulDoublesVectorized() {
+        return mulKernel(doublesA, doublesB);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.microbenchmarks.graal;
+
+import static com.oracle.graal.compiler.common.GraalOptions.OptEliminateGuards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.graal.microbenchmarks.graal.util.GraalState;
+import com.oracle.graal.microbenchmarks.graal.util.GraphState;
+import com.oracle.graal.microbenchmarks.graal.util.MethodSpec;
+import com.oracle.graal.options.OptionSnapshot;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.nodes.spi.LoweringTool;
+import com.oracle.graal.phases.common.CanonicalizerPhase;
+import com.oracle.graal.phases.common.LoweringPhase;
+import com.oracle.graal.phases.tiers.PhaseContext;
+
+/**
+ * Compares reading options through {@link OptionValue#getValue()} while an override scope is
+ * active (as is the case during most compilations) with reading them from an
+ * {@link OptionSnapshot}.
+ */
+public class OptionSnapshotBenchmark extends GraalBenchmark {
+
+    @State(Scope.Thread)
+    public static class OverriddenOptions {
+
+        private OverrideScope scope;
+        OptionSnapshot snapshot;
+
+        @Setup(Level.Trial)
+        public void beforeTrial() {
+            scope = OptionValue.override(OptEliminateGuards, false);
+            snapshot = OptionSnapshot.capture();
+        }
+
+        @TearDown(Level.Trial)
+        public void afterTrial() {
+            scope.close();
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 10)
+    public boolean getValue(@SuppressWarnings("unused") OverriddenOptions s) {
+        return OptEliminateGuards.getValue();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 10)
+    public boolean snapshotGet(OverriddenOptions s) {
+        return s.snapshot.get(OptEliminateGuards);
+    }
+
+    @MethodSpec(declaringClass = OptionSnapshotBenchmark.class, name = "snippet")
+    public static class LoweringState extends GraphState {
+
+        @Param({"false", "true"}) public boolean activateSnapshot;
+
+        private OverrideScope scope;
+        private OptionSnapshot.Activation activation;
+
+        @Setup(Level.Trial)
+        public void beforeTrial() {
+            scope = OptionValue.override(OptEliminateGuards, false);
+            if (activateSnapshot) {
+                activation = OptionSnapshot.capture().activate();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void afterTrial() {
+            if (activation != null) {
+                activation.close();
+            }
+            scope.close();
+        }
+    }
+
+    public static int snippet(int a, int b, int[] array, int[] other) {
+        int result = 0;
+        for (int i = 0; i < array.length; i++) {
+            int x = array[i];
+            if (x > a) {
+                result += other[x & 15] + array[(i + 1) & 7];
+                other[i & 15] = result;
+            } else if (x < b) {
+                result -= other[(x ^ b) & 15] | array[i >> 1];
+                array[i] = other[i & 7];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * High tier lowering reads {@code OptEliminateGuards} through the snapshot of its
+     * {@link PhaseContext} for every guard it creates.
+     */
+    @Benchmark
+    @Warmup(iterations = 20)
+    public void lower(LoweringState s, GraalState g) {
+        new LoweringPhase(new CanonicalizerPhase(), LoweringTool.StandardLoweringStage.HIGH_TIER).apply(s.graph, new PhaseContext(g.providers));
+    }
+}
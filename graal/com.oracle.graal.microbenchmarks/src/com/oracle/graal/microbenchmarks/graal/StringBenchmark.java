@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.microbenchmarks.graal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link String#indexOf(String)}, {@link String#compareTo(String)} and
+ * {@link String#regionMatches(int, String, int, int)} on long strings that only differ near the
+ * end. The {@code C2} variants run the same code with the HotSpot server compiler and its
+ * intrinsics, the {@code NoIntrinsics} variants without the string intrinsics.
+ */
+@State(Scope.Thread)
+public class StringBenchmark extends GraalBenchmark {
+
+    private static final String C2 = "-XX:-UseJVMCICompiler";
+    private static final String NO_INTRINSICS = "-XX:-UseSSE42Intrinsics";
+
+    @Param({"16", "256", "4096"}) private int length;
+
+    private String source;
+    private String target;
+    private String other;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + i % 23));
+        }
+        String prefix = sb.toString();
+        source = prefix + "needle";
+        target = "needle";
+        other = prefix + "needlf";
+    }
+
+    @Benchmark
+    public int indexOf() {
+        return source.indexOf(target);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = C2)
+    public int indexOfC2() {
+        return source.indexOf(target);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = NO_INTRINSICS)
+    public int indexOfNoIntrinsics() {
+        return source.indexOf(target);
+    }
+
+    @Benchmark
+    public int compareTo() {
+        return source.compareTo(other);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = C2)
+    public int compareToC2() {
+        return source.compareTo(other);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = NO_INTRINSICS)
+    public int compareToNoIntrinsics() {
+        return source.compareTo(other);
+    }
+
+    @Benchmark
+    public boolean regionMatches() {
+        return source.regionMatches(1, other, 1, length + 5);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = C2)
+    public boolean regionMatchesC2() {
+        return source.regionMatches(1, other, 1, length + 5);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = NO_INTRINSICS)
+    public boolean regionMatchesNoIntrinsics() {
+        return source.regionMatches(1, other, 1, length + 5);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.microbenchmarks.lir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import com.oracle.graal.code.CompilationResult;
+import com.oracle.graal.lir.gen.LIRGenerationResult;
+import com.oracle.graal.microbenchmarks.graal.GraalBenchmark;
+import com.oracle.graal.nodes.StructuredGraph;
+
+/**
+ * Measures the time spent in each tier of the compiler pipeline for a fixed corpus of methods
+ * representative of common library code (collections, streams and string processing). Run with
+ * {@code -prof gc} to also get the allocation per tier.
+ */
+public class CompilerTierBenchmark extends GraalBenchmark {
+
+    private static final String CORPUS = "com.oracle.graal.microbenchmarks.lir.CompilerTierBenchmark#";
+
+    private static final String STRING_EQUALS = "java.lang.String#equals";
+    private static final String HASHMAP_COMPUTE_IF_ABSENT = "java.util.HashMap#computeIfAbsent";
+    private static final String LIST_SUM = CORPUS + "listSum";
+    private static final String WORD_COUNT = CORPUS + "wordCount";
+    private static final String SORT_DISTINCT = CORPUS + "sortDistinct";
+    private static final String STREAM_FILTER_MAP_SUM = CORPUS + "streamFilterMapSum";
+    private static final String SPLIT_AND_PARSE = CORPUS + "splitAndParse";
+    private static final String CAMEL_CASE = CORPUS + "camelCase";
+
+    public static int listSum(ArrayList<Integer> list) {
+        int sum = 0;
+        for (Integer value : list) {
+            if (value != null) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    public static Map<String, Integer> wordCount(String[] words) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : words) {
+            counts.merge(word.toLowerCase(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public static List<String> sortDistinct(List<String> values) {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return new ArrayList<>(new LinkedHashSet<>(sorted));
+    }
+
+    public static int streamFilterMapSum(List<String> values) {
+        return values.stream().filter(s -> !s.isEmpty()).mapToInt(String::length).filter(n -> n % 2 == 0).sum();
+    }
+
+    public static long splitAndParse(String csv) {
+        long sum = 0;
+        for (String field : csv.split(",")) {
+            String trimmed = field.trim();
+            if (!trimmed.isEmpty()) {
+                sum += Long.parseLong(trimmed);
+            }
+        }
+        return sum;
+    }
+
+    public static String camelCase(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean upper = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '_' || c == '-' || Character.isWhitespace(c)) {
+                upper = sb.length() > 0;
+            } else if (upper) {
+                sb.append(Character.toUpperCase(c));
+                upper = false;
+            } else {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    public static class HighTierState extends GraalCompilerState.HighTier {
+        @MethodDescString @Param({STRING_EQUALS, HASHMAP_COMPUTE_IF_ABSENT, LIST_SUM, WORD_COUNT, SORT_DISTINCT, STREAM_FILTER_MAP_SUM, SPLIT_AND_PARSE, CAMEL_CASE}) public String method;
+    }
+
+    @Benchmark
+    public StructuredGraph highTier(HighTierState s) {
+        return s.compile();
+    }
+
+    public static class MidTierState extends GraalCompilerState.MidTier {
+        @MethodDescString @Param({STRING_EQUALS, HASHMAP_COMPUTE_IF_ABSENT, LIST_SUM, WORD_COUNT, SORT_DISTINCT, STREAM_FILTER_MAP_SUM, SPLIT_AND_PARSE, CAMEL_CASE}) public String method;
+    }
+
+    @Benchmark
+    public StructuredGraph midTier(MidTierState s) {
+        return s.compile();
+    }
+
+    public static class LowTierState extends GraalCompilerState.LowTier {
+        @MethodDescString @Param({STRING_EQUALS, HASHMAP_COMPUTE_IF_ABSENT, LIST_SUM, WORD_COUNT, SORT_DISTINCT, STREAM_FILTER_MAP_SUM, SPLIT_AND_PARSE, CAMEL_CASE}) public String method;
+    }
+
+    @Benchmark
+    public StructuredGraph lowTier(LowTierState s) {
+        return s.compile();
+    }
+
+    public static class LIRGenerationState extends GraalCompilerState.LIRGenerationStage {
+        @MethodDescString @Param({STRING_EQUALS, HASHMAP_COMPUTE_IF_ABSENT, LIST_SUM, WORD_COUNT, SORT_DISTINCT, STREAM_FILTER_MAP_SUM, SPLIT_AND_PARSE, CAMEL_CASE}) public String method;
+    }
+
+    @Benchmark
+    public LIRGenerationResult lirGeneration(LIRGenerationState s) {
+        return s.compile();
+    }
+
+    public static class PreAllocationState extends GraalCompilerState.PreAllocationStage {
+        @MethodDescString @Param({STRING_EQUALS, HASHMAP_COMPUTE_IF_ABSENT, LIST_SUM, WORD_COUNT, SORT_DISTINCT, STREAM_FILTER_MAP_SUM, SPLIT_AND_PARSE, CAMEL_CASE}) public String method;
+    }
+
+    @Benchmark
+    public LIRGenerationResult preAllocation(PreAllocationState s) {
+        return s.compile();
+    }
+
+    public static class AllocationState extends GraalCompilerState.AllocationStage {
+        @MethodDescString @Param({STRING_EQUALS, HASHMAP_COMPUTE_IF_ABSENT, LIST_SUM, WORD_COUNT, SORT_DISTINCT, STREAM_FILTER_MAP_SUM, SPLIT_AND_PARSE, CAMEL_CASE}) public String method;
+    }
+
+    @Benchmark
+    public LIRGenerationResult allocation(AllocationState s) {
+        return s.compile();
+    }
+
+    public static class PostAllocationState extends GraalCompilerState.PostAllocationStage {
+        @MethodDescString @Param({STRING_EQUALS, HASHMAP_COMPUTE_IF_ABSENT, LIST_SUM, WORD_COUNT, SORT_DISTINCT, STREAM_FILTER_MAP_SUM, SPLIT_AND_PARSE, CAMEL_CASE}) public String method;
+    }
+
+    @Benchmark
+    public LIRGenerationResult postAllocation(PostAllocationState s) {
+        return s.compile();
+    }
+
+    public static class EmitCodeState extends GraalCompilerState.EmitCode {
+        @MethodDescString @Param({STRING_EQUALS, HASHMAP_COMPUTE_IF_ABSENT, LIST_SUM, WORD_COUNT, SORT_DISTINCT, STREAM_FILTER_MAP_SUM, SPLIT_AND_PARSE, CAMEL_CASE}) public String method;
+    }
+
+    @Benchmark
+    public CompilationResult emitCode(EmitCodeState s) {
+        return s.compile();
+    }
+}
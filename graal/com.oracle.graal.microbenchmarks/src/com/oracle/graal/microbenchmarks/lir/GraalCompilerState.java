@@ -76,6 +76,8 @@ import com.oracle.graal.options.DerivedOptionValue;
 import com.oracle.graal.phases.OptimisticOptimizations;
 import com.oracle.graal.phases.PhaseSuite;
 import com.oracle.graal.phases.tiers.HighTierContext;
+import com.oracle.graal.phases.tiers.LowTierContext;
+import com.oracle.graal.phases.tiers.MidTierContext;
 import com.oracle.graal.phases.tiers.Suites;
 import com.oracle.graal.phases.tiers.TargetProvider;
 import com.oracle.graal.phases.util.Providers;
@@ -342,6 +344,32 @@ public abstract class GraalCompilerState {
         request.graph.freeze();
     }
 
+    /**
+     * Executes the {@linkplain Suites#getHighTier() high tier} on the already parsed graph.
+     */
+    protected final void highTier() {
+        assert request.graph.start().next() != null : "graph must be parsed";
+        request.suites.getHighTier().apply(request.graph, new HighTierContext(request.providers, request.graphBuilderSuite, request.optimisticOpts));
+        request.graph.maybeCompress();
+    }
+
+    /**
+     * Executes the {@linkplain Suites#getMidTier() mid tier}. Must be preceded by
+     * {@link #highTier()}.
+     */
+    protected final void midTier() {
+        request.suites.getMidTier().apply(request.graph, new MidTierContext(request.providers, request.backend, request.optimisticOpts, request.profilingInfo));
+        request.graph.maybeCompress();
+    }
+
+    /**
+     * Executes the {@linkplain Suites#getLowTier() low tier}. Must be preceded by
+     * {@link #midTier()}.
+     */
+    protected final void lowTier() {
+        request.suites.getLowTier().apply(request.graph, new LowTierContext(request.providers, request.backend));
+    }
+
     /**
      * Executes the low-level (BackEnd) part of the compiler.
      */
@@ -537,6 +565,85 @@ public abstract class GraalCompilerState {
         }
     }
 
+    public abstract static class HighTier extends GraalCompilerState {
+
+        @Setup(Level.Trial)
+        public void init() {
+            initializeMethod();
+        }
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            prepareRequest();
+        }
+
+        public StructuredGraph compile() {
+            highTier();
+            return super.graph;
+        }
+    }
+
+    public abstract static class MidTier extends GraalCompilerState {
+
+        @Setup(Level.Trial)
+        public void init() {
+            initializeMethod();
+        }
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            prepareRequest();
+            highTier();
+        }
+
+        public StructuredGraph compile() {
+            midTier();
+            return super.graph;
+        }
+    }
+
+    public abstract static class LowTier extends GraalCompilerState {
+
+        @Setup(Level.Trial)
+        public void init() {
+            initializeMethod();
+        }
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            prepareRequest();
+            highTier();
+            midTier();
+        }
+
+        public StructuredGraph compile() {
+            lowTier();
+            return super.graph;
+        }
+    }
+
+    public abstract static class LIRGenerationStage extends GraalCompilerState {
+        /**
+         * No need to rebuild the graph for every invocation since it is not altered by the backend.
+         */
+        @Setup(Level.Trial)
+        public void setupGraph() {
+            initializeMethod();
+            prepareRequest();
+            emitFrontEnd();
+        }
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            preLIRGeneration();
+        }
+
+        public LIRGenerationResult compile() {
+            lirGeneration();
+            return super.lirGenRes;
+        }
+    }
+
     public abstract static class PreAllocationStage extends GraalCompilerState {
         /**
          * No need to rebuild the graph for every invocation since it is not altered by the backend.
@@ -605,4 +712,28 @@ public abstract class GraalCompilerState {
             return super.lirGenRes;
         }
     }
+
+    public abstract static class EmitCode extends GraalCompilerState {
+
+        @Setup(Level.Trial)
+        public void init() {
+            initializeMethod();
+        }
+
+        /**
+         * Cannot do this {@link Level#Trial only once} since {@link #emitCode()} closes the
+         * {@link CompilationResult}.
+         */
+        @Setup(Level.Invocation)
+        public void setup() {
+            prepareRequest();
+            emitFrontEnd();
+            emitLIR();
+        }
+
+        public CompilationResult compile() {
+            emitCode();
+            return super.request.compilationResult;
+        }
+    }
 }
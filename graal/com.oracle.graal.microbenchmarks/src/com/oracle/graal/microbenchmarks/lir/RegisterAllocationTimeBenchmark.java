@@ -27,6 +27,7 @@ import java.util.HashMap;
 import org.openjdk.jmh.annotations.Benchmark;
 
 import com.oracle.graal.compiler.common.GraalOptions;
+import com.oracle.graal.lir.alloc.trace.TraceRegisterAllocationPhase;
 import com.oracle.graal.lir.gen.LIRGenerationResult;
 import com.oracle.graal.lir.phases.LIRSuites;
 import com.oracle.graal.microbenchmarks.graal.GraalBenchmark;
@@ -92,5 +93,32 @@ public class RegisterAllocationTimeBenchmark extends GraalBenchmark {
     public LIRGenerationResult tracera_HASHMAP_computeIfAbsent(TraceRA_HashMapComputeIfAbsent s) {
         return s.compile();
     }
+    public static class TraceRA_ParallelAllocation extends TraceRA_Allocation {
+        @SuppressWarnings("try")
+        @Override
+        public LIRGenerationResult compile() {
+            try (OverrideScope os = OptionValue.override(TraceRegisterAllocationPhase.Options.TraceRAParallel, true)) {
+                return super.compile();
+            }
+        }
+    }
+
+    @MethodSpec(declaringClass = String.class, name = "equals")
+    public static class TraceRA_ParallelStringEquals extends TraceRA_ParallelAllocation {
+    }
+
+    @MethodSpec(declaringClass = HashMap.class, name = "computeIfAbsent")
+    public static class TraceRA_ParallelHashMapComputeIfAbsent extends TraceRA_ParallelAllocation {
+    }
+
+    @Benchmark
+    public LIRGenerationResult tracera_parallel_STRING_equals(TraceRA_ParallelStringEquals s) {
+        return s.compile();
+    }
+
+    @Benchmark
+    public LIRGenerationResult tracera_parallel_HASHMAP_computeIfAbsent(TraceRA_ParallelHashMapComputeIfAbsent s) {
+        return s.compile();
+    }
     // Checkstyle: resume method name check
 }
@@ -46,6 +46,8 @@ public final class LoopBeginNode extends AbstractMergeNode implements IterableNo
     protected int nextEndIndex;
     protected int unswitches;
     protected int inversionCount;
+    protected int unrollFactor;
+    protected boolean postLoop;
 
     /** See {@link LoopEndNode#canSafepoint} for more information. */
     boolean canEndsSafepoint;
@@ -55,6 +57,7 @@ public final class LoopBeginNode extends AbstractMergeNode implements IterableNo
     public LoopBeginNode() {
         super(TYPE);
         loopFrequency = 1;
+        unrollFactor = 1;
         this.canEndsSafepoint = true;
     }
 
@@ -215,6 +218,30 @@ public final class LoopBeginNode extends AbstractMergeNode implements IterableNo
         inversionCount = count;
     }
 
+    /**
+     * Gets the number of original iterations executed by one iteration of this loop.
+     */
+    public int getUnrollFactor() {
+        return unrollFactor;
+    }
+
+    public void setUnrollFactor(int factor) {
+        assert factor >= 1;
+        unrollFactor = factor;
+    }
+
+    /**
+     * Determines if this loop is the post loop created by partial unrolling, i.e. the loop running
+     * the remaining iterations of an unrolled loop.
+     */
+    public boolean isPostLoop() {
+        return postLoop;
+    }
+
+    public void setPostLoop() {
+        postLoop = true;
+    }
+
     @Override
     public void simplify(SimplifierTool tool) {
         canonicalizePhis(tool);
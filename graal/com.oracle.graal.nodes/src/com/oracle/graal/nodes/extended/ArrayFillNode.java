@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.nodes.extended;
+
+import com.oracle.graal.compiler.common.LocationIdentity;
+import com.oracle.graal.compiler.common.type.StampFactory;
+import com.oracle.graal.graph.NodeClass;
+import com.oracle.graal.nodeinfo.NodeInfo;
+import com.oracle.graal.nodes.AbstractStateSplit;
+import com.oracle.graal.nodes.NamedLocationIdentity;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.memory.MemoryCheckpoint;
+import com.oracle.graal.nodes.spi.LIRLowerable;
+import com.oracle.graal.nodes.spi.NodeLIRBuilderTool;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Stores a value into all elements of a primitive array in the index range
+ * {@code [fromIndex, toIndex)}. The array must be non-null and the range must be within its
+ * bounds; an empty or inverted range stores nothing.
+ *
+ * @see com.oracle.graal.lir.gen.LIRGeneratorTool#emitArrayFill
+ */
+@NodeInfo
+public final class ArrayFillNode extends AbstractStateSplit implements LIRLowerable, MemoryCheckpoint.Single {
+
+    public static final NodeClass<ArrayFillNode> TYPE = NodeClass.create(ArrayFillNode.class);
+
+    /** {@link JavaKind} of the array elements. */
+    protected final JavaKind kind;
+
+    @Input ValueNode array;
+    @Input ValueNode fromIndex;
+    @Input ValueNode toIndex;
+    @Input ValueNode value;
+
+    public ArrayFillNode(JavaKind kind, ValueNode array, ValueNode fromIndex, ValueNode toIndex, ValueNode value) {
+        super(TYPE, StampFactory.forVoid());
+        assert kind.isPrimitive() && kind != JavaKind.Void : kind;
+        this.kind = kind;
+        this.array = array;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        this.value = value;
+    }
+
+    public JavaKind getElementKind() {
+        return kind;
+    }
+
+    public ValueNode array() {
+        return array;
+    }
+
+    public ValueNode fromIndex() {
+        return fromIndex;
+    }
+
+    public ValueNode toIndex() {
+        return toIndex;
+    }
+
+    public ValueNode value() {
+        return value;
+    }
+
+    @NodeIntrinsic
+    public static native void fill(@ConstantNodeParameter JavaKind kind, Object array, int fromIndex, int toIndex, boolean value);
+
+    @NodeIntrinsic
+    public static native void fill(@ConstantNodeParameter JavaKind kind, Object array, int fromIndex, int toIndex, int value);
+
+    @NodeIntrinsic
+    public static native void fill(@ConstantNodeParameter JavaKind kind, Object array, int fromIndex, int toIndex, long value);
+
+    @NodeIntrinsic
+    public static native void fill(@ConstantNodeParameter JavaKind kind, Object array, int fromIndex, int toIndex, float value);
+
+    @NodeIntrinsic
+    public static native void fill(@ConstantNodeParameter JavaKind kind, Object array, int fromIndex, int toIndex, double value);
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.getLIRGeneratorTool().emitArrayFill(kind, gen.operand(array), gen.operand(fromIndex), gen.operand(toIndex), gen.operand(value));
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(kind);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.nodes.extended;
+
+import com.oracle.graal.compiler.common.LocationIdentity;
+import com.oracle.graal.compiler.common.calc.VectorArithmetic;
+import com.oracle.graal.compiler.common.type.StampFactory;
+import com.oracle.graal.graph.NodeClass;
+import com.oracle.graal.nodeinfo.NodeInfo;
+import com.oracle.graal.nodes.AbstractStateSplit;
+import com.oracle.graal.nodes.NamedLocationIdentity;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.memory.MemoryCheckpoint;
+import com.oracle.graal.nodes.spi.LIRLowerable;
+import com.oracle.graal.nodes.spi.NodeLIRBuilderTool;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Computes {@code result[i] = x[i] op y[i]} with vector instructions for a prefix of the index
+ * range {@code [fromIndex, toIndex)} and produces the index of the first element that was not
+ * processed. The arrays must be non-null and the range must be within the bounds of all arrays.
+ *
+ * @see com.oracle.graal.lir.gen.LIRGeneratorTool#emitVectorizedArrayOp
+ */
+@NodeInfo
+public final class VectorizedArrayOpNode extends AbstractStateSplit implements LIRLowerable, MemoryCheckpoint.Single {
+
+    public static final NodeClass<VectorizedArrayOpNode> TYPE = NodeClass.create(VectorizedArrayOpNode.class);
+
+    protected final VectorArithmetic op;
+    protected final JavaKind kind;
+
+    @Input ValueNode result;
+    @Input ValueNode x;
+    @Input ValueNode y;
+    @Input ValueNode fromIndex;
+    @Input ValueNode toIndex;
+
+    public VectorizedArrayOpNode(VectorArithmetic op, JavaKind kind, ValueNode result, ValueNode x, ValueNode y, ValueNode fromIndex, ValueNode toIndex) {
+        super(TYPE, StampFactory.forKind(JavaKind.Int));
+        this.op = op;
+        this.kind = kind;
+        this.result = result;
+        this.x = x;
+        this.y = y;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+
+    public VectorArithmetic getOp() {
+        return op;
+    }
+
+    public JavaKind getElementKind() {
+        return kind;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        Value end = gen.getLIRGeneratorTool().emitVectorizedArrayOp(op, kind, gen.operand(result), gen.operand(x), gen.operand(y), gen.operand(fromIndex), gen.operand(toIndex));
+        gen.setResult(this, end);
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(kind);
+    }
+}
@@ -738,6 +738,35 @@ public class InvocationPlugins {
         return parent;
     }
 
+    /**
+     * Appends a description of the registered plugins, including those of the
+     * {@linkplain #getParent() parent}, to {@code sb}. Two sets of plugins with the same
+     * description apply plugins of the same classes to the same methods.
+     */
+    public void appendFingerprint(StringBuilder sb) {
+        if (parent != null) {
+            parent.appendFingerprint(sb);
+            sb.append('/');
+        }
+        flushDeferrables();
+        List<String> descriptions = new ArrayList<>();
+        for (Map.Entry<String, ClassPlugins> e : registrations.entrySet()) {
+            ClassPlugins classPlugins = e.getValue();
+            for (MethodKey methodKey : classPlugins.registrations) {
+                descriptions.add(e.getKey() + "." + methodKey + "=" + methodKey.value.getClass().getName());
+            }
+            if (classPlugins.registrations.isEmpty() && classPlugins.entries != null) {
+                for (Map.Entry<ResolvedJavaMethodKey, InvocationPlugin> entry : classPlugins.entries.entrySet()) {
+                    descriptions.add(entry.getKey().method.format("%H.%n(%P)") + "=" + entry.getValue().getClass().getName());
+                }
+            }
+        }
+        Collections.sort(descriptions);
+        for (String description : descriptions) {
+            sb.append(description).append(',');
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder buf = new StringBuilder();
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.options.test;
+
+import static com.oracle.graal.options.test.OptionSnapshotTest.Options.Mutable;
+import static com.oracle.graal.options.test.OptionSnapshotTest.Options.Stable;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.oracle.graal.options.OptionSnapshot;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.options.StableOptionValue;
+
+@SuppressWarnings("try")
+public class OptionSnapshotTest {
+
+    public static class Options {
+        public static final OptionValue<Boolean> Stable = new StableOptionValue<>(true);
+        public static final OptionValue<String> Mutable = new OptionValue<>("original");
+    }
+
+    static class LazyOption extends OptionValue<String> {
+        boolean initialized;
+
+        @Override
+        protected String defaultValue() {
+            initialized = true;
+            return "lazy";
+        }
+    }
+
+    @Test
+    public void testCaptureOverride() {
+        try (OverrideScope s = OptionValue.override(Mutable, "override")) {
+            OptionSnapshot snapshot = OptionSnapshot.capture();
+            assertEquals("override", snapshot.get(Mutable));
+            assertTrue(snapshot.get(Stable));
+        }
+    }
+
+    @Test
+    public void testLaterOverride() {
+        OptionSnapshot snapshot;
+        try (OverrideScope s = OptionValue.override(Mutable, "override")) {
+            snapshot = OptionSnapshot.capture();
+            try (OverrideScope s2 = OptionValue.override(Mutable, "nested")) {
+                assertEquals("override", snapshot.get(Mutable));
+                assertEquals("nested", Mutable.getValue());
+            }
+            assertEquals("override", snapshot.get(Mutable));
+        }
+        assertEquals("override", snapshot.get(Mutable));
+        assertEquals("original", OptionSnapshot.capture().get(Mutable));
+    }
+
+    @Test
+    public void testOtherThread() throws InterruptedException {
+        OptionSnapshot snapshot;
+        try (OverrideScope s = OptionValue.override(Mutable, "override")) {
+            snapshot = OptionSnapshot.capture();
+        }
+        String[] result = new String[1];
+        Thread thread = new Thread(() -> {
+            try (OptionSnapshot.Activation a = snapshot.activate()) {
+                result[0] = OptionSnapshot.current().get(Mutable);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals("override", result[0]);
+    }
+
+    @Test
+    public void testLazyCapture() {
+        LazyOption lazy = new LazyOption();
+        OptionSnapshot snapshot = OptionSnapshot.capture();
+        assertFalse(lazy.initialized);
+        assertEquals("lazy", snapshot.get(lazy));
+        assertTrue(lazy.initialized);
+    }
+
+    @Test
+    public void testLateOption() {
+        OptionSnapshot snapshot = OptionSnapshot.capture();
+        OptionValue<String> late = new OptionValue<>("late");
+        assertEquals("late", snapshot.get(late));
+        try (OverrideScope s = OptionValue.override(late, "lateOverride")) {
+            assertEquals("late", snapshot.get(late));
+            assertEquals("lateOverride", OptionSnapshot.capture().get(late));
+        }
+    }
+
+    @Test
+    public void testActivate() {
+        OptionSnapshot live = OptionSnapshot.current();
+        try (OverrideScope s = OptionValue.override(Mutable, "override")) {
+            assertEquals("override", live.get(Mutable));
+        }
+        OptionSnapshot outer = OptionSnapshot.capture();
+        try (OptionSnapshot.Activation a1 = outer.activate()) {
+            assertSame(outer, OptionSnapshot.current());
+            OptionSnapshot inner = OptionSnapshot.capture();
+            try (OptionSnapshot.Activation a2 = inner.activate()) {
+                assertSame(inner, OptionSnapshot.current());
+            }
+            assertSame(outer, OptionSnapshot.current());
+        }
+        assertSame(live, OptionSnapshot.current());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.options;
+
+import java.util.Arrays;
+
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+/**
+ * A snapshot of the values of all options, indexed by option so that repeated reads of a value are
+ * an array load instead of a lookup of the thread-local {@link OptionValue.OverrideScope}.
+ * <p>
+ * A snapshot is {@linkplain #capture() captured} at the start of a compilation and
+ * {@linkplain #activate() activated} for its duration, which makes it available to the phases of
+ * the compilation through {@link #current()}. The values are those seen by the capturing thread at
+ * capture time, i.e. {@linkplain OptionValue#override overrides} made after the snapshot was
+ * captured are not visible through it. To avoid computing values that are never read, the value of
+ * an option is recorded the first time it is read from the snapshot. Options created after the
+ * snapshot was captured are read through the override scope that was current at capture time.
+ */
+public final class OptionSnapshot {
+
+    private static final Object NOT_CAPTURED = new Object();
+
+    /**
+     * Snapshot used when no snapshot is active. It reads all values through
+     * {@link OptionValue#getValue()}.
+     */
+    private static final OptionSnapshot LIVE = new OptionSnapshot(null, new Object[0]);
+
+    private static final ThreadLocal<OptionSnapshot> activeSnapshot = new ThreadLocal<>();
+
+    /**
+     * The override scope that was current when this snapshot was captured.
+     */
+    private final OverrideScope scope;
+
+    /**
+     * The values recorded so far. Since the recorded value only depends on {@link #scope}, a
+     * snapshot shared by several threads may record a value more than once.
+     */
+    private final Object[] values;
+
+    private OptionSnapshot(OverrideScope scope, Object[] values) {
+        this.scope = scope;
+        this.values = values;
+    }
+
+    /**
+     * Captures the values of all options as seen by the current thread, including any active
+     * {@linkplain OptionValue#override overrides}.
+     */
+    public static OptionSnapshot capture() {
+        Object[] values = new Object[OptionValue.getSnapshotIndexCount()];
+        Arrays.fill(values, NOT_CAPTURED);
+        return new OptionSnapshot(OptionValue.getOverrideScope(), values);
+    }
+
+    /**
+     * Gets the snapshot {@linkplain #activate() activated} on the current thread or a snapshot
+     * that reads all values through {@link OptionValue#getValue()} if there is none. This should
+     * be called once per compilation unit of work (e.g. when creating a phase context), not for
+     * each option read.
+     */
+    public static OptionSnapshot current() {
+        OptionSnapshot snapshot = activeSnapshot.get();
+        return snapshot == null ? LIVE : snapshot;
+    }
+
+    /**
+     * Gets the value of {@code option} in this snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(OptionValue<T> option) {
+        int index = option.snapshotIndex;
+        if (index < values.length) {
+            Object value = values[index];
+            if (value != NOT_CAPTURED) {
+                return (T) value;
+            }
+        }
+        return record(option);
+    }
+
+    private <T> T record(OptionValue<T> option) {
+        if (this == LIVE) {
+            return option.getValue();
+        }
+        T value = option instanceof StableOptionValue ? option.getValue() : option.getValueIn(scope);
+        if (option.snapshotIndex < values.length) {
+            values[option.snapshotIndex] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Makes this snapshot the {@linkplain #current() current} snapshot of this thread until the
+     * returned object is closed. The snapshot can be activated on any thread since its values do
+     * not depend on the override scope of the activating thread.
+     */
+    public Activation activate() {
+        Activation activation = new Activation(activeSnapshot.get());
+        activeSnapshot.set(this);
+        return activation;
+    }
+
+    public static final class Activation implements AutoCloseable {
+        private final OptionSnapshot previous;
+
+        private Activation(OptionSnapshot previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            activeSnapshot.set(previous);
+        }
+    }
+}
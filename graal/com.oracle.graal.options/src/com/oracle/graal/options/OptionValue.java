@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An option value.
@@ -132,6 +133,21 @@ public class OptionValue<T> {
         return new MultipleOverridesScope(current, map);
     }
 
+    /**
+     * Gets the options overridden on the current thread together with their override values. The
+     * result can be passed to {@link #override(Map)} to establish the same overrides on another
+     * thread.
+     */
+    public static Map<OptionValue<?>, Object> getOverrides() {
+        OverrideScope current = getOverrideScope();
+        if (current == null) {
+            return Collections.emptyMap();
+        }
+        Map<OptionValue<?>, Object> overrides = new HashMap<>();
+        current.addToInherited(overrides);
+        return overrides;
+    }
+
     private static final ThreadLocal<OverrideScope> overrideScopeTL = new ThreadLocal<>();
 
     protected static OverrideScope getOverrideScope() {
@@ -163,6 +179,21 @@ public class OptionValue<T> {
 
     private static final boolean ProfileOptionValue = Boolean.getBoolean(PROFILE_OPTIONVALUE_PROPERTY_NAME);
 
+    private static final AtomicInteger snapshotIndexCounter = new AtomicInteger();
+
+    /**
+     * Index of this option in the values of an {@link OptionSnapshot}.
+     */
+    final int snapshotIndex = snapshotIndexCounter.getAndIncrement();
+
+    /**
+     * Gets the number of options created so far, which is one more than the largest
+     * {@link #snapshotIndex}.
+     */
+    static int getSnapshotIndexCount() {
+        return snapshotIndexCounter.get();
+    }
+
     private static void addToHistogram(OptionValue<?> option) {
         if (ProfileOptionValue) {
             synchronized (OptionValue.class) {
@@ -298,13 +329,18 @@ public class OptionValue<T> {
         if (ProfileOptionValue) {
             reads++;
         }
-        if (!(this instanceof StableOptionValue)) {
-            OverrideScope overrideScope = getOverrideScope();
-            if (overrideScope != null) {
-                T override = overrideScope.getOverride(this);
-                if (override != null) {
-                    return override;
-                }
+        return getValueIn(this instanceof StableOptionValue ? null : getOverrideScope());
+    }
+
+    /**
+     * Gets the value of this option as seen by a thread whose current override scope is
+     * {@code overrideScope}.
+     */
+    T getValueIn(OverrideScope overrideScope) {
+        if (overrideScope != null) {
+            T override = overrideScope.getOverride(this);
+            if (override != null) {
+                return override;
             }
         }
         if (value != DEFAULT) {
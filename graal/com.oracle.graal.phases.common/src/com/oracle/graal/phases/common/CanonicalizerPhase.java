@@ -22,6 +22,7 @@
  */
 package com.oracle.graal.phases.common;
 
+import com.oracle.graal.compiler.common.CompilationBudget;
 import com.oracle.graal.compiler.common.spi.ConstantFieldProvider;
 import com.oracle.graal.debug.Debug;
 import com.oracle.graal.debug.DebugCloseable;
@@ -207,6 +208,7 @@ public class CanonicalizerPhase extends BasePhase<PhaseContext> {
             };
             try (NodeEventScope nes = graph.trackNodeEvents(listener)) {
                 for (Node n : workList) {
+                    CompilationBudget.poll();
                     processNode(n);
                 }
             }
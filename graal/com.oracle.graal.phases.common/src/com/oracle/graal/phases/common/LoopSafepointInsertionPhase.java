@@ -30,7 +30,8 @@ import com.oracle.graal.nodes.StructuredGraph;
 import com.oracle.graal.phases.Phase;
 
 /**
- * Adds safepoints to loops.
+ * Adds safepoints to loops. Only loop ends which {@linkplain LoopEndNode#canSafepoint() can
+ * safepoint} get a safepoint, so a strip mined loop only polls on the back edge of its outer loop.
  */
 public class LoopSafepointInsertionPhase extends Phase {
 
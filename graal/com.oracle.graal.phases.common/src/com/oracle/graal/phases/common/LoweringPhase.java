@@ -169,7 +169,7 @@ public class LoweringPhase extends BasePhase<PhaseContext> {
 
         @Override
         public GuardingNode createGuard(FixedNode before, LogicNode condition, DeoptimizationReason deoptReason, DeoptimizationAction action, JavaConstant speculation, boolean negated) {
-            if (OptEliminateGuards.getValue()) {
+            if (context.getOptions().get(OptEliminateGuards)) {
                 for (Node usage : condition.usages()) {
                     if (!activeGuards.isNew(usage) && activeGuards.isMarked(usage) && ((GuardNode) usage).isNegated() == negated) {
                         return (GuardNode) usage;
@@ -187,7 +187,7 @@ public class LoweringPhase extends BasePhase<PhaseContext> {
                 return result;
             } else {
                 GuardNode newGuard = graph.unique(new GuardNode(condition, guardAnchor, deoptReason, action, negated, speculation));
-                if (OptEliminateGuards.getValue()) {
+                if (context.getOptions().get(OptEliminateGuards)) {
                     activeGuards.markAndGrow(newGuard);
                 }
                 return newGuard;
@@ -355,7 +355,7 @@ public class LoweringPhase extends BasePhase<PhaseContext> {
 
             @Override
             public void postprocess() {
-                if (anchor != null && OptEliminateGuards.getValue()) {
+                if (anchor != null && context.getOptions().get(OptEliminateGuards)) {
                     for (GuardNode guard : anchor.asNode().usages().filter(GuardNode.class)) {
                         if (activeGuards.isMarkedAndGrow(guard)) {
                             activeGuards.clear(guard);
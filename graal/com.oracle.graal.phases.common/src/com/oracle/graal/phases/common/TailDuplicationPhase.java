@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.phases.common;
+
+import static com.oracle.graal.compiler.common.GraalOptions.TailDuplicationMaxGrowth;
+import static com.oracle.graal.compiler.common.GraalOptions.TailDuplicationMaxSize;
+import static com.oracle.graal.compiler.common.GraalOptions.TailDuplicationProbability;
+import static com.oracle.graal.compiler.common.GraalOptions.TailDuplicationTrivialSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.graal.compiler.common.spi.ConstantFieldProvider;
+import com.oracle.graal.compiler.common.type.TypeReference;
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.graph.Graph.Mark;
+import com.oracle.graal.graph.Node;
+import com.oracle.graal.graph.NodeBitMap;
+import com.oracle.graal.graph.spi.Canonicalizable;
+import com.oracle.graal.graph.spi.CanonicalizerTool;
+import com.oracle.graal.nodes.AbstractBeginNode;
+import com.oracle.graal.nodes.AbstractEndNode;
+import com.oracle.graal.nodes.AbstractMergeNode;
+import com.oracle.graal.nodes.BeginNode;
+import com.oracle.graal.nodes.CallTargetNode;
+import com.oracle.graal.nodes.ConstantNode;
+import com.oracle.graal.nodes.ControlSinkNode;
+import com.oracle.graal.nodes.EndNode;
+import com.oracle.graal.nodes.FixedNode;
+import com.oracle.graal.nodes.FixedWithNextNode;
+import com.oracle.graal.nodes.FrameState;
+import com.oracle.graal.nodes.Invoke;
+import com.oracle.graal.nodes.LogicConstantNode;
+import com.oracle.graal.nodes.LoopBeginNode;
+import com.oracle.graal.nodes.MergeNode;
+import com.oracle.graal.nodes.PhiNode;
+import com.oracle.graal.nodes.ProxyNode;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.VirtualState;
+import com.oracle.graal.nodes.java.AccessMonitorNode;
+import com.oracle.graal.nodes.java.MethodCallTargetNode;
+import com.oracle.graal.nodes.type.StampTool;
+import com.oracle.graal.phases.BasePhase;
+import com.oracle.graal.phases.graph.FixedNodeProbabilityCache;
+import com.oracle.graal.phases.tiers.PhaseContext;
+
+import jdk.vm.ci.meta.Assumptions;
+import jdk.vm.ci.meta.ConstantReflectionProvider;
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Duplicates the code following a {@link MergeNode} into those predecessors of the merge for which
+ * the duplicate can be simplified, e.g., because a {@link PhiNode} of the merge is a constant on
+ * that path or has a more precise type that allows devirtualizing a call.
+ *
+ * The benefit of duplicating the tail of a merge into a predecessor is determined by a simulation:
+ * the nodes of the tail are canonicalized with the {@link Canonicalizable.Unary} and
+ * {@link Canonicalizable.Binary} entry points, which do not modify the graph, using the phi inputs
+ * of the predecessor in place of the phis. Only tails consisting of straight-line code that ends in
+ * another merge or in a {@link ControlSinkNode} are considered.
+ */
+public class TailDuplicationPhase extends BasePhase<PhaseContext> {
+
+    private static final DebugCounter DUPLICATED_TAILS = Debug.counter("TailDuplication[DuplicatedTails]");
+    private static final DebugCounter DUPLICATED_NODES = Debug.counter("TailDuplication[DuplicatedNodes]");
+
+    /**
+     * Benefit of a call that can be devirtualized in a duplicate relative to a node that folds.
+     */
+    private static final int DEVIRTUALIZATION_BENEFIT = 10;
+
+    private final CanonicalizerPhase canonicalizer;
+
+    public TailDuplicationPhase(CanonicalizerPhase canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, PhaseContext context) {
+        SimulationTool tool = new SimulationTool(context, graph.getAssumptions());
+        FixedNodeProbabilityCache probabilities = new FixedNodeProbabilityCache();
+        int budget = (int) (graph.getNodeCount() * TailDuplicationMaxGrowth.getValue());
+        Mark mark = graph.getMark();
+        for (MergeNode merge : graph.getNodes(MergeNode.TYPE).snapshot()) {
+            if (budget <= 0) {
+                break;
+            }
+            if (merge.isAlive() && merge.forwardEndCount() > 1) {
+                budget -= duplicateTail(graph, merge, tool, probabilities, budget);
+            }
+        }
+        if (!graph.getNewNodes(mark).isEmpty()) {
+            canonicalizer.applyIncremental(graph, context, mark);
+        }
+    }
+
+    /**
+     * Describes the nodes that are duplicated when duplicating the tail of a merge.
+     */
+    private static final class Tail {
+        final AbstractMergeNode merge;
+        /**
+         * The fixed nodes of the tail in control flow order.
+         */
+        final List<FixedWithNextNode> fixed = new ArrayList<>();
+        /**
+         * The last node of the tail: either a forward end of another merge or a control sink.
+         */
+        FixedNode terminal;
+        /**
+         * All duplicated nodes, ordered such that inputs precede their usages.
+         */
+        final List<Node> nodes = new ArrayList<>();
+
+        Tail(AbstractMergeNode merge) {
+            this.merge = merge;
+        }
+
+        boolean endsInMerge() {
+            return terminal instanceof EndNode;
+        }
+
+        int fixedSize() {
+            return fixed.size() + (endsInMerge() ? 0 : 1);
+        }
+    }
+
+    /**
+     * Duplicates the tail of {@code merge} into all predecessors for which this is beneficial.
+     *
+     * @return the number of nodes added to the graph
+     */
+    private static int duplicateTail(StructuredGraph graph, MergeNode merge, SimulationTool tool, FixedNodeProbabilityCache probabilities, int budget) {
+        Tail tail = computeTail(graph, merge);
+        if (tail == null || tail.nodes.size() > TailDuplicationMaxSize.getValue()) {
+            return 0;
+        }
+        boolean trivial = tail.fixedSize() <= TailDuplicationTrivialSize.getValue() && !tail.endsInMerge();
+        if (!trivial && probabilities.applyAsDouble(merge) < TailDuplicationProbability.getValue()) {
+            return 0;
+        }
+
+        List<EndNode> ends = new ArrayList<>();
+        for (EndNode end : merge.forwardEnds()) {
+            if (trivial || simulate(tail, end, tool) > 0) {
+                ends.add(end);
+            }
+        }
+        if (ends.size() == merge.forwardEndCount()) {
+            // keep the original tail for one of the predecessors
+            ends.remove(ends.size() - 1);
+        }
+        int added = 0;
+        for (EndNode end : ends) {
+            if (added + tail.nodes.size() > budget) {
+                break;
+            }
+            duplicate(graph, tail, end);
+            added += tail.nodes.size();
+            DUPLICATED_TAILS.increment();
+        }
+        DUPLICATED_NODES.add(added);
+        if (merge.forwardEndCount() == 1) {
+            graph.reduceTrivialMerge(merge);
+        }
+        return added;
+    }
+
+    /**
+     * Collects the nodes that have to be duplicated with the tail of {@code merge}.
+     *
+     * @return the tail or {@code null} if the tail cannot be duplicated
+     */
+    private static Tail computeTail(StructuredGraph graph, AbstractMergeNode merge) {
+        Tail tail = new Tail(merge);
+        FixedNode current = merge.next();
+        while (current instanceof FixedWithNextNode && !(current instanceof AbstractBeginNode) && !(current instanceof AccessMonitorNode)) {
+            tail.fixed.add((FixedWithNextNode) current);
+            current = ((FixedWithNextNode) current).next();
+        }
+        if (current instanceof EndNode) {
+            AbstractMergeNode next = ((EndNode) current).merge();
+            if (next instanceof LoopBeginNode || next == merge) {
+                return null;
+            }
+        } else if (!(current instanceof ControlSinkNode)) {
+            return null;
+        }
+        tail.terminal = current;
+
+        int maxSize = TailDuplicationMaxSize.getValue();
+        NodeBitMap members = graph.createNodeBitMap();
+        List<Node> worklist = new ArrayList<>();
+        for (FixedNode node : tail.fixed) {
+            members.mark(node);
+            worklist.add(node);
+            addOwnedInputs(node, members, worklist);
+        }
+        if (!tail.endsInMerge()) {
+            members.mark(current);
+            worklist.add(current);
+            addOwnedInputs(current, members, worklist);
+        }
+        worklist.add(merge);
+        for (PhiNode phi : merge.phis()) {
+            worklist.add(phi);
+        }
+        // collect the floating nodes depending on the phis or on the tail
+        for (int i = 0; i < worklist.size(); i++) {
+            if (worklist.size() > maxSize + merge.phis().count() + 1) {
+                return null;
+            }
+            for (Node usage : worklist.get(i).usages()) {
+                if (usage instanceof FixedNode || usage instanceof PhiNode || usage == merge.stateAfter() || members.isMarked(usage)) {
+                    continue;
+                }
+                if (usage instanceof ProxyNode) {
+                    return null;
+                }
+                members.mark(usage);
+                worklist.add(usage);
+            }
+        }
+        // all usages of duplicated nodes must be duplicated as well or be phis at the end of the tail
+        for (Node node : members) {
+            for (Node usage : node.usages()) {
+                if (!members.isMarked(usage) && !(tail.endsInMerge() && usage instanceof PhiNode && ((PhiNode) usage).merge() == ((EndNode) current).merge())) {
+                    return null;
+                }
+            }
+        }
+
+        NodeBitMap visited = graph.createNodeBitMap();
+        for (Node node : members) {
+            schedule(node, members, visited, tail.nodes);
+        }
+        return tail;
+    }
+
+    /**
+     * Adds the frame states and call targets of {@code node}, which must not be shared between the
+     * original tail and its duplicates.
+     */
+    private static void addOwnedInputs(Node node, NodeBitMap members, List<Node> worklist) {
+        for (Node input : node.inputs()) {
+            if ((input instanceof VirtualState || input instanceof CallTargetNode) && !members.isMarked(input)) {
+                members.mark(input);
+                worklist.add(input);
+                if (input instanceof FrameState) {
+                    for (VirtualState mapping : ((FrameState) input).virtualObjectMappings()) {
+                        if (!members.isMarked(mapping)) {
+                            members.mark(mapping);
+                            worklist.add(mapping);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void schedule(Node node, NodeBitMap members, NodeBitMap visited, List<Node> order) {
+        if (visited.isMarked(node)) {
+            return;
+        }
+        visited.mark(node);
+        for (Node input : node.inputs()) {
+            if (members.isMarked(input)) {
+                schedule(input, members, visited, order);
+            }
+        }
+        order.add(node);
+    }
+
+    /**
+     * Estimates the benefit of duplicating {@code tail} into the predecessor ending with
+     * {@code end} by canonicalizing the tail nodes with the phi inputs for {@code end}.
+     *
+     * @return the number of nodes that fold plus a bonus for calls that can be devirtualized
+     */
+    @SuppressWarnings("unchecked")
+    private static int simulate(Tail tail, EndNode end, CanonicalizerTool tool) {
+        Map<Node, Node> synonyms = Node.newIdentityMap();
+        for (PhiNode phi : tail.merge.phis()) {
+            synonyms.put(phi, phi.valueAt(end));
+        }
+        int benefit = 0;
+        for (Node node : tail.nodes) {
+            Node result = node;
+            if (node instanceof Canonicalizable.Binary<?>) {
+                Canonicalizable.Binary<Node> binary = (Canonicalizable.Binary<Node>) node;
+                Node x = synonyms.getOrDefault(binary.getX(), binary.getX());
+                Node y = synonyms.getOrDefault(binary.getY(), binary.getY());
+                if (x != binary.getX() || y != binary.getY()) {
+                    result = binary.canonical(tool, x, y);
+                }
+            } else if (node instanceof Canonicalizable.Unary<?>) {
+                Canonicalizable.Unary<Node> unary = (Canonicalizable.Unary<Node>) node;
+                Node value = synonyms.getOrDefault(unary.getValue(), unary.getValue());
+                if (value != unary.getValue()) {
+                    result = unary.canonical(tool, value);
+                }
+            } else if (node instanceof Invoke && ((Invoke) node).callTarget() instanceof MethodCallTargetNode) {
+                Invoke invoke = (Invoke) node;
+                MethodCallTargetNode callTarget = (MethodCallTargetNode) invoke.callTarget();
+                if (callTarget.invokeKind().isIndirect()) {
+                    Node receiver = synonyms.get(callTarget.receiver());
+                    if (receiver instanceof ValueNode && canDevirtualize((ValueNode) receiver, callTarget, invoke)) {
+                        benefit += DEVIRTUALIZATION_BENEFIT;
+                    }
+                }
+            }
+            if (result != node) {
+                if (result == null || result.graph() != null || result instanceof ConstantNode || result instanceof LogicConstantNode) {
+                    benefit++;
+                }
+                if (result != null) {
+                    synonyms.put(node, result);
+                }
+            }
+        }
+        return benefit;
+    }
+
+    private static boolean canDevirtualize(ValueNode receiver, MethodCallTargetNode callTarget, Invoke invoke) {
+        TypeReference type = StampTool.typeReferenceOrNull(receiver);
+        if (type == null) {
+            return false;
+        }
+        ResolvedJavaMethod resolvedMethod = type.getType().resolveConcreteMethod(callTarget.targetMethod(), invoke.getContextType());
+        return resolvedMethod != null && (resolvedMethod.canBeStaticallyBound() || type.isExact() || type.getType().isArray());
+    }
+
+    /**
+     * Replaces {@code end} with a copy of {@code tail} in which the phis of the merge are replaced
+     * by their inputs for {@code end}.
+     */
+    private static void duplicate(StructuredGraph graph, Tail tail, EndNode end) {
+        AbstractMergeNode merge = tail.merge;
+        Map<Node, Node> replacements = Node.newIdentityMap();
+        for (PhiNode phi : merge.phis()) {
+            replacements.put(phi, phi.valueAt(end));
+        }
+        BeginNode begin = graph.add(new BeginNode());
+        replacements.put(merge, begin);
+        Map<Node, Node> duplicates = graph.addDuplicates(tail.nodes, graph, tail.nodes.size(), replacements);
+
+        FixedWithNextNode last = begin;
+        for (FixedWithNextNode node : tail.fixed) {
+            FixedWithNextNode copy = (FixedWithNextNode) duplicates.get(node);
+            last.setNext(copy);
+            last = copy;
+        }
+        if (tail.endsInMerge()) {
+            AbstractEndNode terminal = (AbstractEndNode) tail.terminal;
+            AbstractMergeNode next = terminal.merge();
+            EndNode newEnd = graph.add(new EndNode());
+            last.setNext(newEnd);
+            next.addForwardEnd(newEnd);
+            for (PhiNode phi : next.phis()) {
+                ValueNode value = phi.valueAt(terminal);
+                Node replacement = duplicates.get(value);
+                if (replacement == null) {
+                    replacement = replacements.getOrDefault(value, value);
+                }
+                phi.addInput((ValueNode) replacement);
+            }
+        } else {
+            last.setNext((FixedNode) duplicates.get(tail.terminal));
+        }
+
+        merge.removeEnd(end);
+        end.replaceAtPredecessor(begin);
+        end.safeDelete();
+    }
+
+    /**
+     * A {@link CanonicalizerTool} for simulating canonicalization of nodes that are not part of the
+     * graph.
+     */
+    private static final class SimulationTool implements CanonicalizerTool {
+
+        private final PhaseContext context;
+        private final Assumptions assumptions;
+
+        SimulationTool(PhaseContext context, Assumptions assumptions) {
+            this.context = context;
+            this.assumptions = assumptions;
+        }
+
+        @Override
+        public Assumptions getAssumptions() {
+            return assumptions;
+        }
+
+        @Override
+        public MetaAccessProvider getMetaAccess() {
+            return context.getMetaAccess();
+        }
+
+        @Override
+        public ConstantReflectionProvider getConstantReflection() {
+            return context.getConstantReflection();
+        }
+
+        @Override
+        public ConstantFieldProvider getConstantFieldProvider() {
+            return context.getConstantFieldProvider();
+        }
+
+        @Override
+        public boolean canonicalizeReads() {
+            return true;
+        }
+
+        @Override
+        public boolean allUsagesAvailable() {
+            return false;
+        }
+    }
+}
@@ -137,7 +137,7 @@ public class InliningData {
     private String checkTargetConditionsHelper(ResolvedJavaMethod method, int invokeBci) {
         if (method == null) {
             return "the method is not resolved";
-        } else if (method.isNative() && (!Intrinsify.getValue() || !InliningUtil.canIntrinsify(context.getReplacements(), method, invokeBci))) {
+        } else if (method.isNative() && (!context.getOptions().get(Intrinsify) || !InliningUtil.canIntrinsify(context.getReplacements(), method, invokeBci))) {
             return "it is a non-intrinsic native method";
         } else if (method.isAbstract()) {
             return "it is an abstract method";
@@ -145,7 +145,7 @@ public class InliningData {
             return "the method's class is not initialized";
         } else if (!method.canBeInlined()) {
             return "it is marked non-inlinable";
-        } else if (countRecursiveInlining(method) > MaximumRecursiveInlining.getValue()) {
+        } else if (countRecursiveInlining(method) > context.getOptions().get(MaximumRecursiveInlining)) {
             return "it exceeds the maximum recursive inlining depth";
         } else if (new OptimisticOptimizations(rootGraph.getProfilingInfo(method)).lessOptimisticThan(context.getOptimisticOptimizations())) {
             return "the callee uses less optimistic optimizations than caller";
@@ -306,7 +306,7 @@ public class InliningData {
                 ArrayList<ResolvedJavaMethod> newConcreteMethods = new ArrayList<>();
                 ArrayList<Double> newConcreteMethodsProbabilities = new ArrayList<>();
                 for (int i = 0; i < concreteMethods.size(); ++i) {
-                    if (concreteMethodsProbabilities.get(i) >= MegamorphicInliningMinMethodProbability.getValue()) {
+                    if (concreteMethodsProbabilities.get(i) >= context.getOptions().get(MegamorphicInliningMinMethodProbability)) {
                         newConcreteMethods.add(concreteMethods.get(i));
                         newConcreteMethodsProbabilities.add(concreteMethodsProbabilities.get(i));
                     }
@@ -388,7 +388,7 @@ public class InliningData {
                 counterInliningRuns.increment();
                 Debug.dump(Debug.INFO_LOG_LEVEL, callerGraph, "after %s", calleeInfo);
 
-                if (OptCanonicalizer.getValue()) {
+                if (context.getOptions().get(OptCanonicalizer)) {
                     Graph.Mark markBeforeCanonicalization = callerGraph.getMark();
 
                     canonicalizer.applyIncremental(callerGraph, context, canonicalizedNodes);
@@ -44,7 +44,8 @@ public final class OptimisticOptimizations {
         UseTypeCheckHints,
         UseExceptionProbabilityForOperations,
         UseExceptionProbability,
-        UseLoopLimitChecks
+        UseLoopLimitChecks,
+        UseLoopPredication
     }
 
     private final Set<Optimization> enabledOpts;
@@ -58,6 +59,12 @@ public final class OptimisticOptimizations {
         addOptimization(info, DeoptimizationReason.OptimizedTypeCheckViolated, Optimization.UseTypeCheckHints);
         addOptimization(info, DeoptimizationReason.NotCompiledExceptionHandler, Optimization.UseExceptionProbability);
         addOptimization(info, DeoptimizationReason.LoopLimitCheck, Optimization.UseLoopLimitChecks);
+        // loop predicates keep the reason of the null and bounds checks they replace
+        if (checkDeoptimizations(info, DeoptimizationReason.NullCheckException) && checkDeoptimizations(info, DeoptimizationReason.BoundsCheckException)) {
+            enabledOpts.add(Optimization.UseLoopPredication);
+        } else {
+            disabledOptimisticOptsCounter.increment();
+        }
     }
 
     private void addOptimization(ProfilingInfo info, DeoptimizationReason deoptReason, Optimization optimization) {
@@ -124,6 +131,10 @@ public final class OptimisticOptimizations {
         return GraalOptions.UseLoopLimitChecks.getValue() && enabledOpts.contains(Optimization.UseLoopLimitChecks);
     }
 
+    public boolean useLoopPredication() {
+        return GraalOptions.LoopPredication.getValue() && enabledOpts.contains(Optimization.UseLoopPredication);
+    }
+
     public boolean lessOptimisticThan(OptimisticOptimizations other) {
         for (Optimization opt : Optimization.values()) {
             if (!enabledOpts.contains(opt) && other.enabledOpts.contains(opt)) {
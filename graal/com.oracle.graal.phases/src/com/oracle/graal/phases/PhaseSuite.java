@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 
+import com.oracle.graal.compiler.common.CompilationBudget;
 import com.oracle.graal.nodes.StructuredGraph;
 
 /**
@@ -146,6 +147,7 @@ public class PhaseSuite<C> extends BasePhase<C> {
     @Override
     protected void run(StructuredGraph graph, C context) {
         for (BasePhase<? super C> phase : phases) {
+            CompilationBudget.check();
             phase.apply(graph, context);
         }
     }
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.phases.schedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.graal.compiler.common.LocationIdentity;
+import com.oracle.graal.compiler.common.cfg.BlockMap;
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.debug.GraalError;
+import com.oracle.graal.graph.Node;
+import com.oracle.graal.graph.NodeMap;
+import com.oracle.graal.nodes.ConstantNode;
+import com.oracle.graal.nodes.FixedNode;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.StructuredGraph.ScheduleResult;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.cfg.Block;
+import com.oracle.graal.nodes.memory.FloatingReadNode;
+import com.oracle.graal.nodes.memory.MemoryCheckpoint;
+import com.oracle.graal.nodes.memory.address.AddressNode;
+import com.oracle.graal.phases.Phase;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Reorders the nodes within each block of the {@linkplain StructuredGraph#getLastSchedule() final
+ * schedule} by list scheduling, so that long latency operations such as loads and divides are
+ * started as early as their inputs allow and independent work is placed in their shadow.
+ *
+ * The order of the {@link FixedNode}s of a block is preserved and the first and last fixed node of
+ * a block stay in place; only the floating nodes between them are moved. A {@link FloatingReadNode}
+ * is never moved across a {@link MemoryCheckpoint} that kills its location. Among the nodes whose
+ * dependences are satisfied, the scheduler prefers nodes whose inputs are available in the current
+ * cycle and then nodes with the longest latency weighted path to the end of the block. Once the
+ * number of live values reaches the {@linkplain InstructionLatencyModel#registerPressureLimit()
+ * limit} of the model, nodes that end live ranges are preferred instead.
+ */
+public class BlockInstructionSchedulingPhase extends Phase {
+
+    private static final DebugCounter ScheduledBlocks = Debug.counter("InstructionScheduling[blocks]");
+    private static final DebugCounter ReorderedBlocks = Debug.counter("InstructionScheduling[reordered]");
+
+    /**
+     * Blocks with more floating nodes than this are left in their original order.
+     */
+    private static final int MAX_REGION_SIZE = 2000;
+
+    private final InstructionLatencyModel model;
+
+    public BlockInstructionSchedulingPhase(InstructionLatencyModel model) {
+        this.model = model;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph) {
+        ScheduleResult schedule = graph.getLastSchedule();
+        GraalError.guarantee(schedule != null, "instruction scheduling requires a schedule");
+        BlockMap<List<Node>> blockToNodes = schedule.getBlockToNodesMap();
+        NodeMap<Integer> indices = graph.createNodeMap();
+        for (Block block : schedule.getCFG().getBlocks()) {
+            List<Node> nodes = blockToNodes.get(block);
+            List<Node> scheduled = scheduleBlock(nodes, indices);
+            if (scheduled != null) {
+                blockToNodes.put(block, scheduled);
+            }
+        }
+        assert MemoryScheduleVerification.check(schedule.getCFG().getStartBlock(), blockToNodes);
+    }
+
+    /**
+     * Schedules the nodes between the first and the last fixed node of a block.
+     *
+     * @return the new order of the nodes of the block or null if the order did not change
+     */
+    private List<Node> scheduleBlock(List<Node> nodes, NodeMap<Integer> indices) {
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) instanceof FixedNode) {
+                if (first == -1) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        int size = last - first - 1;
+        if (first == -1 || size < 2 || size > MAX_REGION_SIZE) {
+            return null;
+        }
+        ScheduledBlocks.increment();
+        Node[] region = nodes.subList(first + 1, last).toArray(new Node[size]);
+        for (int i = 0; i < size; i++) {
+            indices.set(region[i], i);
+        }
+        try {
+            int[] order = new Region(region, indices, model).schedule();
+            if (order == null) {
+                return null;
+            }
+            ArrayList<Node> result = new ArrayList<>(nodes.size());
+            result.addAll(nodes.subList(0, first + 1));
+            for (int i : order) {
+                result.add(region[i]);
+            }
+            result.addAll(nodes.subList(last, nodes.size()));
+            ReorderedBlocks.increment();
+            return result;
+        } finally {
+            for (Node n : region) {
+                indices.set(n, null);
+            }
+        }
+    }
+
+    /**
+     * The dependence graph of the nodes between the first and the last fixed node of a block.
+     * Nodes are identified by their index in the original order, which is a topological order of
+     * the dependence graph.
+     */
+    private static final class Region {
+
+        private final Node[] nodes;
+        private final NodeMap<Integer> indices;
+        private final InstructionLatencyModel model;
+
+        private final int[] latency;
+        private final int[] predecessorCount;
+
+        /**
+         * Number of data usages within the region that are not scheduled yet.
+         */
+        private final int[] remainingUsages;
+        private final boolean[] usedOutside;
+
+        private int edgeCount;
+        private int[] edgeFrom = new int[16];
+        private int[] edgeTo = new int[16];
+        private boolean[] edgeIsData = new boolean[16];
+
+        private int[] successorStart;
+        private int[] successors;
+        private boolean[] successorIsData;
+
+        Region(Node[] nodes, NodeMap<Integer> indices, InstructionLatencyModel model) {
+            this.nodes = nodes;
+            this.indices = indices;
+            this.model = model;
+            this.latency = new int[nodes.length];
+            this.predecessorCount = new int[nodes.length];
+            this.remainingUsages = new int[nodes.length];
+            this.usedOutside = new boolean[nodes.length];
+        }
+
+        /**
+         * @return the new order as indices into the original order or null if the order did not
+         *         change or the block could not be scheduled
+         */
+        int[] schedule() {
+            if (!buildDependences()) {
+                return null;
+            }
+            int[] height = computeHeights();
+            int[] readyCycle = new int[nodes.length];
+            int[] order = new int[nodes.length];
+            ArrayList<Integer> ready = new ArrayList<>();
+            for (int i = 0; i < nodes.length; i++) {
+                if (predecessorCount[i] == 0) {
+                    ready.add(i);
+                }
+            }
+            int cycle = 0;
+            int live = 0;
+            boolean changed = false;
+            for (int n = 0; n < nodes.length; n++) {
+                boolean highPressure = live >= model.registerPressureLimit();
+                int bestPosition = 0;
+                for (int j = 1; j < ready.size(); j++) {
+                    if (isBetter(ready.get(j), ready.get(bestPosition), cycle, highPressure, height, readyCycle)) {
+                        bestPosition = j;
+                    }
+                }
+                int node = ready.remove(bestPosition);
+                order[n] = node;
+                changed |= node != n;
+
+                live += pressureDelta(node);
+                for (Node input : nodes[node].inputs()) {
+                    Integer index = indices.get(input);
+                    if (index != null) {
+                        remainingUsages[index]--;
+                    }
+                }
+
+                int start = Math.max(cycle, readyCycle[node]);
+                if (latency[node] > 0) {
+                    cycle = start + 1;
+                }
+                for (int e = successorStart[node]; e < successorStart[node + 1]; e++) {
+                    int successor = successors[e];
+                    readyCycle[successor] = Math.max(readyCycle[successor], successorIsData[e] ? start + latency[node] : start);
+                    if (--predecessorCount[successor] == 0) {
+                        ready.add(successor);
+                    }
+                }
+            }
+            assert ready.isEmpty();
+            return changed ? order : null;
+        }
+
+        private boolean isBetter(int a, int b, int cycle, boolean highPressure, int[] height, int[] readyCycle) {
+            if (highPressure) {
+                int deltaA = pressureDelta(a);
+                int deltaB = pressureDelta(b);
+                if (deltaA != deltaB) {
+                    return deltaA < deltaB;
+                }
+            }
+            boolean availableA = readyCycle[a] <= cycle;
+            boolean availableB = readyCycle[b] <= cycle;
+            if (availableA != availableB) {
+                return availableA;
+            }
+            if (height[a] != height[b]) {
+                return height[a] > height[b];
+            }
+            return a < b;
+        }
+
+        /**
+         * Computes the change in the number of live values if {@code node} was scheduled next.
+         */
+        private int pressureDelta(int node) {
+            int delta = 0;
+            if (definesValue(nodes[node]) && (remainingUsages[node] > 0 || usedOutside[node])) {
+                delta++;
+            }
+            for (Node input : nodes[node].inputs()) {
+                Integer index = indices.get(input);
+                if (index != null && remainingUsages[index] == 1 && !usedOutside[index] && definesValue(input)) {
+                    delta--;
+                }
+            }
+            return delta;
+        }
+
+        /**
+         * Determines if {@code node} needs a register for its result. Constants and addresses are
+         * usually folded into their usages.
+         */
+        private static boolean definesValue(Node node) {
+            if (node instanceof ValueNode && !(node instanceof ConstantNode) && !(node instanceof AddressNode)) {
+                return ((ValueNode) node).getStackKind() != JavaKind.Void;
+            }
+            return false;
+        }
+
+        private int[] computeHeights() {
+            int[] height = new int[nodes.length];
+            for (int i = nodes.length - 1; i >= 0; i--) {
+                int h = latency[i];
+                for (int e = successorStart[i]; e < successorStart[i + 1]; e++) {
+                    h = Math.max(h, height[successors[e]] + (successorIsData[e] ? latency[i] : 0));
+                }
+                height[i] = h;
+            }
+            return height;
+        }
+
+        /**
+         * Collects the data, control and memory dependences between the nodes of the region.
+         *
+         * @return false if the original order is not a topological order of the dependences
+         */
+        private boolean buildDependences() {
+            int lastFixed = -1;
+            ArrayList<Integer> checkpoints = new ArrayList<>();
+            ArrayList<Integer> pendingReads = new ArrayList<>();
+            for (int i = 0; i < nodes.length; i++) {
+                Node node = nodes[i];
+                latency[i] = model.latency(node);
+                for (Node input : node.inputs()) {
+                    Integer index = indices.get(input);
+                    if (index != null) {
+                        if (index >= i) {
+                            return false;
+                        }
+                        addEdge(index, i, true);
+                        remainingUsages[index]++;
+                    }
+                }
+                for (Node usage : node.usages()) {
+                    if (indices.get(usage) == null) {
+                        usedOutside[i] = true;
+                        break;
+                    }
+                }
+                if (node instanceof FixedNode) {
+                    if (lastFixed != -1) {
+                        addEdge(lastFixed, i, false);
+                    }
+                    lastFixed = i;
+                    if (node instanceof MemoryCheckpoint) {
+                        checkpoints.add(i);
+                        for (LocationIdentity killed : killedLocations(node)) {
+                            for (int j = pendingReads.size() - 1; j >= 0; j--) {
+                                int read = pendingReads.get(j);
+                                if (killed.overlaps(((FloatingReadNode) nodes[read]).getLocationIdentity())) {
+                                    addEdge(read, i, false);
+                                    pendingReads.remove(j);
+                                }
+                            }
+                        }
+                    }
+                } else if (node instanceof FloatingReadNode) {
+                    LocationIdentity location = ((FloatingReadNode) node).getLocationIdentity();
+                    if (location.isMutable()) {
+                        pendingReads.add(i);
+                        addEdgeFromLastKill(checkpoints, location, i);
+                    }
+                }
+            }
+            buildSuccessors();
+            return true;
+        }
+
+        /**
+         * Keeps a read after the closest preceding kill of its location even if that kill is not
+         * its memory input, e.g., because the memory input is a dominating kill of a larger set of
+         * locations.
+         */
+        private void addEdgeFromLastKill(ArrayList<Integer> checkpoints, LocationIdentity location, int read) {
+            for (int j = checkpoints.size() - 1; j >= 0; j--) {
+                int checkpoint = checkpoints.get(j);
+                for (LocationIdentity killed : killedLocations(nodes[checkpoint])) {
+                    if (killed.overlaps(location)) {
+                        addEdge(checkpoint, read, false);
+                        return;
+                    }
+                }
+            }
+        }
+
+        private static LocationIdentity[] killedLocations(Node checkpoint) {
+            if (checkpoint instanceof MemoryCheckpoint.Single) {
+                return new LocationIdentity[]{((MemoryCheckpoint.Single) checkpoint).getLocationIdentity()};
+            } else {
+                return ((MemoryCheckpoint.Multi) checkpoint).getLocationIdentities();
+            }
+        }
+
+        private void addEdge(int from, int to, boolean isData) {
+            if (edgeCount == edgeFrom.length) {
+                edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+                edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+                edgeIsData = Arrays.copyOf(edgeIsData, edgeCount * 2);
+            }
+            edgeFrom[edgeCount] = from;
+            edgeTo[edgeCount] = to;
+            edgeIsData[edgeCount] = isData;
+            edgeCount++;
+            predecessorCount[to]++;
+        }
+
+        private void buildSuccessors() {
+            successorStart = new int[nodes.length + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                successorStart[edgeFrom[e] + 1]++;
+            }
+            for (int i = 0; i < nodes.length; i++) {
+                successorStart[i + 1] += successorStart[i];
+            }
+            successors = new int[edgeCount];
+            successorIsData = new boolean[edgeCount];
+            int[] next = Arrays.copyOf(successorStart, nodes.length);
+            for (int e = 0; e < edgeCount; e++) {
+                int position = next[edgeFrom[e]]++;
+                successors[position] = edgeTo[e];
+                successorIsData[position] = edgeIsData[e];
+            }
+        }
+    }
+}
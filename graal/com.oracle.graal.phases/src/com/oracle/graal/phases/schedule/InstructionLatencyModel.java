@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.phases.schedule;
+
+import com.oracle.graal.graph.Node;
+import com.oracle.graal.nodes.ConstantNode;
+import com.oracle.graal.nodes.VirtualState;
+
+/**
+ * Describes the timing characteristics of a target for {@link BlockInstructionSchedulingPhase}.
+ */
+public interface InstructionLatencyModel {
+
+    /**
+     * A model in which every node that produces code takes a single cycle.
+     */
+    InstructionLatencyModel UNIT = new InstructionLatencyModel() {
+
+        @Override
+        public int latency(Node node) {
+            return node instanceof ConstantNode || node instanceof VirtualState ? 0 : 1;
+        }
+
+        @Override
+        public int registerPressureLimit() {
+            return 8;
+        }
+    };
+
+    /**
+     * Gets the estimated number of cycles between the start of the code emitted for {@code node}
+     * and the point at which its result is available to its usages.
+     */
+    int latency(Node node);
+
+    /**
+     * Gets the number of simultaneously live values above which the scheduler favors nodes that end
+     * live ranges over nodes that hide latency.
+     */
+    int registerPressureLimit();
+}
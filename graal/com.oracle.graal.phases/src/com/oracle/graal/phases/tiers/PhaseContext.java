@@ -26,6 +26,7 @@ import com.oracle.graal.compiler.common.spi.ConstantFieldProvider;
 import com.oracle.graal.nodes.spi.LoweringProvider;
 import com.oracle.graal.nodes.spi.Replacements;
 import com.oracle.graal.nodes.spi.StampProvider;
+import com.oracle.graal.options.OptionSnapshot;
 import com.oracle.graal.phases.util.Providers;
 
 import jdk.vm.ci.meta.ConstantReflectionProvider;
@@ -39,6 +40,7 @@ public class PhaseContext {
     private final LoweringProvider lowerer;
     private final Replacements replacements;
     private final StampProvider stampProvider;
+    private final OptionSnapshot options;
 
     public PhaseContext(MetaAccessProvider metaAccess, ConstantReflectionProvider constantReflection, ConstantFieldProvider constantFieldProvider, LoweringProvider lowerer, Replacements replacements,
                     StampProvider stampProvider) {
@@ -48,6 +50,7 @@ public class PhaseContext {
         this.lowerer = lowerer;
         this.replacements = replacements;
         this.stampProvider = stampProvider;
+        this.options = OptionSnapshot.current();
     }
 
     public PhaseContext(Providers providers) {
@@ -77,4 +80,13 @@ public class PhaseContext {
     public StampProvider getStampProvider() {
         return stampProvider;
     }
+
+    /**
+     * Gets the options of the compilation this context belongs to. Phases should prefer reading
+     * options in hot loops through this snapshot over
+     * {@link com.oracle.graal.options.OptionValue#getValue()}.
+     */
+    public OptionSnapshot getOptions() {
+        return options;
+    }
 }
@@ -50,4 +50,12 @@ public interface SuitesProvider {
      * version.
      */
     LIRSuites getDefaultLIRSuites();
+
+    /**
+     * Creates a new set of low-level phase suites of the economy configuration of this compiler,
+     * which trades code quality for compilation speed, or returns {@code null} if there is none.
+     */
+    default LIRSuites createEconomyLIRSuites() {
+        return null;
+    }
 }
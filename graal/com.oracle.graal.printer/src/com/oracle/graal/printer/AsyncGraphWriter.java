@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.printer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.oracle.graal.debug.TTY;
+
+/**
+ * Writes buffers produced by a {@link BinaryGraphPrinter} to a channel on a background thread. The
+ * printer takes empty buffers from a fixed-size ring, fills them and {@linkplain #submit submits}
+ * them to the writer thread, which writes them to the channel and returns them to the ring. This
+ * keeps the cost of the channel (and of any compression done by it) off the compiler thread.
+ */
+final class AsyncGraphWriter {
+
+    private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+
+    private final WritableByteChannel channel;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> filled;
+    private final Thread thread;
+
+    /**
+     * The first exception thrown while writing to {@link #channel}. Once set, submitted buffers
+     * are discarded.
+     */
+    private volatile IOException failure;
+
+    AsyncGraphWriter(WritableByteChannel channel, int bufferCount, int bufferSize) {
+        assert bufferCount >= 2 : "printer needs to be able to fill one buffer while another is written";
+        this.channel = channel;
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        this.filled = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(ByteBuffer.allocateDirect(bufferSize));
+        }
+        this.thread = new Thread(this::drain, "BinaryGraphPrinter writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Determines if an empty buffer is available without blocking. A printer uses this to decide
+     * whether to drop a graph rather than wait for the writer thread.
+     */
+    boolean hasFreeBuffer() {
+        return !free.isEmpty();
+    }
+
+    /**
+     * Takes an empty buffer from the ring, waiting for the writer thread to release one if
+     * necessary.
+     */
+    ByteBuffer acquire() throws IOException {
+        checkFailure();
+        try {
+            return free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for a graph buffer", e);
+        }
+    }
+
+    /**
+     * Hands a buffer to the writer thread. The buffer must be flipped (i.e., ready to be read).
+     */
+    void submit(ByteBuffer buffer) throws IOException {
+        checkFailure();
+        filled.add(buffer);
+    }
+
+    /**
+     * Writes all submitted buffers, stops the writer thread and closes the channel.
+     */
+    void close() throws IOException {
+        filled.add(CLOSE);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } finally {
+            checkFailure();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("writing graphs failed", e);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            ByteBuffer buffer;
+            try {
+                buffer = filled.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (buffer == CLOSE) {
+                return;
+            }
+            if (failure == null) {
+                try {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } catch (IOException e) {
+                    TTY.println("Error writing graphs: %s", e);
+                    failure = e;
+                }
+            }
+            buffer.clear();
+            free.add(buffer);
+        }
+    }
+}
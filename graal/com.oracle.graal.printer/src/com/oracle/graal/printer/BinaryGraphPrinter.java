@@ -39,6 +39,7 @@ import java.util.Map.Entry;
 
 import com.oracle.graal.compiler.common.cfg.BlockMap;
 import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
 import com.oracle.graal.debug.GraalDebugConfig.Options;
 import com.oracle.graal.graph.CachedGraph;
 import com.oracle.graal.graph.Edges;
@@ -72,6 +73,10 @@ public class BinaryGraphPrinter implements GraphPrinter {
 
     private static final int CONSTANT_POOL_MAX_SIZE = 8000;
 
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final DebugCounter DroppedGraphs = Debug.counter("BinaryGraphPrinterDroppedGraphs");
+
     private static final int BEGIN_GROUP = 0x00;
     private static final int BEGIN_GRAPH = 0x01;
     private static final int CLOSE_GROUP = 0x02;
@@ -145,20 +150,53 @@ public class BinaryGraphPrinter implements GraphPrinter {
     }
 
     private final ConstantPool constantPool;
-    private final ByteBuffer buffer;
     private final WritableByteChannel channel;
 
+    /**
+     * Writes filled buffers to {@link #channel} on a background thread or {@code null} if this
+     * printer writes to the channel directly.
+     */
+    private final AsyncGraphWriter writer;
+
+    /**
+     * The buffer being filled. In asynchronous mode this is {@code null} between
+     * {@linkplain #flush() flushing} a buffer and the next write.
+     */
+    private ByteBuffer buffer;
+
     private static final Charset utf8 = Charset.forName("UTF-8");
 
     public BinaryGraphPrinter(WritableByteChannel channel) throws IOException {
         constantPool = new ConstantPool();
-        buffer = ByteBuffer.allocateDirect(256 * 1024);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.channel = channel;
+        this.writer = null;
+        writeVersion();
+    }
+
+    /**
+     * Creates a printer that encodes graphs into a ring of {@code bufferCount} buffers which are
+     * written to {@code channel} by a background thread. If all buffers are waiting to be written
+     * when a graph is {@linkplain #print printed}, the graph is dropped instead of stalling the
+     * calling thread.
+     */
+    public BinaryGraphPrinter(WritableByteChannel channel, int bufferCount) throws IOException {
+        constantPool = new ConstantPool();
         this.channel = channel;
+        this.writer = new AsyncGraphWriter(channel, bufferCount, BUFFER_SIZE);
         writeVersion();
     }
 
     @Override
     public void print(Graph graph, String title, Map<Object, Object> properties) throws IOException {
+        if (writer != null && !writer.hasFreeBuffer()) {
+            /*
+             * The writer thread is behind. Dropping a whole graph before anything is encoded keeps
+             * the constant pool consistent with what the reader has seen.
+             */
+            DroppedGraphs.increment();
+            return;
+        }
         writeByte(BEGIN_GRAPH);
         writePoolObject(title);
         writeGraph(graph, properties);
@@ -194,15 +232,29 @@ public class BinaryGraphPrinter implements GraphPrinter {
     }
 
     private void flush() throws IOException {
+        if (writer != null) {
+            if (buffer != null && buffer.position() > 0) {
+                buffer.flip();
+                writer.submit(buffer);
+                buffer = null;
+            }
+            return;
+        }
         buffer.flip();
         channel.write(buffer);
         buffer.compact();
     }
 
     private void ensureAvailable(int i) throws IOException {
-        assert buffer.capacity() >= i : "Can not make " + i + " bytes available, buffer is too small";
+        assert BUFFER_SIZE >= i : "Can not make " + i + " bytes available, buffer is too small";
+        if (buffer == null) {
+            buffer = writer.acquire();
+        }
         while (buffer.remaining() < i) {
             flush();
+            if (buffer == null) {
+                buffer = writer.acquire();
+            }
         }
     }
 
@@ -253,7 +305,7 @@ public class BinaryGraphPrinter implements GraphPrinter {
     private void writeBytesRaw(byte[] b) throws IOException {
         int bytesWritten = 0;
         while (bytesWritten < b.length) {
-            int toWrite = Math.min(b.length - bytesWritten, buffer.capacity());
+            int toWrite = Math.min(b.length - bytesWritten, BUFFER_SIZE);
             ensureAvailable(toWrite);
             buffer.put(b, bytesWritten, toWrite);
             bytesWritten += toWrite;
@@ -628,7 +680,11 @@ public class BinaryGraphPrinter implements GraphPrinter {
     public void close() {
         try {
             flush();
-            channel.close();
+            if (writer != null) {
+                writer.close();
+            } else {
+                channel.close();
+            }
         } catch (IOException ex) {
             throw new Error(ex);
         }
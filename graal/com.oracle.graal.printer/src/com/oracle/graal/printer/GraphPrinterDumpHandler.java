@@ -29,9 +29,11 @@ import java.io.InterruptedIOException;
 import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.Channels;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -45,6 +47,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import com.oracle.graal.debug.Debug;
 import com.oracle.graal.debug.Debug.Scope;
@@ -114,7 +117,11 @@ public class GraphPrinterDumpHandler implements DebugDumpHandler {
         Path path = getFilePrinterPath();
         try {
             if (Options.PrintBinaryGraphs.getValue()) {
-                printer = new BinaryGraphPrinter(FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW));
+                WritableByteChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+                if (Options.PrintBinaryGraphsCompressed.getValue()) {
+                    channel = Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), 64 * 1024, true));
+                }
+                printer = createBinaryPrinter(channel);
             } else {
                 printer = new IdealGraphPrinter(Files.newOutputStream(path), true);
             }
@@ -136,17 +143,24 @@ public class GraphPrinterDumpHandler implements DebugDumpHandler {
             dumpIgvTimestamp = System.currentTimeMillis();
         }
         // Encode the kind of the file in the extension.
-        final String ext = (Options.PrintBinaryGraphs.getValue() ? ".bgv" : ".gv.xml");
+        final String ext = (Options.PrintBinaryGraphs.getValue() ? (Options.PrintBinaryGraphsCompressed.getValue() ? ".bgv.gz" : ".bgv") : ".gv.xml");
         // Construct the path to the file.
         return Paths.get(Options.DumpPath.getValue(), "runtime-graphs-" + dumpIgvTimestamp + "_" + dumpIgvId.incrementAndGet() + ext);
     }
 
+    private static BinaryGraphPrinter createBinaryPrinter(WritableByteChannel channel) throws IOException {
+        if (Options.PrintBinaryGraphsAsync.getValue()) {
+            return new BinaryGraphPrinter(channel, Math.max(2, Options.PrintBinaryGraphsBuffers.getValue()));
+        }
+        return new BinaryGraphPrinter(channel);
+    }
+
     private void initializeNetworkPrinter() {
         String host = Options.PrintIdealGraphAddress.getValue();
         int port = Options.PrintBinaryGraphs.getValue() ? Options.PrintBinaryGraphPort.getValue() : Options.PrintIdealGraphPort.getValue();
         try {
             if (Options.PrintBinaryGraphs.getValue()) {
-                printer = new BinaryGraphPrinter(SocketChannel.open(new InetSocketAddress(host, port)));
+                printer = createBinaryPrinter(SocketChannel.open(new InetSocketAddress(host, port)));
             } else {
                 IdealGraphPrinter xmlPrinter = new IdealGraphPrinter(new Socket(host, port).getOutputStream(), true);
                 printer = xmlPrinter;
@@ -22,6 +22,7 @@
  */
 package com.oracle.graal.replacements.amd64;
 
+import static com.oracle.graal.compiler.common.util.Util.Java8OrEarlier;
 import static com.oracle.graal.replacements.nodes.UnaryMathIntrinsicNode.UnaryOperation.COS;
 import static com.oracle.graal.replacements.nodes.UnaryMathIntrinsicNode.UnaryOperation.EXP;
 import static com.oracle.graal.replacements.nodes.UnaryMathIntrinsicNode.UnaryOperation.LOG;
@@ -29,6 +30,8 @@ import static com.oracle.graal.replacements.nodes.UnaryMathIntrinsicNode.UnaryOp
 import static com.oracle.graal.replacements.nodes.UnaryMathIntrinsicNode.UnaryOperation.SIN;
 import static com.oracle.graal.replacements.nodes.UnaryMathIntrinsicNode.UnaryOperation.TAN;
 
+import java.util.Arrays;
+
 import com.oracle.graal.compiler.common.LocationIdentity;
 import com.oracle.graal.lir.amd64.AMD64ArithmeticLIRGeneratorTool.RoundingMode;
 import com.oracle.graal.nodes.ValueNode;
@@ -42,10 +45,12 @@ import com.oracle.graal.nodes.java.AtomicReadAndAddNode;
 import com.oracle.graal.nodes.java.AtomicReadAndWriteNode;
 import com.oracle.graal.nodes.memory.address.AddressNode;
 import com.oracle.graal.nodes.memory.address.OffsetAddressNode;
+import com.oracle.graal.replacements.ArraysSubstitutions;
 import com.oracle.graal.replacements.IntegerSubstitutions;
 import com.oracle.graal.replacements.LongSubstitutions;
 import com.oracle.graal.replacements.StandardGraphBuilderPlugins.UnsafeGetPlugin;
 import com.oracle.graal.replacements.StandardGraphBuilderPlugins.UnsafePutPlugin;
+import com.oracle.graal.replacements.StringSubstitutions;
 import com.oracle.graal.replacements.nodes.BinaryMathIntrinsicNode;
 import com.oracle.graal.replacements.nodes.BitCountNode;
 import com.oracle.graal.replacements.nodes.UnaryMathIntrinsicNode;
@@ -59,7 +64,7 @@ import sun.misc.Unsafe;
 
 public class AMD64GraphBuilderPlugins {
 
-    public static void register(Plugins plugins, AMD64 arch, boolean arithmeticStubs) {
+    public static void register(Plugins plugins, AMD64 arch, boolean arithmeticStubs, boolean stringIntrinsics) {
         InvocationPlugins invocationPlugins = plugins.getInvocationPlugins();
         invocationPlugins.defer(new Runnable() {
             @Override
@@ -68,6 +73,10 @@ public class AMD64GraphBuilderPlugins {
                 registerIntegerLongPlugins(invocationPlugins, LongSubstitutions.class, JavaKind.Long, arch);
                 registerUnsafePlugins(invocationPlugins);
                 registerMathPlugins(invocationPlugins, arch, arithmeticStubs);
+                if (stringIntrinsics && Java8OrEarlier) {
+                    registerStringPlugins(invocationPlugins);
+                }
+                registerArraysPlugins(invocationPlugins);
             }
         });
     }
@@ -171,6 +180,33 @@ public class AMD64GraphBuilderPlugins {
         });
     }
 
+    private static void registerStringPlugins(InvocationPlugins plugins) {
+        Registration r = new Registration(plugins, String.class);
+        r.registerMethodSubstitution(StringSubstitutions.class, "compareTo", Receiver.class, String.class);
+        r.registerMethodSubstitution(StringSubstitutions.class, "regionMatches", Receiver.class, int.class, String.class, int.class, int.class);
+        r.registerMethodSubstitution(StringSubstitutions.class, "indexOf", char[].class, int.class, int.class, char[].class, int.class, int.class, int.class);
+    }
+
+    private static void registerArraysPlugins(InvocationPlugins plugins) {
+        Registration r = new Registration(plugins, Arrays.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", boolean[].class, boolean.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", boolean[].class, int.class, int.class, boolean.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", byte[].class, byte.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", byte[].class, int.class, int.class, byte.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", short[].class, short.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", short[].class, int.class, int.class, short.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", char[].class, char.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", char[].class, int.class, int.class, char.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", int[].class, int.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", int[].class, int.class, int.class, int.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", float[].class, float.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", float[].class, int.class, int.class, float.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", long[].class, long.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", long[].class, int.class, int.class, long.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", double[].class, double.class);
+        r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", double[].class, int.class, int.class, double.class);
+    }
+
     private static void registerUnsafePlugins(InvocationPlugins plugins) {
         Registration r = new Registration(plugins, Unsafe.class);
 
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.replacements.test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.graal.compiler.common.CompilationBudget;
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.replacements.ConcurrentClockCache;
+
+public class ConcurrentClockCacheTest {
+
+    private static final DebugCounter Hits = Debug.counter("ConcurrentClockCacheTestHits");
+    private static final DebugCounter Misses = Debug.counter("ConcurrentClockCacheTestMisses");
+    private static final DebugCounter Evictions = Debug.counter("ConcurrentClockCacheTestEvictions");
+
+    private static ConcurrentClockCache<Integer, String> newCache(int capacity) {
+        return new ConcurrentClockCache<>(capacity, Hits, Misses, Evictions);
+    }
+
+    @Test
+    public void testBounded() {
+        ConcurrentClockCache<Integer, String> cache = newCache(4);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(String.valueOf(i), cache.get(i, String::valueOf));
+            Assert.assertTrue(cache.size() <= cache.capacity());
+        }
+    }
+
+    @Test
+    public void testReferencedEntrySurvives() {
+        ConcurrentClockCache<Integer, String> cache = newCache(4);
+        AtomicInteger computations = new AtomicInteger();
+        cache.get(0, key -> String.valueOf(computations.incrementAndGet()));
+        for (int i = 1; i < 20; i++) {
+            cache.get(i, String::valueOf);
+            cache.get(0, key -> String.valueOf(computations.incrementAndGet()));
+        }
+        Assert.assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void testComputedOnce() throws InterruptedException {
+        ConcurrentClockCache<Integer, String> cache = newCache(8);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        String[] results = new String[threads.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                results[index] = cache.get(42, key -> {
+                    computations.incrementAndGet();
+                    return String.valueOf(key);
+                });
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(1, computations.get());
+        for (String result : results) {
+            Assert.assertEquals("42", result);
+        }
+    }
+
+    /**
+     * A value computed under an exhausted {@link CompilationBudget} must not fail, neither for the
+     * computing thread nor for a thread without a budget waiting on the same key.
+     */
+    @SuppressWarnings("try")
+    @Test
+    public void testBudgetSuspendedForSharedComputation() throws InterruptedException {
+        ConcurrentClockCache<Integer, String> cache = newCache(4);
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        String[] results = new String[2];
+        Throwable[] failures = new Throwable[2];
+        Thread builder = new Thread(() -> {
+            CompilationBudget budget = new CompilationBudget(1, 0);
+            try (CompilationBudget.Activation a = budget.activate()) {
+                Thread.sleep(10);
+                results[0] = cache.get(7, key -> {
+                    computing.countDown();
+                    try {
+                        waiting.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    CompilationBudget.check();
+                    return String.valueOf(key);
+                });
+            } catch (Throwable t) {
+                failures[0] = t;
+            }
+        });
+        Thread waiter = new Thread(() -> {
+            try {
+                computing.await();
+                waiting.countDown();
+                results[1] = cache.get(7, String::valueOf);
+            } catch (Throwable t) {
+                failures[1] = t;
+            }
+        });
+        builder.start();
+        waiter.start();
+        builder.join();
+        waiter.join();
+        Assert.assertNull(failures[0]);
+        Assert.assertNull(failures[1]);
+        Assert.assertEquals("7", results[0]);
+        Assert.assertEquals("7", results[1]);
+    }
+
+    @Test
+    public void testFailureNotCached() {
+        ConcurrentClockCache<Integer, String> cache = newCache(4);
+        try {
+            cache.get(1, key -> {
+                throw new IllegalStateException();
+            });
+            Assert.fail("expected exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals("1", cache.get(1, String::valueOf));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.replacements.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.graal.compiler.test.GraalCompilerTest;
+import com.oracle.graal.nodes.EncodedGraph;
+import com.oracle.graal.nodes.GraphEncoder;
+import com.oracle.graal.nodes.StructuredGraph;
+import com.oracle.graal.nodes.StructuredGraph.AllowAssumptions;
+import com.oracle.graal.nodes.graphbuilderconf.GraphBuilderConfiguration;
+import com.oracle.graal.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
+import com.oracle.graal.nodes.graphbuilderconf.InlineInvokePlugin;
+import com.oracle.graal.nodes.graphbuilderconf.InvocationPlugins;
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.phases.OptimisticOptimizations;
+import com.oracle.graal.phases.util.Providers;
+import com.oracle.graal.replacements.CachingPEGraphDecoder;
+import com.oracle.graal.replacements.PersistentEncodedGraphCache;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+public class PersistentEncodedGraphCacheTest extends GraalCompilerTest {
+
+    public static int sumSnippet(int[] array, int n) {
+        int sum = 0;
+        for (int i = 0; i < n && i < array.length; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    static final int LIMIT = Integer.getInteger("PersistentEncodedGraphCacheTest.limit", 10);
+
+    public static int limitSnippet(int n) {
+        return n < LIMIT ? n : LIMIT;
+    }
+
+    private static final class KeyDecoder extends CachingPEGraphDecoder {
+        KeyDecoder(Providers providers, GraphBuilderConfiguration config, Architecture architecture) {
+            super(providers, config, OptimisticOptimizations.NONE, AllowAssumptions.NO, architecture);
+        }
+
+        String key(ResolvedJavaMethod method) {
+            return persistentCacheKey(method, false);
+        }
+
+        EncodedGraph graph(ResolvedJavaMethod method) {
+            return lookupEncodedGraph(method, false);
+        }
+    }
+
+    @Test
+    public void testKeyCoversPlugins() {
+        ResolvedJavaMethod method = getResolvedJavaMethod("sumSnippet");
+        GraphBuilderConfiguration config = GraphBuilderConfiguration.getDefault(new Plugins(new InvocationPlugins(getMetaAccess())));
+        GraphBuilderConfiguration withInlinePlugin = config.copy();
+        withInlinePlugin.getPlugins().appendInlineInvokePlugin(new InlineInvokePlugin() {
+        });
+        Architecture arch = getTarget().arch;
+        String key = new KeyDecoder(getProviders(), config.copy(), arch).key(method);
+        Assert.assertEquals(key, new KeyDecoder(getProviders(), config.copy(), arch).key(method));
+        Assert.assertNotEquals(key, new KeyDecoder(getProviders(), withInlinePlugin, arch).key(method));
+        Assert.assertNotEquals(key, new KeyDecoder(getProviders(), config.copy().withOmitAssertions(!config.omitAssertions()), arch).key(method));
+    }
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        Path directory = Files.createTempDirectory("PEGraphCache");
+        try (OverrideScope s = OptionValue.override(PersistentEncodedGraphCache.Options.PEGraphCacheDirectory, directory.toString())) {
+            ResolvedJavaMethod method = getResolvedJavaMethod("sumSnippet");
+            StructuredGraph graph = parseEager(method, AllowAssumptions.NO);
+            EncodedGraph encodedGraph = GraphEncoder.encodeSingleGraph(graph, getTarget().arch);
+
+            PersistentEncodedGraphCache cache = PersistentEncodedGraphCache.get(getMetaAccess(), getTarget().arch);
+            Assert.assertNotNull(cache);
+            Assert.assertNull(cache.load("testStoreAndLoad", method, false));
+            cache.store("testStoreAndLoad", method, encodedGraph);
+
+            EncodedGraph loadedGraph = cache.load("testStoreAndLoad", method, false);
+            Assert.assertNotNull(loadedGraph);
+            Assert.assertArrayEquals(encodedGraph.getEncoding(), loadedGraph.getEncoding());
+            Assert.assertTrue(GraphEncoder.verifyEncoding(graph, loadedGraph, getTarget().arch));
+
+            Assert.assertNull("different key must not match", cache.load("otherKey", method, false));
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(f -> f.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Static final fields must not be folded into graphs that are stored since their values can
+     * differ in the VM instance that loads the graph.
+     */
+    @Test
+    public void testStaticFinalNotFolded() throws IOException {
+        Path directory = Files.createTempDirectory("PEGraphCache");
+        try (OverrideScope s = OptionValue.override(PersistentEncodedGraphCache.Options.PEGraphCacheDirectory, directory.toString())) {
+            ResolvedJavaMethod method = getResolvedJavaMethod("limitSnippet");
+            ResolvedJavaField limit = null;
+            for (ResolvedJavaField field : method.getDeclaringClass().getStaticFields()) {
+                if (field.getName().equals("LIMIT")) {
+                    limit = field;
+                }
+            }
+            Assert.assertNotNull(limit);
+            GraphBuilderConfiguration config = GraphBuilderConfiguration.getDefault(new Plugins(new InvocationPlugins(getMetaAccess())));
+            EncodedGraph encodedGraph = new KeyDecoder(getProviders(), config, getTarget().arch).graph(method);
+            Assert.assertTrue("read of LIMIT was folded", Arrays.asList(encodedGraph.getObjects()).contains(limit));
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(f -> f.toFile().delete());
+            }
+            Files.delete(directory);
+        }
+    }
+}
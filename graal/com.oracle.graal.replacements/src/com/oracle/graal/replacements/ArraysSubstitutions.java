@@ -22,12 +22,21 @@
  */
 package com.oracle.graal.replacements;
 
+import static com.oracle.graal.nodes.extended.BranchProbabilityNode.VERY_SLOW_PATH_PROBABILITY;
+import static com.oracle.graal.nodes.extended.BranchProbabilityNode.probability;
+
 import java.util.Arrays;
 
 import com.oracle.graal.api.replacements.ClassSubstitution;
 import com.oracle.graal.api.replacements.MethodSubstitution;
+import com.oracle.graal.nodes.DeoptimizeNode;
+import com.oracle.graal.nodes.extended.ArrayFillNode;
 import com.oracle.graal.replacements.nodes.ArrayEqualsNode;
 
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaKind;
+
 // JaCoCo Exclude
 
 /**
@@ -123,4 +132,106 @@ public class ArraysSubstitutions {
         }
         return ArrayEqualsNode.equals(a, a2, a.length);
     }
+
+    /**
+     * Substitution for {@link Arrays#fill(boolean[], boolean)}. The {@code fill} substitutions are
+     * only registered on platforms that implement {@link ArrayFillNode}.
+     */
+    @MethodSubstitution
+    public static void fill(boolean[] a, boolean val) {
+        ArrayFillNode.fill(JavaKind.Boolean, a, 0, a.length, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(boolean[] a, int fromIndex, int toIndex, boolean val) {
+        checkRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(JavaKind.Boolean, a, fromIndex, toIndex, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(byte[] a, byte val) {
+        ArrayFillNode.fill(JavaKind.Byte, a, 0, a.length, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(byte[] a, int fromIndex, int toIndex, byte val) {
+        checkRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(JavaKind.Byte, a, fromIndex, toIndex, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(char[] a, char val) {
+        ArrayFillNode.fill(JavaKind.Char, a, 0, a.length, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(char[] a, int fromIndex, int toIndex, char val) {
+        checkRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(JavaKind.Char, a, fromIndex, toIndex, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(short[] a, short val) {
+        ArrayFillNode.fill(JavaKind.Short, a, 0, a.length, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(short[] a, int fromIndex, int toIndex, short val) {
+        checkRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(JavaKind.Short, a, fromIndex, toIndex, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(int[] a, int val) {
+        ArrayFillNode.fill(JavaKind.Int, a, 0, a.length, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(int[] a, int fromIndex, int toIndex, int val) {
+        checkRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(JavaKind.Int, a, fromIndex, toIndex, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(long[] a, long val) {
+        ArrayFillNode.fill(JavaKind.Long, a, 0, a.length, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(long[] a, int fromIndex, int toIndex, long val) {
+        checkRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(JavaKind.Long, a, fromIndex, toIndex, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(float[] a, float val) {
+        ArrayFillNode.fill(JavaKind.Float, a, 0, a.length, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(float[] a, int fromIndex, int toIndex, float val) {
+        checkRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(JavaKind.Float, a, fromIndex, toIndex, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(double[] a, double val) {
+        ArrayFillNode.fill(JavaKind.Double, a, 0, a.length, val);
+    }
+
+    @MethodSubstitution
+    public static void fill(double[] a, int fromIndex, int toIndex, double val) {
+        checkRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(JavaKind.Double, a, fromIndex, toIndex, val);
+    }
+
+    /**
+     * Deoptimizes if {@code Arrays.rangeCheck} would throw an exception for the arguments of a
+     * fill method so that the exception is raised by the interpreter.
+     */
+    private static void checkRange(int arrayLength, int fromIndex, int toIndex) {
+        if (probability(VERY_SLOW_PATH_PROBABILITY, fromIndex > toIndex || fromIndex < 0 || toIndex > arrayLength)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.InvalidateReprofile, DeoptimizationReason.BoundsCheckException);
+        }
+    }
 }
@@ -22,11 +22,16 @@
  */
 package com.oracle.graal.replacements;
 
+import static com.oracle.graal.compiler.common.GraalOptions.DeoptALot;
+import static com.oracle.graal.compiler.common.GraalOptions.ResolveClassBeforeStaticInvoke;
+import static com.oracle.graal.compiler.common.GraalOptions.StressExplicitExceptionCode;
+import static com.oracle.graal.compiler.common.GraalOptions.StressInvokeWithExceptionNode;
 import static com.oracle.graal.nodes.graphbuilderconf.IntrinsicContext.CompilationContext.INLINE_AFTER_PARSING;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import com.oracle.graal.compiler.common.spi.ConstantFieldProvider;
 import com.oracle.graal.debug.Debug;
 import com.oracle.graal.java.GraphBuilderPhase;
 import com.oracle.graal.nodes.EncodedGraph;
@@ -34,6 +39,7 @@ import com.oracle.graal.nodes.GraphEncoder;
 import com.oracle.graal.nodes.StructuredGraph;
 import com.oracle.graal.nodes.StructuredGraph.AllowAssumptions;
 import com.oracle.graal.nodes.graphbuilderconf.GraphBuilderConfiguration;
+import com.oracle.graal.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
 import com.oracle.graal.nodes.graphbuilderconf.IntrinsicContext;
 import com.oracle.graal.phases.OptimisticOptimizations;
 import com.oracle.graal.phases.common.CanonicalizerPhase;
@@ -41,7 +47,9 @@ import com.oracle.graal.phases.tiers.PhaseContext;
 import com.oracle.graal.phases.util.Providers;
 
 import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.meta.ResolvedJavaField;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
 
 /**
  * A graph decoder that provides all necessary encoded graphs on-the-fly (by parsing the methods and
@@ -49,21 +57,91 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
  */
 public class CachingPEGraphDecoder extends PEGraphDecoder {
 
+    /**
+     * A constant field provider that does not fold any field read.
+     */
+    private static final ConstantFieldProvider NO_FOLDING = new ConstantFieldProvider() {
+        @Override
+        public <T> T readConstantField(ResolvedJavaField field, ConstantFieldTool<T> tool) {
+            return null;
+        }
+    };
+
+    /**
+     * The providers used for parsing. If graphs are stored in a
+     * {@link PersistentEncodedGraphCache}, field reads are not constant folded during parsing since
+     * the values of static final fields (and of fields of constant objects) can differ in the VM
+     * instance that loads the graph. The reads are folded when the graph is decoded, which uses the
+     * constant field provider passed to the constructor.
+     */
     protected final Providers providers;
     protected final GraphBuilderConfiguration graphBuilderConfig;
     protected final OptimisticOptimizations optimisticOpts;
     private final AllowAssumptions allowAssumptions;
     private final Map<ResolvedJavaMethod, EncodedGraph> graphCache;
+    private final PersistentEncodedGraphCache persistentCache;
+    private String configurationFingerprint;
 
     public CachingPEGraphDecoder(Providers providers, GraphBuilderConfiguration graphBuilderConfig, OptimisticOptimizations optimisticOpts, AllowAssumptions allowAssumptions,
                     Architecture architecture) {
         super(providers.getMetaAccess(), providers.getConstantReflection(), providers.getConstantFieldProvider(), providers.getStampProvider(), architecture);
 
-        this.providers = providers;
         this.graphBuilderConfig = graphBuilderConfig;
         this.optimisticOpts = optimisticOpts;
         this.allowAssumptions = allowAssumptions;
         this.graphCache = new HashMap<>();
+        this.persistentCache = PersistentEncodedGraphCache.get(providers.getMetaAccess(), architecture);
+        this.providers = persistentCache == null ? providers : providers.copyWith(NO_FOLDING);
+    }
+
+    /**
+     * Returns the key of {@code method} in the {@link PersistentEncodedGraphCache}. The key must
+     * include everything that influences parsing besides the bytecode of the parsed methods.
+     * Subclasses that configure parsing differently must therefore use a different
+     * {@link #getClass() class} or extend {@link #appendConfigurationFingerprint}.
+     */
+    protected String persistentCacheKey(ResolvedJavaMethod method, boolean isIntrinsic) {
+        if (configurationFingerprint == null) {
+            StringBuilder sb = new StringBuilder();
+            appendConfigurationFingerprint(sb);
+            configurationFingerprint = Long.toHexString(PersistentEncodedGraphCache.hash(sb.toString()));
+        }
+        return getClass().getName() + "|" + allowAssumptions + "|" + isIntrinsic + "|" + configurationFingerprint + "|" + method.format("%H.%n") + method.getSignature().toMethodDescriptor();
+    }
+
+    /**
+     * Describes the {@link GraphBuilderConfiguration} used for parsing, including its plugins and
+     * the options read by the bytecode parser that change the parsed graph.
+     */
+    protected void appendConfigurationFingerprint(StringBuilder sb) {
+        GraphBuilderConfiguration config = graphBuilderConfig;
+        sb.append(config.eagerResolving()).append('|').append(config.getBytecodeExceptionMode()).append('|').append(config.omitAssertions()).append('|');
+        sb.append(config.insertFullInfopoints()).append('|').append(config.trackNodeSourcePosition()).append('|').append(config.clearNonLiveLocals()).append('|');
+        if (config.getSkippedExceptionTypes() != null) {
+            for (ResolvedJavaType type : config.getSkippedExceptionTypes()) {
+                sb.append(type.getName()).append(',');
+            }
+        }
+        sb.append('|').append(DeoptALot.getValue()).append('|').append(ResolveClassBeforeStaticInvoke.getValue()).append('|').append(StressExplicitExceptionCode.getValue());
+        sb.append('|').append(StressInvokeWithExceptionNode.getValue()).append('|');
+
+        Plugins plugins = config.getPlugins();
+        appendClassNames(sb, plugins.getNodePlugins());
+        appendClassNames(sb, plugins.getParameterPlugins());
+        appendClassNames(sb, plugins.getTypePlugins());
+        appendClassNames(sb, plugins.getInlineInvokePlugins());
+        if (plugins.getLoopExplosionPlugin() != null) {
+            sb.append(plugins.getLoopExplosionPlugin().getClass().getName());
+        }
+        sb.append('|');
+        plugins.getInvocationPlugins().appendFingerprint(sb);
+    }
+
+    private static void appendClassNames(StringBuilder sb, Object[] objects) {
+        for (Object object : objects) {
+            sb.append(object.getClass().getName()).append(',');
+        }
+        sb.append('|');
     }
 
     protected GraphBuilderPhase.Instance createGraphBuilderPhaseInstance(IntrinsicContext initialIntrinsicContext) {
@@ -96,7 +174,18 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
     protected EncodedGraph lookupEncodedGraph(ResolvedJavaMethod method, boolean isIntrinsic) {
         EncodedGraph result = graphCache.get(method);
         if (result == null && method.hasBytecodes()) {
-            result = createGraph(method, isIntrinsic);
+            if (persistentCache != null) {
+                String key = persistentCacheKey(method, isIntrinsic);
+                result = persistentCache.load(key, method, allowAssumptions == AllowAssumptions.YES);
+                if (result != null) {
+                    graphCache.put(method, result);
+                } else {
+                    result = createGraph(method, isIntrinsic);
+                    persistentCache.store(key, method, result);
+                }
+            } else {
+                result = createGraph(method, isIntrinsic);
+            }
         }
         return result;
     }
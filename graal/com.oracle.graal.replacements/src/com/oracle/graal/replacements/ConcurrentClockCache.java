@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.replacements;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import com.oracle.graal.compiler.common.CompilationBudget;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.debug.GraalError;
+
+/**
+ * A bounded cache that can be accessed concurrently without a global lock. Lookups are served
+ * from a {@link ConcurrentHashMap} and replacement uses the CLOCK (second chance) approximation of
+ * LRU: every hit sets a reference bit on the entry and the clock hand clears the bits of the
+ * entries it passes over, evicting the first entry whose bit is already clear.
+ * <p>
+ * If several threads miss on the same key concurrently, the value is computed exactly once by
+ * the first of them and the others wait for its result. Since the value is shared, it is computed
+ * with the {@link CompilationBudget} of the computing thread {@linkplain CompilationBudget#suspend()
+ * suspended}.
+ */
+public final class ConcurrentClockCache<K, V> {
+
+    private static final class Entry<K, V> {
+        final K key;
+        final FutureTask<V> value;
+        volatile Thread builder;
+        volatile boolean referenced;
+
+        Entry(K key, FutureTask<V> value) {
+            this.key = key;
+            this.value = value;
+            this.builder = Thread.currentThread();
+        }
+    }
+
+    private final int capacity;
+    private final ConcurrentHashMap<K, Entry<K, V>> map;
+    private final AtomicReferenceArray<Entry<K, V>> clock;
+    private final AtomicInteger hand = new AtomicInteger();
+
+    private final DebugCounter hits;
+    private final DebugCounter misses;
+    private final DebugCounter evictions;
+
+    /**
+     * Creates a cache holding at most {@code capacity} completed values.
+     *
+     * @param hits incremented for every lookup that finds an existing (possibly still computing)
+     *            value
+     * @param misses incremented for every lookup that has to compute the value
+     * @param evictions incremented for every value evicted to make room for a new one
+     */
+    public ConcurrentClockCache(int capacity, DebugCounter hits, DebugCounter misses, DebugCounter evictions) {
+        assert capacity > 0;
+        this.capacity = capacity;
+        this.map = new ConcurrentHashMap<>(capacity);
+        this.clock = new AtomicReferenceArray<>(capacity);
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Gets the value for {@code key}, computing it with {@code factory} if it is not in the cache.
+     * The factory is called on the current thread and without holding any lock, so it may itself
+     * access this cache for other keys.
+     */
+    public V get(K key, Function<? super K, ? extends V> factory) {
+        Entry<K, V> entry = map.get(key);
+        if (entry == null) {
+            Entry<K, V> newEntry = new Entry<>(key, new FutureTask<V>(() -> factory.apply(key)));
+            entry = map.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                misses.increment();
+                return compute(newEntry);
+            }
+        }
+        hits.increment();
+        entry.referenced = true;
+        return await(entry);
+    }
+
+    @SuppressWarnings("try")
+    private V compute(Entry<K, V> entry) {
+        try (CompilationBudget.Activation a = CompilationBudget.suspend()) {
+            entry.value.run();
+        }
+        entry.builder = null;
+        try {
+            V result = entry.value.get();
+            insert(entry);
+            return result;
+        } catch (InterruptedException | ExecutionException e) {
+            /* Do not cache failures, the next lookup will try again. */
+            map.remove(entry.key, entry);
+            throw rethrow(e);
+        }
+    }
+
+    private V await(Entry<K, V> entry) {
+        if (entry.builder == Thread.currentThread()) {
+            throw new GraalError("recursive computation of cache entry for %s", entry.key);
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return entry.value.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw rethrow(e);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static RuntimeException rethrow(Exception e) {
+        Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new GraalError(cause);
+    }
+
+    /**
+     * Puts a computed entry into a clock slot, evicting the entry that previously occupied it.
+     */
+    private void insert(Entry<K, V> entry) {
+        while (true) {
+            int index = (hand.getAndIncrement() & Integer.MAX_VALUE) % capacity;
+            Entry<K, V> current = clock.get(index);
+            if (current == null) {
+                if (clock.compareAndSet(index, null, entry)) {
+                    return;
+                }
+            } else if (current.referenced) {
+                current.referenced = false;
+            } else if (clock.compareAndSet(index, current, entry)) {
+                map.remove(current.key, current);
+                evictions.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries currently in the cache, including entries that are still being
+     * computed.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,762 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.replacements;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.oracle.graal.compiler.common.LocationIdentity;
+import com.oracle.graal.compiler.common.type.FloatStamp;
+import com.oracle.graal.compiler.common.type.IntegerStamp;
+import com.oracle.graal.compiler.common.type.ObjectStamp;
+import com.oracle.graal.compiler.common.type.Stamp;
+import com.oracle.graal.compiler.common.type.StampFactory;
+import com.oracle.graal.compiler.common.type.StampPair;
+import com.oracle.graal.compiler.common.type.VoidStamp;
+import com.oracle.graal.debug.Debug;
+import com.oracle.graal.debug.DebugCounter;
+import com.oracle.graal.debug.TTY;
+import com.oracle.graal.graph.NodeClass;
+import com.oracle.graal.graph.NodeSourcePosition;
+import com.oracle.graal.nodes.EncodedGraph;
+import com.oracle.graal.nodes.FieldLocationIdentity;
+import com.oracle.graal.nodes.NamedLocationIdentity;
+import com.oracle.graal.options.Option;
+import com.oracle.graal.options.OptionType;
+import com.oracle.graal.options.OptionValue;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.meta.Assumptions;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+
+/**
+ * A persistent cache of {@link EncodedGraph encoded graphs} stored in the directory specified by
+ * {@link Options#PEGraphCacheDirectory}. Each graph is stored in its own file, which is written
+ * atomically and memory-mapped when read.
+ *
+ * An entry is keyed by the signature of the root method and a namespace describing the parsing
+ * configuration. It records a hash of the class file of every method that was parsed into the
+ * graph, and is discarded on load if any of these class files changed or if the entry was written
+ * by a different compiler build. Graphs that reference objects that cannot be described
+ * independently of the VM instance (e.g., object constants) or that depend on assumptions are not
+ * stored. Values read from the heap at parse time are not validated either, so stored graphs must
+ * be parsed without constant folding field reads (see {@link CachingPEGraphDecoder}).
+ */
+public final class PersistentEncodedGraphCache {
+
+    public static class Options {
+        @Option(help = "Directory of the persistent cache of graphs parsed for partial evaluation (disabled if not set).", type = OptionType.Expert)//
+        public static final OptionValue<String> PEGraphCacheDirectory = new OptionValue<>(null);
+    }
+
+    private static final int MAGIC = 0x47524150;
+    private static final int VERSION = 2;
+
+    private static final DebugCounter CacheHits = Debug.counter("PersistentGraphCacheHits");
+    private static final DebugCounter CacheMisses = Debug.counter("PersistentGraphCacheMisses");
+    private static final DebugCounter CacheInvalid = Debug.counter("PersistentGraphCacheInvalidEntries");
+    private static final DebugCounter CacheStores = Debug.counter("PersistentGraphCacheStores");
+    private static final DebugCounter CacheUnsupported = Debug.counter("PersistentGraphCacheUnsupportedGraphs");
+
+    private static final ConcurrentHashMap<String, PersistentEncodedGraphCache> caches = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final MetaAccessProvider metaAccess;
+    private final Architecture architecture;
+    private final String compilerFingerprint;
+    private final ConcurrentHashMap<Class<?>, Long> classFileHashes = new ConcurrentHashMap<>();
+
+    /**
+     * Keys of graphs that cannot be stored. They are neither looked up nor written again.
+     */
+    private final Set<String> unsupportedKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Determines if a failure to write an entry was already reported on the console.
+     */
+    private final AtomicBoolean writeFailureReported = new AtomicBoolean();
+
+    /**
+     * Gets the cache for the directory specified by {@link Options#PEGraphCacheDirectory}.
+     *
+     * @return {@code null} if no cache directory was specified
+     */
+    public static PersistentEncodedGraphCache get(MetaAccessProvider metaAccess, Architecture architecture) {
+        String dir = Options.PEGraphCacheDirectory.getValue();
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+        return caches.computeIfAbsent(dir + ":" + architecture.getName(), k -> new PersistentEncodedGraphCache(Paths.get(dir), metaAccess, architecture));
+    }
+
+    private PersistentEncodedGraphCache(Path directory, MetaAccessProvider metaAccess, Architecture architecture) {
+        this.directory = directory;
+        this.metaAccess = metaAccess;
+        this.architecture = architecture;
+        this.compilerFingerprint = computeCompilerFingerprint(architecture);
+    }
+
+    /**
+     * Describes the build of the compiler and VM so that entries written by a different build are
+     * not used.
+     */
+    private static String computeCompilerFingerprint(Architecture architecture) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(System.getProperty("java.vm.version")).append('|').append(architecture.getName());
+        try {
+            Path location = Paths.get(EncodedGraph.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            sb.append('|').append(location).append('|').append(Files.size(location)).append('|').append(Files.getLastModifiedTime(location).toMillis());
+        } catch (Exception e) {
+            // no code source available, the VM version has to suffice
+        }
+        return sb.toString();
+    }
+
+    private Path entryPath(String key) {
+        return directory.resolve(String.format("%016x.graph", hash(key)));
+    }
+
+    /**
+     * Computes a 64-bit hash of {@code s} that is stable across VM instances.
+     */
+    static long hash(String s) {
+        return hash(s.getBytes(StandardCharsets.UTF_8), 0xcbf29ce484222325L);
+    }
+
+    /**
+     * FNV-1a hash.
+     */
+    private static long hash(byte[] bytes, long seed) {
+        long h = seed;
+        for (byte b : bytes) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Looks up the graph stored for {@code key}.
+     *
+     * @return {@code null} if no valid entry exists
+     */
+    public EncodedGraph load(String key, ResolvedJavaMethod method, boolean allowAssumptions) {
+        Path path = entryPath(key);
+        if (unsupportedKeys.contains(key) || !Files.exists(path)) {
+            CacheMisses.increment();
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            EncodedGraph result = new Reader(buffer).read(key, method, allowAssumptions);
+            if (result == null) {
+                CacheInvalid.increment();
+            } else {
+                CacheHits.increment();
+            }
+            return result;
+        } catch (IOException | RuntimeException | LinkageError e) {
+            CacheInvalid.increment();
+            if (Debug.isLogEnabled()) {
+                Debug.log("could not load persistent graph %s for %s: %s", path, method, e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Stores {@code graph} for {@code key} if all objects referenced by the graph can be stored.
+     * Failures are ignored since the cache is only an optimization; only the first I/O error is
+     * reported on the console. A graph that cannot be stored is remembered so that its key is not
+     * looked up or written again.
+     */
+    public void store(String key, ResolvedJavaMethod method, EncodedGraph graph) {
+        if (unsupportedKeys.contains(key)) {
+            return;
+        }
+        if (graph.getAssumptions() != null && !graph.getAssumptions().isEmpty()) {
+            markUnsupported(key);
+            return;
+        }
+        try {
+            byte[] bytes = new Writer().write(key, method, graph);
+            if (bytes == null) {
+                markUnsupported(key);
+                return;
+            }
+            Files.createDirectories(directory);
+            Path path = entryPath(key);
+            Path tmp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            CacheStores.increment();
+        } catch (IOException e) {
+            if (writeFailureReported.compareAndSet(false, true)) {
+                TTY.println("Warning: could not write persistent graph for %s (further failures are not reported): %s", method.format("%H.%n(%p)"), e);
+            } else if (Debug.isLogEnabled()) {
+                Debug.log("could not write persistent graph for %s: %s", method, e);
+            }
+        }
+    }
+
+    private void markUnsupported(String key) {
+        if (unsupportedKeys.add(key)) {
+            CacheUnsupported.increment();
+        }
+    }
+
+    private static Class<?> lookupClass(String internalName) throws ClassNotFoundException {
+        if (internalName.length() == 1) {
+            return JavaKind.fromTypeString(internalName).toJavaClass();
+        }
+        String name;
+        if (internalName.charAt(0) == '[') {
+            name = internalName.replace('/', '.');
+        } else {
+            name = internalName.substring(1, internalName.length() - 1).replace('/', '.');
+        }
+        return lookupClassByName(name);
+    }
+
+    private static Class<?> lookupClassByName(String name) throws ClassNotFoundException {
+        try {
+            return Class.forName(name, false, PersistentEncodedGraphCache.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return Class.forName(name, false, ClassLoader.getSystemClassLoader());
+        }
+    }
+
+    /**
+     * Computes a hash of the class file declaring {@code method}.
+     *
+     * @return 0 if the class file is not available
+     */
+    private long classFileHash(ResolvedJavaMethod method) {
+        try {
+            Class<?> clazz = lookupClass(method.getDeclaringClass().getName());
+            return classFileHashes.computeIfAbsent(clazz, PersistentEncodedGraphCache::readClassFileHash);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return 0;
+        }
+    }
+
+    private static long readClassFileHash(Class<?> clazz) {
+        String resource = "/" + clazz.getName().replace('.', '/') + ".class";
+        try (InputStream in = clazz.getResourceAsStream(resource)) {
+            if (in == null) {
+                return 0;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            long h = hash(out.toByteArray(), 0xcbf29ce484222325L);
+            return h == 0 ? 1 : h;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static Set<ResolvedJavaMethod> parsedMethods(ResolvedJavaMethod method, EncodedGraph graph) {
+        Set<ResolvedJavaMethod> methods = new LinkedHashSet<>();
+        methods.add(method);
+        if (graph.getInlinedMethods() != null) {
+            methods.addAll(graph.getInlinedMethods());
+        }
+        return methods;
+    }
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_PRIMITIVE_CONSTANT = 1;
+    private static final int TAG_NULL_CONSTANT = 2;
+    private static final int TAG_STRING = 3;
+    private static final int TAG_INTEGER = 4;
+    private static final int TAG_LONG = 5;
+    private static final int TAG_BOOLEAN = 6;
+    private static final int TAG_ENUM = 7;
+    private static final int TAG_TYPE = 8;
+    private static final int TAG_METHOD = 9;
+    private static final int TAG_FIELD = 10;
+    private static final int TAG_INTEGER_STAMP = 11;
+    private static final int TAG_FLOAT_STAMP = 12;
+    private static final int TAG_OBJECT_STAMP = 13;
+    private static final int TAG_VOID_STAMP = 14;
+    private static final int TAG_STAMP_PAIR = 15;
+    private static final int TAG_SOURCE_POSITION = 16;
+    private static final int TAG_FIELD_LOCATION = 17;
+    private static final int TAG_ANY_LOCATION = 18;
+    private static final int TAG_FINAL_LOCATION = 19;
+    private static final int TAG_ARRAY_LENGTH_LOCATION = 20;
+    private static final int TAG_ARRAY_LOCATION = 21;
+    private static final int TAG_INT_ARRAY = 22;
+    private static final int TAG_DOUBLE_ARRAY = 23;
+
+    /**
+     * Thrown when a graph references an object that cannot be stored.
+     */
+    @SuppressWarnings("serial")
+    private static final class UnsupportedObjectException extends Exception {
+        UnsupportedObjectException(Object object) {
+            super(object.getClass().getName(), null, false, false);
+        }
+    }
+
+    private final class Writer {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        byte[] write(String key, ResolvedJavaMethod method, EncodedGraph graph) throws IOException {
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(compilerFingerprint);
+                writeString(key);
+
+                Set<ResolvedJavaMethod> methods = parsedMethods(method, graph);
+                out.writeInt(methods.size());
+                for (ResolvedJavaMethod m : methods) {
+                    long classFileHash = classFileHash(m);
+                    if (classFileHash == 0) {
+                        return null;
+                    }
+                    writeMethod(m);
+                    out.writeLong(classFileHash);
+                }
+
+                out.writeLong(graph.getStartOffset());
+                NodeClass<?>[] nodeClasses = graph.getNodeClasses();
+                out.writeInt(nodeClasses.length);
+                for (NodeClass<?> nodeClass : nodeClasses) {
+                    writeString(nodeClass.getJavaClass().getName());
+                }
+                Object[] objects = graph.getObjects();
+                out.writeInt(objects.length);
+                for (Object object : objects) {
+                    writeObject(object);
+                }
+                byte[] encoding = graph.getEncoding();
+                out.writeInt(encoding.length);
+                out.write(encoding);
+                out.flush();
+                return bytes.toByteArray();
+            } catch (UnsupportedObjectException e) {
+                if (Debug.isLogEnabled()) {
+                    Debug.log("graph of %s references unsupported object of type %s", method, e.getMessage());
+                }
+                return null;
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+
+        private void writeType(ResolvedJavaType type) throws IOException {
+            writeString(type.getName());
+        }
+
+        private void writeMethod(ResolvedJavaMethod method) throws IOException {
+            writeType(method.getDeclaringClass());
+            writeString(method.getName());
+            writeString(method.getSignature().toMethodDescriptor());
+        }
+
+        private void writeStamp(Stamp stamp) throws IOException, UnsupportedObjectException {
+            if (stamp == null) {
+                out.writeByte(TAG_NULL);
+            } else if (stamp.getClass() == IntegerStamp.class) {
+                IntegerStamp s = (IntegerStamp) stamp;
+                out.writeByte(TAG_INTEGER_STAMP);
+                out.writeInt(s.getBits());
+                out.writeLong(s.lowerBound());
+                out.writeLong(s.upperBound());
+                out.writeLong(s.downMask());
+                out.writeLong(s.upMask());
+            } else if (stamp.getClass() == FloatStamp.class) {
+                FloatStamp s = (FloatStamp) stamp;
+                out.writeByte(TAG_FLOAT_STAMP);
+                out.writeInt(s.getBits());
+                out.writeDouble(s.lowerBound());
+                out.writeDouble(s.upperBound());
+                out.writeBoolean(s.isNonNaN());
+            } else if (stamp.getClass() == ObjectStamp.class) {
+                ObjectStamp s = (ObjectStamp) stamp;
+                out.writeByte(TAG_OBJECT_STAMP);
+                writeObject(s.type());
+                out.writeBoolean(s.isExactType());
+                out.writeBoolean(s.nonNull());
+                out.writeBoolean(s.alwaysNull());
+            } else if (stamp instanceof VoidStamp) {
+                out.writeByte(TAG_VOID_STAMP);
+            } else {
+                throw new UnsupportedObjectException(stamp);
+            }
+        }
+
+        private void writeObject(Object object) throws IOException, UnsupportedObjectException {
+            if (object == null) {
+                out.writeByte(TAG_NULL);
+            } else if (object instanceof JavaConstant) {
+                JavaConstant constant = (JavaConstant) object;
+                if (constant.getJavaKind().isPrimitive()) {
+                    out.writeByte(TAG_PRIMITIVE_CONSTANT);
+                    writeString(constant.getJavaKind().name());
+                    switch (constant.getJavaKind()) {
+                        case Boolean:
+                            out.writeLong(constant.asBoolean() ? 1 : 0);
+                            break;
+                        case Float:
+                            out.writeLong(Float.floatToRawIntBits(constant.asFloat()));
+                            break;
+                        case Double:
+                            out.writeLong(Double.doubleToRawLongBits(constant.asDouble()));
+                            break;
+                        default:
+                            out.writeLong(constant.asLong());
+                            break;
+                    }
+                } else if (constant.isNull() && constant == JavaConstant.NULL_POINTER) {
+                    out.writeByte(TAG_NULL_CONSTANT);
+                } else {
+                    throw new UnsupportedObjectException(object);
+                }
+            } else if (object instanceof String) {
+                out.writeByte(TAG_STRING);
+                writeString((String) object);
+            } else if (object instanceof Integer) {
+                out.writeByte(TAG_INTEGER);
+                out.writeInt((Integer) object);
+            } else if (object instanceof Long) {
+                out.writeByte(TAG_LONG);
+                out.writeLong((Long) object);
+            } else if (object instanceof Boolean) {
+                out.writeByte(TAG_BOOLEAN);
+                out.writeBoolean((Boolean) object);
+            } else if (object instanceof Enum) {
+                out.writeByte(TAG_ENUM);
+                writeString(((Enum<?>) object).getDeclaringClass().getName());
+                writeString(((Enum<?>) object).name());
+            } else if (object instanceof ResolvedJavaType) {
+                out.writeByte(TAG_TYPE);
+                writeType((ResolvedJavaType) object);
+            } else if (object instanceof ResolvedJavaMethod) {
+                out.writeByte(TAG_METHOD);
+                writeMethod((ResolvedJavaMethod) object);
+            } else if (object instanceof ResolvedJavaField) {
+                ResolvedJavaField field = (ResolvedJavaField) object;
+                out.writeByte(TAG_FIELD);
+                writeType(field.getDeclaringClass());
+                writeString(field.getName());
+                out.writeBoolean(field.isStatic());
+            } else if (object instanceof Stamp) {
+                writeStamp((Stamp) object);
+            } else if (object instanceof StampPair) {
+                StampPair pair = (StampPair) object;
+                out.writeByte(TAG_STAMP_PAIR);
+                writeStamp(pair.getTrustedStamp());
+                writeStamp(pair.getUncheckedStamp());
+            } else if (object.getClass() == NodeSourcePosition.class) {
+                NodeSourcePosition position = (NodeSourcePosition) object;
+                if (position.getReceiver() != null) {
+                    throw new UnsupportedObjectException(position.getReceiver());
+                }
+                out.writeByte(TAG_SOURCE_POSITION);
+                writeObject(position.getCaller());
+                writeMethod(position.getMethod());
+                out.writeInt(position.getBCI());
+            } else if (object.getClass() == FieldLocationIdentity.class) {
+                out.writeByte(TAG_FIELD_LOCATION);
+                writeObject(((FieldLocationIdentity) object).getField());
+            } else if (object instanceof LocationIdentity) {
+                writeLocationIdentity((LocationIdentity) object);
+            } else if (object instanceof int[]) {
+                int[] array = (int[]) object;
+                out.writeByte(TAG_INT_ARRAY);
+                out.writeInt(array.length);
+                for (int v : array) {
+                    out.writeInt(v);
+                }
+            } else if (object instanceof double[]) {
+                double[] array = (double[]) object;
+                out.writeByte(TAG_DOUBLE_ARRAY);
+                out.writeInt(array.length);
+                for (double v : array) {
+                    out.writeDouble(v);
+                }
+            } else {
+                throw new UnsupportedObjectException(object);
+            }
+        }
+
+        /**
+         * Only location identities with a canonical instance can be stored since location
+         * identities are compared by identity.
+         */
+        private void writeLocationIdentity(LocationIdentity location) throws IOException, UnsupportedObjectException {
+            if (location.equals(LocationIdentity.any())) {
+                out.writeByte(TAG_ANY_LOCATION);
+                return;
+            } else if (location.equals(NamedLocationIdentity.FINAL_LOCATION)) {
+                out.writeByte(TAG_FINAL_LOCATION);
+                return;
+            } else if (location.equals(NamedLocationIdentity.ARRAY_LENGTH_LOCATION)) {
+                out.writeByte(TAG_ARRAY_LENGTH_LOCATION);
+                return;
+            }
+            for (JavaKind kind : JavaKind.values()) {
+                if (location.equals(NamedLocationIdentity.getArrayLocation(kind))) {
+                    out.writeByte(TAG_ARRAY_LOCATION);
+                    writeString(kind.name());
+                    return;
+                }
+            }
+            throw new UnsupportedObjectException(location);
+        }
+    }
+
+    /**
+     * Thrown when an entry does not match the current VM, i.e., a class was changed or can no
+     * longer be resolved.
+     */
+    @SuppressWarnings("serial")
+    private static final class InvalidEntryException extends Exception {
+        InvalidEntryException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final class Reader {
+        private final ByteBuffer in;
+
+        Reader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        EncodedGraph read(String key, ResolvedJavaMethod method, boolean allowAssumptions) {
+            try {
+                if (in.getInt() != MAGIC || in.getInt() != VERSION || !compilerFingerprint.equals(readString()) || !key.equals(readString())) {
+                    return null;
+                }
+                int methodCount = in.getInt();
+                List<ResolvedJavaMethod> inlinedMethods = new ArrayList<>(methodCount);
+                for (int i = 0; i < methodCount; i++) {
+                    ResolvedJavaMethod m = readMethod();
+                    long classFileHash = in.getLong();
+                    if (classFileHash != classFileHash(m)) {
+                        throw new InvalidEntryException("class file of " + m.getDeclaringClass().toJavaName() + " changed");
+                    }
+                    if (i == 0) {
+                        if (!m.equals(method)) {
+                            return null;
+                        }
+                    } else {
+                        inlinedMethods.add(m);
+                    }
+                }
+
+                long startOffset = in.getLong();
+                NodeClass<?>[] nodeClasses = new NodeClass<?>[in.getInt()];
+                for (int i = 0; i < nodeClasses.length; i++) {
+                    nodeClasses[i] = NodeClass.get(lookupClassByName(readString()));
+                }
+                Object[] objects = new Object[in.getInt()];
+                for (int i = 0; i < objects.length; i++) {
+                    objects[i] = readObject();
+                }
+                byte[] encoding = new byte[in.getInt()];
+                in.get(encoding);
+                Assumptions assumptions = allowAssumptions ? new Assumptions() : null;
+                return new EncodedGraph(encoding, startOffset, objects, nodeClasses, assumptions, inlinedMethods);
+            } catch (InvalidEntryException | ClassNotFoundException e) {
+                if (Debug.isLogEnabled()) {
+                    Debug.log("discarding persistent graph of %s: %s", method, e);
+                }
+                return null;
+            }
+        }
+
+        private String readString() {
+            byte[] b = new byte[in.getInt()];
+            in.get(b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        private ResolvedJavaType readType() throws ClassNotFoundException {
+            return metaAccess.lookupJavaType(lookupClass(readString()));
+        }
+
+        private ResolvedJavaMethod readMethod() throws ClassNotFoundException, InvalidEntryException {
+            ResolvedJavaType type = readType();
+            String name = readString();
+            String descriptor = readString();
+            if (name.equals("<clinit>")) {
+                ResolvedJavaMethod clinit = type.getClassInitializer();
+                if (clinit != null) {
+                    return clinit;
+                }
+            }
+            for (ResolvedJavaMethod m : name.equals("<init>") ? type.getDeclaredConstructors() : type.getDeclaredMethods()) {
+                if (m.getName().equals(name) && m.getSignature().toMethodDescriptor().equals(descriptor)) {
+                    return m;
+                }
+            }
+            throw new InvalidEntryException("method not found: " + type.toJavaName() + "." + name + descriptor);
+        }
+
+        private ResolvedJavaField readField() throws ClassNotFoundException, InvalidEntryException {
+            ResolvedJavaType type = readType();
+            String name = readString();
+            boolean isStatic = in.get() != 0;
+            for (ResolvedJavaField f : isStatic ? type.getStaticFields() : type.getInstanceFields(false)) {
+                if (f.getName().equals(name)) {
+                    return f;
+                }
+            }
+            throw new InvalidEntryException("field not found: " + type.toJavaName() + "." + name);
+        }
+
+        private Stamp readStamp() throws ClassNotFoundException, InvalidEntryException {
+            return (Stamp) readObject();
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object readObject() throws ClassNotFoundException, InvalidEntryException {
+            int tag = in.get();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_PRIMITIVE_CONSTANT: {
+                    JavaKind kind = JavaKind.valueOf(readString());
+                    long raw = in.getLong();
+                    switch (kind) {
+                        case Boolean:
+                            return JavaConstant.forBoolean(raw != 0);
+                        case Byte:
+                            return JavaConstant.forByte((byte) raw);
+                        case Short:
+                            return JavaConstant.forShort((short) raw);
+                        case Char:
+                            return JavaConstant.forChar((char) raw);
+                        case Int:
+                            return JavaConstant.forInt((int) raw);
+                        case Long:
+                            return JavaConstant.forLong(raw);
+                        case Float:
+                            return JavaConstant.forFloat(Float.intBitsToFloat((int) raw));
+                        case Double:
+                            return JavaConstant.forDouble(Double.longBitsToDouble(raw));
+                        default:
+                            throw new InvalidEntryException("unexpected constant kind " + kind);
+                    }
+                }
+                case TAG_NULL_CONSTANT:
+                    return JavaConstant.NULL_POINTER;
+                case TAG_STRING:
+                    return readString();
+                case TAG_INTEGER:
+                    return in.getInt();
+                case TAG_LONG:
+                    return in.getLong();
+                case TAG_BOOLEAN:
+                    return in.get() != 0;
+                case TAG_ENUM: {
+                    Class enumClass = lookupClassByName(readString());
+                    return Enum.valueOf(enumClass, readString());
+                }
+                case TAG_TYPE:
+                    return readType();
+                case TAG_METHOD:
+                    return readMethod();
+                case TAG_FIELD:
+                    return readField();
+                case TAG_INTEGER_STAMP:
+                    return new IntegerStamp(in.getInt(), in.getLong(), in.getLong(), in.getLong(), in.getLong());
+                case TAG_FLOAT_STAMP:
+                    return new FloatStamp(in.getInt(), in.getDouble(), in.getDouble(), in.get() != 0);
+                case TAG_OBJECT_STAMP:
+                    return new ObjectStamp((ResolvedJavaType) readObject(), in.get() != 0, in.get() != 0, in.get() != 0);
+                case TAG_VOID_STAMP:
+                    return StampFactory.forVoid();
+                case TAG_STAMP_PAIR:
+                    return StampPair.create(readStamp(), readStamp());
+                case TAG_SOURCE_POSITION: {
+                    NodeSourcePosition caller = (NodeSourcePosition) readObject();
+                    ResolvedJavaMethod m = readMethod();
+                    return new NodeSourcePosition(null, caller, m, in.getInt());
+                }
+                case TAG_FIELD_LOCATION:
+                    return new FieldLocationIdentity((ResolvedJavaField) readObject());
+                case TAG_ANY_LOCATION:
+                    return LocationIdentity.any();
+                case TAG_FINAL_LOCATION:
+                    return NamedLocationIdentity.FINAL_LOCATION;
+                case TAG_ARRAY_LENGTH_LOCATION:
+                    return NamedLocationIdentity.ARRAY_LENGTH_LOCATION;
+                case TAG_ARRAY_LOCATION:
+                    return NamedLocationIdentity.getArrayLocation(JavaKind.valueOf(readString()));
+                case TAG_INT_ARRAY: {
+                    int[] array = new int[in.getInt()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = in.getInt();
+                    }
+                    return array;
+                }
+                case TAG_DOUBLE_ARRAY: {
+                    double[] array = new double[in.getInt()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = in.getDouble();
+                    }
+                    return array;
+                }
+                default:
+                    throw new InvalidEntryException("unknown tag " + tag);
+            }
+        }
+    }
+}
@@ -37,7 +37,6 @@ import java.util.Collections;
 import java.util.Formattable;
 import java.util.Formatter;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -537,12 +536,15 @@ public class SnippetTemplate {
 
     private static final DebugTimer SnippetTemplateCreationTime = Debug.timer("SnippetTemplateCreationTime");
     private static final DebugCounter SnippetTemplates = Debug.counter("SnippetTemplateCount");
+    private static final DebugCounter SnippetTemplateCacheHits = Debug.counter("SnippetTemplateCacheHits");
+    private static final DebugCounter SnippetTemplateCacheMisses = Debug.counter("SnippetTemplateCacheMisses");
+    private static final DebugCounter SnippetTemplateCacheEvictions = Debug.counter("SnippetTemplateCacheEvictions");
 
     static class Options {
-        @Option(help = "Use a LRU cache for snippet templates.")//
+        @Option(help = "Use a bounded cache for snippet templates.")//
         static final OptionValue<Boolean> UseSnippetTemplateCache = new OptionValue<>(true);
 
-        @Option(help = "")//
+        @Option(help = "Maximum number of cached templates per snippet class.")//
         static final OptionValue<Integer> MaxTemplatesPerSnippet = new OptionValue<>(50);
     }
 
@@ -554,7 +556,7 @@ public class SnippetTemplate {
         protected final Providers providers;
         protected final SnippetReflectionProvider snippetReflection;
         protected final TargetDescription target;
-        private final Map<CacheKey, SnippetTemplate> templates;
+        private final ConcurrentClockCache<CacheKey, SnippetTemplate> templates;
 
         protected AbstractTemplates(Providers providers, SnippetReflectionProvider snippetReflection, TargetDescription target) {
             this.providers = providers;
@@ -562,7 +564,7 @@ public class SnippetTemplate {
             this.target = target;
             if (Options.UseSnippetTemplateCache.getValue()) {
                 int size = Options.MaxTemplatesPerSnippet.getValue();
-                this.templates = Collections.synchronizedMap(new LRUCache<>(size, size));
+                this.templates = new ConcurrentClockCache<>(size, SnippetTemplateCacheHits, SnippetTemplateCacheMisses, SnippetTemplateCacheEvictions);
             } else {
                 this.templates = null;
             }
@@ -600,36 +602,21 @@ public class SnippetTemplate {
         /**
          * Gets a template for a given key, creating it first if necessary.
          */
-        @SuppressWarnings("try")
         protected SnippetTemplate template(final Arguments args) {
-            SnippetTemplate template = Options.UseSnippetTemplateCache.getValue() && args.cacheable ? templates.get(args.cacheKey) : null;
-            if (template == null) {
-                SnippetTemplates.increment();
-                try (DebugCloseable a = SnippetTemplateCreationTime.start(); Scope s = Debug.scope("SnippetSpecialization", args.info.method)) {
-                    template = new SnippetTemplate(providers, snippetReflection, args);
-                    if (Options.UseSnippetTemplateCache.getValue() && args.cacheable) {
-                        templates.put(args.cacheKey, template);
-                    }
-                } catch (Throwable e) {
-                    throw Debug.handle(e);
-                }
+            if (Options.UseSnippetTemplateCache.getValue() && args.cacheable) {
+                return templates.get(args.cacheKey, key -> createTemplate(args));
             }
-            return template;
-        }
-    }
-
-    private static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
-        private static final long serialVersionUID = 1L;
-        private final int maxCacheSize;
-
-        LRUCache(int initialCapacity, int maxCacheSize) {
-            super(initialCapacity, 0.75F, true);
-            this.maxCacheSize = maxCacheSize;
+            return createTemplate(args);
         }
 
-        @Override
-        protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-            return size() > maxCacheSize;
+        @SuppressWarnings("try")
+        private SnippetTemplate createTemplate(Arguments args) {
+            SnippetTemplates.increment();
+            try (DebugCloseable a = SnippetTemplateCreationTime.start(); Scope s = Debug.scope("SnippetSpecialization", args.info.method)) {
+                return new SnippetTemplate(providers, snippetReflection, args);
+            } catch (Throwable e) {
+                throw Debug.handle(e);
+            }
         }
     }
 
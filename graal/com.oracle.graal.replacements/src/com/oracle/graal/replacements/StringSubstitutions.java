@@ -27,7 +27,10 @@ import com.oracle.graal.api.replacements.MethodSubstitution;
 import com.oracle.graal.compiler.common.SuppressFBWarnings;
 import com.oracle.graal.nodes.graphbuilderconf.InvocationPlugin;
 import com.oracle.graal.nodes.java.LoadFieldNode;
+import com.oracle.graal.replacements.nodes.ArrayCompareToNode;
 import com.oracle.graal.replacements.nodes.ArrayEqualsNode;
+import com.oracle.graal.replacements.nodes.ArrayRegionEqualsNode;
+import com.oracle.graal.replacements.nodes.StringIndexOfNode;
 
 // JaCoCo Exclude
 
@@ -60,6 +63,60 @@ public class StringSubstitutions {
         return ArrayEqualsNode.equals(array1, array2, array1.length);
     }
 
+    /**
+     * Substitution for {@link String#compareTo(String)}. This is only registered on platforms that
+     * implement {@link ArrayCompareToNode}.
+     */
+    @MethodSubstitution(isStatic = false)
+    @SuppressFBWarnings(value = "ES_COMPARING_PARAMETER_STRING_WITH_EQ", justification = "reference equality on the receiver is what we want")
+    public static int compareTo(final String thisString, String anotherString) {
+        if (thisString == anotherString) {
+            return 0;
+        }
+        final char[] array1 = getValue(thisString);
+        final char[] array2 = getValue(anotherString);
+
+        return ArrayCompareToNode.compareTo(array1, array2, array1.length, array2.length);
+    }
+
+    /**
+     * Substitution for {@link String#regionMatches(int, String, int, int)}. The bounds checks are
+     * the ones of the original method, so the compared ranges are always within the value arrays.
+     * The variant that ignores case is not substituted since it folds case character by character.
+     * This is only registered on platforms that implement {@link ArrayRegionEqualsNode}.
+     */
+    @MethodSubstitution(isStatic = false)
+    public static boolean regionMatches(final String thisString, int toffset, String other, int ooffset, int len) {
+        final char[] array1 = getValue(thisString);
+        final char[] array2 = getValue(other);
+        if (ooffset < 0 || toffset < 0 || toffset > (long) array1.length - len || ooffset > (long) array2.length - len) {
+            return false;
+        }
+        if (len <= 0) {
+            return true;
+        }
+        return ArrayRegionEqualsNode.equals(array1, toffset, array2, ooffset, len);
+    }
+
+    /**
+     * Substitution for the static {@code String.indexOf} helper that all searches for a string in
+     * a string or {@link StringBuilder} end up in. The helper is package private and is only called
+     * with the value arrays of strings and string builders, which are never null. This is only
+     * registered on platforms that implement {@link StringIndexOfNode}.
+     */
+    @MethodSubstitution
+    public static int indexOf(char[] source, int sourceOffset, int sourceCount, char[] target, int targetOffset, int targetCount, int fromIndex) {
+        if (fromIndex >= sourceCount) {
+            return (targetCount == 0 ? sourceCount : -1);
+        }
+        int from = fromIndex < 0 ? 0 : fromIndex;
+        if (targetCount == 0) {
+            return from;
+        }
+        int result = StringIndexOfNode.indexOf(source, sourceOffset + from, sourceCount - from, target, targetOffset, targetCount);
+        return result < 0 ? result : result + from;
+    }
+
     /**
      * Will be intrinsified with an {@link InvocationPlugin} to a {@link LoadFieldNode}.
      */
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.replacements.nodes;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+import com.oracle.graal.compiler.common.LocationIdentity;
+import com.oracle.graal.compiler.common.type.StampFactory;
+import com.oracle.graal.graph.NodeClass;
+import com.oracle.graal.nodeinfo.InputType;
+import com.oracle.graal.nodeinfo.NodeInfo;
+import com.oracle.graal.nodes.FixedWithNextNode;
+import com.oracle.graal.nodes.NamedLocationIdentity;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.ValueNodeUtil;
+import com.oracle.graal.nodes.memory.MemoryAccess;
+import com.oracle.graal.nodes.memory.MemoryNode;
+import com.oracle.graal.nodes.spi.LIRLowerable;
+import com.oracle.graal.nodes.spi.NodeLIRBuilderTool;
+
+// JaCoCo Exclude
+
+/**
+ * Compares a range of one array with a range of the same length of another array. Both ranges must
+ * be within the bounds of their arrays; unlike {@link ArrayEqualsNode} the arrays may be the same.
+ */
+@NodeInfo
+public final class ArrayRegionEqualsNode extends FixedWithNextNode implements LIRLowerable, MemoryAccess {
+
+    public static final NodeClass<ArrayRegionEqualsNode> TYPE = NodeClass.create(ArrayRegionEqualsNode.class);
+
+    /** {@link JavaKind} of the arrays to compare. */
+    protected final JavaKind kind;
+
+    /** One array to be tested for equality. */
+    @Input ValueNode array1;
+
+    /** Index of the first element of {@link #array1} to compare. */
+    @Input ValueNode offset1;
+
+    /** The other array to be tested for equality. */
+    @Input ValueNode array2;
+
+    /** Index of the first element of {@link #array2} to compare. */
+    @Input ValueNode offset2;
+
+    /** Number of elements to compare. */
+    @Input ValueNode length;
+
+    @OptionalInput(InputType.Memory) MemoryNode lastLocationAccess;
+
+    public ArrayRegionEqualsNode(ValueNode array1, ValueNode offset1, ValueNode array2, ValueNode offset2, ValueNode length, @ConstantNodeParameter JavaKind kind) {
+        super(TYPE, StampFactory.forKind(JavaKind.Boolean));
+        this.kind = kind;
+        this.array1 = array1;
+        this.offset1 = offset1;
+        this.array2 = array2;
+        this.offset2 = offset2;
+        this.length = length;
+    }
+
+    @NodeIntrinsic
+    public static native boolean equals(Object array1, int offset1, Object array2, int offset2, int length, @ConstantNodeParameter JavaKind kind);
+
+    public static boolean equals(char[] array1, int offset1, char[] array2, int offset2, int length) {
+        return equals(array1, offset1, array2, offset2, length, JavaKind.Char);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        Value result = gen.getLIRGeneratorTool().emitArrayRegionEquals(kind, gen.operand(array1), gen.operand(offset1), gen.operand(array2), gen.operand(offset2), gen.operand(length));
+        gen.setResult(this, result);
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(kind);
+    }
+
+    @Override
+    public MemoryNode getLastLocationAccess() {
+        return lastLocationAccess;
+    }
+
+    @Override
+    public void setLastLocationAccess(MemoryNode lla) {
+        updateUsages(ValueNodeUtil.asNode(lastLocationAccess), ValueNodeUtil.asNode(lla));
+        lastLocationAccess = lla;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.replacements.nodes;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+import com.oracle.graal.compiler.common.LocationIdentity;
+import com.oracle.graal.compiler.common.type.StampFactory;
+import com.oracle.graal.graph.NodeClass;
+import com.oracle.graal.nodeinfo.InputType;
+import com.oracle.graal.nodeinfo.NodeInfo;
+import com.oracle.graal.nodes.FixedWithNextNode;
+import com.oracle.graal.nodes.NamedLocationIdentity;
+import com.oracle.graal.nodes.ValueNode;
+import com.oracle.graal.nodes.ValueNodeUtil;
+import com.oracle.graal.nodes.memory.MemoryAccess;
+import com.oracle.graal.nodes.memory.MemoryNode;
+import com.oracle.graal.nodes.spi.LIRLowerable;
+import com.oracle.graal.nodes.spi.NodeLIRBuilderTool;
+
+// JaCoCo Exclude
+
+/**
+ * Searches a range of a {@code char[]} for the first occurrence of a non-empty range of another
+ * {@code char[]}. The result is the index of the match relative to {@link #sourceOffset} or -1 if
+ * there is no match.
+ */
+@NodeInfo
+public final class StringIndexOfNode extends FixedWithNextNode implements LIRLowerable, MemoryAccess {
+
+    public static final NodeClass<StringIndexOfNode> TYPE = NodeClass.create(StringIndexOfNode.class);
+
+    /** The array that is searched. */
+    @Input ValueNode source;
+
+    /** Index of the first element of {@link #source} that is searched. */
+    @Input ValueNode sourceOffset;
+
+    /** Number of elements of {@link #source} that are searched. */
+    @Input ValueNode sourceCount;
+
+    /** The array containing the characters to search for. */
+    @Input ValueNode target;
+
+    /** Index of the first element of {@link #target} to search for. */
+    @Input ValueNode targetOffset;
+
+    /** Number of elements of {@link #target} to search for. Must be greater than zero. */
+    @Input ValueNode targetCount;
+
+    @OptionalInput(InputType.Memory) MemoryNode lastLocationAccess;
+
+    public StringIndexOfNode(ValueNode source, ValueNode sourceOffset, ValueNode sourceCount, ValueNode target, ValueNode targetOffset, ValueNode targetCount) {
+        super(TYPE, StampFactory.forKind(JavaKind.Int));
+        this.source = source;
+        this.sourceOffset = sourceOffset;
+        this.sourceCount = sourceCount;
+        this.target = target;
+        this.targetOffset = targetOffset;
+        this.targetCount = targetCount;
+    }
+
+    @NodeIntrinsic
+    public static native int indexOf(char[] source, int sourceOffset, int sourceCount, char[] target, int targetOffset, int targetCount);
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        Value result = gen.getLIRGeneratorTool().emitStringIndexOf(gen.operand(source), gen.operand(sourceOffset), gen.operand(sourceCount), gen.operand(target), gen.operand(targetOffset),
+                        gen.operand(targetCount));
+        gen.setResult(this, result);
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(JavaKind.Char);
+    }
+
+    @Override
+    public MemoryNode getLastLocationAccess() {
+        return lastLocationAccess;
+    }
+
+    @Override
+    public void setLastLocationAccess(MemoryNode lla) {
+        updateUsages(ValueNodeUtil.asNode(lastLocationAccess), ValueNodeUtil.asNode(lla));
+        lastLocationAccess = lla;
+    }
+}
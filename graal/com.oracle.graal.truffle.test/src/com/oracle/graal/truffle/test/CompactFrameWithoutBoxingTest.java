@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.oracle.graal.truffle.CompactFrameWithoutBoxing;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameSlotTypeException;
+
+public class CompactFrameWithoutBoxingTest {
+
+    @Test
+    public void testObjectSlots() throws FrameSlotTypeException {
+        Object defaultValue = new Object();
+        FrameDescriptor descriptor = new FrameDescriptor(defaultValue);
+        FrameSlot a = descriptor.addFrameSlot("a");
+        FrameSlot b = descriptor.addFrameSlot("b");
+        CompactFrameWithoutBoxing frame = new CompactFrameWithoutBoxing(descriptor, new Object[0]);
+        assertTrue(frame.isObject(a));
+        assertSame(defaultValue, frame.getObject(a));
+        frame.setObject(b, "value");
+        assertEquals("value", frame.getObject(b));
+        assertEquals("value", frame.getValue(b));
+    }
+
+    @Test
+    public void testPrimitiveSlots() throws FrameSlotTypeException {
+        FrameDescriptor descriptor = new FrameDescriptor();
+        FrameSlot i = descriptor.addFrameSlot("i", FrameSlotKind.Int);
+        FrameSlot l = descriptor.addFrameSlot("l", FrameSlotKind.Long);
+        FrameSlot d = descriptor.addFrameSlot("d", FrameSlotKind.Double);
+        FrameSlot z = descriptor.addFrameSlot("z", FrameSlotKind.Boolean);
+        FrameSlot o = descriptor.addFrameSlot("o");
+        CompactFrameWithoutBoxing frame = new CompactFrameWithoutBoxing(descriptor, new Object[0]);
+        frame.setObject(o, "before");
+        frame.setInt(i, 42);
+        frame.setLong(l, Long.MIN_VALUE);
+        frame.setDouble(d, 1.5);
+        frame.setBoolean(z, true);
+        assertEquals(42, frame.getInt(i));
+        assertEquals(Long.MIN_VALUE, frame.getLong(l));
+        assertEquals(1.5, frame.getDouble(d), 0);
+        assertTrue(frame.getBoolean(z));
+        assertEquals("before", frame.getObject(o));
+        assertTrue(frame.isInt(i));
+        assertFalse(frame.isObject(i));
+        assertEquals(42, frame.getValue(i));
+
+        frame.setObject(i, "now an object");
+        assertTrue(frame.isObject(i));
+        assertEquals("now an object", frame.getObject(i));
+    }
+
+    @Test(expected = FrameSlotTypeException.class)
+    public void testTypeMismatch() throws FrameSlotTypeException {
+        FrameDescriptor descriptor = new FrameDescriptor();
+        FrameSlot slot = descriptor.addFrameSlot("slot", FrameSlotKind.Int);
+        CompactFrameWithoutBoxing frame = new CompactFrameWithoutBoxing(descriptor, new Object[0]);
+        frame.getInt(slot);
+    }
+
+    @Test
+    public void testResize() throws FrameSlotTypeException {
+        FrameDescriptor descriptor = new FrameDescriptor();
+        FrameSlot first = descriptor.addFrameSlot("first", FrameSlotKind.Long);
+        CompactFrameWithoutBoxing frame = new CompactFrameWithoutBoxing(descriptor, new Object[0]);
+        frame.setLong(first, 7L);
+        FrameSlot second = descriptor.addFrameSlot("second", FrameSlotKind.Int);
+        FrameSlot third = descriptor.addFrameSlot("third");
+        frame.setInt(second, 3);
+        assertEquals(7L, frame.getLong(first));
+        assertEquals(3, frame.getInt(second));
+        assertTrue(frame.isObject(third));
+    }
+}
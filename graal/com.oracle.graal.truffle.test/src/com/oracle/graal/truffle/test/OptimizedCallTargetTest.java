@@ -31,17 +31,28 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import org.junit.Test;
 
+import com.oracle.graal.options.OptionValue;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.truffle.GraalTruffleCompilationListener;
 import com.oracle.graal.truffle.GraalTruffleRuntime;
 import com.oracle.graal.truffle.OptimizedCallTarget;
 import com.oracle.graal.truffle.TruffleCompilerOptions;
+import com.oracle.graal.truffle.debug.AbstractDebugCompilationListener;
 import com.oracle.graal.truffle.test.nodes.AbstractTestNode;
 import com.oracle.graal.truffle.test.nodes.ConstantTestNode;
 import com.oracle.graal.truffle.test.nodes.RootTestNode;
@@ -153,4 +164,88 @@ public class OptimizedCallTargetTest {
             assertFalse(rewriteAssumptions.stream().filter(a -> a != finalRewriteAssumption).anyMatch(Assumption::isValid));
         });
     }
+
+    private static int getCompilerThreadCount() throws ReflectiveOperationException {
+        Method getCompileQueue = GraalTruffleRuntime.class.getDeclaredMethod("getCompileQueue");
+        getCompileQueue.setAccessible(true);
+        Field compileQueue = getCompileQueue.getReturnType().getDeclaredField("compileQueue");
+        compileQueue.setAccessible(true);
+        return ((ThreadPoolExecutor) compileQueue.get(getCompileQueue.invoke(runtime))).getMaximumPoolSize();
+    }
+
+    /**
+     * Blocks all compiler threads, queues a cold and then a hot call target and releases a single
+     * compiler thread, which must then compile the hot call target first.
+     */
+    @Test
+    @SuppressWarnings("try")
+    public void testCompilationQueuePriority() throws Exception {
+        int threads = getCompilerThreadCount();
+        List<OptimizedCallTarget> blockers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            blockers.add((OptimizedCallTarget) runtime.createCallTarget(new RootTestNode(new FrameDescriptor(), "testCompilationQueuePriority.blocker" + i, new ConstantTestNode(i))));
+        }
+        OptimizedCallTarget cold = (OptimizedCallTarget) runtime.createCallTarget(new RootTestNode(new FrameDescriptor(), "testCompilationQueuePriority.cold", new ConstantTestNode(1)));
+        OptimizedCallTarget hot = (OptimizedCallTarget) runtime.createCallTarget(new RootTestNode(new FrameDescriptor(), "testCompilationQueuePriority.hot", new ConstantTestNode(2)));
+        assertEquals(1, cold.call());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2, hot.call());
+        }
+
+        Semaphore blockersStarted = new Semaphore(0);
+        Semaphore blockersReleased = new Semaphore(0);
+        List<OptimizedCallTarget> started = Collections.synchronizedList(new ArrayList<>());
+        GraalTruffleCompilationListener listener = new AbstractDebugCompilationListener() {
+            @Override
+            public void notifyCompilationStarted(OptimizedCallTarget target) {
+                if (blockers.contains(target)) {
+                    blockersStarted.release();
+                    blockersReleased.acquireUninterruptibly();
+                } else if (target == cold || target == hot) {
+                    started.add(target);
+                }
+            }
+        };
+        try (OverrideScope s = OptionValue.override(TruffleCompilerOptions.TruffleBackgroundCompilation, true, TruffleCompilerOptions.TruffleCompilationExceptionsAreThrown, false)) {
+            runtime.addCompilationListener(listener);
+            try {
+                for (OptimizedCallTarget blocker : blockers) {
+                    blocker.compile();
+                }
+                assertTrue("all compiler threads are blocked", blockersStarted.tryAcquire(threads, 60, TimeUnit.SECONDS));
+                cold.compile();
+                hot.compile();
+                blockersReleased.release();
+                runtime.waitForCompilation(hot, 60_000);
+                runtime.waitForCompilation(cold, 60_000);
+                assertEquals(Arrays.asList(hot, cold), started);
+                assertTrue("queued call targets waited for a compiler thread", runtime.getCompilationQueueMaxLatency() > 0);
+            } finally {
+                blockersReleased.release(threads);
+                for (OptimizedCallTarget blocker : blockers) {
+                    runtime.waitForCompilation(blocker, 60_000);
+                }
+                runtime.removeCompilationListener(listener);
+            }
+        }
+        assertCompiled(hot);
+        assertCompiled(cold);
+    }
+
+    @Test
+    public void testMultiTier() {
+        try (OverrideScope s = OptionValue.override(TruffleCompilerOptions.TruffleMultiTier, true, TruffleCompilerOptions.TruffleSecondTierCompilationThreshold, 10,
+                        TruffleCompilerOptions.TruffleBackgroundCompilation, false)) {
+            OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new RootTestNode(new FrameDescriptor(), "testMultiTier", new ConstantTestNode(42)));
+            assertEquals(42, target.call());
+            target.compile();
+            assertCompiled(target);
+            assertTrue("first compilation is a first tier compilation", target.isFirstTierCompilation());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(42, target.call());
+            }
+            assertCompiled(target);
+            assertFalse("first tier code triggers a second tier compilation", target.isFirstTierCompilation());
+        }
+    }
 }
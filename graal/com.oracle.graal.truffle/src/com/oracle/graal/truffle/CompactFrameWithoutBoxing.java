@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.truffle;
+
+import static com.oracle.graal.truffle.FrameWithoutBoxing.BOOLEAN_TAG;
+import static com.oracle.graal.truffle.FrameWithoutBoxing.BYTE_TAG;
+import static com.oracle.graal.truffle.FrameWithoutBoxing.DOUBLE_TAG;
+import static com.oracle.graal.truffle.FrameWithoutBoxing.FLOAT_TAG;
+import static com.oracle.graal.truffle.FrameWithoutBoxing.INT_TAG;
+import static com.oracle.graal.truffle.FrameWithoutBoxing.LONG_TAG;
+import static com.oracle.graal.truffle.FrameWithoutBoxing.OBJECT_TAG;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotTypeException;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import sun.misc.Unsafe;
+
+/**
+ * Variant of {@link FrameWithoutBoxing} that needs fewer allocations per frame. The tags are not
+ * kept in a separate array but in the second half of {@link #primitiveLocals}, and that array is
+ * only allocated when the first primitive value is stored. Until then, all slots are implicitly
+ * tagged as {@link FrameWithoutBoxing#OBJECT_TAG objects}. A frame that only holds objects
+ * therefore needs a single array, any other frame needs two instead of three.
+ *
+ * Partial evaluation always virtualizes the primitive array (see
+ * {@link com.oracle.graal.truffle.nodes.frame.NewFrameNode}), so the lazy allocation only matters
+ * for frames that are created or materialized in the interpreter.
+ */
+public final class CompactFrameWithoutBoxing implements VirtualFrame, MaterializedFrame {
+    private final FrameDescriptor descriptor;
+    private final Object[] arguments;
+    private Object[] locals;
+
+    /**
+     * Primitive values in {@code [0, n)} and their tags in {@code [n, 2n)} where {@code n} is half
+     * the length of the array, or {@code null} if no primitive value was stored yet.
+     */
+    private long[] primitiveLocals;
+
+    public CompactFrameWithoutBoxing(FrameDescriptor descriptor, Object[] arguments) {
+        this.descriptor = descriptor;
+        this.arguments = arguments;
+        int size = descriptor.getSize();
+        this.locals = new Object[size];
+        Object defaultValue = descriptor.getDefaultValue();
+        if (defaultValue != null) {
+            Arrays.fill(locals, defaultValue);
+        }
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return unsafeCast(arguments, Object[].class, true, true);
+    }
+
+    @Override
+    public MaterializedFrame materialize() {
+        ((GraalTruffleRuntime) Truffle.getRuntime()).markFrameMaterializeCalled(descriptor);
+        return this;
+    }
+
+    private Object[] getLocals() {
+        return unsafeCast(locals, Object[].class, true, true);
+    }
+
+    private long[] getPrimitiveLocals() {
+        return unsafeCast(this.primitiveLocals, long[].class, true, false);
+    }
+
+    private long[] ensurePrimitiveLocals() {
+        long[] primitives = getPrimitiveLocals();
+        if (primitives == null) {
+            primitives = new long[2 * getLocals().length];
+            primitiveLocals = primitives;
+        }
+        return primitives;
+    }
+
+    @Override
+    public Object getObject(FrameSlot slot) throws FrameSlotTypeException {
+        int slotIndex = slot.getIndex();
+        boolean condition = verifyGet(slotIndex, OBJECT_TAG);
+        return getObjectUnsafe(slotIndex, slot, condition);
+    }
+
+    Object getObjectUnsafe(int slotIndex, FrameSlot slot, boolean condition) {
+        return unsafeGetObject(getLocals(), Unsafe.ARRAY_OBJECT_BASE_OFFSET + slotIndex * (long) Unsafe.ARRAY_OBJECT_INDEX_SCALE, condition, slot);
+    }
+
+    @Override
+    public void setObject(FrameSlot slot, Object value) {
+        int slotIndex = slot.getIndex();
+        checkSlotIndex(slotIndex);
+        long[] primitives = getPrimitiveLocals();
+        if (primitives != null) {
+            setTag(primitives, slotIndex, OBJECT_TAG);
+        }
+        unsafePutObject(getLocals(), Unsafe.ARRAY_OBJECT_BASE_OFFSET + slotIndex * (long) Unsafe.ARRAY_OBJECT_INDEX_SCALE, value, slot);
+    }
+
+    @Override
+    public byte getByte(FrameSlot slot) throws FrameSlotTypeException {
+        int slotIndex = slot.getIndex();
+        boolean condition = verifyGet(slotIndex, BYTE_TAG);
+        return getByteUnsafe(slotIndex, slot, condition);
+    }
+
+    byte getByteUnsafe(int slotIndex, FrameSlot slot, boolean condition) {
+        return (byte) unsafeGetInt(getPrimitiveLocals(), getPrimitiveOffset(slotIndex), condition, slot);
+    }
+
+    @Override
+    public void setByte(FrameSlot slot, byte value) {
+        int slotIndex = slot.getIndex();
+        unsafePutInt(verifySet(slotIndex, BYTE_TAG), getPrimitiveOffset(slotIndex), value, slot);
+    }
+
+    @Override
+    public boolean getBoolean(FrameSlot slot) throws FrameSlotTypeException {
+        int slotIndex = slot.getIndex();
+        boolean condition = verifyGet(slotIndex, BOOLEAN_TAG);
+        return getBooleanUnsafe(slotIndex, slot, condition);
+    }
+
+    boolean getBooleanUnsafe(int slotIndex, FrameSlot slot, boolean condition) {
+        return unsafeGetInt(getPrimitiveLocals(), getPrimitiveOffset(slotIndex), condition, slot) != 0;
+    }
+
+    @Override
+    public void setBoolean(FrameSlot slot, boolean value) {
+        int slotIndex = slot.getIndex();
+        unsafePutInt(verifySet(slotIndex, BOOLEAN_TAG), getPrimitiveOffset(slotIndex), value ? 1 : 0, slot);
+    }
+
+    @Override
+    public float getFloat(FrameSlot slot) throws FrameSlotTypeException {
+        int slotIndex = slot.getIndex();
+        boolean condition = verifyGet(slotIndex, FLOAT_TAG);
+        return getFloatUnsafe(slotIndex, slot, condition);
+    }
+
+    float getFloatUnsafe(int slotIndex, FrameSlot slot, boolean condition) {
+        return unsafeGetFloat(getPrimitiveLocals(), getPrimitiveOffset(slotIndex), condition, slot);
+    }
+
+    @Override
+    public void setFloat(FrameSlot slot, float value) {
+        int slotIndex = slot.getIndex();
+        unsafePutFloat(verifySet(slotIndex, FLOAT_TAG), getPrimitiveOffset(slotIndex), value, slot);
+    }
+
+    @Override
+    public long getLong(FrameSlot slot) throws FrameSlotTypeException {
+        int slotIndex = slot.getIndex();
+        boolean condition = verifyGet(slotIndex, LONG_TAG);
+        return getLongUnsafe(slotIndex, slot, condition);
+    }
+
+    long getLongUnsafe(int slotIndex, FrameSlot slot, boolean condition) {
+        return unsafeGetLong(getPrimitiveLocals(), getPrimitiveOffset(slotIndex), condition, slot);
+    }
+
+    @Override
+    public void setLong(FrameSlot slot, long value) {
+        int slotIndex = slot.getIndex();
+        unsafePutLong(verifySet(slotIndex, LONG_TAG), getPrimitiveOffset(slotIndex), value, slot);
+    }
+
+    @Override
+    public int getInt(FrameSlot slot) throws FrameSlotTypeException {
+        int slotIndex = slot.getIndex();
+        boolean condition = verifyGet(slotIndex, INT_TAG);
+        return getIntUnsafe(slotIndex, slot, condition);
+    }
+
+    int getIntUnsafe(int slotIndex, FrameSlot slot, boolean condition) {
+        return unsafeGetInt(getPrimitiveLocals(), getPrimitiveOffset(slotIndex), condition, slot);
+    }
+
+    @Override
+    public void setInt(FrameSlot slot, int value) {
+        int slotIndex = slot.getIndex();
+        unsafePutInt(verifySet(slotIndex, INT_TAG), getPrimitiveOffset(slotIndex), value, slot);
+    }
+
+    @Override
+    public double getDouble(FrameSlot slot) throws FrameSlotTypeException {
+        int slotIndex = slot.getIndex();
+        boolean condition = verifyGet(slotIndex, DOUBLE_TAG);
+        return getDoubleUnsafe(slotIndex, slot, condition);
+    }
+
+    double getDoubleUnsafe(int slotIndex, FrameSlot slot, boolean condition) {
+        return unsafeGetDouble(getPrimitiveLocals(), getPrimitiveOffset(slotIndex), condition, slot);
+    }
+
+    @Override
+    public void setDouble(FrameSlot slot, double value) {
+        int slotIndex = slot.getIndex();
+        unsafePutDouble(verifySet(slotIndex, DOUBLE_TAG), getPrimitiveOffset(slotIndex), value, slot);
+    }
+
+    @Override
+    public FrameDescriptor getFrameDescriptor() {
+        return this.descriptor;
+    }
+
+    /**
+     * Tags a slot for a primitive store and returns the array holding the primitive values.
+     */
+    private long[] verifySet(int slotIndex, byte tag) {
+        checkSlotIndex(slotIndex);
+        long[] primitives = ensurePrimitiveLocals();
+        setTag(primitives, slotIndex, tag);
+        return primitives;
+    }
+
+    private boolean verifyGet(int slotIndex, byte tag) throws FrameSlotTypeException {
+        checkSlotIndex(slotIndex);
+        boolean condition = getTag(slotIndex) == tag;
+        if (!condition) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw new FrameSlotTypeException();
+        }
+        return condition;
+    }
+
+    private static void setTag(long[] primitives, int slotIndex, byte tag) {
+        primitives[(primitives.length >> 1) + slotIndex] = tag;
+    }
+
+    private byte getTag(int slotIndex) {
+        long[] primitives = getPrimitiveLocals();
+        if (primitives == null) {
+            return OBJECT_TAG;
+        }
+        return (byte) primitives[(primitives.length >> 1) + slotIndex];
+    }
+
+    private void checkSlotIndex(int slotIndex) {
+        if (CompilerDirectives.inInterpreter() && slotIndex >= getLocals().length) {
+            if (!resize()) {
+                throw new IllegalArgumentException(String.format("The frame slot '%s' is not known by the frame descriptor.", slotIndex));
+            }
+        }
+    }
+
+    private static long getPrimitiveOffset(int slotIndex) {
+        return Unsafe.ARRAY_LONG_BASE_OFFSET + slotIndex * (long) Unsafe.ARRAY_LONG_INDEX_SCALE;
+    }
+
+    @Override
+    public Object getValue(FrameSlot slot) {
+        int slotIndex = slot.getIndex();
+        if (CompilerDirectives.inInterpreter() && slotIndex >= getLocals().length) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            resize();
+        }
+        byte tag = getTag(slotIndex);
+        boolean condition = (tag == BOOLEAN_TAG);
+        if (condition) {
+            return getBooleanUnsafe(slotIndex, slot, condition);
+        }
+        condition = (tag == BYTE_TAG);
+        if (condition) {
+            return getByteUnsafe(slotIndex, slot, condition);
+        }
+        condition = (tag == INT_TAG);
+        if (condition) {
+            return getIntUnsafe(slotIndex, slot, condition);
+        }
+        condition = (tag == DOUBLE_TAG);
+        if (condition) {
+            return getDoubleUnsafe(slotIndex, slot, condition);
+        }
+        condition = (tag == LONG_TAG);
+        if (condition) {
+            return getLongUnsafe(slotIndex, slot, condition);
+        }
+        condition = (tag == FLOAT_TAG);
+        if (condition) {
+            return getFloatUnsafe(slotIndex, slot, condition);
+        }
+        condition = tag == OBJECT_TAG;
+        assert condition;
+        return getObjectUnsafe(slotIndex, slot, condition);
+    }
+
+    private boolean resize() {
+        int oldSize = locals.length;
+        int newSize = descriptor.getSize();
+        if (newSize > oldSize) {
+            locals = Arrays.copyOf(locals, newSize);
+            Arrays.fill(locals, oldSize, newSize, descriptor.getDefaultValue());
+            if (primitiveLocals != null) {
+                long[] newPrimitiveLocals = new long[2 * newSize];
+                System.arraycopy(primitiveLocals, 0, newPrimitiveLocals, 0, oldSize);
+                System.arraycopy(primitiveLocals, oldSize, newPrimitiveLocals, newSize, oldSize);
+                primitiveLocals = newPrimitiveLocals;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    byte getTag(FrameSlot slot) {
+        int slotIndex = slot.getIndex();
+        if (slotIndex < getLocals().length) {
+            return getTag(slotIndex);
+        }
+
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        resize();
+        return getTag(slotIndex);
+    }
+
+    @Override
+    public boolean isObject(FrameSlot slot) {
+        return getTag(slot) == OBJECT_TAG;
+    }
+
+    @Override
+    public boolean isByte(FrameSlot slot) {
+        return getTag(slot) == BYTE_TAG;
+    }
+
+    @Override
+    public boolean isBoolean(FrameSlot slot) {
+        return getTag(slot) == BOOLEAN_TAG;
+    }
+
+    @Override
+    public boolean isInt(FrameSlot slot) {
+        return getTag(slot) == INT_TAG;
+    }
+
+    @Override
+    public boolean isLong(FrameSlot slot) {
+        return getTag(slot) == LONG_TAG;
+    }
+
+    @Override
+    public boolean isFloat(FrameSlot slot) {
+        return getTag(slot) == FLOAT_TAG;
+    }
+
+    @Override
+    public boolean isDouble(FrameSlot slot) {
+        return getTag(slot) == DOUBLE_TAG;
+    }
+
+    @SuppressWarnings({"unchecked", "unused"})
+    private static <T> T unsafeCast(Object value, Class<T> type, boolean condition, boolean nonNull) {
+        return (T) value;
+    }
+
+    @SuppressWarnings("unused")
+    private static int unsafeGetInt(Object receiver, long offset, boolean condition, Object locationIdentity) {
+        return UNSAFE.getInt(receiver, offset);
+    }
+
+    @SuppressWarnings("unused")
+    private static long unsafeGetLong(Object receiver, long offset, boolean condition, Object locationIdentity) {
+        return UNSAFE.getLong(receiver, offset);
+    }
+
+    @SuppressWarnings("unused")
+    private static float unsafeGetFloat(Object receiver, long offset, boolean condition, Object locationIdentity) {
+        return UNSAFE.getFloat(receiver, offset);
+    }
+
+    @SuppressWarnings("unused")
+    private static double unsafeGetDouble(Object receiver, long offset, boolean condition, Object locationIdentity) {
+        return UNSAFE.getDouble(receiver, offset);
+    }
+
+    @SuppressWarnings("unused")
+    private static Object unsafeGetObject(Object receiver, long offset, boolean condition, Object locationIdentity) {
+        return UNSAFE.getObject(receiver, offset);
+    }
+
+    @SuppressWarnings("unused")
+    private static void unsafePutInt(Object receiver, long offset, int value, Object locationIdentity) {
+        UNSAFE.putInt(receiver, offset, value);
+    }
+
+    @SuppressWarnings("unused")
+    private static void unsafePutLong(Object receiver, long offset, long value, Object locationIdentity) {
+        UNSAFE.putLong(receiver, offset, value);
+    }
+
+    @SuppressWarnings("unused")
+    private static void unsafePutFloat(Object receiver, long offset, float value, Object locationIdentity) {
+        UNSAFE.putFloat(receiver, offset, value);
+    }
+
+    @SuppressWarnings("unused")
+    private static void unsafePutDouble(Object receiver, long offset, double value, Object locationIdentity) {
+        UNSAFE.putDouble(receiver, offset, value);
+    }
+
+    @SuppressWarnings("unused")
+    private static void unsafePutObject(Object receiver, long offset, Object value, Object locationIdentity) {
+        UNSAFE.putObject(receiver, offset, value);
+    }
+
+    private static final Unsafe UNSAFE = getUnsafe();
+
+    private static Unsafe getUnsafe() {
+        try {
+            return Unsafe.getUnsafe();
+        } catch (SecurityException e) {
+        }
+        try {
+            Field theUnsafeInstance = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafeInstance.setAccessible(true);
+            return (Unsafe) theUnsafeInstance.get(Unsafe.class);
+        } catch (Exception e) {
+            throw new RuntimeException("exception while trying to get Unsafe.theUnsafe via reflection:", e);
+        }
+    }
+}
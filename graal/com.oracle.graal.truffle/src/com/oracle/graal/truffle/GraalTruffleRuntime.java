@@ -23,6 +23,9 @@
 package com.oracle.graal.truffle;
 
 import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleCompilationExceptionsAreThrown;
+import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleCompilationQueueColdTimeout;
+import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleCompilationQueuePriority;
+import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleCompilationQueueReprioritizeInterval;
 import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleCompileOnly;
 import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleEnableInfopoints;
 
@@ -32,14 +35,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.ServiceLoader;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import com.oracle.graal.api.runtime.GraalRuntime;
@@ -93,7 +99,16 @@ import jdk.vm.ci.meta.SpeculationLog;
 public abstract class GraalTruffleRuntime implements TruffleRuntime {
 
     protected abstract static class BackgroundCompileQueue implements CompilerThreadFactory.DebugConfigAccess {
-        private final ExecutorService compileQueue;
+        private final ThreadPoolExecutor compileQueue;
+        private final boolean prioritized;
+
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicLong lastReprioritization = new AtomicLong(System.nanoTime());
+        private final AtomicLong dequeuedCount = new AtomicLong();
+        private final AtomicLong droppedCount = new AtomicLong();
+        private final AtomicLong reprioritizationCount = new AtomicLong();
+        private final AtomicLong totalLatency = new AtomicLong();
+        private final AtomicLong maxLatency = new AtomicLong();
 
         protected BackgroundCompileQueue() {
             CompilerThreadFactory factory = new CompilerThreadFactory("TruffleCompilerThread", this);
@@ -109,7 +124,155 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
                 }
             }
             selectedProcessors = Math.max(1, selectedProcessors);
-            compileQueue = Executors.newFixedThreadPool(selectedProcessors, factory);
+            prioritized = TruffleCompilationQueuePriority.getValue();
+            BlockingQueue<Runnable> queue = prioritized ? new PriorityBlockingQueue<>() : new LinkedBlockingQueue<>();
+            compileQueue = new ThreadPoolExecutor(selectedProcessors, selectedProcessors, 0L, TimeUnit.MILLISECONDS, queue, factory);
+        }
+
+        Future<?> submit(GraalTruffleRuntime runtime, OptimizedCallTarget optimizedCallTarget) {
+            final WeakReference<OptimizedCallTarget> weakCallTarget = new WeakReference<>(optimizedCallTarget);
+            CompilationTask task = new CompilationTask(this, runtime, weakCallTarget, sequence.getAndIncrement(), new Runnable() {
+                @Override
+                public void run() {
+                    OptimizedCallTarget callTarget = weakCallTarget.get();
+                    if (callTarget != null) {
+                        runtime.doCompile(callTarget);
+                    }
+                }
+            });
+            compileQueue.execute(task);
+            if (prioritized) {
+                reprioritize(runtime);
+            }
+            return task;
+        }
+
+        /**
+         * Re-sorts the queued tasks according to the current hotness of their call targets and
+         * drops the tasks whose call targets went cold while waiting. This is attempted whenever a
+         * task is submitted or dequeued, but runs at most once per
+         * {@link TruffleCompilerOptions#TruffleCompilationQueueReprioritizeInterval} and only on
+         * one thread at a time.
+         */
+        private void reprioritize(GraalTruffleRuntime runtime) {
+            long now = System.nanoTime();
+            long last = lastReprioritization.get();
+            if (now - last < TimeUnit.MILLISECONDS.toNanos(TruffleCompilationQueueReprioritizeInterval.getValue()) || !lastReprioritization.compareAndSet(last, now)) {
+                return;
+            }
+            BlockingQueue<Runnable> queue = compileQueue.getQueue();
+            List<Runnable> tasks = new ArrayList<>(queue.size());
+            queue.drainTo(tasks);
+            long coldTimeout = TimeUnit.MILLISECONDS.toNanos(TruffleCompilationQueueColdTimeout.getValue());
+            for (Runnable r : tasks) {
+                CompilationTask task = (CompilationTask) r;
+                if (task.isDone()) {
+                    continue;
+                }
+                OptimizedCallTarget callTarget = task.updatePriority(now, coldTimeout);
+                if (callTarget != null) {
+                    queue.add(task);
+                } else {
+                    drop(runtime, task);
+                }
+            }
+            reprioritizationCount.incrementAndGet();
+        }
+
+        private void drop(GraalTruffleRuntime runtime, CompilationTask task) {
+            if (task.cancel(false)) {
+                droppedCount.incrementAndGet();
+                OptimizedCallTarget callTarget = task.weakCallTarget.get();
+                if (callTarget != null) {
+                    if (callTarget.getCompilationTask() == task) {
+                        callTarget.resetCompilationTask();
+                    }
+                    runtime.getCompilationNotify().notifyCompilationDequeued(callTarget, null, "Call target went cold while queued");
+                }
+            }
+        }
+
+        void recordDequeued(long latency) {
+            dequeuedCount.incrementAndGet();
+            totalLatency.addAndGet(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    /**
+     * A queued compilation of a call target. Tasks are ordered by the interpreter call and loop
+     * count of their call target (hottest first) and by submission order on ties. The priority
+     * is a snapshot that is only updated while the task is not in the queue.
+     */
+    private static final class CompilationTask extends FutureTask<Void> implements Comparable<CompilationTask> {
+        private final BackgroundCompileQueue queue;
+        private final GraalTruffleRuntime runtime;
+        private final WeakReference<OptimizedCallTarget> weakCallTarget;
+        private final long sequence;
+        private final long queuedTime;
+
+        private long priority;
+        private long lastActivityTime;
+
+        CompilationTask(BackgroundCompileQueue queue, GraalTruffleRuntime runtime, WeakReference<OptimizedCallTarget> weakCallTarget, long sequence, Runnable compilation) {
+            super(compilation, null);
+            this.queue = queue;
+            this.runtime = runtime;
+            this.weakCallTarget = weakCallTarget;
+            this.sequence = sequence;
+            this.queuedTime = System.nanoTime();
+            this.lastActivityTime = queuedTime;
+            OptimizedCallTarget callTarget = weakCallTarget.get();
+            this.priority = callTarget == null ? 0 : hotness(callTarget);
+        }
+
+        private static long hotness(OptimizedCallTarget callTarget) {
+            return callTarget.getCompilationProfile().getInterpreterCallAndLoopCount();
+        }
+
+        /**
+         * Recomputes the priority of this task.
+         *
+         * @return the call target of this task or {@code null} if the call target was collected or
+         *         was not called for longer than {@code coldTimeout} nanoseconds
+         */
+        OptimizedCallTarget updatePriority(long now, long coldTimeout) {
+            OptimizedCallTarget callTarget = weakCallTarget.get();
+            if (callTarget == null) {
+                return null;
+            }
+            long newPriority = hotness(callTarget);
+            if (newPriority != priority) {
+                priority = newPriority;
+                lastActivityTime = now;
+            } else if (coldTimeout > 0 && now - lastActivityTime > coldTimeout) {
+                return null;
+            }
+            return callTarget;
+        }
+
+        @Override
+        public void run() {
+            if (!isDone()) {
+                queue.recordDequeued(System.nanoTime() - queuedTime);
+            }
+            if (queue.prioritized) {
+                /*
+                 * Without new submissions the queue would otherwise never be re-sorted and its cold
+                 * entries never dropped.
+                 */
+                queue.reprioritize(runtime);
+            }
+            super.run();
+        }
+
+        @Override
+        public int compareTo(CompilationTask o) {
+            int result = Long.compare(o.priority, priority);
+            if (result == 0) {
+                result = Long.compare(sequence, o.sequence);
+            }
+            return result;
         }
     }
 
@@ -273,6 +436,9 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
     @Override
     public MaterializedFrame createMaterializedFrame(Object[] arguments, FrameDescriptor frameDescriptor) {
         if (TruffleCompilerOptions.TruffleUseFrameWithoutBoxing.getValue()) {
+            if (TruffleCompilerOptions.TruffleUseCompactFrame.getValue()) {
+                return new CompactFrameWithoutBoxing(frameDescriptor, arguments);
+            }
             return new FrameWithoutBoxing(frameDescriptor, arguments);
         } else {
             return new FrameWithBoxing(frameDescriptor, arguments);
@@ -462,17 +628,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
     protected abstract BackgroundCompileQueue getCompileQueue();
 
     public Future<?> submitForCompilation(OptimizedCallTarget optimizedCallTarget) {
-        BackgroundCompileQueue l = getCompileQueue();
-        final WeakReference<OptimizedCallTarget> weakCallTarget = new WeakReference<>(optimizedCallTarget);
-        return l.compileQueue.submit(new Runnable() {
-            @Override
-            public void run() {
-                OptimizedCallTarget callTarget = weakCallTarget.get();
-                if (callTarget != null) {
-                    doCompile(callTarget);
-                }
-            }
-        });
+        return getCompileQueue().submit(this, optimizedCallTarget);
     }
 
     public void finishCompilation(OptimizedCallTarget optimizedCallTarget, Future<?> future, boolean mayBeAsynchronous) {
@@ -524,12 +680,40 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
     }
 
     public int getCompilationQueueSize() {
-        ExecutorService executor = getCompileQueue().compileQueue;
-        if (executor instanceof ThreadPoolExecutor) {
-            return ((ThreadPoolExecutor) executor).getQueue().size();
-        } else {
-            return 0;
-        }
+        return getCompileQueue().compileQueue.getQueue().size();
+    }
+
+    /**
+     * Returns the average time in milliseconds that call targets spent in the compilation queue
+     * before their compilation started.
+     */
+    public double getCompilationQueueAverageLatency() {
+        BackgroundCompileQueue queue = getCompileQueue();
+        long dequeued = queue.dequeuedCount.get();
+        return dequeued == 0 ? 0 : queue.totalLatency.get() / (dequeued * 1e6);
+    }
+
+    /**
+     * Returns the maximum time in milliseconds that a call target spent in the compilation queue
+     * before its compilation started.
+     */
+    public double getCompilationQueueMaxLatency() {
+        return getCompileQueue().maxLatency.get() / 1e6;
+    }
+
+    /**
+     * Returns the number of call targets that were removed from the compilation queue because
+     * they went cold while waiting for compilation.
+     */
+    public long getCompilationQueueDroppedCount() {
+        return getCompileQueue().droppedCount.get();
+    }
+
+    /**
+     * Returns the number of times the compilation queue was re-sorted by call target hotness.
+     */
+    public long getCompilationQueueReprioritizationCount() {
+        return getCompileQueue().reprioritizationCount.get();
     }
 
     public boolean isCompiling(OptimizedCallTarget optimizedCallTarget) {
@@ -29,7 +29,9 @@ import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleCallTargetP
 import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleCompilationExceptionsAreFatal;
 import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleCompilationExceptionsArePrinted;
 import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleCompilationExceptionsAreThrown;
+import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleMultiTier;
 import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleReturnTypeSpeculation;
+import static com.oracle.graal.truffle.TruffleCompilerOptions.TruffleSecondTierCompilationThreshold;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -55,6 +57,7 @@ import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.CompilerOptions;
 import com.oracle.truffle.api.OptimizationFailedException;
 import com.oracle.truffle.api.ReplaceObserver;
@@ -116,6 +119,28 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
 
     private volatile Future<?> compilationTask;
 
+    /**
+     * Whether the current (or pending) compilation of this call target is a first tier
+     * compilation, i.e., one without call target inlining whose code counts its own invocations
+     * and triggers a second tier compilation after
+     * {@link TruffleCompilerOptions#TruffleSecondTierCompilationThreshold} calls.
+     */
+    @CompilationFinal private boolean firstTierCompilation;
+    @CompilationFinal private int secondTierCompilationThreshold;
+
+    /**
+     * Number of calls of the first tier code. The count is not atomic since lost updates only delay
+     * the second tier compilation, which is submitted at most once per first tier compilation.
+     */
+    private int firstTierCallCount;
+
+    /**
+     * Whether the second tier compilation was submitted. First tier code stops counting calls once
+     * this is set so that it does not cross the boundary to {@link #compileSecondTier()} while the
+     * second tier compilation is pending.
+     */
+    private volatile boolean secondTierSubmitted;
+
     @Override
     public final RootNode getRootNode() {
         return rootNode;
@@ -138,6 +163,7 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
         if (sourceCallTarget != null) {
             cloneIndex = sourceCallTarget.getNextCloneIndex();
         }
+        this.secondTierCompilationThreshold = TruffleSecondTierCompilationThreshold.getValue();
     }
 
     private static GraalTruffleRuntime runtime() {
@@ -353,6 +379,9 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
     public final Object callRoot(Object[] originalArguments) {
         Object[] args = originalArguments;
         if (CompilerDirectives.inCompiledCode()) {
+            if (firstTierCompilation && !secondTierSubmitted && ++firstTierCallCount >= secondTierCompilationThreshold) {
+                compileSecondTier();
+            }
             Assumption argumentTypesAssumption = this.profiledArgumentTypesAssumption;
             if (argumentTypesAssumption != null && argumentTypesAssumption.isValid()) {
                 args = unsafeCast(castArrayFixedLength(args, profiledArgumentTypes.length), Object[].class, true, true);
@@ -417,6 +446,15 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
     }
 
     public final void compile() {
+        compile(TruffleMultiTier.getValue());
+    }
+
+    @TruffleBoundary
+    private void compileSecondTier() {
+        compile(false);
+    }
+
+    private void compile(boolean firstTier) {
         if (!isCompiling()) {
             if (!initialized) {
                 initialize();
@@ -427,6 +465,9 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
             // but do not block other threads if compilation is not asynchronous.
             synchronized (this) {
                 if (!isCompiling()) {
+                    firstTierCompilation = firstTier;
+                    firstTierCallCount = 0;
+                    secondTierSubmitted = !firstTier;
                     compilationTask = submitted = runtime().submitForCompilation(this);
                 }
             }
@@ -445,6 +486,7 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
              * bailouts, non permanent bailouts will trigger recompilation and are not considered a
              * failure state.
              */
+            secondTierSubmitted = false;
         } else {
             compilationPolicy.recordCompilationFailure(t);
             if (TruffleCompilationExceptionsAreThrown.getValue()) {
@@ -514,6 +556,14 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
         return compilationProfile;
     }
 
+    /**
+     * Returns whether the current or pending compilation of this call target is a first tier
+     * compilation.
+     */
+    public boolean isFirstTierCompilation() {
+        return firstTierCompilation;
+    }
+
     @ExplodeLoop
     private Object[] castArguments(Object[] originalArguments) {
         Class<?>[] types = profiledArgumentTypes;
@@ -548,6 +598,9 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
     /** Intrinsified in {@link TruffleGraphBuilderPlugins}. */
     public static VirtualFrame createFrame(FrameDescriptor descriptor, Object[] args) {
         if (TruffleCompilerOptions.TruffleUseFrameWithoutBoxing.getValue()) {
+            if (TruffleCompilerOptions.TruffleUseCompactFrame.getValue()) {
+                return new CompactFrameWithoutBoxing(descriptor, args);
+            }
             return new FrameWithoutBoxing(descriptor, args);
         } else {
             return new FrameWithBoxing(descriptor, args);
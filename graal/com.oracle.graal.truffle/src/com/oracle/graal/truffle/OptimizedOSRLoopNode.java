@@ -387,7 +387,11 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
 
         @Override
         protected OSRRootNode createRootNode(@SuppressWarnings("rawtypes") Class<? extends TruffleLanguage> truffleLanguage, FrameDescriptor frameDescriptor, Class<? extends VirtualFrame> clazz) {
-            if (readFrameSlots == null || writtenFrameSlots == null) {
+            if (readFrameSlots == null || writtenFrameSlots == null || clazz != FrameWithoutBoxing.class) {
+                /*
+                 * Transferring the frame slots relies on the tag array of FrameWithoutBoxing. Other
+                 * frame implementations execute the loop in the parent frame.
+                 */
                 return super.createRootNode(truffleLanguage, frameDescriptor, clazz);
             } else {
                 if (previousRoot == null) {
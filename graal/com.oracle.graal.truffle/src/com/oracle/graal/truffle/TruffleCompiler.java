@@ -25,7 +25,9 @@ package com.oracle.graal.truffle;
 import static com.oracle.graal.compiler.GraalCompiler.compileGraph;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.ListIterator;
 
 import com.oracle.graal.api.replacements.SnippetReflectionProvider;
 import com.oracle.graal.code.CompilationResult;
@@ -38,16 +40,29 @@ import com.oracle.graal.debug.DebugEnvironment;
 import com.oracle.graal.debug.DebugMemUseTracker;
 import com.oracle.graal.debug.DebugTimer;
 import com.oracle.graal.lir.phases.LIRSuites;
+import com.oracle.graal.loop.phases.LoopFullUnrollPhase;
+import com.oracle.graal.loop.phases.LoopPeelingPhase;
+import com.oracle.graal.loop.phases.LoopUnswitchingPhase;
+import com.oracle.graal.loop.phases.ReassociateInvariantPhase;
 import com.oracle.graal.nodes.StructuredGraph;
 import com.oracle.graal.nodes.StructuredGraph.AllowAssumptions;
 import com.oracle.graal.nodes.graphbuilderconf.GraphBuilderConfiguration;
 import com.oracle.graal.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
+import com.oracle.graal.phases.BasePhase;
 import com.oracle.graal.phases.OptimisticOptimizations;
 import com.oracle.graal.phases.PhaseSuite;
+import com.oracle.graal.phases.common.DeadCodeEliminationPhase;
+import com.oracle.graal.phases.common.DeoptimizationGroupingPhase;
+import com.oracle.graal.phases.common.IterativeConditionalEliminationPhase;
+import com.oracle.graal.phases.common.OptimizeGuardAnchorsPhase;
+import com.oracle.graal.phases.common.PushThroughPiPhase;
 import com.oracle.graal.phases.tiers.HighTierContext;
 import com.oracle.graal.phases.tiers.Suites;
+import com.oracle.graal.phases.tiers.SuitesProvider;
 import com.oracle.graal.phases.util.Providers;
 import com.oracle.graal.truffle.nodes.AssumptionValidAssumption;
+import com.oracle.graal.virtual.phases.ea.EarlyReadEliminationPhase;
+import com.oracle.graal.virtual.phases.ea.PartialEscapePhase;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.nodes.SlowPathException;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
@@ -67,6 +82,8 @@ public abstract class TruffleCompiler {
     protected final Suites suites;
     protected final GraphBuilderConfiguration config;
     protected final LIRSuites lirSuites;
+    private volatile Suites firstTierSuites;
+    private volatile LIRSuites firstTierLirSuites;
     protected final PartialEvaluator partialEvaluator;
     protected final Backend backend;
     protected final SnippetReflectionProvider snippetReflection;
@@ -119,6 +136,66 @@ public abstract class TruffleCompiler {
 
     protected abstract PartialEvaluator createPartialEvaluator();
 
+    /**
+     * Gets the suites used for first tier compilations, creating them on first use.
+     */
+    protected final Suites getFirstTierSuites() {
+        Suites result = firstTierSuites;
+        if (result == null) {
+            result = createFirstTierSuites(suites);
+            firstTierSuites = result;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the low-level suites used for first tier compilations, creating them on first use.
+     * These are the {@linkplain SuitesProvider#createEconomyLIRSuites() economy suites} of the
+     * backend or the default low-level suites if the backend has none.
+     */
+    protected final LIRSuites getFirstTierLIRSuites() {
+        LIRSuites result = firstTierLirSuites;
+        if (result == null) {
+            result = backend.getSuites().createEconomyLIRSuites();
+            if (result == null) {
+                result = lirSuites;
+            }
+            firstTierLirSuites = result;
+        }
+        return result;
+    }
+
+    /**
+     * Creates the suites used for first tier compilations (see
+     * {@link TruffleCompilerOptions#TruffleMultiTier}) by removing the optional optimization
+     * phases from {@code suites}. Phases required for correctness, such as lowering and the
+     * platform specific phases, are kept.
+     */
+    protected Suites createFirstTierSuites(Suites defaultSuites) {
+        Suites firstTier = defaultSuites.copy();
+        removePhases(firstTier.getHighTier(), LoopFullUnrollPhase.class, LoopPeelingPhase.class, LoopUnswitchingPhase.class, PartialEscapePhase.class, IterativeConditionalEliminationPhase.class,
+                        DeadCodeEliminationPhase.class);
+        removePhases(firstTier.getMidTier(), PushThroughPiPhase.class, EarlyReadEliminationPhase.class, OptimizeGuardAnchorsPhase.class, IterativeConditionalEliminationPhase.class,
+                        ReassociateInvariantPhase.class, DeoptimizationGroupingPhase.class);
+        removePhases(firstTier.getLowTier(), IterativeConditionalEliminationPhase.class);
+        return firstTier;
+    }
+
+    /**
+     * Removes all top-level instances of the given phase classes. Nested phase suites are not
+     * modified since they are shared with the suite {@code suite} was copied from.
+     */
+    @SafeVarargs
+    private static <C> void removePhases(PhaseSuite<C> suite, Class<? extends BasePhase<? super C>>... phaseClasses) {
+        for (Class<? extends BasePhase<? super C>> phaseClass : phaseClasses) {
+            ListIterator<BasePhase<? super C>> it = suite.findPhase(phaseClass);
+            while (it != null) {
+                it.remove();
+                it = PhaseSuite.findNextPhase(it, phaseClass) ? it : null;
+            }
+        }
+    }
+
     public static ResolvedJavaType[] getSkippedExceptionTypes(MetaAccessProvider metaAccess) {
         ResolvedJavaType[] skippedExceptionTypes = new ResolvedJavaType[SKIPPED_EXCEPTION_CLASSES.length];
         for (int i = 0; i < SKIPPED_EXCEPTION_CLASSES.length; i++) {
@@ -142,7 +219,13 @@ public abstract class TruffleCompiler {
         compilationNotify.notifyCompilationStarted(compilable);
 
         try {
-            TruffleInlining inliningDecision = new TruffleInlining(compilable, new DefaultInliningPolicy());
+            boolean firstTier = compilable.isFirstTierCompilation();
+            TruffleInlining inliningDecision;
+            if (firstTier) {
+                inliningDecision = new TruffleInlining(Collections.<TruffleInliningDecision> emptyList());
+            } else {
+                inliningDecision = new TruffleInlining(compilable, new DefaultInliningPolicy());
+            }
 
             PhaseSuite<HighTierContext> graphBuilderSuite = createGraphBuilderSuite();
 
@@ -157,7 +240,12 @@ public abstract class TruffleCompiler {
             dequeueInlinedCallSites(inliningDecision);
 
             compilationNotify.notifyCompilationTruffleTierFinished(compilable, inliningDecision, graph);
-            CompilationResult compilationResult = compileMethodHelper(graph, compilable.toString(), graphBuilderSuite, compilable);
+            CompilationResult compilationResult;
+            if (firstTier) {
+                compilationResult = compileMethodHelper(graph, compilable.toString(), graphBuilderSuite, compilable, getFirstTierSuites(), getFirstTierLIRSuites());
+            } else {
+                compilationResult = compileMethodHelper(graph, compilable.toString(), graphBuilderSuite, compilable, suites, lirSuites);
+            }
             compilationNotify.notifyCompilationSuccess(compilable, inliningDecision, graph, compilationResult);
             dequeueInlinedCallSites(inliningDecision);
         } catch (Throwable t) {
@@ -178,8 +266,13 @@ public abstract class TruffleCompiler {
         }
     }
 
-    @SuppressWarnings("try")
     public CompilationResult compileMethodHelper(StructuredGraph graph, String name, PhaseSuite<HighTierContext> graphBuilderSuite, InstalledCode predefinedInstalledCode) {
+        return compileMethodHelper(graph, name, graphBuilderSuite, predefinedInstalledCode, suites, lirSuites);
+    }
+
+    @SuppressWarnings("try")
+    public CompilationResult compileMethodHelper(StructuredGraph graph, String name, PhaseSuite<HighTierContext> graphBuilderSuite, InstalledCode predefinedInstalledCode, Suites compilationSuites,
+                    LIRSuites compilationLirSuites) {
         try (Scope s = Debug.scope("TruffleFinal")) {
             Debug.dump(Debug.BASIC_LOG_LEVEL, graph, "After TruffleTier");
         } catch (Throwable e) {
@@ -196,7 +289,8 @@ public abstract class TruffleCompiler {
             }
 
             CompilationResult compilationResult = new CompilationResult(name);
-            result = compileGraph(graph, graph.method(), providers, backend, graphBuilderSuite, Optimizations, graph.getProfilingInfo(), suites, lirSuites, compilationResult, factory);
+            result = compileGraph(graph, graph.method(), providers, backend, graphBuilderSuite, Optimizations, graph.getProfilingInfo(), compilationSuites, compilationLirSuites, compilationResult,
+                            factory);
         } catch (Throwable e) {
             throw Debug.handle(e);
         }
@@ -56,6 +56,12 @@ public class TruffleCompilerOptions {
     @Option(help = "Defines the maximum timespan in milliseconds that is required for a call target to be queued for compilation.", type = OptionType.User)
     public static final OptionValue<Integer> TruffleTimeThreshold = new OptionValue<>(25000);
 
+    @Option(help = "Compile call targets in two tiers: first without inlining and with economy phases, then fully optimized", type = OptionType.Expert)
+    public static final OptionValue<Boolean> TruffleMultiTier = new OptionValue<>(false);
+
+    @Option(help = "Recompile a first tier call target fully optimized when its compiled code was called this many times", type = OptionType.Expert)
+    public static final OptionValue<Integer> TruffleSecondTierCompilationThreshold = new OptionValue<>(10000);
+
     @Option(help = "Minimum number of calls before a call target is compiled", type = OptionType.Expert)
     public static final OptionValue<Integer> TruffleMinInvokeThreshold = new OptionValue<>(3);
 
@@ -92,6 +98,15 @@ public class TruffleCompilerOptions {
     @Option(help = "Manually set the number of compiler threads", type = OptionType.Expert)
     public static final OptionValue<Integer> TruffleCompilerThreads = new OptionValue<>(0);
 
+    @Option(help = "Order the compilation queue by call target hotness instead of submission order", type = OptionType.Expert)
+    public static final OptionValue<Boolean> TruffleCompilationQueuePriority = new OptionValue<>(true);
+
+    @Option(help = "Minimum interval in milliseconds between re-prioritizations of the compilation queue", type = OptionType.Expert)
+    public static final OptionValue<Integer> TruffleCompilationQueueReprioritizeInterval = new OptionValue<>(100);
+
+    @Option(help = "Drop queued call targets that were not called for this many milliseconds (0 to disable)", type = OptionType.Expert)
+    public static final OptionValue<Integer> TruffleCompilationQueueColdTimeout = new OptionValue<>(25000);
+
     @Option(help = "Enable inlining across Truffle boundary", type = OptionType.Expert)
     public static final OptionValue<Boolean> TruffleInlineAcrossTruffleBoundary = new OptionValue<>(false);
 
@@ -104,6 +119,9 @@ public class TruffleCompilerOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionValue<Boolean> TruffleUseFrameWithoutBoxing = new StableOptionValue<>(true);
 
+    @Option(help = "Use a frame layout that keeps slot tags in the primitive locals array and allocates that array lazily. Only applies with TruffleUseFrameWithoutBoxing.", type = OptionType.Expert)
+    public static final OptionValue<Boolean> TruffleUseCompactFrame = new StableOptionValue<>(false);
+
     // tracing
     @Option(help = "Print potential performance problems", type = OptionType.Debug)
     public static final OptionValue<Boolean> TraceTrufflePerformanceWarnings = new OptionValue<>(false);
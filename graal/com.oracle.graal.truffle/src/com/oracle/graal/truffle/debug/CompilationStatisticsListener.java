@@ -237,6 +237,10 @@ public final class CompilationStatisticsListener extends AbstractDebugCompilatio
         printStatistic(rt, "Queue Accuracy", 1.0 - dequeues / (double) queues);
         printStatistic(rt, "Compilation Utilization", compilationTime.getSum() / (double) (endTime - firstCompilation));
         printStatistic(rt, "Remaining Compilation Queue", rt.getCompilationQueueSize());
+        printStatistic(rt, "Compilation Queue Average Latency (milliseconds)", rt.getCompilationQueueAverageLatency());
+        printStatistic(rt, "Compilation Queue Max Latency (milliseconds)", rt.getCompilationQueueMaxLatency());
+        printStatistic(rt, "Compilation Queue Dropped Cold Targets", (int) rt.getCompilationQueueDroppedCount());
+        printStatistic(rt, "Compilation Queue Reprioritizations", (int) rt.getCompilationQueueReprioritizationCount());
         printStatistic(rt, "Times defered until compilation", deferCompilations);
 
         printStatisticTime(rt, "Time to queue", timeToQueue);
@@ -84,11 +84,19 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
     @OptionalInput VirtualObjectNode virtualFramePrimitiveArray;
     @OptionalInput VirtualObjectNode virtualFrameTagArray;
     @Input NodeInputList<ValueNode> smallIntConstants;
+    @Input NodeInputList<ValueNode> tagConstants;
 
     @Input private ValueNode frameDefaultValue;
     private final boolean intrinsifyAccessors;
     private final FrameSlot[] frameSlots;
 
+    /**
+     * Determines if the tags are stored as {@code long} values behind the primitive values in the
+     * primitive array instead of in a separate {@code byte[]} (see
+     * {@link com.oracle.graal.truffle.CompactFrameWithoutBoxing}).
+     */
+    private final boolean tagsInPrimitiveArray;
+
     private final SpeculationReason intrinsifyAccessorsSpeculation;
 
     static final class IntrinsifyFrameAccessorsSpeculationReason implements SpeculationReason {
@@ -145,7 +153,10 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
 
         this.virtualFrame = graph.add(new VirtualOnlyInstanceNode(frameType, frameFields));
         this.virtualFrameObjectArray = graph.add(new VirtualArrayNode((ResolvedJavaType) localsField.getType().getComponentType(), frameSlots.length));
-        if (primitiveLocalsField != null) {
+        this.tagsInPrimitiveArray = primitiveLocalsField != null && tagsField == null;
+        if (tagsInPrimitiveArray) {
+            this.virtualFramePrimitiveArray = graph.add(new VirtualArrayNode((ResolvedJavaType) primitiveLocalsField.getType().getComponentType(), 2 * frameSlots.length));
+        } else if (primitiveLocalsField != null) {
             this.virtualFramePrimitiveArray = graph.add(new VirtualArrayNode((ResolvedJavaType) primitiveLocalsField.getType().getComponentType(), frameSlots.length));
             this.virtualFrameTagArray = graph.add(new VirtualArrayNode((ResolvedJavaType) tagsField.getType().getComponentType(), frameSlots.length));
         }
@@ -155,6 +166,15 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
             c[i] = ConstantNode.forInt(i, graph);
         }
         this.smallIntConstants = new NodeInputList<>(this, c);
+        if (tagsInPrimitiveArray) {
+            ValueNode[] t = new ValueNode[FrameSlotKind.values().length];
+            for (int i = 0; i < t.length; i++) {
+                t[i] = ConstantNode.forLong(i, graph);
+            }
+            this.tagConstants = new NodeInputList<>(this, t);
+        } else {
+            this.tagConstants = new NodeInputList<>(this, c);
+        }
     }
 
     public ValueNode getDescriptor() {
@@ -173,6 +193,27 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         return intrinsifyAccessorsSpeculation;
     }
 
+    /**
+     * Gets the virtual array holding the tag of each frame slot.
+     */
+    VirtualObjectNode getTagArray() {
+        return tagsInPrimitiveArray ? virtualFramePrimitiveArray : virtualFrameTagArray;
+    }
+
+    /**
+     * Gets the index of the tag of frame slot {@code slotIndex} in {@link #getTagArray()}.
+     */
+    int getTagIndex(int slotIndex) {
+        return tagsInPrimitiveArray ? frameSlots.length + slotIndex : slotIndex;
+    }
+
+    /**
+     * Gets a constant for {@code tag} of the kind stored in {@link #getTagArray()}.
+     */
+    ValueNode getTagConstant(int tag) {
+        return tagConstants.get(tag);
+    }
+
     private static ResolvedJavaField findField(ResolvedJavaField[] fields, String fieldName) {
         for (ResolvedJavaField field : fields) {
             if (field.getName().equals(fieldName)) {
@@ -239,7 +280,7 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         ResolvedJavaField tagsField = findField(frameFields, "tags");
 
         ValueNode[] objectArrayEntryState = new ValueNode[frameSize];
-        ValueNode[] primitiveArrayEntryState = new ValueNode[frameSize];
+        ValueNode[] primitiveArrayEntryState = new ValueNode[tagsInPrimitiveArray ? 2 * frameSize : frameSize];
         ValueNode[] tagArrayEntryState = new ValueNode[frameSize];
 
         if (frameSize > 0) {
@@ -252,6 +293,9 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
                     primitiveArrayEntryState[i] = initialPrimitiveValue(frameSlots[i].getKind());
                 }
             }
+            if (tagsInPrimitiveArray) {
+                Arrays.fill(primitiveArrayEntryState, frameSize, 2 * frameSize, tagConstants.get(0));
+            }
         }
 
         tool.createVirtualObject(virtualFrameObjectArray, objectArrayEntryState, Collections.<MonitorIdNode> emptyList(), false);
@@ -262,7 +306,7 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
             tool.createVirtualObject(virtualFrameTagArray, tagArrayEntryState, Collections.<MonitorIdNode> emptyList(), false);
         }
 
-        assert frameFields.length == 5 || frameFields.length == 3;
+        assert frameFields.length == 5 || frameFields.length == 4 || frameFields.length == 3;
         ValueNode[] frameEntryState = new ValueNode[frameFields.length];
         List<ResolvedJavaField> frameFieldList = Arrays.asList(frameFields);
         frameEntryState[frameFieldList.indexOf(descriptorField)] = getDescriptor();
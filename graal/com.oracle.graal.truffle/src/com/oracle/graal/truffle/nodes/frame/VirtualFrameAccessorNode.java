@@ -63,6 +63,14 @@ public abstract class VirtualFrameAccessorNode extends FixedWithNextNode {
         return frame.smallIntConstants.get(n);
     }
 
+    protected int getTagIndex() {
+        return frame.getTagIndex(getFrameSlotIndex());
+    }
+
+    protected ValueNode getTagConstant() {
+        return frame.getTagConstant(accessTag);
+    }
+
     protected void insertDeoptimization(VirtualizerTool tool) {
         /*
          * Escape analysis does not allow insertion of a DeoptimizeNode. We work around this
@@ -49,20 +49,20 @@ public final class VirtualFrameGetNode extends VirtualFrameAccessorNode implemen
 
     @Override
     public void virtualize(VirtualizerTool tool) {
-        ValueNode tagAlias = tool.getAlias(frame.virtualFrameTagArray);
+        ValueNode tagAlias = tool.getAlias(frame.getTagArray());
         ValueNode dataAlias = tool.getAlias(accessTag == FrameWithoutBoxing.OBJECT_TAG ? frame.virtualFrameObjectArray : frame.virtualFramePrimitiveArray);
 
         if (tagAlias instanceof VirtualObjectNode && dataAlias instanceof VirtualObjectNode) {
             VirtualObjectNode tagVirtual = (VirtualObjectNode) tagAlias;
             VirtualObjectNode dataVirtual = (VirtualObjectNode) dataAlias;
 
-            ValueNode actualTag = tool.getEntry(tagVirtual, getFrameSlotIndex());
-            if (!actualTag.isConstant() || actualTag.asJavaConstant().asInt() != accessTag) {
+            ValueNode actualTag = tool.getEntry(tagVirtual, getTagIndex());
+            if (!actualTag.isConstant() || actualTag.asJavaConstant().asLong() != accessTag) {
                 /*
                  * We cannot constant fold the tag-check immediately, so we need to create a guard
                  * comparing the actualTag with the accessTag.
                  */
-                LogicNode comparison = new IntegerEqualsNode(actualTag, getConstant(accessTag));
+                LogicNode comparison = new IntegerEqualsNode(actualTag, getTagConstant());
                 tool.addNode(comparison);
                 tool.addNode(new FixedGuardNode(comparison, DeoptimizationReason.TransferToInterpreter, DeoptimizationAction.InvalidateRecompile));
             }
@@ -46,17 +46,17 @@ public final class VirtualFrameIsNode extends VirtualFrameAccessorNode implement
 
     @Override
     public void virtualize(VirtualizerTool tool) {
-        ValueNode tagAlias = tool.getAlias(frame.virtualFrameTagArray);
+        ValueNode tagAlias = tool.getAlias(frame.getTagArray());
 
         if (tagAlias instanceof VirtualObjectNode) {
             VirtualObjectNode tagVirtual = (VirtualObjectNode) tagAlias;
 
-            ValueNode actualTag = tool.getEntry(tagVirtual, getFrameSlotIndex());
+            ValueNode actualTag = tool.getEntry(tagVirtual, getTagIndex());
             if (actualTag.isConstant()) {
-                tool.replaceWith(getConstant(actualTag.asJavaConstant().asInt() == accessTag ? 1 : 0));
+                tool.replaceWith(getConstant(actualTag.asJavaConstant().asLong() == accessTag ? 1 : 0));
 
             } else {
-                LogicNode comparison = new IntegerEqualsNode(actualTag, getConstant(accessTag));
+                LogicNode comparison = new IntegerEqualsNode(actualTag, getTagConstant());
                 tool.addNode(comparison);
                 ConditionalNode result = new ConditionalNode(comparison, getConstant(1), getConstant(0));
                 tool.addNode(result);
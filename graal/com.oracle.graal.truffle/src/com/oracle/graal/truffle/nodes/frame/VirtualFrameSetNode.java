@@ -45,14 +45,14 @@ public final class VirtualFrameSetNode extends VirtualFrameAccessorNode implemen
 
     @Override
     public void virtualize(VirtualizerTool tool) {
-        ValueNode tagAlias = tool.getAlias(frame.virtualFrameTagArray);
+        ValueNode tagAlias = tool.getAlias(frame.getTagArray());
         ValueNode dataAlias = tool.getAlias(accessTag == FrameWithoutBoxing.OBJECT_TAG ? frame.virtualFrameObjectArray : frame.virtualFramePrimitiveArray);
 
         if (tagAlias instanceof VirtualObjectNode && dataAlias instanceof VirtualObjectNode) {
             VirtualObjectNode tagVirtual = (VirtualObjectNode) tagAlias;
             VirtualObjectNode dataVirtual = (VirtualObjectNode) dataAlias;
 
-            tool.setVirtualEntry(tagVirtual, getFrameSlotIndex(), getConstant(accessTag), false);
+            tool.setVirtualEntry(tagVirtual, getTagIndex(), getTagConstant(), false);
 
             ValueNode dataEntry = tool.getEntry(dataVirtual, getFrameSlotIndex());
             if (dataEntry.getStackKind() == value.getStackKind()) {
@@ -72,6 +72,7 @@ import com.oracle.graal.replacements.nodes.arithmetic.IntegerMulExactNode;
 import com.oracle.graal.replacements.nodes.arithmetic.IntegerMulHighNode;
 import com.oracle.graal.replacements.nodes.arithmetic.IntegerSubExactNode;
 import com.oracle.graal.replacements.nodes.arithmetic.UnsignedMulHighNode;
+import com.oracle.graal.truffle.CompactFrameWithoutBoxing;
 import com.oracle.graal.truffle.FrameWithBoxing;
 import com.oracle.graal.truffle.FrameWithoutBoxing;
 import com.oracle.graal.truffle.OptimizedAssumption;
@@ -121,7 +122,8 @@ public class TruffleGraphBuilderPlugins {
         registerOptimizedCallTargetPlugins(plugins, snippetReflection, canDelayIntrinsification);
 
         if (TruffleCompilerOptions.TruffleUseFrameWithoutBoxing.getValue()) {
-            registerFrameWithoutBoxingPlugins(plugins, canDelayIntrinsification, snippetReflection);
+            Class<?> frameClass = TruffleCompilerOptions.TruffleUseCompactFrame.getValue() ? CompactFrameWithoutBoxing.class : FrameWithoutBoxing.class;
+            registerFrameWithoutBoxingPlugins(plugins, frameClass, canDelayIntrinsification, snippetReflection);
         } else {
             registerFrameWithBoxingPlugins(plugins, canDelayIntrinsification);
         }
@@ -394,7 +396,12 @@ public class TruffleGraphBuilderPlugins {
                 FrameDescriptor constantDescriptor = snippetReflection.asObject(FrameDescriptor.class, descriptor.asJavaConstant());
 
                 ValueNode nonNullArguments = b.add(new PiNode(args, StampFactory.objectNonNull(StampTool.typeReferenceOrNull(args))));
-                Class<?> frameClass = TruffleCompilerOptions.TruffleUseFrameWithoutBoxing.getValue() ? FrameWithoutBoxing.class : FrameWithBoxing.class;
+                Class<?> frameClass;
+                if (TruffleCompilerOptions.TruffleUseFrameWithoutBoxing.getValue()) {
+                    frameClass = TruffleCompilerOptions.TruffleUseCompactFrame.getValue() ? CompactFrameWithoutBoxing.class : FrameWithoutBoxing.class;
+                } else {
+                    frameClass = FrameWithBoxing.class;
+                }
                 NewFrameNode newFrame = new NewFrameNode(b.getMetaAccess(), snippetReflection, b.getGraph(), b.getMetaAccess().lookupJavaType(frameClass), constantDescriptor, descriptor,
                                 nonNullArguments);
                 b.addPush(JavaKind.Object, newFrame);
@@ -425,7 +432,16 @@ public class TruffleGraphBuilderPlugins {
     }
 
     public static void registerFrameWithoutBoxingPlugins(InvocationPlugins plugins, boolean canDelayIntrinsification, SnippetReflectionProvider snippetReflection) {
-        Registration r = new Registration(plugins, FrameWithoutBoxing.class);
+        registerFrameWithoutBoxingPlugins(plugins, FrameWithoutBoxing.class, canDelayIntrinsification, snippetReflection);
+    }
+
+    /**
+     * Registers the plugins for a frame class with the field and method layout of
+     * {@link FrameWithoutBoxing}, i.e., {@link FrameWithoutBoxing} or
+     * {@link CompactFrameWithoutBoxing}.
+     */
+    public static void registerFrameWithoutBoxingPlugins(InvocationPlugins plugins, Class<?> frameClass, boolean canDelayIntrinsification, SnippetReflectionProvider snippetReflection) {
+        Registration r = new Registration(plugins, frameClass);
         registerFrameMethods(r);
         registerUnsafeCast(r, canDelayIntrinsification);
         registerUnsafeLoadStorePlugins(r, JavaKind.Int, JavaKind.Long, JavaKind.Float, JavaKind.Double, JavaKind.Object);
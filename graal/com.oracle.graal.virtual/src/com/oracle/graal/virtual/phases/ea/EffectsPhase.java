@@ -27,6 +27,7 @@ import static com.oracle.graal.phases.common.DeadCodeEliminationPhase.Optionalit
 
 import java.util.Set;
 
+import com.oracle.graal.compiler.common.CompilationBudget;
 import com.oracle.graal.debug.Debug;
 import com.oracle.graal.debug.Debug.Scope;
 import com.oracle.graal.graph.Graph.NodeEventScope;
@@ -76,6 +77,7 @@ public abstract class EffectsPhase<PhaseContextT extends PhaseContext> extends B
         boolean changed = false;
         boolean stop = false;
         for (int iteration = 0; !stop && iteration < maxIterations; iteration++) {
+            CompilationBudget.check();
             try (Scope s = Debug.scope(isEnabled() ? "iteration " + iteration : null)) {
                 ScheduleResult schedule;
                 ControlFlowGraph cfg;